@@ -2,6 +2,8 @@ package com.example.backend.configuration;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,6 +43,29 @@ public class KafkaConfig {
 		return new KafkaTemplate<>(producerFactory());
 	}
 
+	/**
+	 * Producer cho payload đã mã hoá sẵn (JSON hoặc Smile, xem KafkaPayloadCodec).
+	 */
+	@Bean
+	public ProducerFactory<String, byte[]> payloadProducerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(
+				ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+				bootstrapServers);
+		configProps.put(
+				ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+				StringSerializer.class);
+		configProps.put(
+				ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+				ByteArraySerializer.class);
+		return new DefaultKafkaProducerFactory<>(configProps);
+	}
+
+	@Bean
+	public KafkaTemplate<String, byte[]> payloadKafkaTemplate() {
+		return new KafkaTemplate<>(payloadProducerFactory());
+	}
+
 	@Bean
 	public ConsumerFactory<String, String> consumerFactory() {
 		Map<String, Object> props = new HashMap<>();
@@ -59,6 +84,27 @@ public class KafkaConfig {
 		return new DefaultKafkaConsumerFactory<>(props);
 	}
 
+	/**
+	 * Consumer đọc payload dạng byte, giải mã theo header content-type (xem KafkaPayloadCodec).
+	 */
+	@Bean
+	public ConsumerFactory<String, byte[]> payloadConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+				bootstrapServers);
+		props.put(
+				ConsumerConfig.GROUP_ID_CONFIG,
+				consumerGroupId);
+		props.put(
+				ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+				StringDeserializer.class);
+		props.put(
+				ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+				ByteArrayDeserializer.class);
+		return new DefaultKafkaConsumerFactory<>(props);
+	}
+
 	@Bean
 	public ConcurrentKafkaListenerContainerFactory<String, String>
 	kafkaListenerContainerFactory() {
@@ -67,5 +113,13 @@ public class KafkaConfig {
 		factory.setConsumerFactory(consumerFactory());
 		return factory;
 	}
-}
 
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, byte[]>
+	payloadKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
+				new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(payloadConsumerFactory());
+		return factory;
+	}
+}
@@ -3,13 +3,21 @@ package com.example.backend.controller;
 import com.example.backend.dto.response.*;
 import com.example.backend.model.*;
 import com.example.backend.service.AdminService;
+import com.example.backend.service.DataExportService;
+import com.example.backend.model.enums.ExportDataset;
 import com.example.backend.model.enums.ReportType;
 import com.example.backend.model.enums.ReportStatus;
 import com.example.backend.dto.request.ResolveReportRequest;
+import com.example.backend.dto.request.AnnouncementRequest;
+import com.example.backend.dto.request.AdminListRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.Map;
 import org.springframework.security.core.Authentication;
@@ -23,10 +31,13 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 @PreAuthorize("hasAuthority('ADMIN')")
 public class AdminController {
     private final AdminService adminService;
+    private final DataExportService dataExportService;
 
     // User management
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getUsers() { return ResponseEntity.ok(adminService.getAllUsers()); }
+    public ResponseEntity<CursorPageResponse<UserResponse>> getUsers(AdminListRequest request) { return ResponseEntity.ok(adminService.getUsers(request)); }
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() { return export("users", adminService::exportUsers); }
     @GetMapping("/users/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable String id) { return ResponseEntity.ok(adminService.getUserById(id)); }
     @PutMapping("/users/{id}")
@@ -35,9 +46,11 @@ public class AdminController {
     public ResponseEntity<Void> deleteUser(@PathVariable String id) { adminService.deleteUser(id); return ResponseEntity.noContent().build(); }
     // Company management
     @GetMapping("/companies")
-    public ResponseEntity<List<RescueCompanyResponse>> getCompanies() {
-        return ResponseEntity.ok(adminService.getAllCompanies());
+    public ResponseEntity<CursorPageResponse<RescueCompanyResponse>> getCompanies(AdminListRequest request) {
+        return ResponseEntity.ok(adminService.getCompanies(request));
     }
+    @GetMapping("/companies/export")
+    public ResponseEntity<StreamingResponseBody> exportCompanies() { return export("companies", adminService::exportCompanies); }
     @GetMapping("/companies/{id}")
     public ResponseEntity<RescueCompany> getCompanyById(@PathVariable String id) { return ResponseEntity.ok(adminService.getCompanyById(id)); }
     @PutMapping("/companies/{id}")
@@ -46,7 +59,9 @@ public class AdminController {
     public ResponseEntity<Void> deleteCompany(@PathVariable String id) { adminService.deleteCompany(id); return ResponseEntity.noContent().build(); }
     // Invoice management
     @GetMapping("/invoices")
-    public ResponseEntity<List<InvoiceResponse>> getInvoices() { return ResponseEntity.ok(adminService.getAllInvoices()); }
+    public ResponseEntity<CursorPageResponse<InvoiceResponse>> getInvoices(AdminListRequest request) { return ResponseEntity.ok(adminService.getInvoices(request)); }
+    @GetMapping("/invoices/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices() { return export("invoices", adminService::exportInvoices); }
     @GetMapping("/invoices/{id}")
     public ResponseEntity<Invoice> getInvoiceById(@PathVariable String id) { return ResponseEntity.ok(adminService.getInvoiceById(id)); }
     @PutMapping("/invoices/{id}")
@@ -55,7 +70,9 @@ public class AdminController {
     public ResponseEntity<Void> deleteInvoice(@PathVariable String id) { adminService.deleteInvoice(id); return ResponseEntity.noContent().build(); }
     // Request management
     @GetMapping("/requests")
-    public ResponseEntity<List<RescueRequestResponse>> getRequests() { return ResponseEntity.ok(adminService.getAllRequests()); }
+    public ResponseEntity<CursorPageResponse<RescueRequestResponse>> getRequests(AdminListRequest request) { return ResponseEntity.ok(adminService.getRequests(request)); }
+    @GetMapping("/requests/export")
+    public ResponseEntity<StreamingResponseBody> exportRequests() { return export("requests", adminService::exportRequests); }
     @GetMapping("/requests/{id}")
     public ResponseEntity<RescueRequest> getRequestById(@PathVariable String id) { return ResponseEntity.ok(adminService.getRequestById(id)); }
     @PutMapping("/requests/{id}")
@@ -64,7 +81,9 @@ public class AdminController {
     public ResponseEntity<Void> deleteRequest(@PathVariable String id) { adminService.deleteRequest(id); return ResponseEntity.noContent().build(); }
     // Rating management (thay cho review)
     @GetMapping("/ratings")
-    public ResponseEntity<List<CompanyRatingResponse>> getRatings() { return ResponseEntity.ok(adminService.getAllRatings()); }
+    public ResponseEntity<CursorPageResponse<CompanyRatingResponse>> getRatings(AdminListRequest request) { return ResponseEntity.ok(adminService.getRatings(request)); }
+    @GetMapping("/ratings/export")
+    public ResponseEntity<StreamingResponseBody> exportRatings() { return export("ratings", adminService::exportRatings); }
     @DeleteMapping("/ratings/{id}")
     public ResponseEntity<Void> deleteRating(@PathVariable String id) { adminService.deleteRating(id); return ResponseEntity.noContent().build(); }
     // Keyword management
@@ -123,9 +142,11 @@ public class AdminController {
     @GetMapping("/filter/ratings")
     public ResponseEntity<List<CompanyRatingResponse>> filterRatingsByKeyword(@RequestParam String keyword) { return ResponseEntity.ok(adminService.findRatingsByKeyword(keyword)); }
     @GetMapping("/vehicles")
-    public ResponseEntity<List<RescueVehicleResponse>> getVehicles() {
-        return ResponseEntity.ok(adminService.getAllVehicles());
+    public ResponseEntity<CursorPageResponse<RescueVehicleResponse>> getVehicles(AdminListRequest request) {
+        return ResponseEntity.ok(adminService.getVehicles(request));
     }
+    @GetMapping("/vehicles/export")
+    public ResponseEntity<StreamingResponseBody> exportVehicles() { return export("vehicles", adminService::exportVehicles); }
     @GetMapping("/vehicles/{id}")
     public ResponseEntity<RescueVehicleResponse> getVehicleById(@PathVariable String id) {
         return ResponseEntity.ok(adminService.getVehicleById(id));
@@ -135,6 +156,15 @@ public class AdminController {
         adminService.deleteVehicle(id);
         return ResponseEntity.noContent().build();
     }
+    // CSV nén gzip cho phân tích offline: requests, invoices, ratings, dispatches
+    @GetMapping("/exports/{dataset}")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable String dataset) {
+        ExportDataset exportDataset = ExportDataset.from(dataset);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/gzip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportDataset.fileName() + "\"")
+            .body(out -> dataExportService.writeCsv(exportDataset, out));
+    }
     // Statistics endpoints
     @GetMapping("/report/request-stats")
     public ResponseEntity<Map<String, Object>> getRequestStats(
@@ -165,11 +195,38 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getTopRatedServices(timeRange));
     }
 
+    @GetMapping("/report/active-users")
+    public ResponseEntity<Map<String, Object>> getActiveUserStats() {
+        return ResponseEntity.ok(adminService.getActiveUserStats());
+    }
+
+    @GetMapping("/report/top-requested-services")
+    public ResponseEntity<Map<String, Object>> getTopRequestedServices(
+        @RequestParam(defaultValue = "month") String timeRange,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(adminService.getTopRequestedServices(timeRange, limit));
+    }
+
+    @GetMapping("/report/price-distribution")
+    public ResponseEntity<Map<String, Object>> getPriceDistribution(
+        @RequestParam(defaultValue = "month") String timeRange,
+        @RequestParam(defaultValue = "final") String kind
+    ) {
+        return ResponseEntity.ok(adminService.getPriceDistribution(timeRange, kind));
+    }
+
     @GetMapping("/online-users")
     public ResponseEntity<List<String>> getOnlineUsers() {
         return ResponseEntity.ok(adminService.getOnlineUsers());
     }
 
+    // Announcements
+    @PostMapping("/announcements")
+    public ResponseEntity<Map<String, Object>> sendAnnouncement(@Valid @RequestBody AnnouncementRequest request) {
+        return ResponseEntity.accepted().body(adminService.sendAnnouncement(request));
+    }
+
     // Service deletion requests
     @GetMapping("/service-deletion-requests")
     public ResponseEntity<List<RescueServiceDeletionResponse>> getServiceDeletionRequests() {
@@ -181,10 +238,11 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getServiceDeletionRequestById(id));
     }
 
+    // Xoá dịch vụ chạy nền; theo dõi tiến độ qua GET /service-deletion-requests/{id}
     @PostMapping("/service-deletion-requests/{id}/approve")
     public ResponseEntity<RescueServiceDeletionResponse> approveServiceDeletion(
             @PathVariable String id) {
-        return ResponseEntity.ok(adminService.approveServiceDeletion(id));
+        return ResponseEntity.accepted().body(adminService.approveServiceDeletion(id));
     }
 
     @PostMapping("/service-deletion-requests/{id}/reject")
@@ -193,4 +251,12 @@ public class AdminController {
             @RequestParam String reason) {
         return ResponseEntity.ok(adminService.rejectServiceDeletion(id, reason));
     }
-} 
\ No newline at end of file
+
+    // Ghi dữ liệu xuất trực tiếp ra response, không dựng toàn bộ danh sách trong bộ nhớ
+    private ResponseEntity<StreamingResponseBody> export(String name, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".json\"")
+            .body(body);
+    }
+}
@@ -3,12 +3,14 @@ package com.example.backend.controller;
 import com.example.backend.dto.request.MessageRequest;
 import com.example.backend.dto.response.ConversationResponse;
 import com.example.backend.dto.response.MessageCursorResponse;
+import com.example.backend.dto.response.MessageSearchResponse;
 import com.example.backend.model.Message;
 import com.example.backend.model.RescueCompany;
 import com.example.backend.model.User;
 import com.example.backend.model.enums.MessageSender;
 import com.example.backend.repository.RescueCompanyRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.ChatSearchService;
 import com.example.backend.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +21,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +46,7 @@ import java.util.Map;
 public class ChatController {
 
 	private final ChatService chatService;
+	private final ChatSearchService chatSearchService;
 	private final UserRepository userRepository;
 	private final RescueCompanyRepository rescueCompanyRepository;
 
@@ -254,6 +258,51 @@ public class ChatController {
 		return ResponseEntity.ok(response);
 	}
 
+	/**
+	 * Searches the chat history of the authenticated user or rescue company.
+	 * Results are ranked by relevance and scoped to the caller's own conversations.
+	 *
+	 * @param query          The free-text query (accented or unaccented Vietnamese).
+	 * @param conversationId Optional conversation ID to narrow the search.
+	 * @param limit          Maximum number of hits (default 20, maximum 100).
+	 * @param authentication The authentication object containing user details.
+	 * @return A ResponseEntity containing a MessageSearchResponse with highlighted snippets.
+	 * @throws RuntimeException if the user is not found.
+	 */
+	@GetMapping("/search")
+	@Operation(summary = "Search chat history",
+			description = "Full-text search over messages in the conversations of the authenticated user or rescue company.",
+			security = @SecurityRequirement(name = "bearerAuth"))
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully searched messages",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = MessageSearchResponse.class))),
+			@ApiResponse(responseCode = "400", description = "Empty query or invalid limit")
+	})
+	public ResponseEntity<MessageSearchResponse> searchMessages(
+			@Parameter(description = "Search query", required = true)
+			@RequestParam("q") String query,
+			@Parameter(description = "Conversation ID to search in (optional)")
+			@RequestParam(required = false) String conversationId,
+			@Parameter(description = "Number of hits to retrieve (default 20)")
+			@RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit,
+			Authentication authentication) {
+		log.debug("Searching messages for user: {}, query: {}, conversationId: {}", authentication.getName(), query, conversationId);
+
+		// Retrieve the authenticated user
+		User currentUser = userRepository.findByUsername(authentication.getName())
+				.orElseThrow(() -> new RuntimeException("User not found with username: " + authentication.getName()));
+
+		// Scope the search to the caller's conversations
+		RescueCompany rescueCompany = rescueCompanyRepository.findByUserId(currentUser.getId()).orElse(null);
+		MessageSearchResponse response = rescueCompany != null
+				? chatSearchService.searchForCompany(rescueCompany.getId(), conversationId, query, limit)
+				: chatSearchService.searchForUser(currentUser.getId(), conversationId, query, limit);
+
+		log.info("Search returned {} hits for user ID: {}", response.getHits().size(), currentUser.getId());
+		return ResponseEntity.ok(response);
+	}
+
 	/**
 	 * Sends a message from a user to a rescue company.
 	 *
@@ -2,6 +2,7 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.request.RescueCompanyRequest;
 import com.example.backend.dto.response.RescueCompanyResponse;
+import com.example.backend.service.CompanyAnalyticsService;
 import com.example.backend.service.RescueCompanyService;
 import com.example.backend.utils.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,10 +16,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/rescue-companies")
@@ -27,6 +30,7 @@ import java.util.List;
 public class RescueCompanyController {
 
 	private final RescueCompanyService rescueCompanyService;
+	private final CompanyAnalyticsService companyAnalyticsService;
 	private final JwtUtil jwtUtil;
 
 	@Operation(summary = "Tạo công ty cứu hộ mới",
@@ -134,4 +138,40 @@ public class RescueCompanyController {
 			.build();
 		return ResponseEntity.ok(basic);
 	}
-}
\ No newline at end of file
+
+	@Operation(summary = "Thống kê hiệu suất của công ty tôi",
+			description = "Tỷ lệ nhận yêu cầu, thời gian điều xe và đến nơi, phân bố thời gian hoàn thành, doanh thu và "
+					+ "tỷ lệ sử dụng xe của công ty do người dùng hiện tại quản lý. timeRange: day, week, month, year",
+			security = @SecurityRequirement(name = "bearerAuth"))
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Lấy thống kê thành công"),
+			@ApiResponse(responseCode = "404", description = "Người dùng không quản lý công ty nào"),
+			@ApiResponse(responseCode = "401", description = "Chưa xác thực")
+	})
+	@GetMapping("/my-company/analytics")
+	@PreAuthorize("hasAuthority('COMPANY')")
+	public ResponseEntity<Map<String, Object>> getMyCompanyAnalytics(
+			@RequestParam(defaultValue = "month") String timeRange,
+			HttpServletRequest servletRequest) {
+		String token = jwtUtil.extractTokenFromHeader(servletRequest.getHeader("Authorization"));
+		String userId = jwtUtil.extractUserId(token);
+		return ResponseEntity.ok(companyAnalyticsService.getAnalyticsForManager(userId, timeRange));
+	}
+
+	@Operation(summary = "Thống kê hiệu suất của công ty cứu hộ theo ID",
+			description = "Như /my-company/analytics nhưng cho một công ty bất kỳ. Chỉ dành cho quản trị viên.",
+			security = @SecurityRequirement(name = "bearerAuth"))
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Lấy thống kê thành công"),
+			@ApiResponse(responseCode = "404", description = "Không tìm thấy công ty"),
+			@ApiResponse(responseCode = "401", description = "Chưa xác thực")
+	})
+	@GetMapping("/{id}/analytics")
+	@PreAuthorize("hasAuthority('ADMIN')")
+	public ResponseEntity<Map<String, Object>> getCompanyAnalytics(
+			@Parameter(description = "ID của công ty cứu hộ", required = true)
+			@PathVariable String id,
+			@RequestParam(defaultValue = "month") String timeRange) {
+		return ResponseEntity.ok(companyAnalyticsService.getCompanyAnalytics(id, timeRange));
+	}
+}
@@ -2,8 +2,10 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.request.RescueVehicleRequest;
 import com.example.backend.dto.request.VehicleStatusRequest;
+import com.example.backend.dto.response.FleetOverviewResponse;
 import com.example.backend.dto.response.RescueVehicleResponse;
 import com.example.backend.model.enums.RescueEquipment;
+import com.example.backend.model.enums.RescueVehicleStatus;
 import com.example.backend.service.RescueVehicleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -128,8 +130,26 @@ public class RescueVehicleController {
 							array = @ArraySchema(schema = @Schema(implementation = RescueVehicleResponse.class))))
 	})
 	@GetMapping("/company/{companyId}")
-	public List<RescueVehicleResponse> getByCompany(@PathVariable String companyId) {
-		return vehicleService.getByCompany(companyId);
+	public List<RescueVehicleResponse> getByCompany(
+			@PathVariable String companyId,
+			@Parameter(description = "Chỉ lấy xe ở trạng thái này")
+			@RequestParam(required = false) RescueVehicleStatus status) {
+		return status != null
+				? vehicleService.getByCompanyAndStatus(companyId, status)
+				: vehicleService.getByCompany(companyId);
+	}
+
+	@Operation(summary = "Tổng quan đội xe của công ty",
+			description = "Số xe theo từng trạng thái và các xe sắp đến hạn hoặc đã quá hạn bảo trì",
+			security = @SecurityRequirement(name = "bearerAuth"))
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Lấy tổng quan thành công",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = FleetOverviewResponse.class)))
+	})
+	@GetMapping("/company/{companyId}/overview")
+	public FleetOverviewResponse getFleetOverview(@PathVariable String companyId) {
+		return vehicleService.getFleetOverview(companyId);
 	}
 
 	@PutMapping("/{id}/status")
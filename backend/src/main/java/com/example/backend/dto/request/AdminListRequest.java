@@ -0,0 +1,37 @@
+package com.example.backend.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tham số phân trang keyset, sắp xếp và lọc cho các danh sách trong trang quản trị.
+ * Mỗi danh sách chỉ dùng các bộ lọc phù hợp với nó, các tham số khác bị bỏ qua.
+ */
+@Data
+public class AdminListRequest {
+	// nextCursor của trang trước; để trống để lấy trang đầu. Cursor chỉ hợp lệ với cùng sort/direction
+	private String cursor;
+	private Integer limit;
+	// Trường sắp xếp, mặc định createdAt
+	private String sort;
+	// asc hoặc desc, mặc định desc
+	private String direction;
+
+	// Tìm theo từ khoá: username/name/email (users), name (companies), comment (ratings)
+	private String q;
+	// Trạng thái: InvoiceStatus, RescueRequestStatus hoặc RescueVehicleStatus tuỳ danh sách
+	private String status;
+	private String role;
+	private String city;
+	private String companyId;
+	private String serviceId;
+	private Integer stars;
+
+	// Khoảng thời gian tạo [from, to)
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime from;
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime to;
+}
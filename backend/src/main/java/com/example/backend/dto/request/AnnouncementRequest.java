@@ -0,0 +1,39 @@
+package com.example.backend.dto.request;
+
+import com.example.backend.model.enums.AnnouncementTarget;
+import com.example.backend.model.enums.UserRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnnouncementRequest {
+	@NotNull(message = "Target is required")
+	private AnnouncementTarget target;
+
+	// target = ROLE
+	private Set<UserRole> roles;
+
+	// target = COMPANY
+	private List<String> companyIds;
+
+	// target = REGION: thành phố trong địa chỉ công ty cứu hộ
+	private String city;
+
+	// target = USERS
+	private List<String> userIds;
+
+	private String title;
+
+	@NotBlank(message = "Content is required")
+	private String content;
+}
@@ -0,0 +1,19 @@
+package com.example.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+	private List<T> items;
+	// null khi đã tới trang cuối
+	private String nextCursor;
+	private boolean hasNext;
+}
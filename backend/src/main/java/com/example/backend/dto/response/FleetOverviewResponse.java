@@ -0,0 +1,23 @@
+package com.example.backend.dto.response;
+
+import com.example.backend.model.enums.RescueVehicleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetOverviewResponse {
+	private String companyId;
+	private Long totalVehicles;
+	private Map<RescueVehicleStatus, Long> countsByStatus; // Mọi trạng thái đều có mặt, kể cả khi bằng 0
+	private LocalDateTime maintenanceDueBefore;
+	private List<RescueVehicleResponse> upcomingMaintenance; // Sắp đến hạn hoặc đã quá hạn bảo trì, gần nhất trước
+}
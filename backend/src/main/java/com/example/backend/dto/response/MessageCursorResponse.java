@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Data
@@ -18,9 +19,13 @@ public class MessageCursorResponse {
 	private String nextCursor;
 
 	public static MessageCursorResponse fromEntities(List<Message> messages, String nextCursor) {
+		return fromEntities(messages, nextCursor, Message::isRead);
+	}
+
+	public static MessageCursorResponse fromEntities(List<Message> messages, String nextCursor, Predicate<Message> isRead) {
 		return MessageCursorResponse.builder()
 				.messages(messages.stream()
-						.map(MessageResponse::fromEntity)
+						.map(message -> MessageResponse.fromEntity(message, isRead.test(message)))
 						.collect(Collectors.toList()))
 				.nextCursor(nextCursor)
 				.build();
@@ -16,17 +16,24 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class MessageResponse {
 	private String id;
+	// ID do notification-service cấp khi tin nhắn được giao qua WebSocket; khớp với id của bản đã giao
+	private String deliveryId;
 	private String content;
 	private MessageSender senderType;
 	private boolean isRead;
 	private LocalDateTime sentAt;
 
 	public static MessageResponse fromEntity(Message message) {
+		return fromEntity(message, message.isRead());
+	}
+
+	public static MessageResponse fromEntity(Message message, boolean read) {
 		return MessageResponse.builder()
 				.id(message.getId())
+				.deliveryId(message.getDeliveryId())
 				.content(message.getContent())
 				.senderType(message.getSenderType())
-				.isRead(message.isRead())
+				.isRead(read)
 				.sentAt(message.getSentAt())
 				.build();
 	}
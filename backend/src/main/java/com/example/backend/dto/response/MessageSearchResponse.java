@@ -0,0 +1,41 @@
+package com.example.backend.dto.response;
+
+import com.example.backend.model.enums.MessageSender;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for chat history search results.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResponse {
+
+	private String query;
+	private long totalHits;
+	private List<MessageSearchHit> hits;
+
+	/**
+	 * DTO for a single ranked search hit.
+	 */
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class MessageSearchHit {
+		private String messageId;
+		private String conversationId;
+		private MessageSender senderType;
+		private LocalDateTime sentAt;
+		private String content;
+		private String highlightedSnippet; // Đoạn trích với từ khoá được bọc trong <mark></mark>
+		private float score;
+	}
+}
@@ -18,4 +18,9 @@ public class RescueServiceDeletionResponse {
     private Status status;
     private LocalDateTime createdAt;
     private LocalDateTime processedAt;
+    private Long totalRequests;
+    private Long detachedRequests;
+    private Long totalRatings;
+    private Long deletedRatings;
+    private String errorMessage;
 }
\ No newline at end of file
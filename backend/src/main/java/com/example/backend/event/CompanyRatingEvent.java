@@ -0,0 +1,23 @@
+package com.example.backend.event;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CompanyRatingEvent {
+	String ratingId;
+	String serviceId;
+	String companyId;
+	// null khi đánh giá vừa được tạo
+	Integer previousStars;
+	// null khi đánh giá bị xoá
+	Integer stars;
+	LocalDateTime createdAt;
+	LocalDateTime occurredAt;
+}
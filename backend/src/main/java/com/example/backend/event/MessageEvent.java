@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class MessageEvent {
+	// ID do notification-service cấp cho tin nhắn (deliveryId)
+	String id;
 	String content;
 	String conversationId;
 	String rescueCompanyId;
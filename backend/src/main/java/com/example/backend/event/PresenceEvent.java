@@ -0,0 +1,19 @@
+package com.example.backend.event;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PresenceEvent {
+	String userId;
+	boolean online;
+	// Tăng dần theo từng user (cấp trong Redis cùng lúc với thay đổi trạng thái), để bỏ qua sự kiện đến trễ
+	long version;
+	LocalDateTime updatedAt;
+}
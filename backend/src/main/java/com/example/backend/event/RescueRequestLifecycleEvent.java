@@ -0,0 +1,24 @@
+package com.example.backend.event;
+
+import com.example.backend.model.enums.RescueRequestStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RescueRequestLifecycleEvent {
+	String requestId;
+	String serviceId;
+	String companyId;
+	// null khi yêu cầu vừa được tạo
+	RescueRequestStatus previousStatus;
+	// null khi yêu cầu bị xoá
+	RescueRequestStatus status;
+	LocalDateTime createdAt;
+	LocalDateTime occurredAt;
+}
@@ -0,0 +1,10 @@
+package com.example.backend.event.enums;
+
+public enum BroadcastTarget {
+	// Tất cả người dùng đang online
+	ALL,
+	// Người dùng online có ít nhất một trong các role được chọn
+	ROLE,
+	// Danh sách người dùng cụ thể (người offline được lưu vào inbox)
+	USERS
+}
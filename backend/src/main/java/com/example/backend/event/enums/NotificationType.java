@@ -16,5 +16,6 @@ public enum NotificationType {
 	REPAIR_STARTED,
 	REPAIR_COMPLETED,
 	PASSWORD_RESET,
-	CHAT
+	CHAT,
+	ANNOUNCEMENT
 }
@@ -0,0 +1,57 @@
+package com.example.backend.job;
+
+import com.example.backend.model.enums.ExportDataset;
+import com.example.backend.service.DataExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Xuất dữ liệu vận hành ra file CSV nén gzip từ dòng lệnh rồi thoát, ví dụ:
+ * <pre>
+ * java -jar backend.jar --spring.main.web-application-type=none --export.job.enabled=true \
+ *     --export.job.datasets=requests,invoices --export.job.directory=/data/exports
+ * </pre>
+ * Chạy lại cùng lệnh sau khi bị ngắt giữa chừng sẽ tiếp tục từ checkpoint cuối cùng của từng dataset.
+ * Mã thoát khác 0 nếu có dataset xuất lỗi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "export.job.enabled", havingValue = "true")
+public class DataExportJob implements ApplicationRunner {
+
+	private final DataExportService dataExportService;
+	private final ConfigurableApplicationContext context;
+
+	@Value("${export.job.datasets:requests,invoices,ratings,dispatches}")
+	private List<String> datasets;
+
+	@Value("${export.job.directory:./data/exports}")
+	private String directory;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		int exitCode = 0;
+		for (String dataset : datasets) {
+			try {
+				long rows = dataExportService.exportToFile(ExportDataset.from(dataset), Paths.get(directory));
+				log.info("Export job finished {}: {} rows written", dataset, rows);
+			} catch (Exception e) {
+				log.error("Export job failed for {}", dataset, e);
+				exitCode = 1;
+			}
+		}
+		int code = exitCode;
+		System.exit(SpringApplication.exit(context, () -> code));
+	}
+}
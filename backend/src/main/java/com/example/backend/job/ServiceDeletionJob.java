@@ -0,0 +1,206 @@
+package com.example.backend.job;
+
+import com.example.backend.model.RescueServiceDeletionRequest.Status;
+import com.example.backend.repository.CompanyRatingRepository;
+import com.example.backend.repository.RescueRequestRepository;
+import com.example.backend.repository.RescueServiceDeletionRequestRepository;
+import com.example.backend.repository.RescueServiceRepository;
+import com.example.backend.service.RealtimeStatsService;
+import com.example.backend.service.StatsRollupService;
+import com.example.backend.utils.DashboardCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Xoá dịch vụ cứu hộ ở nền sau khi yêu cầu xoá được duyệt.
+ * Yêu cầu cứu hộ được gỡ khỏi dịch vụ và đánh giá bị xoá bằng câu lệnh UPDATE/DELETE theo lô
+ * (admin.service-deletion.chunk-size dòng), mỗi lô một transaction ngắn nên không giữ khoá lâu.
+ * Tiến độ được ghi vào yêu cầu xoá sau mỗi lô. Các bước đều lặp lại được, nên job bị ngắt (ứng dụng dừng)
+ * sẽ chạy tiếp khi khởi động lại, còn job lỗi có thể được duyệt lại.
+ * Mọi thay đổi trên yêu cầu xoá đều là UPDATE có điều kiện status = PROCESSING: nếu hai lần chạy cùng một
+ * yêu cầu chồng lên nhau, lần kết thúc sau không ghi đè kết quả (APPROVED/FAILED) của lần kết thúc trước.
+ * DELETE theo lô không phát sự kiện đánh giá và không để lại updatedAt, nên sau khi xoá xong job tự tính lại rollup
+ * của các ngày có đánh giá bị xoá và nạp lại bộ đếm realtime.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceDeletionJob {
+
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	private final RescueServiceDeletionRequestRepository deletionRequestRepository;
+	private final RescueRequestRepository rescueRequestRepository;
+	private final CompanyRatingRepository companyRatingRepository;
+	private final RescueServiceRepository rescueServiceRepository;
+	private final StatsRollupService statsRollupService;
+	private final RealtimeStatsService realtimeStatsService;
+	private final DashboardCache dashboardCache;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${admin.service-deletion.chunk-size:1000}")
+	private int chunkSize;
+
+	private ExecutorService executor;
+
+	@PostConstruct
+	public void init() {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "service-deletion");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Resumes deletions interrupted by a shutdown.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void resumeInterrupted() {
+		deletionRequestRepository.findByStatus(Status.PROCESSING).forEach(request -> {
+			log.info("Resuming service deletion for request {}", request.getId());
+			submit(request.getId());
+		});
+	}
+
+	/**
+	 * Queues the deletion of the request's service. Inside a transaction the job starts only after commit,
+	 * so it always sees the request in PROCESSING.
+	 */
+	public void submit(String requestId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					executor.execute(() -> run(requestId));
+				}
+			});
+		} else {
+			executor.execute(() -> run(requestId));
+		}
+	}
+
+	private void run(String requestId) {
+		long startedAt = System.currentTimeMillis();
+		try {
+			String serviceId = transactionTemplate.execute(status -> deletionRequestRepository.findById(requestId)
+					.filter(request -> request.getStatus() == Status.PROCESSING)
+					.map(request -> request.getService() != null ? request.getService().getId() : null)
+					.orElse(null));
+			if (serviceId == null) {
+				log.warn("Service deletion request {} is not processing or has no service, skipping", requestId);
+				return;
+			}
+
+			// Ngày tạo của các đánh giá sắp bị xoá; hôm nay cho các đánh giá phát sinh trong lúc chạy
+			TreeSet<LocalDate> ratingDays = new TreeSet<>(companyRatingRepository.findCreatedDaysByServiceId(serviceId));
+			ratingDays.add(LocalDate.now());
+
+			int detached;
+			do {
+				detached = transactionTemplate.execute(status -> {
+					int count = rescueRequestRepository.detachFromService(serviceId, LocalDateTime.now(), chunkSize);
+					return recordProgress(requestId, count, 0, status) ? count : -1;
+				});
+			} while (detached == chunkSize);
+
+			int deleted = detached < 0 ? -1 : chunkSize;
+			while (deleted == chunkSize) {
+				deleted = transactionTemplate.execute(status -> {
+					int count = companyRatingRepository.deleteByServiceIdLimited(serviceId, chunkSize);
+					return recordProgress(requestId, 0, count, status) ? count : -1;
+				});
+			}
+			if (deleted < 0) {
+				log.info("Service deletion request {} was finished by another run, stopping", requestId);
+				return;
+			}
+
+			// Bước cuối gỡ nốt các dòng phát sinh trong lúc chạy rồi xoá dịch vụ
+			Boolean approved = transactionTemplate.execute(status -> {
+				// Chuyển trạng thái trước tiên để khoá dòng yêu cầu: lần chạy song song sẽ chờ rồi thấy 0 dòng
+				if (deletionRequestRepository.transition(requestId, Status.PROCESSING, Status.APPROVED,
+						null, LocalDateTime.now()) == 0) {
+					return false;
+				}
+				int lateRequests = rescueRequestRepository.detachFromService(serviceId, LocalDateTime.now(), Integer.MAX_VALUE);
+				int lateRatings = companyRatingRepository.deleteByServiceIdLimited(serviceId, Integer.MAX_VALUE);
+				deletionRequestRepository.addProgress(requestId, Status.APPROVED, lateRequests, lateRatings);
+				deletionRequestRepository.detachFromService(serviceId);
+				rescueServiceRepository.deleteById(serviceId);
+				return true;
+			});
+			if (!Boolean.TRUE.equals(approved)) {
+				log.info("Service deletion request {} was finished by another run, stopping", requestId);
+				return;
+			}
+			refreshStatistics(requestId, ratingDays);
+			dashboardCache.invalidateAll();
+			log.info("Service {} deleted for request {} in {} ms", serviceId, requestId,
+					System.currentTimeMillis() - startedAt);
+		} catch (Exception e) {
+			log.error("Service deletion failed for request {}", requestId, e);
+			String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+			String errorMessage = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+			try {
+				Integer failed = transactionTemplate.execute(status -> deletionRequestRepository.transition(
+						requestId, Status.PROCESSING, Status.FAILED, errorMessage, LocalDateTime.now()));
+				if (failed == null || failed == 0) {
+					log.warn("Service deletion request {} is no longer processing, keeping its current status", requestId);
+				}
+			} catch (Exception statusError) {
+				log.error("Could not mark service deletion request {} as failed", requestId, statusError);
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the rollups of the days whose ratings were deleted, and of the detached requests picked up by
+	 * the incremental refresh, then reloads the realtime counters from them. Failures are only logged:
+	 * the deletion itself is complete and the nightly rebuild corrects the statistics.
+	 */
+	private void refreshStatistics(String requestId, Collection<LocalDate> ratingDays) {
+		try {
+			statsRollupService.refresh(ratingDays);
+			if (realtimeStatsService.isReady()) {
+				realtimeStatsService.reload();
+			}
+		} catch (Exception e) {
+			log.error("Could not refresh statistics after service deletion for request {}", requestId, e);
+		}
+	}
+
+	/**
+	 * Adds a chunk to the progress counters. If the request is no longer PROCESSING (another run finished it),
+	 * the chunk's transaction is rolled back and false is returned so the run stops.
+	 */
+	private boolean recordProgress(String requestId, long detached, long deleted, TransactionStatus status) {
+		if (deletionRequestRepository.addProgress(requestId, Status.PROCESSING, detached, deleted) > 0) {
+			return true;
+		}
+		status.setRollbackOnly();
+		return false;
+	}
+}
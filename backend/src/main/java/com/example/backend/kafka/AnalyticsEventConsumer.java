@@ -0,0 +1,64 @@
+package com.example.backend.kafka;
+
+import com.example.backend.event.CompanyRatingEvent;
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import com.example.backend.service.RealtimeStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Consumer cập nhật thống kê thời gian thực từ sự kiện vòng đời yêu cầu cứu hộ và đánh giá.
+ * <p>
+ * Mỗi instance backend dùng consumer group riêng, cố định theo kafka.instance-id (mặc định hostname), để có đủ
+ * mọi partition mà không sinh group mới sau mỗi lần khởi động. Khi được gán partition, consumer
+ * tiếp tục ngay sau offset đã lưu trong snapshot; nếu không có snapshot thì đọc từ cuối topic
+ * (bộ đếm được nạp từ bảng rollup).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsEventConsumer implements ConsumerSeekAware {
+
+	private final KafkaPayloadCodec payloadCodec;
+	private final RealtimeStatsService realtimeStatsService;
+
+	@Override
+	public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+		assignments.keySet().forEach(partition -> {
+			Long next = realtimeStatsService.getNextOffset(partition.topic(), partition.partition());
+			if (next != null) {
+				callback.seek(partition.topic(), partition.partition(), next);
+			} else {
+				callback.seekToEnd(partition.topic(), partition.partition());
+			}
+		});
+	}
+
+	@KafkaListener(
+			topics = {AnalyticsEventProducer.REQUEST_TOPIC, AnalyticsEventProducer.RATING_TOPIC},
+			containerFactory = "payloadKafkaListenerContainerFactory",
+			groupId = "backend-analytics-#{'${kafka.instance-id:}' ?: T(java.net.InetAddress).getLocalHost().getHostName()}",
+			autoStartup = "${stats.realtime.enabled:true}"
+	)
+	public void handleAnalyticsEvent(ConsumerRecord<String, byte[]> record) {
+		try {
+			if (AnalyticsEventProducer.REQUEST_TOPIC.equals(record.topic())) {
+				RescueRequestLifecycleEvent event = payloadCodec.decode(record.value(), record.headers(), RescueRequestLifecycleEvent.class);
+				realtimeStatsService.applyRequestEvent(event, record.topic(), record.partition(), record.offset());
+			} else {
+				CompanyRatingEvent event = payloadCodec.decode(record.value(), record.headers(), CompanyRatingEvent.class);
+				realtimeStatsService.applyRatingEvent(event, record.topic(), record.partition(), record.offset());
+			}
+		} catch (Exception e) {
+			// Bỏ qua bản ghi lỗi; sai lệch được đối soát khi nạp lại từ rollup
+			log.error("Failed to apply analytics event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+		}
+	}
+}
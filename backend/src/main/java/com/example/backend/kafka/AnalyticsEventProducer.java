@@ -0,0 +1,67 @@
+package com.example.backend.kafka;
+
+import com.example.backend.event.CompanyRatingEvent;
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+
+/**
+ * Phát sự kiện vòng đời của yêu cầu cứu hộ và đánh giá cho luồng thống kê thời gian thực.
+ * Trong transaction, sự kiện chỉ được gửi sau khi commit để không đếm các thay đổi bị rollback.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsEventProducer {
+
+	public static final String REQUEST_TOPIC = "rescue-request-lifecycle-topic";
+	public static final String RATING_TOPIC = "company-rating-topic";
+
+	private final KafkaTemplate<String, byte[]> payloadKafkaTemplate;
+	private final KafkaPayloadCodec payloadCodec;
+
+	public void sendRequestEvent(RescueRequestLifecycleEvent event) {
+		sendAfterCommit(REQUEST_TOPIC, event.getRequestId(), event);
+	}
+
+	public void sendRatingEvent(CompanyRatingEvent event) {
+		sendAfterCommit(RATING_TOPIC, event.getRatingId(), event);
+	}
+
+	private void sendAfterCommit(String topic, String key, Object event) {
+		ProducerRecord<String, byte[]> record;
+		try {
+			record = payloadCodec.toRecord(topic, key, event);
+		} catch (IOException e) {
+			log.error("❌ Failed to serialize analytics event for topic {}", topic, e);
+			return;
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					send(record);
+				}
+			});
+		} else {
+			send(record);
+		}
+	}
+
+	private void send(ProducerRecord<String, byte[]> record) {
+		try {
+			payloadKafkaTemplate.send(record);
+		} catch (Exception e) {
+			// Thống kê thời gian thực được đối soát lại từ bảng rollup mỗi đêm
+			log.warn("Failed to send analytics event to {}: {}", record.topic(), e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.example.backend.kafka;
+
+import com.example.backend.event.BroadcastEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastEventProducer {
+
+	private final KafkaTemplate<String, byte[]> payloadKafkaTemplate;
+	private final KafkaPayloadCodec payloadCodec;
+
+	private static final String TOPIC = "notification-broadcast-topic";
+
+	public void sendBroadcastEvent(BroadcastEvent event) {
+		try {
+			payloadKafkaTemplate.send(payloadCodec.toRecord(TOPIC, event.getBroadcastId(), event));
+		} catch (IOException e) {
+			log.error("❌ Failed to serialize BroadcastEvent", e);
+		}
+	}
+}
@@ -4,9 +4,9 @@ import com.example.backend.event.MessageEvent;
 import com.example.backend.model.Message;
 import com.example.backend.model.enums.MessageSender;
 import com.example.backend.service.ChatService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.RetryableTopic;
 import org.springframework.kafka.retrytopic.DltStrategy;
@@ -21,31 +21,32 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class MessageEventConsumer {
 
-	private final ObjectMapper objectMapper;
+	private final KafkaPayloadCodec payloadCodec;
 	private final ChatService chatService;
 
 	/**
 	 * Phương thức lắng nghe sự kiện tin nhắn chat mới từ Kafka.
 	 * Sử dụng RetryableTopic để tự động thử lại khi xảy ra lỗi.
 	 *
-	 * @param message Tin nhắn dạng chuỗi JSON nhận được từ Kafka
+	 * @param record Bản ghi Kafka, payload dạng JSON hoặc Smile tuỳ header content-type
 	 */
 	@RetryableTopic(
 			attempts = "4",
 			backoff = @Backoff(delay = 1000, multiplier = 2),
 			autoCreateTopics = "true",
 			dltStrategy = DltStrategy.FAIL_ON_ERROR,
-			include = {Exception.class}
+			include = {Exception.class},
+			kafkaTemplate = "payloadKafkaTemplate"
 	)
 	@KafkaListener(
 			topics = "chat-message-topic",
-			containerFactory = "kafkaListenerContainerFactory",
+			containerFactory = "payloadKafkaListenerContainerFactory",
 			groupId = "chat-service-group"
 	)
-	public void consumeNewChatMessage(String message) {
+	public void consumeNewChatMessage(ConsumerRecord<String, byte[]> record) {
 		try {
-			log.info("Received new chat message: {}", message);
-			MessageEvent chatMessage = objectMapper.readValue(message, MessageEvent.class);
+			MessageEvent chatMessage = payloadCodec.decode(record.value(), record.headers(), MessageEvent.class);
+			log.info("Received new chat message: {}", chatMessage);
 			handleChatMessage(chatMessage);
 		} catch (Exception e) {
 			log.error("Error processing chat message: ", e);
@@ -65,7 +66,9 @@ public class MessageEventConsumer {
 				chatMessage.getUserId(),
 				chatMessage.getRescueCompanyId(),
 				chatMessage.getContent(),
-				MessageSender.valueOf(chatMessage.getSenderType())
+				MessageSender.valueOf(chatMessage.getSenderType()),
+				chatMessage.getId(),
+				chatMessage.getSentAt()
 		);
 	}
 }
\ No newline at end of file
@@ -1,28 +1,27 @@
 package com.example.backend.kafka;
 
 import com.example.backend.event.NotificationEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationEventProducer {
 
-	private final KafkaTemplate<String, String> kafkaTemplate;
-	private final ObjectMapper objectMapper;
+	private final KafkaTemplate<String, byte[]> payloadKafkaTemplate;
+	private final KafkaPayloadCodec payloadCodec;
 
 	private static final String TOPIC = "notification-created-topic";
 
 	public void sendNotificationEvent(NotificationEvent event) {
 		try {
-			String message = objectMapper.writeValueAsString(event);
-			kafkaTemplate.send(TOPIC, message);
-		} catch (JsonProcessingException e) {
+			payloadKafkaTemplate.send(payloadCodec.toRecord(TOPIC, null, event));
+		} catch (IOException e) {
 			log.error("❌ Failed to serialize NotificationEvent", e);
 		}
 	}
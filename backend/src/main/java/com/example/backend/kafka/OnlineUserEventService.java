@@ -1,61 +1,89 @@
 package com.example.backend.kafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.backend.event.PresenceEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Danh sách người dùng online được dựng cục bộ từ topic compacted presence-state-topic
+ * do notification-service phát (mỗi key userId giữ trạng thái mới nhất).
+ * <p>
+ * Mỗi instance backend dùng consumer group riêng, cố định theo kafka.instance-id (mặc định hostname) nên không
+ * sinh group mới sau mỗi lần khởi động, và luôn đọc topic từ đầu khi được gán partition, nên mọi replica đều có
+ * đầy đủ trạng thái và truy vấn được trả lời ngay từ bộ nhớ. Sự kiện có version nhỏ hơn hoặc bằng version
+ * đã áp dụng cho cùng user (đến trễ từ node khác) bị bỏ qua.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class OnlineUserEventService {
-	private final KafkaTemplate<String, String> kafkaTemplate;
-	private final ObjectMapper objectMapper;
+public class OnlineUserEventService implements ConsumerSeekAware {
+	private final KafkaPayloadCodec payloadCodec;
 
-	// Map để lưu trữ các request đang chờ response
-	private final ConcurrentMap<String, CompletableFuture<List<String>>> pendingRequests = new ConcurrentHashMap<>();
+	// userId → version trạng thái đã áp dụng
+	private final Map<String, Long> versions = new ConcurrentHashMap<>();
+	private final Set<String> onlineUsers = ConcurrentHashMap.newKeySet();
 
-	public List<String> requestOnlineUsers() {
-		String correlationId = UUID.randomUUID().toString();
-		CompletableFuture<List<String>> future = new CompletableFuture<>();
-		pendingRequests.put(correlationId, future);
+	public List<String> getOnlineUsers() {
+		List<String> users = new ArrayList<>(onlineUsers);
+		Collections.sort(users);
+		return users;
+	}
 
-		// Gửi request với correlationId cả ở key và value
-		String requestJson = String.format("{\"correlationId\":\"%s\"}", correlationId);
-		kafkaTemplate.send("get-online-users-request", correlationId, requestJson);
+	public boolean isOnline(String userId) {
+		return onlineUsers.contains(userId);
+	}
 
-		try {
-			// Đợi response tối đa 5s
-			return future.get(5, TimeUnit.SECONDS);
-		} catch (Exception e) {
-			log.error("Timeout or error waiting for online users response", e);
-			return List.of();
-		} finally {
-			pendingRequests.remove(correlationId);
-		}
+	@Override
+	public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+		// Trạng thái chỉ nằm trong bộ nhớ: dựng lại từ đầu topic thay vì tiếp tục từ offset đã commit
+		callback.seekToBeginning(assignments.keySet());
 	}
 
-	@KafkaListener(topics = "get-online-users-response", groupId = "backend-get-online-users-group")
-	public void handleOnlineUsersResponse(ConsumerRecord<String, String> record) {
-		String correlationId = record.key();
-		String value = record.value();
-		CompletableFuture<List<String>> future = pendingRequests.get(correlationId);
-		if (future != null) {
-			try {
-				List<String> onlineUsers = objectMapper.readValue(value, List.class);
-				future.complete(onlineUsers);
-			} catch (Exception e) {
-				future.completeExceptionally(e);
-			}
-		} else {
-			log.warn("No pending request for correlationId: {}", correlationId);
+	@KafkaListener(
+			topics = "presence-state-topic",
+			containerFactory = "payloadKafkaListenerContainerFactory",
+			groupId = "backend-presence-#{'${kafka.instance-id:}' ?: T(java.net.InetAddress).getLocalHost().getHostName()}",
+			properties = {"auto.offset.reset=earliest", "enable.auto.commit=false"}
+	)
+	public void handlePresenceEvent(ConsumerRecord<String, byte[]> record) {
+		String userId = record.key();
+		if (userId == null) {
+			return;
+		}
+		if (record.value() == null) {
+			// Tombstone: user đã bị xoá khỏi topic
+			versions.remove(userId);
+			onlineUsers.remove(userId);
+			return;
+		}
+
+		try {
+			PresenceEvent event = payloadCodec.decode(record.value(), record.headers(), PresenceEvent.class);
+			versions.compute(userId, (id, current) -> {
+				if (current != null && current >= event.getVersion()) {
+					return current;
+				}
+				if (event.isOnline()) {
+					onlineUsers.add(id);
+				} else {
+					onlineUsers.remove(id);
+				}
+				return event.getVersion();
+			});
+		} catch (Exception e) {
+			log.error("Failed to apply presence event for user {}", userId, e);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một đoạn (segment) tin nhắn cũ của một conversation đã được nén (GZIP JSON) và chuyển khỏi bảng messages.
+ * Mỗi segment bao phủ một khoảng thời gian liên tục [oldestSentAt, newestSentAt] của conversation.
+ */
+@Entity
+@Table(name = "archived_message_segments", indexes = {
+		@Index(name = "idx_archived_segment_conversation_newest", columnList = "conversation_id, newest_sent_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedMessageSegment {
+	@Id
+	@GeneratedValue(strategy = GenerationType.UUID)
+	String id;
+
+	@Column(name = "conversation_id", nullable = false)
+	String conversationId;
+
+	@Column(name = "oldest_sent_at", nullable = false)
+	LocalDateTime oldestSentAt;
+
+	@Column(name = "newest_sent_at", nullable = false)
+	LocalDateTime newestSentAt;
+
+	int messageCount;
+
+	@Lob
+	@Column(nullable = false, columnDefinition = "LONGBLOB")
+	byte[] payload;
+
+	@CreationTimestamp
+	LocalDateTime archivedAt;
+}
@@ -1,5 +1,6 @@
 package com.example.backend.model;
 
+import com.example.backend.model.listener.CompanyRatingAnalyticsListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
@@ -9,7 +10,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "company_ratings")
+@EntityListeners(CompanyRatingAnalyticsListener.class)
+@Table(name = "company_ratings", indexes = {
+		@Index(name = "idx_company_ratings_created_service", columnList = "created_at, service_id"),
+		@Index(name = "idx_company_ratings_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,4 +48,10 @@ public class CompanyRating {
 
 	@UpdateTimestamp
 	LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+	// Số sao đã lưu trong DB, dùng để phát sự kiện thay đổi (xem CompanyRatingAnalyticsListener)
+	@Transient
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	Integer persistedStars;
+}
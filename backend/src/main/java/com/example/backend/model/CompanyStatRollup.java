@@ -0,0 +1,58 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+
+/**
+ * Chỉ số vận hành của một công ty cứu hộ đã gộp theo ngày.
+ * Thời gian điều xe, đến nơi, hoàn thành và thời gian xe bận tính theo ngày điều xe (dispatchedAt);
+ * doanh thu tính theo ngày thanh toán hoá đơn (paidDate).
+ * Id được ghép từ (companyId, day) nên việc tính lại một ngày luôn ghi đè đúng dòng cũ.
+ */
+@Entity
+@Table(name = "company_stat_rollups", indexes = {
+		@Index(name = "idx_company_rollup_company_day", columnList = "company_id, day"),
+		@Index(name = "idx_company_rollup_day", columnList = "day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CompanyStatRollup {
+	@Id
+	@Column(length = 100)
+	String id;
+
+	@Column(name = "company_id", nullable = false)
+	String companyId;
+
+	@Column(nullable = false)
+	LocalDate day;
+
+	// Từ lúc tạo yêu cầu đến lúc điều xe
+	long dispatchCount;
+	long dispatchSeconds;
+
+	// Từ lúc điều xe đến lúc xe tới nơi
+	long arrivalCount;
+	long arrivalSeconds;
+
+	// Từ lúc tạo yêu cầu đến lúc hoàn thành
+	long completedCount;
+	long completionSeconds;
+
+	// t-digest (phút) của thời gian hoàn thành
+	@Lob
+	@Column(columnDefinition = "BLOB")
+	byte[] completionDigest;
+
+	// Tổng thời gian xe bận (điều xe đến hoàn thành) của các lượt đã hoàn thành
+	long busySeconds;
+
+	long paidInvoiceCount;
+	double revenue;
+}
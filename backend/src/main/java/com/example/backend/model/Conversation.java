@@ -28,6 +28,29 @@ public class Conversation {
     @JoinColumn(name = "rescue_company_id")
     RescueCompany rescueCompany;
     
+    // Số tin nhắn từ công ty mà user chưa đọc (denormalized, cập nhật khi gửi/đọc tin nhắn)
+    @Builder.Default
+    Integer userUnreadCount = 0;
+
+    // Số tin nhắn từ user mà công ty chưa đọc
+    @Builder.Default
+    Integer companyUnreadCount = 0;
+
+    // Read watermark của user: tin nhắn mới nhất từ công ty mà user đã đọc
+    String userLastReadMessageId;
+
+    // Thời điểm gửi của tin nhắn watermark: tin nhắn từ công ty gửi trước hoặc đúng mốc này là đã đọc
+    LocalDateTime userLastReadSentAt;
+
+    LocalDateTime userLastReadAt;
+
+    // Read watermark của công ty: tin nhắn mới nhất từ user mà công ty đã đọc
+    String companyLastReadMessageId;
+
+    LocalDateTime companyLastReadSentAt;
+
+    LocalDateTime companyLastReadAt;
+
     @UpdateTimestamp
     LocalDateTime updatedAt;
     
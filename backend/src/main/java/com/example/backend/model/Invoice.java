@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+		@Index(name = "idx_invoices_created", columnList = "created_at, id"),
+		@Index(name = "idx_invoices_updated", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -52,8 +55,17 @@ public class Invoice {
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
 	@PrePersist
 	protected void onCreate() {
 		createdAt = LocalDateTime.now();
+		updatedAt = createdAt;
+	}
+
+	@PreUpdate
+	protected void onUpdate() {
+		updatedAt = LocalDateTime.now();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Khoá của một job định kỳ dùng chung giữa các replica backend.
+ * Instance giữ khoá đến lockedUntil; khoá được nhả sớm khi job kết thúc, hoặc tự hết hạn nếu instance chết.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JobLock {
+	@Id
+	@Column(length = 100)
+	String name;
+
+	@Column(name = "locked_until", nullable = false)
+	LocalDateTime lockedUntil;
+
+	@Column(name = "locked_at")
+	LocalDateTime lockedAt;
+
+	@Column(name = "locked_by", length = 200)
+	String lockedBy;
+}
@@ -9,7 +9,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+		@Index(name = "idx_messages_sent_at", columnList = "sent_at, id"),
+		@Index(name = "idx_messages_conversation_sender_sent_at", columnList = "conversation_id, sender_type, sent_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,8 +33,13 @@ public class Message {
 	@Enumerated(EnumType.STRING)
 	MessageSender senderType;
 
+	// Chỉ còn ý nghĩa với tin nhắn cũ; trạng thái đọc mới được suy ra từ read watermark của conversation
 	boolean isRead;
 
+	// ID do notification-service cấp khi nhận tin nhắn qua WebSocket, dùng để chống ghi trùng
+	@Column(unique = true)
+	String deliveryId;
+
 	@CreationTimestamp
 	LocalDateTime sentAt;
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.backend.model;
+
+import com.example.backend.model.enums.SketchPeriod;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Sketch xác suất (HyperLogLog, Count-Min/Top-K, t-digest) đã serialize của một chỉ số trong một khung thời gian.
+ * Mỗi replica gộp phần cập nhật của mình vào dòng này, nên dòng luôn là sketch của toàn hệ thống.
+ * Id được ghép từ (metric, period, bucketStart).
+ */
+@Entity
+@Table(name = "metric_sketches", indexes = {
+		@Index(name = "idx_metric_sketches_period_bucket", columnList = "period, bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MetricSketch {
+	@Id
+	@Column(length = 200)
+	String id;
+
+	@Column(nullable = false, length = 100)
+	String metric;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	SketchPeriod period;
+
+	@Column(name = "bucket_start", nullable = false)
+	LocalDate bucketStart;
+
+	@Lob
+	@Column(nullable = false, columnDefinition = "LONGBLOB")
+	byte[] data;
+
+	LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.example.backend.model;
+
+import com.example.backend.model.enums.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Số đánh giá đã gộp theo khung thời gian (giờ/ngày, theo createdAt) và (dịch vụ, công ty, số sao).
+ * Id được ghép từ khoá gộp nên việc tính lại một khung luôn ghi đè đúng dòng cũ.
+ */
+@Entity
+@Table(name = "rating_stat_rollups", indexes = {
+		@Index(name = "idx_rating_rollup_bucket", columnList = "granularity, bucket_start"),
+		@Index(name = "idx_rating_rollup_company_bucket", columnList = "company_id, granularity, bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RatingStatRollup {
+	@Id
+	@Column(length = 200)
+	String id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	RollupGranularity granularity;
+
+	@Column(name = "bucket_start", nullable = false)
+	LocalDateTime bucketStart;
+
+	@Column(name = "service_id")
+	String serviceId;
+
+	@Column(name = "company_id")
+	String companyId;
+
+	int stars;
+
+	long ratingCount;
+}
@@ -0,0 +1,47 @@
+package com.example.backend.model;
+
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Số yêu cầu cứu hộ đã gộp theo khung thời gian (giờ/ngày, theo createdAt) và (trạng thái, dịch vụ, công ty).
+ * Id được ghép từ khoá gộp nên việc tính lại một khung luôn ghi đè đúng dòng cũ.
+ */
+@Entity
+@Table(name = "request_stat_rollups", indexes = {
+		@Index(name = "idx_request_rollup_bucket", columnList = "granularity, bucket_start"),
+		@Index(name = "idx_request_rollup_company_bucket", columnList = "company_id, granularity, bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RequestStatRollup {
+	@Id
+	@Column(length = 200)
+	String id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	RollupGranularity granularity;
+
+	@Column(name = "bucket_start", nullable = false)
+	LocalDateTime bucketStart;
+
+	@Enumerated(EnumType.STRING)
+	RescueRequestStatus status;
+
+	@Column(name = "service_id")
+	String serviceId;
+
+	@Column(name = "company_id")
+	String companyId;
+
+	long requestCount;
+}
@@ -1,15 +1,22 @@
 package com.example.backend.model;
 
 import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.listener.RescueRequestAnalyticsListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rescue_requests")
+@EntityListeners(RescueRequestAnalyticsListener.class)
+@Table(name = "rescue_requests", indexes = {
+		@Index(name = "idx_rescue_requests_created_status", columnList = "created_at, status"),
+		@Index(name = "idx_rescue_requests_created_service", columnList = "created_at, service_id"),
+		@Index(name = "idx_rescue_requests_updated", columnList = "updated_at")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -46,6 +53,9 @@ public class RescueRequest {
 	@CreationTimestamp
 	LocalDateTime createdAt;
 
+	@UpdateTimestamp
+	LocalDateTime updatedAt;
+
 	String notes;
 
 	@Column(length = 512)
@@ -65,4 +75,10 @@ public class RescueRequest {
 
 	@Column(length = 100)
 	String vehicleColor;
+
+	// Trạng thái đã lưu trong DB, dùng để phát sự kiện chuyển trạng thái (xem RescueRequestAnalyticsListener)
+	@Transient
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	RescueRequestStatus persistedStatus;
 }
@@ -32,7 +32,19 @@ public class RescueServiceDeletionRequest {
     LocalDateTime createdAt;
     LocalDateTime processedAt;
 
+    // Tiến độ xoá dịch vụ chạy nền sau khi được duyệt
+    Long totalRequests;
+    Long detachedRequests;
+    Long totalRatings;
+    Long deletedRatings;
+
+    @Column(length = 1000)
+    String errorMessage;
+
+    /**
+     * PROCESSING: đã duyệt, đang xoá ở nền; FAILED: xoá lỗi giữa chừng, có thể duyệt lại để chạy tiếp.
+     */
     public enum Status {
-        PENDING, APPROVED, REJECTED
+        PENDING, PROCESSING, APPROVED, REJECTED, FAILED
     }
 } 
\ No newline at end of file
@@ -4,11 +4,16 @@ import com.example.backend.model.enums.RescueEquipment;
 import com.example.backend.model.enums.RescueVehicleStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_rescue_vehicle_company_status", columnList = "company_id, status"),
+		@Index(name = "idx_rescue_vehicle_company_maintenance", columnList = "company_id, next_maintenance_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,6 +34,7 @@ public class RescueVehicle {
 	private String make; // Hãng xe
 
 	@ElementCollection(targetClass = RescueEquipment.class)
+	@BatchSize(size = 50) // Danh sách xe nạp thiết bị theo lô thay vì một truy vấn mỗi xe
 	@Enumerated(EnumType.STRING)
 	@CollectionTable(name = "vehicle_equipment", joinColumns = @JoinColumn(name = "vehicle_id"))
 	@Column(name = "equipment")
@@ -4,10 +4,15 @@ import com.example.backend.model.enums.RescueVehicleDispatchStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_rescue_vehicle_dispatch_dispatched", columnList = "dispatched_at, id"),
+		@Index(name = "idx_rescue_vehicle_dispatch_updated", columnList = "updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +35,9 @@ public class RescueVehicleDispatch {
 	@CreationTimestamp
 	private LocalDateTime dispatchedAt;
 
+	@UpdateTimestamp
+	private LocalDateTime updatedAt;
+
 	private LocalDateTime arrivedAt;
 
 	private LocalDateTime completedAt;
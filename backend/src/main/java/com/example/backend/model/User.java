@@ -5,6 +5,7 @@ import com.example.backend.model.enums.UserRole; // Import the enum
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -38,6 +39,7 @@ public class User {
 	String resetCode;
 
 	@ElementCollection(fetch = FetchType.EAGER)
+	@BatchSize(size = 50) // Danh sách người dùng nạp role theo lô thay vì một truy vấn mỗi người
 	@CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
 	@Enumerated(EnumType.STRING) // Store as string in the database
 	@Column(name = "role")
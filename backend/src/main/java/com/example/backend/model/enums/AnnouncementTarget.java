@@ -0,0 +1,9 @@
+package com.example.backend.model.enums;
+
+public enum AnnouncementTarget {
+	ALL,
+	ROLE,
+	COMPANY,
+	REGION,
+	USERS
+}
@@ -0,0 +1,40 @@
+package com.example.backend.model.enums;
+
+import java.util.Locale;
+
+public enum ExportDataset {
+	REQUESTS("id", "created_at", "updated_at", "user_id", "service_id", "company_id", "status", "latitude", "longitude",
+			"estimated_price", "final_price"),
+	INVOICES("id", "created_at", "rescue_request_id", "invoice_number", "amount", "status", "payment_method",
+			"invoice_date", "due_date", "paid_date"),
+	RATINGS("id", "created_at", "updated_at", "company_id", "service_id", "user_id", "stars", "comment"),
+	DISPATCHES("id", "dispatched_at", "request_id", "vehicle_id", "status", "arrived_at", "completed_at");
+
+	private final String[] columns;
+
+	ExportDataset(String... columns) {
+		this.columns = columns;
+	}
+
+	/**
+	 * CSV header; matches the row shape of the dataset's streamExportRows query.
+	 */
+	public String[] getColumns() {
+		return columns.clone();
+	}
+
+	public String fileName() {
+		return name().toLowerCase(Locale.ROOT) + ".csv.gz";
+	}
+
+	/**
+	 * Parses a dataset name case-insensitively (e.g. "requests").
+	 */
+	public static ExportDataset from(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown export dataset: " + value);
+		}
+	}
+}
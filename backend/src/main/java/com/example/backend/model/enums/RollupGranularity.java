@@ -0,0 +1,22 @@
+package com.example.backend.model.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+	HOUR(ChronoUnit.HOURS),
+	DAY(ChronoUnit.DAYS);
+
+	private final ChronoUnit unit;
+
+	RollupGranularity(ChronoUnit unit) {
+		this.unit = unit;
+	}
+
+	/**
+	 * Returns the start of the bucket containing the given time.
+	 */
+	public LocalDateTime bucketOf(LocalDateTime time) {
+		return time.truncatedTo(unit);
+	}
+}
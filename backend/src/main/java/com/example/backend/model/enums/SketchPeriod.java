@@ -0,0 +1,21 @@
+package com.example.backend.model.enums;
+
+import java.time.LocalDate;
+
+public enum SketchPeriod {
+	DAY,
+	MONTH,
+	// Một sketch duy nhất từ trước tới nay
+	ALL;
+
+	/**
+	 * Returns the start of the bucket containing the given date.
+	 */
+	public LocalDate startOf(LocalDate date) {
+		return switch (this) {
+			case DAY -> date;
+			case MONTH -> date.withDayOfMonth(1);
+			case ALL -> LocalDate.EPOCH;
+		};
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.backend.model.listener;
+
+import com.example.backend.event.CompanyRatingEvent;
+import com.example.backend.kafka.AnalyticsEventProducer;
+import com.example.backend.model.CompanyRating;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Phát CompanyRatingEvent mỗi khi một đánh giá được tạo, đổi số sao hoặc bị xoá.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompanyRatingAnalyticsListener {
+
+	private final AnalyticsEventProducer analyticsEventProducer;
+
+	@PostLoad
+	public void onLoad(CompanyRating rating) {
+		rating.setPersistedStars(rating.getStars());
+	}
+
+	@PostPersist
+	public void onPersist(CompanyRating rating) {
+		send(rating, null, rating.getStars());
+		rating.setPersistedStars(rating.getStars());
+	}
+
+	@PostUpdate
+	public void onUpdate(CompanyRating rating) {
+		Integer previous = rating.getPersistedStars();
+		if (Objects.equals(previous, rating.getStars())) {
+			return;
+		}
+		send(rating, previous, rating.getStars());
+		rating.setPersistedStars(rating.getStars());
+	}
+
+	@PostRemove
+	public void onRemove(CompanyRating rating) {
+		send(rating, rating.getPersistedStars() != null ? rating.getPersistedStars() : rating.getStars(), null);
+	}
+
+	private void send(CompanyRating rating, Integer previous, Integer current) {
+		analyticsEventProducer.sendRatingEvent(CompanyRatingEvent.builder()
+				.ratingId(rating.getId())
+				.serviceId(rating.getService() != null ? rating.getService().getId() : null)
+				.companyId(rating.getCompany() != null ? rating.getCompany().getId() : null)
+				.previousStars(previous)
+				.stars(current)
+				.createdAt(rating.getCreatedAt())
+				.occurredAt(LocalDateTime.now())
+				.build());
+	}
+}
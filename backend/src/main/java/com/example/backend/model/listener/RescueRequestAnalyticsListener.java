@@ -0,0 +1,63 @@
+package com.example.backend.model.listener;
+
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import com.example.backend.kafka.AnalyticsEventProducer;
+import com.example.backend.model.RescueRequest;
+import com.example.backend.model.enums.RescueRequestStatus;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Phát RescueRequestLifecycleEvent mỗi khi một yêu cầu cứu hộ được tạo, đổi trạng thái hoặc bị xoá,
+ * bất kể thay đổi đi qua service nào. Trạng thái đã lưu được ghi nhớ khi nạp entity để biết trạng thái trước đó.
+ */
+@Component
+@RequiredArgsConstructor
+public class RescueRequestAnalyticsListener {
+
+	private final AnalyticsEventProducer analyticsEventProducer;
+
+	@PostLoad
+	public void onLoad(RescueRequest request) {
+		request.setPersistedStatus(request.getStatus());
+	}
+
+	@PostPersist
+	public void onPersist(RescueRequest request) {
+		send(request, null, request.getStatus());
+		request.setPersistedStatus(request.getStatus());
+	}
+
+	@PostUpdate
+	public void onUpdate(RescueRequest request) {
+		RescueRequestStatus previous = request.getPersistedStatus();
+		if (previous == request.getStatus()) {
+			return;
+		}
+		send(request, previous, request.getStatus());
+		request.setPersistedStatus(request.getStatus());
+	}
+
+	@PostRemove
+	public void onRemove(RescueRequest request) {
+		send(request, request.getPersistedStatus() != null ? request.getPersistedStatus() : request.getStatus(), null);
+	}
+
+	private void send(RescueRequest request, RescueRequestStatus previous, RescueRequestStatus current) {
+		analyticsEventProducer.sendRequestEvent(RescueRequestLifecycleEvent.builder()
+				.requestId(request.getId())
+				.serviceId(request.getRescueService() != null ? request.getRescueService().getId() : null)
+				.companyId(request.getCompany() != null ? request.getCompany().getId() : null)
+				.previousStatus(previous)
+				.status(current)
+				.createdAt(request.getCreatedAt())
+				.occurredAt(LocalDateTime.now())
+				.build());
+	}
+}
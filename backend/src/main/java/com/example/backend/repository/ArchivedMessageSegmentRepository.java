@@ -0,0 +1,56 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ArchivedMessageSegment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JPA Repository for managing compressed chat archive segments.
+ */
+public interface ArchivedMessageSegmentRepository extends JpaRepository<ArchivedMessageSegment, String> {
+
+    /**
+     * Retrieves the archive segments of a conversation that may contain messages at or before the given timestamp,
+     * newest segment first.
+     *
+     * @param conversationId The ID of the conversation.
+     * @param timestamp      The timestamp of the cursor.
+     * @param pageable       Pagination information.
+     * @return A list of archive segments.
+     */
+    @Query("SELECT s FROM ArchivedMessageSegment s WHERE s.conversationId = :conversationId " +
+            "AND s.oldestSentAt <= :timestamp ORDER BY s.newestSentAt DESC")
+    List<ArchivedMessageSegment> findSegmentsBefore(
+            @Param("conversationId") String conversationId,
+            @Param("timestamp") LocalDateTime timestamp,
+            Pageable pageable);
+
+    /**
+     * Retrieves the archive segments of a conversation, newest segment first.
+     *
+     * @param conversationId The ID of the conversation.
+     * @param pageable       Pagination information.
+     * @return A list of archive segments.
+     */
+    List<ArchivedMessageSegment> findByConversationIdOrderByNewestSentAtDesc(String conversationId, Pageable pageable);
+
+    /**
+     * Retrieves a batch of archive segment IDs with their conversation participants, ordered by segment ID,
+     * without loading the compressed payloads. Used to (re)build the chat search index from the archive tier.
+     * Each row contains: segment ID, conversation ID, user ID, rescue company ID.
+     *
+     * @param afterId  The segment ID to continue after (empty string for the first batch).
+     * @param pageable Pagination information (only the page size is used).
+     * @return A list of projected rows.
+     */
+    @Query("SELECT s.id, c.id, c.user.id, c.rescueCompany.id FROM ArchivedMessageSegment s, Conversation c " +
+            "WHERE c.id = s.conversationId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findSearchIndexBatch(
+            @Param("afterId") String afterId,
+            Pageable pageable);
+}
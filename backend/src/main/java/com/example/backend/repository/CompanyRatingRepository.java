@@ -4,16 +4,24 @@ import com.example.backend.model.CompanyRating;
 import com.example.backend.model.RescueCompany;
 import com.example.backend.model.RescueService;
 import com.example.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CompanyRatingRepository extends JpaRepository<CompanyRating, String> {
+public interface CompanyRatingRepository extends JpaRepository<CompanyRating, String>, JpaSpecificationExecutor<CompanyRating> {
     List<CompanyRating> findByCompanyOrderByCreatedAtDesc(RescueCompany company);
 
     Optional<CompanyRating> findByCompanyAndServiceAndUser(RescueCompany company, RescueService service, User user);
@@ -57,5 +65,55 @@ public interface CompanyRatingRepository extends JpaRepository<CompanyRating, St
     List<CompanyRating> findByCreatedAtAfter(LocalDateTime date);
     List<CompanyRating> findByCommentContainingIgnoreCase(String keyword);
 
-	void deleteByServiceId(String serviceId);
-}
\ No newline at end of file
+    long countByServiceId(String serviceId);
+
+    /**
+     * Deletes up to {@code limit} ratings of a service in one statement.
+     *
+     * @return The number of ratings deleted.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM company_ratings WHERE service_id = :serviceId LIMIT :limit", nativeQuery = true)
+    int deleteByServiceIdLimited(@Param("serviceId") String serviceId, @Param("limit") int limit);
+
+    /**
+     * Creation days of every rating of a service, to find the rollup buckets affected when they are bulk deleted.
+     */
+    @Query("SELECT DISTINCT cast(r.createdAt as LocalDate) FROM CompanyRating r WHERE r.service.id = :serviceId")
+    List<LocalDate> findCreatedDaysByServiceId(@Param("serviceId") String serviceId);
+
+    /**
+     * Counts ratings created in [from, to) per hour, service, company and stars, grouped in the database.
+     *
+     * @return Rows of [year, month, day, hour, serviceId, companyId, stars, count].
+     */
+    @Query("SELECT year(r.createdAt), month(r.createdAt), day(r.createdAt), hour(r.createdAt), s.id, c.id, r.stars, COUNT(r) " +
+            "FROM CompanyRating r LEFT JOIN r.service s LEFT JOIN r.company c " +
+            "WHERE r.createdAt >= :from AND r.createdAt < :to AND r.stars IS NOT NULL " +
+            "GROUP BY year(r.createdAt), month(r.createdAt), day(r.createdAt), hour(r.createdAt), s.id, c.id, r.stars")
+    List<Object[]> countHourlyByServiceCompanyAndStars(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Creation days of ratings created or modified since the given time, to find rollup buckets to refresh.
+     */
+    @Query("SELECT DISTINCT cast(r.createdAt as LocalDate) FROM CompanyRating r WHERE r.updatedAt >= :since OR r.createdAt >= :since")
+    List<LocalDate> findCreatedDaysChangedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Streams every rating with its company, service and author for exports; rows are fetched from a server-side
+     * cursor in batches.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM CompanyRating r LEFT JOIN FETCH r.company LEFT JOIN FETCH r.service LEFT JOIN FETCH r.user")
+    Stream<CompanyRating> streamAllForExport();
+
+    /**
+     * Streams export rows ordered by (createdAt, id), starting after the given position:
+     * [id, createdAt, updatedAt, companyId, serviceId, userId, stars, comment].
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id, r.createdAt, r.updatedAt, c.id, s.id, u.id, r.stars, r.comment FROM CompanyRating r " +
+           "LEFT JOIN r.company c LEFT JOIN r.service s LEFT JOIN r.user u " +
+           "WHERE r.createdAt > :after OR (r.createdAt = :after AND r.id > :afterId) ORDER BY r.createdAt, r.id")
+    Stream<Object[]> streamExportRows(@Param("after") LocalDateTime after, @Param("afterId") String afterId);
+}
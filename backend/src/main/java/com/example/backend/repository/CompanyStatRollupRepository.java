@@ -0,0 +1,27 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.CompanyStatRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JPA Repository for the pre-aggregated per-company daily statistics.
+ */
+@Repository
+public interface CompanyStatRollupRepository extends JpaRepository<CompanyStatRollup, String> {
+
+    /**
+     * Deletes every rollup row whose day is in [from, to).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CompanyStatRollup r WHERE r.day >= :from AND r.day < :to")
+    int deleteDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    List<CompanyStatRollup> findByCompanyIdAndDayGreaterThanEqualOrderByDay(String companyId, LocalDate from);
+}
@@ -2,7 +2,11 @@ package com.example.backend.repository;
 
 import com.example.backend.model.Conversation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +16,61 @@ public interface ConversationRepository extends JpaRepository<Conversation, Stri
     List<Conversation> findByRescueCompanyIdOrderByUpdatedAtDesc(String rescueCompanyId);
     
     Optional<Conversation> findByUserIdAndRescueCompanyId(String userId, String rescueCompanyId);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Conversation c WHERE c.updatedAt < :cutoff")
+    List<String> findIdsInactiveSince(@Param("cutoff") LocalDateTime cutoff);
+
+    // Denormalized unread counters: tăng khi có tin nhắn mới, giảm khi watermark tiến lên
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET c.userUnreadCount = COALESCE(c.userUnreadCount, 0) + 1, c.updatedAt = :now WHERE c.id = :id")
+    int incrementUserUnreadCount(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET c.companyUnreadCount = COALESCE(c.companyUnreadCount, 0) + 1, c.updatedAt = :now WHERE c.id = :id")
+    int incrementCompanyUnreadCount(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    // Watermark chỉ tiến lên; unread counter được tính lại từ các tin nhắn gửi sau watermark
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET " +
+            "c.userUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation = c " +
+            "AND m.senderType = com.example.backend.model.enums.MessageSender.RESCUE_COMPANY AND m.sentAt > :sentAt), " +
+            "c.userLastReadMessageId = :messageId, c.userLastReadSentAt = :sentAt, c.userLastReadAt = :readAt " +
+            "WHERE c.id = :id AND (c.userLastReadSentAt IS NULL OR c.userLastReadSentAt <= :sentAt)")
+    int advanceUserReadWatermark(@Param("id") String id, @Param("messageId") String messageId,
+                                 @Param("sentAt") LocalDateTime sentAt, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET " +
+            "c.companyUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation = c " +
+            "AND m.senderType = com.example.backend.model.enums.MessageSender.USER AND m.sentAt > :sentAt), " +
+            "c.companyLastReadMessageId = :messageId, c.companyLastReadSentAt = :sentAt, c.companyLastReadAt = :readAt " +
+            "WHERE c.id = :id AND (c.companyLastReadSentAt IS NULL OR c.companyLastReadSentAt <= :sentAt)")
+    int advanceCompanyReadWatermark(@Param("id") String id, @Param("messageId") String messageId,
+                                    @Param("sentAt") LocalDateTime sentAt, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Conversation c SET " +
+            "c.userUnreadCount = CASE WHEN c.userUnreadCount > :userCount THEN c.userUnreadCount - :userCount ELSE 0 END, " +
+            "c.companyUnreadCount = CASE WHEN c.companyUnreadCount > :companyCount THEN c.companyUnreadCount - :companyCount ELSE 0 END " +
+            "WHERE c.id = :id")
+    int decrementUnreadCounts(@Param("id") String id, @Param("userCount") int userCount, @Param("companyCount") int companyCount);
+
+    @Query("SELECT COALESCE(SUM(c.userUnreadCount), 0) FROM Conversation c WHERE c.user.id = :userId")
+    long sumUserUnreadCount(@Param("userId") String userId);
+
+    @Query("SELECT COALESCE(SUM(c.companyUnreadCount), 0) FROM Conversation c WHERE c.rescueCompany.id = :rescueCompanyId")
+    long sumCompanyUnreadCount(@Param("rescueCompanyId") String rescueCompanyId);
+
+    // Khởi tạo counter cho các conversation tạo trước khi có cột denormalized
+    @Modifying
+    @Query("UPDATE Conversation c SET c.userUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation = c " +
+            "AND m.senderType = com.example.backend.model.enums.MessageSender.RESCUE_COMPANY AND m.isRead = false) " +
+            "WHERE c.userUnreadCount IS NULL")
+    int backfillUserUnreadCounts();
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.companyUnreadCount = (SELECT COUNT(m) FROM Message m WHERE m.conversation = c " +
+            "AND m.senderType = com.example.backend.model.enums.MessageSender.USER AND m.isRead = false) " +
+            "WHERE c.companyUnreadCount IS NULL")
+    int backfillCompanyUnreadCounts();
+}
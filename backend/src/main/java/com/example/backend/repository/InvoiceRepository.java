@@ -3,17 +3,62 @@ package com.example.backend.repository;
 import com.example.backend.model.Invoice;
 import com.example.backend.model.RescueRequest;
 import com.example.backend.model.enums.InvoiceStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, String> {
+public interface InvoiceRepository extends JpaRepository<Invoice, String>, JpaSpecificationExecutor<Invoice> {
 	Optional<Invoice> findByRescueRequest(RescueRequest rescueRequest);
 	boolean existsByRescueRequest(RescueRequest rescueRequest);
 	Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 	List<Invoice> findByRescueRequestIn(List<RescueRequest> rescueRequests);
 	List<Invoice> findByStatus(InvoiceStatus status);
-}
\ No newline at end of file
+
+	/**
+	 * Sums invoices of the given status paid in [from, to) per company and payment day, grouped in the database.
+	 *
+	 * @return Rows of [companyId, paidDay, count, amount].
+	 */
+	@Query("SELECT c.id, cast(i.paidDate as LocalDate), COUNT(i), SUM(i.amount) FROM Invoice i " +
+			"JOIN i.rescueRequest r JOIN r.company c " +
+			"WHERE i.status = :status AND i.paidDate >= :from AND i.paidDate < :to " +
+			"GROUP BY c.id, cast(i.paidDate as LocalDate)")
+	List<Object[]> sumByCompanyAndPaidDay(@Param("status") InvoiceStatus status,
+										  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Payment days of invoices created or modified since the given time, to find rollup days to refresh.
+	 */
+	@Query("SELECT DISTINCT cast(i.paidDate as LocalDate) FROM Invoice i " +
+			"WHERE i.paidDate IS NOT NULL AND (i.updatedAt >= :since OR i.createdAt >= :since)")
+	List<LocalDate> findPaidDaysChangedSince(@Param("since") LocalDateTime since);
+
+	/**
+	 * Streams every invoice for exports; rows are fetched from a server-side cursor in batches.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT i FROM Invoice i")
+	Stream<Invoice> streamAllForExport();
+
+	/**
+	 * Streams export rows ordered by (createdAt, id), starting after the given position:
+	 * [id, createdAt, rescueRequestId, invoiceNumber, amount, status, paymentMethod, invoiceDate, dueDate, paidDate].
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT i.id, i.createdAt, r.id, i.invoiceNumber, i.amount, i.status, i.paymentMethod, " +
+			"i.invoiceDate, i.dueDate, i.paidDate FROM Invoice i LEFT JOIN i.rescueRequest r " +
+			"WHERE i.createdAt > :after OR (i.createdAt = :after AND i.id > :afterId) ORDER BY i.createdAt, i.id")
+	Stream<Object[]> streamExportRows(@Param("after") LocalDateTime after, @Param("afterId") String afterId);
+}
@@ -0,0 +1,45 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Repository for the locks of scheduled jobs shared by all backend instances.
+ */
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    /**
+     * Creates the lock row in the released state unless it already exists.
+     *
+     * @return 1 if the row was inserted, 0 if it already existed.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_locks (name, locked_until) VALUES (:name, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("now") LocalDateTime now);
+
+    /**
+     * Takes the lock if it is not held, i.e. the previous holder released it or its lease has expired.
+     * The conditional UPDATE locks the row, so at most one instance can succeed.
+     *
+     * @return 1 if the lock was taken, 0 if another instance holds it.
+     */
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :until " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Releases the lock if it is still held by the given owner.
+     */
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner AND l.lockedUntil > :now")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -10,12 +10,21 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JPA Repository for managing Message entities.
  */
 public interface MessageRepository extends JpaRepository<Message, String> {
 
+    /**
+     * Finds a message by the delivery ID assigned by the notification service.
+     *
+     * @param deliveryId The delivery ID.
+     * @return The message, if it has already been persisted.
+     */
+    Optional<Message> findByDeliveryId(String deliveryId);
+
     /**
      * Retrieves initial messages for a conversation, ordered by sentAt descending.
      *
@@ -24,7 +33,7 @@ public interface MessageRepository extends JpaRepository<Message, String> {
      * @return A list of messages.
      */
     @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
-            "ORDER BY m.sentAt DESC")
+            "ORDER BY m.sentAt DESC, m.id DESC")
     List<Message> findInitialMessages(
             @Param("conversationId") String conversationId,
             Pageable pageable);
@@ -40,7 +49,7 @@ public interface MessageRepository extends JpaRepository<Message, String> {
      */
     @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
             "AND ((m.sentAt < :timestamp) OR (m.sentAt = :timestamp AND m.id < :messageId)) " +
-            "ORDER BY m.sentAt DESC")
+            "ORDER BY m.sentAt DESC, m.id DESC")
     List<Message> findMessagesBeforeCursor(
             @Param("conversationId") String conversationId,
             @Param("timestamp") LocalDateTime timestamp,
@@ -48,54 +57,72 @@ public interface MessageRepository extends JpaRepository<Message, String> {
             Pageable pageable);
 
     /**
-     * Counts the number of unread messages from a specific sender in a conversation.
+     * Retrieves the latest messages from a specific sender in a conversation, newest first.
+     * The first result is the read watermark candidate when a participant opens the conversation.
      *
      * @param conversationId The ID of the conversation.
      * @param senderType     The type of the message sender.
-     * @return The number of unread messages.
+     * @param pageable       Pagination information (only the page size is used).
+     * @return A list of messages.
      */
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId " +
-            "AND m.isRead = false AND m.senderType = :senderType")
-    long countUnreadMessages(
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND m.senderType = :senderType " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLatestFromSender(
             @Param("conversationId") String conversationId,
-            @Param("senderType") MessageSender senderType);
+            @Param("senderType") MessageSender senderType,
+            Pageable pageable);
 
     /**
-     * Marks all unread messages from a specific sender in a conversation as read.
+     * Retrieves a batch of messages with their conversation participants, ordered by message ID.
+     * Used to (re)build the chat search index without loading full entity graphs.
+     * Each row contains: message ID, content, sender type, sent time, conversation ID, user ID, rescue company ID.
      *
-     * @param conversationId The ID of the conversation.
-     * @param senderType     The type of the message sender.
+     * @param afterId  The message ID to continue after (empty string for the first batch).
+     * @param pageable Pagination information (only the page size is used).
+     * @return A list of projected rows.
      */
-    @Modifying
-    @Query("UPDATE Message m SET m.isRead = true WHERE m.conversation.id = :conversationId " +
-            "AND m.isRead = false AND m.senderType = :senderType")
-    void markAllAsRead(
-            @Param("conversationId") String conversationId,
-            @Param("senderType") MessageSender senderType);
+    @Query("SELECT m.id, m.content, m.senderType, m.sentAt, c.id, c.user.id, c.rescueCompany.id " +
+            "FROM Message m JOIN m.conversation c WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findSearchIndexBatch(
+            @Param("afterId") String afterId,
+            Pageable pageable);
 
     /**
-     * Counts the total number of unread messages from rescue companies for a user across all their conversations.
+     * Retrieves a batch of messages sent after a position, ordered by (sentAt, id), in the same row shape as
+     * {@link #findSearchIndexBatch}. Used to catch the chat search index up with messages written elsewhere.
      *
-     * @param userId     The ID of the user.
-     * @param senderType The type of the message sender (should be RESCUE_COMPANY).
-     * @return The total number of unread messages.
+     * @param afterSentAt The sent time to continue after.
+     * @param afterId     The message ID to continue after among messages sent at afterSentAt.
+     * @param pageable    Pagination information (only the page size is used).
+     * @return A list of projected rows.
+     */
+    @Query("SELECT m.id, m.content, m.senderType, m.sentAt, c.id, c.user.id, c.rescueCompany.id " +
+            "FROM Message m JOIN m.conversation c " +
+            "WHERE m.sentAt > :afterSentAt OR (m.sentAt = :afterSentAt AND m.id > :afterId) ORDER BY m.sentAt, m.id")
+    List<Object[]> findSearchIndexBatchSince(
+            @Param("afterSentAt") LocalDateTime afterSentAt,
+            @Param("afterId") String afterId,
+            Pageable pageable);
+
+    /**
+     * Sent time of the newest message, or null if there are none.
      */
-    @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c WHERE c.user.id = :userId " +
-            "AND m.senderType = :senderType AND m.isRead = false")
-    long countTotalUnreadMessagesForUser(
-            @Param("userId") String userId,
-            @Param("senderType") MessageSender senderType);
+    @Query("SELECT MAX(m.sentAt) FROM Message m")
+    LocalDateTime findLatestSentAt();
 
     /**
-     * Counts the total number of unread messages from users for a rescue company across all their conversations.
+     * Retrieves the oldest messages of a conversation sent before a cutoff, oldest first.
+     * Used by the archival job to move cold messages into compressed segments.
      *
-     * @param rescueCompanyId The ID of the rescue company.
-     * @param senderType      The type of the message sender (should be USER).
-     * @return The total number of unread messages.
+     * @param conversationId The ID of the conversation.
+     * @param cutoff         Only messages sent strictly before this time are returned.
+     * @param pageable       Pagination information (only the page size is used).
+     * @return A list of messages.
      */
-    @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c WHERE c.rescueCompany.id = :rescueCompanyId " +
-            "AND m.senderType = :senderType AND m.isRead = false")
-    long countTotalUnreadMessagesForCompany(
-            @Param("rescueCompanyId") String rescueCompanyId,
-            @Param("senderType") MessageSender senderType);
-}
\ No newline at end of file
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND m.sentAt < :cutoff " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    List<Message> findArchivableMessages(
+            @Param("conversationId") String conversationId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+}
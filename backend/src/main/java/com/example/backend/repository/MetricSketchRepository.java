@@ -0,0 +1,45 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.MetricSketch;
+import com.example.backend.model.enums.SketchPeriod;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * JPA Repository for the serialized metric sketches.
+ */
+@Repository
+public interface MetricSketchRepository extends JpaRepository<MetricSketch, String> {
+
+    /**
+     * Loads a sketch row with a write lock so concurrent merges from different replicas are serialized.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MetricSketch s WHERE s.id = :id")
+    Optional<MetricSketch> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Inserts a sketch row unless a row with the same id already exists.
+     *
+     * @return 1 if the row was inserted, 0 if it already existed.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO metric_sketches (id, metric, period, bucket_start, data, updated_at) " +
+            "VALUES (:id, :metric, :period, :bucketStart, :data, :updatedAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("metric") String metric, @Param("period") String period,
+                       @Param("bucketStart") LocalDate bucketStart, @Param("data") byte[] data,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM MetricSketch s WHERE s.period = :period AND s.bucketStart < :before")
+    int deleteExpired(@Param("period") SketchPeriod period, @Param("before") LocalDate before);
+}
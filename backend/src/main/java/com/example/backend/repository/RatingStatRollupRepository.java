@@ -0,0 +1,47 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.RatingStatRollup;
+import com.example.backend.model.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JPA Repository for the pre-aggregated company rating statistics.
+ */
+@Repository
+public interface RatingStatRollupRepository extends JpaRepository<RatingStatRollup, String> {
+
+    /**
+     * Deletes every rollup row (all granularities) whose bucket starts in [from, to).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RatingStatRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sums rating counts per bucket and star value.
+     *
+     * @return Rows of [bucketStart, stars, count].
+     */
+    @Query("SELECT r.bucketStart, r.stars, SUM(r.ratingCount) FROM RatingStatRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :from GROUP BY r.bucketStart, r.stars")
+    List<Object[]> sumByBucketAndStars(@Param("granularity") RollupGranularity granularity, @Param("from") LocalDateTime from);
+
+    /**
+     * Sums stars and rating counts per service.
+     *
+     * @return Rows of [serviceId, sum of stars, count].
+     */
+    @Query("SELECT r.serviceId, SUM(r.stars * r.ratingCount), SUM(r.ratingCount) FROM RatingStatRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.serviceId IS NOT NULL " +
+            "GROUP BY r.serviceId")
+    List<Object[]> sumByService(@Param("granularity") RollupGranularity granularity, @Param("from") LocalDateTime from);
+
+    List<RatingStatRollup> findByGranularityAndBucketStartGreaterThanEqual(RollupGranularity granularity, LocalDateTime from);
+}
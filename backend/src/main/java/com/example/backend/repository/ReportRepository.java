@@ -3,11 +3,17 @@ package com.example.backend.repository;
 import com.example.backend.model.Report;
 import com.example.backend.model.enums.ReportType;
 import com.example.backend.model.enums.ReportStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, String> {
@@ -17,6 +23,12 @@ public interface ReportRepository extends JpaRepository<Report, String> {
     List<Report> findByTargetIdAndType(String targetId, ReportType type);
     long countByTargetIdAndType(String targetId, ReportType type);
 
-    @Query("SELECT r.targetId, COUNT(r) as cnt FROM Report r WHERE r.type = :type GROUP BY r.targetId ORDER BY cnt DESC")
-    List<Object[]> findTopReportedByType(ReportType type);
+    /**
+     * Streams the target of every report of a type created before a time; only used to seed the most-reported
+     * sketch once. Reports created later are already recorded in the sketch as they are created.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.targetId FROM Report r WHERE r.type = :type AND r.createdAt < :createdBefore")
+    Stream<String> streamTargetIdsByType(@Param("type") ReportType type,
+                                         @Param("createdBefore") LocalDateTime createdBefore);
 } 
\ No newline at end of file
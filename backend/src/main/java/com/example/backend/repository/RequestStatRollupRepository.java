@@ -0,0 +1,58 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.RequestStatRollup;
+import com.example.backend.model.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JPA Repository for the pre-aggregated rescue request statistics.
+ */
+@Repository
+public interface RequestStatRollupRepository extends JpaRepository<RequestStatRollup, String> {
+
+    /**
+     * Deletes every rollup row (all granularities) whose bucket starts in [from, to).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM RequestStatRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sums request counts per bucket and status.
+     *
+     * @return Rows of [bucketStart, status, count].
+     */
+    @Query("SELECT r.bucketStart, r.status, SUM(r.requestCount) FROM RequestStatRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :from GROUP BY r.bucketStart, r.status")
+    List<Object[]> sumByBucketAndStatus(@Param("granularity") RollupGranularity granularity, @Param("from") LocalDateTime from);
+
+    /**
+     * Sums request counts per bucket and service, ignoring requests without a service.
+     *
+     * @return Rows of [bucketStart, serviceId, count].
+     */
+    @Query("SELECT r.bucketStart, r.serviceId, SUM(r.requestCount) FROM RequestStatRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.serviceId IS NOT NULL " +
+            "GROUP BY r.bucketStart, r.serviceId")
+    List<Object[]> sumByBucketAndService(@Param("granularity") RollupGranularity granularity, @Param("from") LocalDateTime from);
+
+    /**
+     * Sums the request counts of one company per status.
+     *
+     * @return Rows of [status, count].
+     */
+    @Query("SELECT r.status, SUM(r.requestCount) FROM RequestStatRollup r " +
+            "WHERE r.companyId = :companyId AND r.granularity = :granularity AND r.bucketStart >= :from GROUP BY r.status")
+    List<Object[]> sumByStatusForCompany(@Param("companyId") String companyId,
+                                         @Param("granularity") RollupGranularity granularity,
+                                         @Param("from") LocalDateTime from);
+
+    List<RequestStatRollup> findByGranularityAndBucketStartGreaterThanEqual(RollupGranularity granularity, LocalDateTime from);
+}
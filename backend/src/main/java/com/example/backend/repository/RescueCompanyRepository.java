@@ -1,13 +1,34 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.RescueCompany;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface RescueCompanyRepository extends JpaRepository<RescueCompany, String> {
+public interface RescueCompanyRepository extends JpaRepository<RescueCompany, String>, JpaSpecificationExecutor<RescueCompany> {
 	Optional<RescueCompany> findByUserId(String userId);
 
 	List<RescueCompany> findAllByUserId(String userId);
+
+	@Query("SELECT DISTINCT c.user.id FROM RescueCompany c WHERE c.id IN :companyIds AND c.user IS NOT NULL")
+	List<String> findOwnerUserIdsByCompanyIds(@Param("companyIds") Collection<String> companyIds);
+
+	@Query("SELECT DISTINCT c.user.id FROM RescueCompany c WHERE LOWER(c.address.city) = LOWER(:city) AND c.user IS NOT NULL")
+	List<String> findOwnerUserIdsByCity(@Param("city") String city);
+
+	/**
+	 * Streams every company with its owner for exports; rows are fetched from a server-side cursor in batches.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT c FROM RescueCompany c LEFT JOIN FETCH c.user")
+	Stream<RescueCompany> streamAllForExport();
 }
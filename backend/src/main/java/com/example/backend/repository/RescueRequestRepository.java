@@ -4,13 +4,23 @@ import com.example.backend.model.RescueRequest;
 import com.example.backend.model.RescueService;
 import com.example.backend.model.User;
 import com.example.backend.model.enums.RescueRequestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RescueRequestRepository extends JpaRepository<RescueRequest, String> {
+public interface RescueRequestRepository extends JpaRepository<RescueRequest, String>, JpaSpecificationExecutor<RescueRequest> {
 	List<RescueRequest> findByUserId(String userId);
 
 	List<RescueRequest> findByRescueServiceInAndStatus(List<RescueService> services, RescueRequestStatus status);
@@ -24,4 +34,52 @@ public interface RescueRequestRepository extends JpaRepository<RescueRequest, St
 	List<RescueRequest> findByCreatedAtAfter(LocalDateTime date);
 
 	List<RescueRequest> findByRescueServiceId(String serviceId);
+
+	long countByRescueServiceId(String serviceId);
+
+	/**
+	 * Detaches up to {@code limit} requests from a service in one statement.
+	 * updatedAt is set explicitly because bulk updates bypass the entity callbacks the rollup refresh relies on.
+	 *
+	 * @return The number of requests detached.
+	 */
+	@Modifying
+	@Query(value = "UPDATE rescue_requests SET service_id = NULL, updated_at = :now WHERE service_id = :serviceId LIMIT :limit",
+			nativeQuery = true)
+	int detachFromService(@Param("serviceId") String serviceId, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+	/**
+	 * Counts requests created in [from, to) per hour, status, service and company, grouped in the database.
+	 *
+	 * @return Rows of [year, month, day, hour, status, serviceId, companyId, count].
+	 */
+	@Query("SELECT year(r.createdAt), month(r.createdAt), day(r.createdAt), hour(r.createdAt), r.status, s.id, c.id, COUNT(r) " +
+			"FROM RescueRequest r LEFT JOIN r.rescueService s LEFT JOIN r.company c " +
+			"WHERE r.createdAt >= :from AND r.createdAt < :to " +
+			"GROUP BY year(r.createdAt), month(r.createdAt), day(r.createdAt), hour(r.createdAt), r.status, s.id, c.id")
+	List<Object[]> countHourlyByStatusServiceAndCompany(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Creation days of requests created or modified since the given time, to find rollup buckets to refresh.
+	 */
+	@Query("SELECT DISTINCT cast(r.createdAt as LocalDate) FROM RescueRequest r WHERE r.updatedAt >= :since OR r.createdAt >= :since")
+	List<LocalDate> findCreatedDaysChangedSince(@Param("since") LocalDateTime since);
+
+	/**
+	 * Streams every request with its company for exports; rows are fetched from a server-side cursor in batches.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT r FROM RescueRequest r LEFT JOIN FETCH r.company")
+	Stream<RescueRequest> streamAllForExport();
+
+	/**
+	 * Streams export rows ordered by (createdAt, id), starting after the given position:
+	 * [id, createdAt, updatedAt, userId, serviceId, companyId, status, latitude, longitude, estimatedPrice, finalPrice].
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT r.id, r.createdAt, r.updatedAt, u.id, s.id, c.id, r.status, r.latitude, r.longitude, " +
+			"r.estimatedPrice, r.finalPrice FROM RescueRequest r " +
+			"LEFT JOIN r.user u LEFT JOIN r.rescueService s LEFT JOIN r.company c " +
+			"WHERE r.createdAt > :after OR (r.createdAt = :after AND r.id > :afterId) ORDER BY r.createdAt, r.id")
+	Stream<Object[]> streamExportRows(@Param("after") LocalDateTime after, @Param("afterId") String afterId);
 }
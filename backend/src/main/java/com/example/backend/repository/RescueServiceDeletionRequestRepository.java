@@ -1,9 +1,62 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.RescueServiceDeletionRequest;
+import com.example.backend.model.RescueServiceDeletionRequest.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RescueServiceDeletionRequestRepository extends JpaRepository<RescueServiceDeletionRequest, String> {
-} 
\ No newline at end of file
+    List<RescueServiceDeletionRequest> findByStatus(Status status);
+
+    /**
+     * Moves a request to the given status only if it is still in one of the expected statuses,
+     * so two concurrent approvals cannot both start the deletion.
+     *
+     * @return 1 if the status was changed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE RescueServiceDeletionRequest r SET r.status = :status, r.errorMessage = null " +
+            "WHERE r.id = :id AND r.status IN :expected")
+    int transition(@Param("id") String id, @Param("expected") Collection<Status> expected, @Param("status") Status status);
+
+    /**
+     * Finishes a request (APPROVED or FAILED) only if it is still in the expected status, so a run that lost
+     * a race with another run of the same request cannot overwrite the outcome recorded by the other run.
+     *
+     * @return 1 if the status was changed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE RescueServiceDeletionRequest r SET r.status = :status, r.errorMessage = :errorMessage, " +
+            "r.processedAt = :processedAt WHERE r.id = :id AND r.status = :expected")
+    int transition(@Param("id") String id, @Param("expected") Status expected, @Param("status") Status status,
+                   @Param("errorMessage") String errorMessage, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Adds to the progress counters of a request that is still in the expected status.
+     * Counters are incremented in place, so concurrent runs never write back a stale copy of the row.
+     *
+     * @return 1 if the counters were updated, 0 if the request is no longer in the expected status.
+     */
+    @Modifying
+    @Query("UPDATE RescueServiceDeletionRequest r SET " +
+            "r.detachedRequests = COALESCE(r.detachedRequests, 0) + :detached, " +
+            "r.deletedRatings = COALESCE(r.deletedRatings, 0) + :deleted " +
+            "WHERE r.id = :id AND r.status = :expected")
+    int addProgress(@Param("id") String id, @Param("expected") Status expected,
+                    @Param("detached") long detached, @Param("deleted") long deleted);
+
+    /**
+     * Clears the service reference of every deletion request for the service, so the service row can be deleted.
+     */
+    @Modifying
+    @Query("UPDATE RescueServiceDeletionRequest r SET r.service = null WHERE r.service.id = :serviceId")
+    int detachFromService(@Param("serviceId") String serviceId);
+}
@@ -3,12 +3,20 @@ package com.example.backend.repository;
 import com.example.backend.model.RescueRequest;
 import com.example.backend.model.RescueVehicle;
 import com.example.backend.model.RescueVehicleDispatch;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RescueVehicleDispatchRepository extends JpaRepository<RescueVehicleDispatch, String> {
@@ -17,4 +25,30 @@ public interface RescueVehicleDispatchRepository extends JpaRepository<RescueVeh
 	boolean existsByRescueRequestAndRescueVehicle(RescueRequest request, RescueVehicle vehicle);
 
 	RescueVehicleDispatch findByRescueRequestId(String requestId);
+
+	/**
+	 * Timing rows of the dispatches made in [from, to) for companies:
+	 * [companyId, requestCreatedAt, dispatchedAt, arrivedAt, completedAt, status].
+	 * Rows are not grouped because the completion time distribution needs the individual durations.
+	 */
+	@Query("SELECT c.id, r.createdAt, d.dispatchedAt, d.arrivedAt, d.completedAt, d.status FROM RescueVehicleDispatch d " +
+			"JOIN d.rescueRequest r JOIN r.company c WHERE d.dispatchedAt >= :from AND d.dispatchedAt < :to")
+	List<Object[]> findTimingRowsDispatchedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Dispatch days of dispatches created or modified since the given time, to find rollup days to refresh.
+	 */
+	@Query("SELECT DISTINCT cast(d.dispatchedAt as LocalDate) FROM RescueVehicleDispatch d " +
+			"WHERE d.updatedAt >= :since OR d.dispatchedAt >= :since")
+	List<LocalDate> findDispatchedDaysChangedSince(@Param("since") LocalDateTime since);
+
+	/**
+	 * Streams export rows ordered by (dispatchedAt, id), starting after the given position:
+	 * [id, dispatchedAt, requestId, vehicleId, status, arrivedAt, completedAt].
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT d.id, d.dispatchedAt, r.id, v.id, d.status, d.arrivedAt, d.completedAt FROM RescueVehicleDispatch d " +
+			"LEFT JOIN d.rescueRequest r LEFT JOIN d.rescueVehicle v " +
+			"WHERE d.dispatchedAt > :after OR (d.dispatchedAt = :after AND d.id > :afterId) ORDER BY d.dispatchedAt, d.id")
+	Stream<Object[]> streamExportRows(@Param("after") LocalDateTime after, @Param("afterId") String afterId);
 }
\ No newline at end of file
@@ -1,7 +1,45 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.RescueVehicle;
+import com.example.backend.model.enums.RescueVehicleStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface RescueVehicleRepository extends JpaRepository<RescueVehicle, String> {
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface RescueVehicleRepository extends JpaRepository<RescueVehicle, String>, JpaSpecificationExecutor<RescueVehicle> {
+	long countByCompanyId(String companyId);
+
+	List<RescueVehicle> findByCompanyId(String companyId);
+
+	List<RescueVehicle> findByCompanyIdAndStatus(String companyId, RescueVehicleStatus status);
+
+	/**
+	 * Counts the vehicles of a company per status.
+	 *
+	 * @return Rows of [status, count].
+	 */
+	@Query("SELECT v.status, COUNT(v) FROM RescueVehicle v WHERE v.company.id = :companyId GROUP BY v.status")
+	List<Object[]> countByStatusForCompany(@Param("companyId") String companyId);
+
+	/**
+	 * Vehicles of a company due for maintenance before the given time (overdue ones included), soonest first.
+	 */
+	List<RescueVehicle> findByCompanyIdAndNextMaintenanceDateLessThanEqualOrderByNextMaintenanceDate(
+			String companyId, LocalDateTime before, Limit limit);
+
+	/**
+	 * Streams every vehicle with its company for exports; rows are fetched from a server-side cursor in batches.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT v FROM RescueVehicle v LEFT JOIN FETCH v.company")
+	Stream<RescueVehicle> streamAllForExport();
 }
@@ -1,14 +1,27 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
 	Optional<User> findByUsername(String username);
 	Optional<User> findByEmail(String email);
 	boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+	/**
+	 * Streams every user for exports; rows are fetched from a server-side cursor in batches.
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT u FROM User u")
+	Stream<User> streamAllForExport();
+}
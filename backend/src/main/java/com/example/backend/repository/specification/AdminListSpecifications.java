@@ -0,0 +1,152 @@
+package com.example.backend.repository.specification;
+
+import com.example.backend.dto.request.AdminListRequest;
+import com.example.backend.model.CompanyRating;
+import com.example.backend.model.Invoice;
+import com.example.backend.model.RescueCompany;
+import com.example.backend.model.RescueRequest;
+import com.example.backend.model.RescueVehicle;
+import com.example.backend.model.User;
+import com.example.backend.model.enums.InvoiceStatus;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RescueVehicleStatus;
+import com.example.backend.model.enums.UserRole;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bộ lọc cho các danh sách trong trang quản trị (xem AdminListRequest).
+ */
+public final class AdminListSpecifications {
+
+	private AdminListSpecifications() {
+	}
+
+	public static Specification<User> users(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getQ())) {
+				String pattern = likePattern(request.getQ());
+				predicates.add(cb.or(
+						cb.like(cb.lower(root.get("username")), pattern),
+						cb.like(cb.lower(root.get("name")), pattern),
+						cb.like(cb.lower(root.get("email")), pattern)));
+			}
+			if (hasText(request.getRole())) {
+				predicates.add(cb.isMember(UserRole.valueOf(request.getRole().toUpperCase()), root.get("roles")));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<RescueCompany> companies(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getQ())) {
+				predicates.add(cb.like(cb.lower(root.get("name")), likePattern(request.getQ())));
+			}
+			if (hasText(request.getCity())) {
+				predicates.add(cb.equal(cb.lower(root.get("address").get("city")), request.getCity().toLowerCase()));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<Invoice> invoices(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getStatus())) {
+				predicates.add(cb.equal(root.get("status"), InvoiceStatus.valueOf(request.getStatus().toUpperCase())));
+			}
+			if (hasText(request.getCompanyId())) {
+				predicates.add(cb.equal(root.get("rescueRequest").get("company").get("id"), request.getCompanyId()));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<RescueRequest> requests(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getStatus())) {
+				predicates.add(cb.equal(root.get("status"), RescueRequestStatus.valueOf(request.getStatus().toUpperCase())));
+			}
+			if (hasText(request.getCompanyId())) {
+				predicates.add(cb.equal(root.get("company").get("id"), request.getCompanyId()));
+			}
+			if (hasText(request.getServiceId())) {
+				predicates.add(cb.equal(root.get("rescueService").get("id"), request.getServiceId()));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<CompanyRating> ratings(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getQ())) {
+				predicates.add(cb.like(cb.lower(root.get("comment")), likePattern(request.getQ())));
+			}
+			if (hasText(request.getCompanyId())) {
+				predicates.add(cb.equal(root.get("company").get("id"), request.getCompanyId()));
+			}
+			if (hasText(request.getServiceId())) {
+				predicates.add(cb.equal(root.get("service").get("id"), request.getServiceId()));
+			}
+			if (request.getStars() != null) {
+				predicates.add(cb.equal(root.get("stars"), request.getStars()));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<RescueVehicle> vehicles(AdminListRequest request) {
+		return (root, query, cb) -> {
+			List<Predicate> predicates = new ArrayList<>();
+			if (hasText(request.getQ())) {
+				String pattern = likePattern(request.getQ());
+				predicates.add(cb.or(
+						cb.like(cb.lower(root.get("name")), pattern),
+						cb.like(cb.lower(root.get("licensePlate")), pattern)));
+			}
+			if (hasText(request.getStatus())) {
+				predicates.add(cb.equal(root.get("status"), RescueVehicleStatus.valueOf(request.getStatus().toUpperCase())));
+			}
+			if (hasText(request.getCompanyId())) {
+				predicates.add(cb.equal(root.get("company").get("id"), request.getCompanyId()));
+			}
+			addCreatedBetween(predicates, cb, root, request);
+			return cb.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	private static void addCreatedBetween(List<Predicate> predicates, CriteriaBuilder cb, Root<?> root, AdminListRequest request) {
+		Path<LocalDateTime> createdAt = root.get("createdAt");
+		if (request.getFrom() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(createdAt, request.getFrom()));
+		}
+		if (request.getTo() != null) {
+			predicates.add(cb.lessThan(createdAt, request.getTo()));
+		}
+	}
+
+	private static boolean hasText(String value) {
+		return value != null && !value.isBlank();
+	}
+
+	private static String likePattern(String keyword) {
+		return "%" + keyword.trim().toLowerCase() + "%";
+	}
+}
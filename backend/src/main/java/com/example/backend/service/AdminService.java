@@ -1,12 +1,18 @@
 package com.example.backend.service;
 
 import com.example.backend.model.*;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import com.example.backend.model.enums.ReportType;
 import com.example.backend.model.enums.ReportStatus;
 import com.example.backend.dto.request.ResolveReportRequest;
+import com.example.backend.dto.request.AnnouncementRequest;
+import com.example.backend.dto.request.AdminListRequest;
 import com.example.backend.model.CompanyRating;
+import com.example.backend.dto.response.CursorPageResponse;
+import com.example.backend.dto.response.RescueCompanyResponse;
 import com.example.backend.dto.response.UserResponse;
 import com.example.backend.dto.response.InvoiceResponse;
 import com.example.backend.dto.response.RescueRequestResponse;
@@ -16,22 +22,26 @@ import com.example.backend.dto.response.RescueServiceDeletionResponse;
 
 public interface AdminService {
     // User
-    List<UserResponse> getAllUsers();
+    CursorPageResponse<UserResponse> getUsers(AdminListRequest request);
+    void exportUsers(OutputStream out) throws IOException;
     UserResponse getUserById(String id);
     UserResponse updateUser(String id, User user);
     void deleteUser(String id);
     // Company
-    List<com.example.backend.dto.response.RescueCompanyResponse> getAllCompanies();
+    CursorPageResponse<RescueCompanyResponse> getCompanies(AdminListRequest request);
+    void exportCompanies(OutputStream out) throws IOException;
     RescueCompany getCompanyById(String id);
     RescueCompany updateCompany(String id, RescueCompany company);
     void deleteCompany(String id);
     // Invoice
-    List<InvoiceResponse> getAllInvoices();
+    CursorPageResponse<InvoiceResponse> getInvoices(AdminListRequest request);
+    void exportInvoices(OutputStream out) throws IOException;
     Invoice getInvoiceById(String id);
     Invoice updateInvoice(String id, Invoice invoice);
     void deleteInvoice(String id);
     // Request
-    List<RescueRequestResponse> getAllRequests();
+    CursorPageResponse<RescueRequestResponse> getRequests(AdminListRequest request);
+    void exportRequests(OutputStream out) throws IOException;
     RescueRequest getRequestById(String id);
     RescueRequest updateRequest(String id, RescueRequest req);
     void deleteRequest(String id);
@@ -49,14 +59,16 @@ public interface AdminService {
     List<Object[]> getTopReported(ReportType type, int limit);
     void deleteReport(String id);
     // Rating (thay cho review)
-    List<CompanyRatingResponse> getAllRatings();
+    CursorPageResponse<CompanyRatingResponse> getRatings(AdminListRequest request);
+    void exportRatings(OutputStream out) throws IOException;
     void deleteRating(String id);
     // Keyword filter
     List<Topic> findTopicsByKeyword(String keyword);
     List<TopicComment> findCommentsByKeyword(String keyword);
     List<CompanyRatingResponse> findRatingsByKeyword(String keyword);
     // Vehicle
-    List<RescueVehicleResponse> getAllVehicles();
+    CursorPageResponse<RescueVehicleResponse> getVehicles(AdminListRequest request);
+    void exportVehicles(OutputStream out) throws IOException;
     RescueVehicleResponse getVehicleById(String id);
     void deleteVehicle(String id);
     // Statistics endpoints
@@ -64,11 +76,21 @@ public interface AdminService {
     Map<String, Object> getServiceUsageStats(String timeRange);
     Map<String, Object> getSatisfactionStats(String timeRange);
     Map<String, Object> getTopRatedServices(String timeRange);
+    // Approximate metrics from sketches
+    Map<String, Object> getActiveUserStats();
+    Map<String, Object> getTopRequestedServices(String timeRange, int limit);
+    Map<String, Object> getPriceDistribution(String timeRange, String kind);
     // Online users
     List<String> getOnlineUsers();
+    // Announcements
+    Map<String, Object> sendAnnouncement(AnnouncementRequest request);
     // Service deletion requests
     List<RescueServiceDeletionResponse> getServiceDeletionRequests();
     RescueServiceDeletionResponse getServiceDeletionRequestById(String id);
+    /**
+     * Approves a pending or failed deletion request and queues the deletion of its service in the background.
+     * Progress is reported on the deletion request until it becomes APPROVED or FAILED.
+     */
     RescueServiceDeletionResponse approveServiceDeletion(String requestId);
     RescueServiceDeletionResponse rejectServiceDeletion(String requestId, String reason);
 } 
\ No newline at end of file
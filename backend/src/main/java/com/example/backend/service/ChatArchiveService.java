@@ -0,0 +1,41 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for the chat history archive tier.
+ * Old messages of inactive conversations are moved out of the hot messages table
+ * into compressed per-conversation segments and read back transparently by the cursor APIs.
+ */
+public interface ChatArchiveService {
+
+	/**
+	 * Moves messages older than the configured age, from conversations inactive for the configured period,
+	 * into compressed archive segments.
+	 *
+	 * @return The number of messages archived.
+	 */
+	int archiveColdMessages();
+
+	/**
+	 * Reads archived messages before a cursor position, newest first.
+	 *
+	 * @param conversationId The ID of the conversation.
+	 * @param timestamp      The timestamp of the cursor (exclusive, together with messageId), or null to start from the newest archived message.
+	 * @param messageId      The message ID of the cursor, or null to start from the newest archived message.
+	 * @param limit          Maximum number of messages to return.
+	 * @return A list of detached, read-only messages.
+	 */
+	List<Message> findMessagesBeforeCursor(String conversationId, LocalDateTime timestamp, String messageId, int limit);
+
+	/**
+	 * Reads every message stored in one archive segment.
+	 *
+	 * @param segmentId The ID of the archive segment.
+	 * @return A list of detached, read-only messages, or an empty list if the segment does not exist.
+	 */
+	List<Message> findSegmentMessages(String segmentId);
+}
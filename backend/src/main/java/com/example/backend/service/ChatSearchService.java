@@ -0,0 +1,55 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.response.MessageSearchResponse;
+import com.example.backend.model.Message;
+
+/**
+ * Service interface for full-text search over chat history.
+ * Messages are indexed incrementally into an embedded on-disk index as they are inserted.
+ */
+public interface ChatSearchService {
+
+	/**
+	 * Adds a newly persisted message to the search index.
+	 * When called inside a transaction the message is indexed only after the transaction commits.
+	 *
+	 * @param message The persisted message (its conversation must be initialized).
+	 */
+	void indexMessage(Message message);
+
+	/**
+	 * Searches messages in all conversations of a user.
+	 *
+	 * @param userId         The ID of the user.
+	 * @param conversationId Optional conversation ID to narrow the search.
+	 * @param query          The free-text query.
+	 * @param limit          Maximum number of hits to return.
+	 * @return MessageSearchResponse containing ranked hits with highlighted snippets.
+	 */
+	MessageSearchResponse searchForUser(String userId, String conversationId, String query, int limit);
+
+	/**
+	 * Searches messages in all conversations of a rescue company.
+	 *
+	 * @param rescueCompanyId The ID of the rescue company.
+	 * @param conversationId  Optional conversation ID to narrow the search.
+	 * @param query           The free-text query.
+	 * @param limit           Maximum number of hits to return.
+	 * @return MessageSearchResponse containing ranked hits with highlighted snippets.
+	 */
+	MessageSearchResponse searchForCompany(String rescueCompanyId, String conversationId, String query, int limit);
+
+	/**
+	 * Rebuilds the whole index from the messages table and the archive segments.
+	 * Messages inserted while the rebuild runs are indexed once it has finished.
+	 */
+	void rebuildIndex();
+
+	/**
+	 * Indexes every message sent since the index was last synced, if the messages table has newer messages.
+	 * This catches the index up with messages written through other instances or while this one was down.
+	 *
+	 * @return The number of messages indexed.
+	 */
+	int syncFromDatabase();
+}
@@ -5,6 +5,7 @@ import com.example.backend.dto.response.MessageCursorResponse;
 import com.example.backend.model.Message;
 import com.example.backend.model.enums.MessageSender;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -35,7 +36,8 @@ public interface ChatService {
 	MessageCursorResponse getMessagesBeforeCursor(String conversationId, String cursor, int limit, String sort);
 
 	/**
-	 * Marks all unread messages in a conversation as read.
+	 * Marks all unread messages in a conversation as read by advancing the reader's read watermark.
+	 * Repeated calls within the coalescing interval are applied once at the end of the interval.
 	 *
 	 * @param conversationId The ID of the conversation.
 	 * @param senderType     Type of the message sender to mark as read.
@@ -53,6 +55,21 @@ public interface ChatService {
 	 */
 	Message sendMessage(String userId, String rescueCompanyId, String content, MessageSender senderType);
 
+	/**
+	 * Sends a message that has already been delivered over WebSocket by the notification service.
+	 * Idempotent on the delivery ID: a redelivered event returns the message persisted the first time.
+	 *
+	 * @param userId          The ID of the user.
+	 * @param rescueCompanyId The ID of the rescue company.
+	 * @param content         The content of the message.
+	 * @param senderType      The type of the sender (USER or RESCUE_COMPANY).
+	 * @param deliveryId      The ID assigned by the notification service, or null.
+	 * @param sentAt          The send time assigned by the notification service, or null to use the current time.
+	 * @return The persisted message.
+	 */
+	Message sendMessage(String userId, String rescueCompanyId, String content, MessageSender senderType, String deliveryId,
+			LocalDateTime sentAt);
+
 	/**
 	 * Retrieves all conversations for a user.
 	 *
@@ -0,0 +1,35 @@
+package com.example.backend.service;
+
+import java.util.Map;
+
+/**
+ * Service interface for the performance analytics shown to rescue companies: acceptance rate, time to dispatch
+ * and arrival, completion time distribution, revenue per period and vehicle utilization.
+ * Metrics are read from daily per-company rollups maintained by an incremental compaction job, so dashboards
+ * never query the request, dispatch or invoice tables directly.
+ */
+public interface CompanyAnalyticsService {
+
+	/**
+	 * Recomputes the rollups of every day that has dispatches or paid invoices created or modified since the last run.
+	 *
+	 * @return The number of days recomputed.
+	 */
+	int refresh();
+
+	/**
+	 * Recomputes every day within the retention period and removes older days.
+	 * This also picks up deletions, which the incremental refresh cannot see.
+	 */
+	void rebuild();
+
+	/**
+	 * Analytics of one company over the given time range (day, week, month or year; month by default).
+	 */
+	Map<String, Object> getCompanyAnalytics(String companyId, String timeRange);
+
+	/**
+	 * Analytics of the company managed by the given user.
+	 */
+	Map<String, Object> getAnalyticsForManager(String userId, String timeRange);
+}
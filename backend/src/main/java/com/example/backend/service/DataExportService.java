@@ -0,0 +1,26 @@
+package com.example.backend.service;
+
+import com.example.backend.model.enums.ExportDataset;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Service interface for exporting operational data as gzip-compressed CSV for offline analysis.
+ */
+public interface DataExportService {
+
+	/**
+	 * Streams the whole dataset as gzip-compressed CSV to the given stream, which is left open.
+	 */
+	void writeCsv(ExportDataset dataset, OutputStream out) throws IOException;
+
+	/**
+	 * Exports the dataset to {@code <directory>/<dataset>.csv.gz}. An export interrupted earlier resumes from its
+	 * last checkpoint; a completed one is started over.
+	 *
+	 * @return the number of rows written by this run
+	 */
+	long exportToFile(ExportDataset dataset, Path directory) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.example.backend.service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Service interface for running scheduled jobs on at most one backend instance at a time.
+ * The lock is a row in the job_locks table with a lease, so it is shared by every replica
+ * and is released automatically if the holding instance dies.
+ */
+public interface JobLockService {
+
+	/**
+	 * Runs a task while holding the named lock.
+	 * Nothing is run if another instance holds the lock.
+	 *
+	 * @param name     The name of the lock, one per job.
+	 * @param maxLease The longest time the lock is held; it should exceed the longest expected run of the task.
+	 * @param task     The task to run.
+	 * @return true if the lock was taken and the task ran, false if another instance holds the lock.
+	 */
+	boolean runExclusively(String name, Duration maxLease, Runnable task);
+
+	/**
+	 * Runs a task that produces a result while holding the named lock.
+	 *
+	 * @param name     The name of the lock, one per job.
+	 * @param maxLease The longest time the lock is held.
+	 * @param task     The task to run.
+	 * @param fallback The result returned when another instance holds the lock.
+	 * @return The result of the task, or the fallback if the task did not run.
+	 */
+	<T> T callExclusively(String name, Duration maxLease, Supplier<T> task, T fallback);
+}
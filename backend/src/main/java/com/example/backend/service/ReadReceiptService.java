@@ -0,0 +1,22 @@
+package com.example.backend.service;
+
+import com.example.backend.model.enums.MessageSender;
+
+/**
+ * Service interface for chat read receipts.
+ * Each participant of a conversation has a read watermark (the newest message they have read)
+ * and a denormalized unread counter on the conversation, which back the unread badges.
+ * Whether a message has been read is derived from the reader's watermark, not stored per message.
+ */
+public interface ReadReceiptService {
+
+	/**
+	 * Records that a participant has read every message from the given sender in a conversation.
+	 * Writes are coalesced: at most one watermark write per conversation and participant per interval,
+	 * later reads within the interval are applied when the interval ends.
+	 *
+	 * @param conversationId The ID of the conversation.
+	 * @param senderType     The type of the sender whose messages were read (the opposite participant).
+	 */
+	void markAsRead(String conversationId, MessageSender senderType);
+}
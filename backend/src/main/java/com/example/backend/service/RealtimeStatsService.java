@@ -0,0 +1,68 @@
+package com.example.backend.service;
+
+import com.example.backend.event.CompanyRatingEvent;
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import com.example.backend.model.enums.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for the in-memory, near-real-time statistics built from the rescue request and rating
+ * lifecycle events on Kafka. Counters use the same keys as the statistics rollups and the query methods
+ * return rows of the same shape as the rollup repository queries, so callers can use either source.
+ */
+public interface RealtimeStatsService {
+
+	/**
+	 * Whether the counters have been initialized (from a snapshot or from the rollups) and can serve queries.
+	 */
+	boolean isReady();
+
+	/**
+	 * Applies a rescue request lifecycle event read at the given position. Events at positions that were
+	 * already applied (replayed after restoring a snapshot) are ignored.
+	 */
+	void applyRequestEvent(RescueRequestLifecycleEvent event, String topic, int partition, long offset);
+
+	/**
+	 * Applies a company rating event read at the given position.
+	 */
+	void applyRatingEvent(CompanyRatingEvent event, String topic, int partition, long offset);
+
+	/**
+	 * The next offset to read for a partition, or null if the counters were not restored from a snapshot
+	 * covering it.
+	 */
+	Long getNextOffset(String topic, int partition);
+
+	/**
+	 * Replaces the counters with the content of the statistics rollups.
+	 */
+	void reload();
+
+	/**
+	 * Writes the counters and consumed offsets to the snapshot file.
+	 */
+	void snapshot();
+
+	/**
+	 * @return Rows of [bucketStart, status, count].
+	 */
+	List<Object[]> sumRequestsByBucketAndStatus(RollupGranularity granularity, LocalDateTime from);
+
+	/**
+	 * @return Rows of [bucketStart, serviceId, count].
+	 */
+	List<Object[]> sumRequestsByBucketAndService(RollupGranularity granularity, LocalDateTime from);
+
+	/**
+	 * @return Rows of [bucketStart, stars, count].
+	 */
+	List<Object[]> sumRatingsByBucketAndStars(RollupGranularity granularity, LocalDateTime from);
+
+	/**
+	 * @return Rows of [serviceId, sum of stars, count].
+	 */
+	List<Object[]> sumRatingsByService(RollupGranularity granularity, LocalDateTime from);
+}
@@ -2,7 +2,9 @@ package com.example.backend.service;
 
 import com.example.backend.dto.request.RescueVehicleRequest;
 import com.example.backend.dto.request.VehicleStatusRequest;
+import com.example.backend.dto.response.FleetOverviewResponse;
 import com.example.backend.dto.response.RescueVehicleResponse;
+import com.example.backend.model.enums.RescueVehicleStatus;
 
 import java.util.List;
 
@@ -13,5 +15,7 @@ public interface RescueVehicleService {
 	RescueVehicleResponse getById(String id);
 	List<RescueVehicleResponse> getAll();
 	List<RescueVehicleResponse> getByCompany(String companyId);
+	List<RescueVehicleResponse> getByCompanyAndStatus(String companyId, RescueVehicleStatus status);
+	FleetOverviewResponse getFleetOverview(String companyId);
 	RescueVehicleResponse updateStatus(String id, VehicleStatusRequest request);
 }
@@ -0,0 +1,59 @@
+package com.example.backend.service;
+
+import com.example.backend.model.enums.ReportType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service interface for approximate dashboard metrics kept in constant-size, mergeable sketches:
+ * HyperLogLog for active users, Count-Min/Top-K for the most requested services and most reported targets,
+ * and t-digest for price distributions.
+ * Updates are buffered per replica and periodically merged into the shared sketch rows.
+ */
+public interface SketchMetricsService {
+
+	String ESTIMATED_PRICE = "estimated";
+	String FINAL_PRICE = "final";
+
+	void recordActiveUser(String userId);
+
+	void recordServiceRequested(String serviceId);
+
+	void recordReport(ReportType type, String targetId);
+
+	/**
+	 * @param kind {@link #ESTIMATED_PRICE} or {@link #FINAL_PRICE}
+	 */
+	void recordPrice(String kind, Double price);
+
+	/**
+	 * Estimated number of distinct active users between the two dates (inclusive).
+	 */
+	long countActiveUsers(LocalDate from, LocalDate to);
+
+	/**
+	 * Most requested services between the two dates (inclusive).
+	 *
+	 * @return Rows of [serviceId, estimated request count], highest first.
+	 */
+	List<Object[]> getTopRequestedServices(LocalDate from, LocalDate to, int limit);
+
+	/**
+	 * Most reported targets of a type since the sketch was seeded.
+	 *
+	 * @return Rows of [targetId, estimated report count], highest first.
+	 */
+	List<Object[]> getTopReported(ReportType type, int limit);
+
+	/**
+	 * Count, min, max and p50/p90/p99 of the recorded prices between the two dates (inclusive).
+	 */
+	Map<String, Object> getPriceDistribution(String kind, LocalDate from, LocalDate to);
+
+	/**
+	 * Writes the buffered updates of this replica to the shared sketches.
+	 */
+	void flush();
+}
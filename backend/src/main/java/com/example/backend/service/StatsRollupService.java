@@ -0,0 +1,34 @@
+package com.example.backend.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Service interface for the pre-aggregated statistics used by the admin dashboard.
+ * Rescue requests and company ratings are counted into hourly and daily buckets keyed by
+ * (bucket, status, service, company) so dashboard queries read O(buckets) rows instead of every event.
+ */
+public interface StatsRollupService {
+
+	/**
+	 * Recomputes the buckets of every day that has requests or ratings created or modified since the last run.
+	 *
+	 * @return The number of days recomputed.
+	 */
+	int refresh();
+
+	/**
+	 * Like {@link #refresh()}, but also recomputes the given days.
+	 * Used after bulk deletions, which leave no modification time for the incremental refresh to find.
+	 *
+	 * @param days Creation days of the deleted rows.
+	 * @return The number of days recomputed.
+	 */
+	int refresh(Collection<LocalDate> days);
+
+	/**
+	 * Recomputes every bucket within the retention period and removes older buckets.
+	 * This also picks up deletions, which the incremental refresh cannot see.
+	 */
+	void rebuild();
+}
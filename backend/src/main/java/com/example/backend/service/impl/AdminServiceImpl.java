@@ -1,40 +1,59 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.request.AdminListRequest;
+import com.example.backend.dto.request.AnnouncementRequest;
+import com.example.backend.dto.request.ResolveReportRequest;
 import com.example.backend.dto.response.*;
+import com.example.backend.event.BroadcastEvent;
+import com.example.backend.event.enums.BroadcastTarget;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.job.ServiceDeletionJob;
+import com.example.backend.kafka.BroadcastEventProducer;
+import com.example.backend.kafka.OnlineUserEventService;
 import com.example.backend.model.*;
+import com.example.backend.model.enums.ReportStatus;
+import com.example.backend.model.enums.ReportType;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RescueServiceStatus;
+import com.example.backend.model.enums.RollupGranularity;
 import com.example.backend.repository.*;
+import com.example.backend.repository.specification.AdminListSpecifications;
 import com.example.backend.service.AdminService;
+import com.example.backend.service.RealtimeStatsService;
+import com.example.backend.service.SketchMetricsService;
+import com.example.backend.utils.DashboardCache;
+import com.example.backend.utils.KeysetCursorCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
-import com.example.backend.model.enums.ReportType;
-import com.example.backend.model.enums.ReportStatus;
-import com.example.backend.dto.request.ResolveReportRequest;
-import com.example.backend.model.CompanyRating;
-import com.example.backend.repository.CompanyRatingRepository;
-import com.example.backend.repository.TopicRepository;
-import com.example.backend.repository.TopicCommentRepository;
 
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.time.format.DateTimeFormatter;
-import java.util.DoubleSummaryStatistics;
-import org.springframework.kafka.core.KafkaTemplate;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.common.serialization.StringDeserializer;
-import org.springframework.beans.factory.annotation.Value;
-import java.time.Duration;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import com.example.backend.kafka.OnlineUserEventService;
-import com.example.backend.exception.ResourceNotFoundException;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -53,104 +72,98 @@ public class AdminServiceImpl implements AdminService {
     private final ObjectMapper objectMapper;
     private static final Logger log = LoggerFactory.getLogger(AdminServiceImpl.class);
     private final OnlineUserEventService onlineUserEventService;
+    private final BroadcastEventProducer broadcastEventProducer;
     private final RescueServiceDeletionRequestRepository rescueServiceDeletionRequestRepository;
+    private final ServiceDeletionJob serviceDeletionJob;
     private final RescueServiceRepository rescueServiceRepository;
     private final RescueRequestRepository rescueRequestRepository;
+    private final RequestStatRollupRepository requestStatRollupRepository;
+    private final RatingStatRollupRepository ratingStatRollupRepository;
+    private final RealtimeStatsService realtimeStatsService;
+    private final SketchMetricsService sketchMetricsService;
+    private final DashboardCache dashboardCache;
+    private final KeysetCursorCodec cursorCodec;
+    private final EntityManager entityManager;
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    private static final Map<String, Class<?>> CREATED_AT_SORT_FIELDS = Map.of("createdAt", LocalDateTime.class);
+    private static final Map<String, Class<?>> USER_SORT_FIELDS = Map.of(
+        "createdAt", LocalDateTime.class, "username", String.class);
+    private static final Map<String, Class<?>> INVOICE_SORT_FIELDS = Map.of(
+        "createdAt", LocalDateTime.class, "invoiceDate", LocalDateTime.class, "amount", Double.class);
+    private static final Map<String, Class<?>> RATING_SORT_FIELDS = Map.of(
+        "createdAt", LocalDateTime.class, "stars", Integer.class);
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final int MAX_TOP_LIMIT = 100;
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${admin.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${admin.list.max-page-size:200}")
+    private int maxPageSize;
+
     // User
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-            .map(user -> UserResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .name(user.getName())
-                .email(user.getEmail())
-                .role(user.getRoles().stream().findFirst().map(Enum::name).orElse(null))
-                .build())
-            .collect(Collectors.toList());
+    public CursorPageResponse<UserResponse> getUsers(AdminListRequest request) {
+        return scroll(userRepository, AdminListSpecifications.users(request), request, USER_SORT_FIELDS, this::toUserResponse);
+    }
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepository.streamAllForExport()) {
+            writeJsonArray(users, this::toUserResponse, out);
+        }
     }
     public UserResponse getUserById(String id) {
-        User user = userRepository.findById(id).orElseThrow();
-        return UserResponse.builder()
-            .id(user.getId())
-            .username(user.getUsername())
-            .name(user.getName())
-            .email(user.getEmail())
-            .role(user.getRoles().stream().findFirst().map(Enum::name).orElse(null))
-            .build();
+        return toUserResponse(userRepository.findById(id).orElseThrow());
     }
     public UserResponse updateUser(String id, User user) {
         user.setId(id);
-        User saved = userRepository.save(user);
-        return UserResponse.builder()
-            .id(saved.getId())
-            .username(saved.getUsername())
-            .name(saved.getName())
-            .email(saved.getEmail())
-            .role(saved.getRoles().stream().findFirst().map(Enum::name).orElse(null))
-            .build();
+        return toUserResponse(userRepository.save(user));
     }
     public void deleteUser(String id) { userRepository.deleteById(id); }
     // Company
-    public List<RescueCompanyResponse> getAllCompanies() {
-        return companyRepository.findAll().stream()
-            .map(company -> RescueCompanyResponse.builder()
-                .id(company.getId())
-                .name(company.getName())
-                .phone(company.getPhone())
-                .description(company.getDescription())
-                .address(company.getAddress())
-                .latitude(company.getLatitude())
-                .longitude(company.getLongitude())
-                .userId(company.getUser() != null ? company.getUser().getId() : null)
-                .build())
-            .collect(Collectors.toList());
+    public CursorPageResponse<RescueCompanyResponse> getCompanies(AdminListRequest request) {
+        return scroll(companyRepository, AdminListSpecifications.companies(request), request, CREATED_AT_SORT_FIELDS,
+            this::toCompanyResponse, "user");
+    }
+    @Transactional(readOnly = true)
+    public void exportCompanies(OutputStream out) throws IOException {
+        try (Stream<RescueCompany> companies = companyRepository.streamAllForExport()) {
+            writeJsonArray(companies, this::toCompanyResponse, out);
+        }
     }
     public RescueCompany getCompanyById(String id) { return companyRepository.findById(id).orElseThrow(); }
     public RescueCompany updateCompany(String id, RescueCompany company) { company.setId(id); return companyRepository.save(company); }
     public void deleteCompany(String id) { companyRepository.deleteById(id); }
     // Invoice
-    public List<InvoiceResponse> getAllInvoices() {
-        return invoiceRepository.findAll().stream()
-            .map(invoice -> InvoiceResponse.builder()
-                .id(invoice.getId())
-                .rescueRequestId(invoice.getRescueRequest() != null ? invoice.getRescueRequest().getId() : null)
-                .invoiceNumber(invoice.getInvoiceNumber())
-                .amount(invoice.getAmount())
-                .invoiceDate(invoice.getInvoiceDate())
-                .dueDate(invoice.getDueDate())
-                .paidDate(invoice.getPaidDate())
-                .status(invoice.getStatus())
-                .paymentMethod(invoice.getPaymentMethod())
-                .notes(invoice.getNotes())
-                .createdAt(invoice.getCreatedAt())
-                .build())
-            .collect(Collectors.toList());
+    public CursorPageResponse<InvoiceResponse> getInvoices(AdminListRequest request) {
+        return scroll(invoiceRepository, AdminListSpecifications.invoices(request), request, INVOICE_SORT_FIELDS,
+            this::toInvoiceResponse, "rescueRequest");
+    }
+    @Transactional(readOnly = true)
+    public void exportInvoices(OutputStream out) throws IOException {
+        try (Stream<Invoice> invoices = invoiceRepository.streamAllForExport()) {
+            writeJsonArray(invoices, this::toInvoiceResponse, out);
+        }
     }
     public Invoice getInvoiceById(String id) { return invoiceRepository.findById(id).orElseThrow(); }
     public Invoice updateInvoice(String id, Invoice invoice) { invoice.setId(id); return invoiceRepository.save(invoice); }
     public void deleteInvoice(String id) { invoiceRepository.deleteById(id); }
     // Request
-    public List<RescueRequestResponse> getAllRequests() {
-        return requestRepository.findAll().stream()
-            .map(request -> RescueRequestResponse.builder()
-                .id(request.getId())
-                .userId(request.getUser() != null ? request.getUser().getId() : null)
-                .companyId(request.getCompany() != null ? request.getCompany().getId() : null)
-                .companyName(request.getCompany() != null ? request.getCompany().getName() : null)
-                .latitude(request.getLatitude())
-                .longitude(request.getLongitude())
-                .description(request.getDescription())
-                .estimatedPrice(request.getEstimatedPrice())
-                .finalPrice(request.getFinalPrice())
-                .status(request.getStatus())
-                .createdAt(request.getCreatedAt())
-                .notes(request.getNotes())
-                .build())
-            .collect(Collectors.toList());
+    public CursorPageResponse<RescueRequestResponse> getRequests(AdminListRequest request) {
+        return scroll(requestRepository, AdminListSpecifications.requests(request), request, CREATED_AT_SORT_FIELDS,
+            this::toRequestResponse, "company");
+    }
+    @Transactional(readOnly = true)
+    public void exportRequests(OutputStream out) throws IOException {
+        try (Stream<RescueRequest> requests = requestRepository.streamAllForExport()) {
+            writeJsonArray(requests, this::toRequestResponse, out);
+        }
     }
     public RescueRequest getRequestById(String id) { return requestRepository.findById(id).orElseThrow(); }
     public RescueRequest updateRequest(String id, RescueRequest req) { req.setId(id); return requestRepository.save(req); }
@@ -182,27 +195,19 @@ public class AdminServiceImpl implements AdminService {
         return reportRepository.save(report);
     }
     public List<Object[]> getTopReported(ReportType type, int limit) {
-        List<Object[]> all = reportRepository.findTopReportedByType(type);
-        return all.stream().limit(limit).toList();
+        return sketchMetricsService.getTopReported(type, limit);
     }
     public void deleteReport(String id) { reportRepository.deleteById(id); }
     // Rating (thay cho review)
-    public List<CompanyRatingResponse> getAllRatings() {
-        return companyRatingRepository.findAll().stream()
-            .map(rating -> CompanyRatingResponse.builder()
-                .id(rating.getId())
-                .companyId(rating.getCompany() != null ? rating.getCompany().getId() : null)
-                .companyName(rating.getCompany() != null ? rating.getCompany().getName() : null)
-                .serviceId(rating.getService() != null ? rating.getService().getId() : null)
-                .serviceName(rating.getService() != null ? rating.getService().getName() : null)
-                .userId(rating.getUser() != null ? rating.getUser().getId() : null)
-                .userName(rating.getUser() != null ? rating.getUser().getName() : null)
-                .stars(rating.getStars())
-                .comment(rating.getComment())
-                .createdAt(rating.getCreatedAt())
-                .updatedAt(rating.getUpdatedAt())
-                .build())
-            .collect(Collectors.toList());
+    public CursorPageResponse<CompanyRatingResponse> getRatings(AdminListRequest request) {
+        return scroll(companyRatingRepository, AdminListSpecifications.ratings(request), request, RATING_SORT_FIELDS,
+            this::toRatingResponse, "company", "service", "user");
+    }
+    @Transactional(readOnly = true)
+    public void exportRatings(OutputStream out) throws IOException {
+        try (Stream<CompanyRating> ratings = companyRatingRepository.streamAllForExport()) {
+            writeJsonArray(ratings, this::toRatingResponse, out);
+        }
     }
     public void deleteRating(String id) { companyRatingRepository.deleteById(id); }
     // Keyword filter
@@ -214,43 +219,99 @@ public class AdminServiceImpl implements AdminService {
     }
     public List<CompanyRatingResponse> findRatingsByKeyword(String keyword) {
         return companyRatingRepository.findByCommentContainingIgnoreCase(keyword).stream()
-            .map(rating -> CompanyRatingResponse.builder()
-                .id(rating.getId())
-                .companyId(rating.getCompany() != null ? rating.getCompany().getId() : null)
-                .companyName(rating.getCompany() != null ? rating.getCompany().getName() : null)
-                .serviceId(rating.getService() != null ? rating.getService().getId() : null)
-                .serviceName(rating.getService() != null ? rating.getService().getName() : null)
-                .userId(rating.getUser() != null ? rating.getUser().getId() : null)
-                .userName(rating.getUser() != null ? rating.getUser().getName() : null)
-                .stars(rating.getStars())
-                .comment(rating.getComment())
-                .createdAt(rating.getCreatedAt())
-                .updatedAt(rating.getUpdatedAt())
-                .build())
+            .map(this::toRatingResponse)
             .collect(Collectors.toList());
     }
-    public List<RescueVehicleResponse> getAllVehicles() {
-        return vehicleRepository.findAll().stream()
-            .map(vehicle -> RescueVehicleResponse.builder()
-                .id(vehicle.getId())
-                .name(vehicle.getName())
-                .licensePlate(vehicle.getLicensePlate())
-                .model(vehicle.getModel())
-                .make(vehicle.getMake())
-                .equipmentDetails(vehicle.getEquipmentDetails())
-                .status(vehicle.getStatus())
-                .currentLatitude(vehicle.getCurrentLatitude())
-                .currentLongitude(vehicle.getCurrentLongitude())
-                .assignedDriverName(vehicle.getAssignedDriverName())
-                .companyId(vehicle.getCompany() != null ? vehicle.getCompany().getId() : null)
-                .companyName(vehicle.getCompany() != null ? vehicle.getCompany().getName() : null)
-                .lastMaintenanceDate(vehicle.getLastMaintenanceDate())
-                .nextMaintenanceDate(vehicle.getNextMaintenanceDate())
-                .build())
-            .collect(java.util.stream.Collectors.toList());
+    public CursorPageResponse<RescueVehicleResponse> getVehicles(AdminListRequest request) {
+        return scroll(vehicleRepository, AdminListSpecifications.vehicles(request), request, CREATED_AT_SORT_FIELDS,
+            this::toVehicleResponse, "company");
+    }
+    @Transactional(readOnly = true)
+    public void exportVehicles(OutputStream out) throws IOException {
+        try (Stream<RescueVehicle> vehicles = vehicleRepository.streamAllForExport()) {
+            writeJsonArray(vehicles, this::toVehicleResponse, out);
+        }
     }
     public RescueVehicleResponse getVehicleById(String id) {
-        RescueVehicle vehicle = vehicleRepository.findById(id).orElseThrow();
+        return toVehicleResponse(vehicleRepository.findById(id).orElseThrow());
+    }
+    public void deleteVehicle(String id) {
+        vehicleRepository.deleteById(id);
+    }
+
+    private UserResponse toUserResponse(User user) {
+        return UserResponse.builder()
+            .id(user.getId())
+            .username(user.getUsername())
+            .name(user.getName())
+            .email(user.getEmail())
+            .role(user.getRoles().stream().findFirst().map(Enum::name).orElse(null))
+            .build();
+    }
+
+    private RescueCompanyResponse toCompanyResponse(RescueCompany company) {
+        return RescueCompanyResponse.builder()
+            .id(company.getId())
+            .name(company.getName())
+            .phone(company.getPhone())
+            .description(company.getDescription())
+            .address(company.getAddress())
+            .latitude(company.getLatitude())
+            .longitude(company.getLongitude())
+            .userId(company.getUser() != null ? company.getUser().getId() : null)
+            .build();
+    }
+
+    private InvoiceResponse toInvoiceResponse(Invoice invoice) {
+        return InvoiceResponse.builder()
+            .id(invoice.getId())
+            .rescueRequestId(invoice.getRescueRequest() != null ? invoice.getRescueRequest().getId() : null)
+            .invoiceNumber(invoice.getInvoiceNumber())
+            .amount(invoice.getAmount())
+            .invoiceDate(invoice.getInvoiceDate())
+            .dueDate(invoice.getDueDate())
+            .paidDate(invoice.getPaidDate())
+            .status(invoice.getStatus())
+            .paymentMethod(invoice.getPaymentMethod())
+            .notes(invoice.getNotes())
+            .createdAt(invoice.getCreatedAt())
+            .build();
+    }
+
+    private RescueRequestResponse toRequestResponse(RescueRequest request) {
+        return RescueRequestResponse.builder()
+            .id(request.getId())
+            .userId(request.getUser() != null ? request.getUser().getId() : null)
+            .companyId(request.getCompany() != null ? request.getCompany().getId() : null)
+            .companyName(request.getCompany() != null ? request.getCompany().getName() : null)
+            .latitude(request.getLatitude())
+            .longitude(request.getLongitude())
+            .description(request.getDescription())
+            .estimatedPrice(request.getEstimatedPrice())
+            .finalPrice(request.getFinalPrice())
+            .status(request.getStatus())
+            .createdAt(request.getCreatedAt())
+            .notes(request.getNotes())
+            .build();
+    }
+
+    private CompanyRatingResponse toRatingResponse(CompanyRating rating) {
+        return CompanyRatingResponse.builder()
+            .id(rating.getId())
+            .companyId(rating.getCompany() != null ? rating.getCompany().getId() : null)
+            .companyName(rating.getCompany() != null ? rating.getCompany().getName() : null)
+            .serviceId(rating.getService() != null ? rating.getService().getId() : null)
+            .serviceName(rating.getService() != null ? rating.getService().getName() : null)
+            .userId(rating.getUser() != null ? rating.getUser().getId() : null)
+            .userName(rating.getUser() != null ? rating.getUser().getName() : null)
+            .stars(rating.getStars())
+            .comment(rating.getComment())
+            .createdAt(rating.getCreatedAt())
+            .updatedAt(rating.getUpdatedAt())
+            .build();
+    }
+
+    private RescueVehicleResponse toVehicleResponse(RescueVehicle vehicle) {
         return RescueVehicleResponse.builder()
             .id(vehicle.getId())
             .name(vehicle.getName())
@@ -268,47 +329,133 @@ public class AdminServiceImpl implements AdminService {
             .nextMaintenanceDate(vehicle.getNextMaintenanceDate())
             .build();
     }
-    public void deleteVehicle(String id) {
-        vehicleRepository.deleteById(id);
+
+    /**
+     * One page of an admin list using keyset pagination: the cursor holds the sort value and id of the last row,
+     * so every page costs an index range scan regardless of how deep the client has scrolled.
+     *
+     * @param fetch Associations used by the mapper, loaded in the same query.
+     */
+    private <E, R> CursorPageResponse<R> scroll(JpaSpecificationExecutor<E> repository, Specification<E> specification,
+                                                AdminListRequest request, Map<String, Class<?>> sortFields,
+                                                Function<E, R> mapper, String... fetch) {
+        String sortField = request.getSort() != null && !request.getSort().isBlank() ? request.getSort() : "createdAt";
+        if (!sortFields.containsKey(sortField)) {
+            throw new BadRequestException("Unsupported sort field: " + sortField + ", expected one of " + sortFields.keySet());
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(request.getDirection()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortField, "id");
+        int limit = Math.max(1, Math.min(request.getLimit() != null ? request.getLimit() : defaultPageSize, maxPageSize));
+        KeysetScrollPosition position = request.getCursor() != null && !request.getCursor().isBlank()
+            ? ScrollPosition.forward(cursorCodec.decode(request.getCursor(), Map.of(sortField, sortFields.get(sortField), "id", String.class)))
+            : ScrollPosition.keyset();
+
+        Window<E> window = repository.findBy(specification, query -> {
+            FluentQuery.FetchableFluentQuery<E> fetchable = query.sortBy(sort).limit(limit);
+            if (fetch.length > 0) {
+                fetchable = fetchable.project(fetch);
+            }
+            return fetchable.scroll(position);
+        });
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = cursorCodec.encode(last.getKeys());
+        }
+        return CursorPageResponse.<R>builder()
+            .items(window.getContent().stream().map(mapper).collect(Collectors.toList()))
+            .nextCursor(nextCursor)
+            .hasNext(nextCursor != null)
+            .build();
+    }
+
+    /**
+     * Writes the rows as a JSON array while they are read, so memory does not grow with the size of the export.
+     * Must run inside a read-only transaction that keeps the stream's cursor open.
+     */
+    private <E, R> void writeJsonArray(Stream<E> rows, Function<E, R> mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartArray();
+        int written = 0;
+        for (Iterator<E> iterator = rows.iterator(); iterator.hasNext(); ) {
+            writer.writeValue(generator, mapper.apply(iterator.next()));
+            if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                // Bỏ các entity đã ghi khỏi persistence context
+                entityManager.clear();
+                generator.flush();
+            }
+        }
+        generator.writeEndArray();
+        generator.flush();
     }
 
     @Override
     public Map<String, Object> getRequestStats(String timeRange, boolean groupByStatus) {
+        String range = normalizeTimeRange(timeRange);
+        return dashboardCache.get("requestStats:" + range + ":" + groupByStatus,
+            () -> computeRequestStats(range, groupByStatus));
+    }
+
+    private Map<String, Object> computeRequestStats(String timeRange, boolean groupByStatus) {
+        RollupGranularity granularity = getGranularity(timeRange);
         LocalDateTime startDate = getStartDate(timeRange);
-        List<RescueRequest> requests = requestRepository.findByCreatedAtAfter(startDate);
+        List<Object[]> rows = sumRequestsByBucketAndStatus(granularity, startDate);
+
+        long total = 0;
+        Map<String, Long> requestsByStatus = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            requestsByStatus.merge(((RescueRequestStatus) row[1]).name(), count, Long::sum);
+            counts.merge(formatDate((LocalDateTime) row[0], timeRange), count, Long::sum);
+        }
 
+        List<Map<String, Object>> byTime = generateTimeSeries(startDate, timeRange).stream()
+            .map(date -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("period", date);
+                data.put("count", counts.getOrDefault(date, 0L));
+                return data;
+            })
+            .collect(Collectors.toList());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", total);
         if (groupByStatus) {
-            Map<String, Long> requestsByStatus = requests.stream()
-                .collect(Collectors.groupingBy(
-                    req -> req.getStatus().name(),
-                    Collectors.counting()
-                ));
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("total", requests.size());
             result.put("byStatus", requestsByStatus);
-            result.put("byTime", getTimeSeriesData(requests, timeRange));
-            return result;
         }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("total", requests.size());
-        result.put("byTime", getTimeSeriesData(requests, timeRange));
+        result.put("byTime", byTime);
         return result;
     }
 
     @Override
     public Map<String, Object> getServiceUsageStats(String timeRange) {
+        String range = normalizeTimeRange(timeRange);
+        return dashboardCache.get("serviceUsageStats:" + range, () -> computeServiceUsageStats(range));
+    }
+
+    private Map<String, Object> computeServiceUsageStats(String timeRange) {
+        RollupGranularity granularity = getGranularity(timeRange);
         LocalDateTime startDate = getStartDate(timeRange);
-        List<RescueRequest> requests = requestRepository.findByCreatedAtAfter(startDate);
+        List<Object[]> rows = sumRequestsByBucketAndService(granularity, startDate);
+        Map<String, String> serviceNames = getServiceNames(rows.stream().map(row -> (String) row[1]).collect(Collectors.toSet()));
 
         // Group by service
-        Map<String, Long> serviceCounts = requests.stream()
-            .filter(req -> req.getRescueService() != null)
-            .collect(Collectors.groupingBy(
-                req -> req.getRescueService().getName(),
-                Collectors.counting()
-            ));
+        Map<String, Long> serviceCounts = new HashMap<>();
+        Map<String, Map<String, Long>> serviceCountsByTime = new HashMap<>();
+        for (Object[] row : rows) {
+            String name = serviceNames.get((String) row[1]);
+            if (name == null) {
+                continue;
+            }
+            long count = ((Number) row[2]).longValue();
+            serviceCounts.merge(name, count, Long::sum);
+            serviceCountsByTime.computeIfAbsent(formatDate((LocalDateTime) row[0], timeRange), date -> new HashMap<>())
+                .merge(name, count, Long::sum);
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("byService", serviceCounts.entrySet().stream()
@@ -319,116 +466,209 @@ public class AdminServiceImpl implements AdminService {
                 return serviceData;
             })
             .collect(Collectors.toList()));
-        result.put("byTime", getServiceTimeSeriesData(requests, timeRange));
+        result.put("byTime", generateTimeSeries(startDate, timeRange).stream()
+            .map(date -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("period", date);
+                data.put("services", serviceCountsByTime.getOrDefault(date, new HashMap<>()));
+                return data;
+            })
+            .collect(Collectors.toList()));
         return result;
     }
 
     @Override
     public Map<String, Object> getSatisfactionStats(String timeRange) {
+        String range = normalizeTimeRange(timeRange);
+        return dashboardCache.get("satisfactionStats:" + range, () -> computeSatisfactionStats(range));
+    }
+
+    private Map<String, Object> computeSatisfactionStats(String timeRange) {
+        RollupGranularity granularity = getGranularity(timeRange);
         LocalDateTime startDate = getStartDate(timeRange);
-        List<CompanyRating> ratings = companyRatingRepository.findByCreatedAtAfter(startDate);
+        List<Object[]> rows = sumRatingsByBucketAndStars(granularity, startDate);
+
+        long totalStars = 0;
+        long totalRatings = 0;
+        Map<String, Long> byRating = new HashMap<>();
+        for (Object[] row : rows) {
+            int stars = ((Number) row[1]).intValue();
+            long count = ((Number) row[2]).longValue();
+            totalStars += stars * count;
+            totalRatings += count;
+            byRating.merge(String.valueOf(stars), count, Long::sum);
+        }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("averageRating", ratings.stream()
-            .mapToDouble(CompanyRating::getStars)
-            .average()
-            .orElse(0.0));
-        result.put("byRating", ratings.stream()
-            .collect(Collectors.groupingBy(
-                rating -> String.valueOf(rating.getStars()),
-                Collectors.counting()
-            )));
-        result.put("byTime", getRatingTimeSeriesData(ratings, timeRange));
+        result.put("averageRating", totalRatings > 0 ? (double) totalStars / totalRatings : 0.0);
+        result.put("byRating", byRating);
+        result.put("byTime", getRatingTimeSeriesData(rows, startDate, timeRange));
         return result;
     }
 
     @Override
     public Map<String, Object> getTopRatedServices(String timeRange) {
+        String range = normalizeTimeRange(timeRange);
+        return dashboardCache.get("topRatedServices:" + range, () -> computeTopRatedServices(range));
+    }
+
+    private Map<String, Object> computeTopRatedServices(String timeRange) {
+        RollupGranularity granularity = getGranularity(timeRange);
         LocalDateTime startDate = getStartDate(timeRange);
-        List<CompanyRating> ratings = companyRatingRepository.findByCreatedAtAfter(startDate);
+        List<Object[]> rows = sumRatingsByService(granularity, startDate);
+        Map<String, String> serviceNames = getServiceNames(rows.stream().map(row -> (String) row[0]).collect(Collectors.toSet()));
+
+        // Services with the same name are merged, as when grouping by name directly
+        Map<String, long[]> totalsByService = new HashMap<>();
+        for (Object[] row : rows) {
+            String name = serviceNames.get((String) row[0]);
+            if (name == null) {
+                continue;
+            }
+            long[] totals = totalsByService.computeIfAbsent(name, key -> new long[2]);
+            totals[0] += ((Number) row[1]).longValue();
+            totals[1] += ((Number) row[2]).longValue();
+        }
+
+        Map<String, Object> services = new HashMap<>();
+        totalsByService.forEach((name, totals) -> services.put(name, Map.of(
+            "averageRating", totals[1] > 0 ? (double) totals[0] / totals[1] : 0.0,
+            "totalRatings", totals[1]
+        )));
 
         Map<String, Object> result = new HashMap<>();
-        result.put("services", ratings.stream()
-            .filter(rating -> rating.getService() != null)
-            .collect(Collectors.groupingBy(
-                rating -> rating.getService().getName(),
-                Collectors.collectingAndThen(
-                    Collectors.toList(),
-                    list -> Map.of(
-                        "averageRating", list.stream().mapToDouble(CompanyRating::getStars).average().orElse(0.0),
-                        "totalRatings", list.size()
-                    )
-                )
-            )));
-        result.put("byTime", getRatingTimeSeriesData(ratings, timeRange));
+        result.put("services", services);
+        result.put("byTime", getRatingTimeSeriesData(
+            sumRatingsByBucketAndStars(granularity, startDate), startDate, timeRange));
         return result;
     }
 
+    // Khoảng thời gian không hợp lệ được tính như "month", nên gộp chung key cache
+    private static String normalizeTimeRange(String timeRange) {
+        String range = timeRange != null ? timeRange.toLowerCase() : "month";
+        return switch (range) {
+            case "day", "week", "year" -> range;
+            default -> "month";
+        };
+    }
+
+    /**
+     * Start of the statistics window, aligned to the rollup bucket so the first period is complete.
+     */
     private LocalDateTime getStartDate(String timeRange) {
         LocalDateTime now = LocalDateTime.now();
-        return switch (timeRange.toLowerCase()) {
+        LocalDateTime startDate = switch (timeRange.toLowerCase()) {
             case "day" -> now.minus(1, ChronoUnit.DAYS);
             case "week" -> now.minus(1, ChronoUnit.WEEKS);
             case "year" -> now.minus(1, ChronoUnit.YEARS);
             default -> now.minus(1, ChronoUnit.MONTHS); // month
         };
+        return getGranularity(timeRange).bucketOf(startDate);
     }
 
-    private List<Map<String, Object>> getTimeSeriesData(List<RescueRequest> requests, String timeRange) {
-        LocalDateTime startDate = getStartDate(timeRange);
-        Map<String, Long> counts = requests.stream()
-            .collect(Collectors.groupingBy(
-                req -> formatDate(req.getCreatedAt(), timeRange),
-                Collectors.counting()
-            ));
+    // Thống kê lấy từ bộ đếm thời gian thực khi đã sẵn sàng, ngược lại từ bảng rollup
+    private List<Object[]> sumRequestsByBucketAndStatus(RollupGranularity granularity, LocalDateTime from) {
+        return realtimeStatsService.isReady()
+            ? realtimeStatsService.sumRequestsByBucketAndStatus(granularity, from)
+            : requestStatRollupRepository.sumByBucketAndStatus(granularity, from);
+    }
 
-        return generateTimeSeries(startDate, timeRange).stream()
-            .map(date -> {
-                Map<String, Object> data = new HashMap<>();
-                data.put("period", date);
-                data.put("count", counts.getOrDefault(date, 0L));
-                return data;
-            })
-            .collect(Collectors.toList());
+    private List<Object[]> sumRequestsByBucketAndService(RollupGranularity granularity, LocalDateTime from) {
+        return realtimeStatsService.isReady()
+            ? realtimeStatsService.sumRequestsByBucketAndService(granularity, from)
+            : requestStatRollupRepository.sumByBucketAndService(granularity, from);
     }
 
-    private List<Map<String, Object>> getServiceTimeSeriesData(List<RescueRequest> requests, String timeRange) {
-        LocalDateTime startDate = getStartDate(timeRange);
-        Map<String, Map<String, Long>> serviceCountsByTime = requests.stream()
-            .filter(req -> req.getRescueService() != null)
-            .collect(Collectors.groupingBy(
-                req -> formatDate(req.getCreatedAt(), timeRange),
-                Collectors.groupingBy(
-                    req -> req.getRescueService().getName(),
-                    Collectors.counting()
-                )
-            ));
+    private List<Object[]> sumRatingsByBucketAndStars(RollupGranularity granularity, LocalDateTime from) {
+        return realtimeStatsService.isReady()
+            ? realtimeStatsService.sumRatingsByBucketAndStars(granularity, from)
+            : ratingStatRollupRepository.sumByBucketAndStars(granularity, from);
+    }
 
-        return generateTimeSeries(startDate, timeRange).stream()
-            .map(date -> {
-                Map<String, Object> data = new HashMap<>();
-                data.put("period", date);
-                data.put("services", serviceCountsByTime.getOrDefault(date, new HashMap<>()));
-                return data;
-            })
-            .collect(Collectors.toList());
+    private List<Object[]> sumRatingsByService(RollupGranularity granularity, LocalDateTime from) {
+        return realtimeStatsService.isReady()
+            ? realtimeStatsService.sumRatingsByService(granularity, from)
+            : ratingStatRollupRepository.sumByService(granularity, from);
     }
 
-    private List<Map<String, Object>> getRatingTimeSeriesData(List<CompanyRating> ratings, String timeRange) {
-        LocalDateTime startDate = getStartDate(timeRange);
-        Map<String, DoubleSummaryStatistics> ratingStatsByTime = ratings.stream()
-            .collect(Collectors.groupingBy(
-                rating -> formatDate(rating.getCreatedAt(), timeRange),
-                Collectors.summarizingDouble(CompanyRating::getStars)
-            ));
+    private RollupGranularity getGranularity(String timeRange) {
+        return "day".equalsIgnoreCase(timeRange) ? RollupGranularity.HOUR : RollupGranularity.DAY;
+    }
+
+    public Map<String, Object> getActiveUserStats() {
+        return dashboardCache.get("activeUserStats", this::computeActiveUserStats);
+    }
+
+    private Map<String, Object> computeActiveUserStats() {
+        LocalDate today = LocalDate.now();
+        long daily = sketchMetricsService.countActiveUsers(today, today);
+        long monthly = sketchMetricsService.countActiveUsers(today.minusDays(29), today);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dailyActiveUsers", daily);
+        result.put("monthlyActiveUsers", monthly);
+        result.put("stickiness", monthly > 0 ? (double) daily / monthly : 0.0);
+        return result;
+    }
+
+    public Map<String, Object> getTopRequestedServices(String timeRange, int limit) {
+        String range = normalizeTimeRange(timeRange);
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TOP_LIMIT));
+        return dashboardCache.get("topRequestedServices:" + range + ":" + boundedLimit,
+            () -> computeTopRequestedServices(range, boundedLimit));
+    }
+
+    private Map<String, Object> computeTopRequestedServices(String timeRange, int limit) {
+        List<Object[]> rows = sketchMetricsService.getTopRequestedServices(
+            getStartDate(timeRange).toLocalDate(), LocalDate.now(), limit);
+        Map<String, String> serviceNames = getServiceNames(rows.stream().map(row -> (String) row[0]).collect(Collectors.toSet()));
+
+        List<Map<String, Object>> services = new ArrayList<>();
+        for (Object[] row : rows) {
+            Map<String, Object> service = new HashMap<>();
+            service.put("serviceId", row[0]);
+            service.put("serviceName", serviceNames.get((String) row[0]));
+            service.put("requests", row[1]);
+            services.add(service);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("services", services);
+        return result;
+    }
+
+    public Map<String, Object> getPriceDistribution(String timeRange, String kind) {
+        String range = normalizeTimeRange(timeRange);
+        return dashboardCache.get("priceDistribution:" + range + ":" + kind,
+            () -> computePriceDistribution(range, kind));
+    }
+
+    private Map<String, Object> computePriceDistribution(String timeRange, String kind) {
+        return sketchMetricsService.getPriceDistribution(kind, getStartDate(timeRange).toLocalDate(), LocalDate.now());
+    }
+
+    private Map<String, String> getServiceNames(Set<String> serviceIds) {
+        Map<String, String> names = new HashMap<>();
+        rescueServiceRepository.findAllById(serviceIds).forEach(service -> names.put(service.getId(), service.getName()));
+        return names;
+    }
+
+    private List<Map<String, Object>> getRatingTimeSeriesData(List<Object[]> starRows, LocalDateTime startDate, String timeRange) {
+        // period -> [sum of stars, number of ratings]
+        Map<String, long[]> ratingTotalsByTime = new HashMap<>();
+        for (Object[] row : starRows) {
+            long count = ((Number) row[2]).longValue();
+            long[] totals = ratingTotalsByTime.computeIfAbsent(formatDate((LocalDateTime) row[0], timeRange), date -> new long[2]);
+            totals[0] += ((Number) row[1]).longValue() * count;
+            totals[1] += count;
+        }
 
         return generateTimeSeries(startDate, timeRange).stream()
             .map(date -> {
-                DoubleSummaryStatistics stats = ratingStatsByTime.getOrDefault(date, new DoubleSummaryStatistics());
+                long[] totals = ratingTotalsByTime.getOrDefault(date, new long[2]);
                 Map<String, Object> data = new HashMap<>();
                 data.put("period", date);
-                data.put("averageRating", stats.getAverage());
-                data.put("totalReviews", stats.getCount());
+                data.put("averageRating", totals[1] > 0 ? (double) totals[0] / totals[1] : 0.0);
+                data.put("totalReviews", totals[1]);
                 return data;
             })
             .collect(Collectors.toList());
@@ -454,16 +694,67 @@ public class AdminServiceImpl implements AdminService {
 
     private String formatDate(LocalDateTime date, String timeRange) {
         return switch (timeRange.toLowerCase()) {
-            case "day" -> date.format(DateTimeFormatter.ofPattern("HH:mm"));
-            case "week" -> date.format(DateTimeFormatter.ofPattern("dd/MM"));
-            case "year" -> date.format(DateTimeFormatter.ofPattern("MM/yyyy"));
-            default -> date.format(DateTimeFormatter.ofPattern("dd/MM")); // month
+            case "day" -> date.format(HOUR_FORMAT);
+            case "year" -> date.format(MONTH_FORMAT);
+            default -> date.format(DAY_FORMAT); // week, month
         };
     }
 
     @Override
     public List<String> getOnlineUsers() {
-        return onlineUserEventService.requestOnlineUsers();
+        return onlineUserEventService.getOnlineUsers();
+    }
+
+    @Override
+    public Map<String, Object> sendAnnouncement(AnnouncementRequest request) {
+        BroadcastEvent.BroadcastEventBuilder event = BroadcastEvent.builder()
+            .broadcastId(UUID.randomUUID().toString())
+            .title(request.getTitle())
+            .content(request.getContent());
+
+        // Phân khúc công ty/khu vực được quy ra danh sách người dùng ở backend, notification-service chỉ fan-out
+        switch (request.getTarget()) {
+            case ALL -> event.target(BroadcastTarget.ALL);
+            case ROLE -> {
+                if (request.getRoles() == null || request.getRoles().isEmpty()) {
+                    throw new BadRequestException("Roles are required for target ROLE");
+                }
+                event.target(BroadcastTarget.ROLE)
+                    .roles(request.getRoles().stream().map(Enum::name).collect(Collectors.toSet()));
+            }
+            case COMPANY -> {
+                if (request.getCompanyIds() == null || request.getCompanyIds().isEmpty()) {
+                    throw new BadRequestException("Company IDs are required for target COMPANY");
+                }
+                event.target(BroadcastTarget.USERS)
+                    .userIds(companyRepository.findOwnerUserIdsByCompanyIds(request.getCompanyIds()));
+            }
+            case REGION -> {
+                if (request.getCity() == null || request.getCity().isBlank()) {
+                    throw new BadRequestException("City is required for target REGION");
+                }
+                event.target(BroadcastTarget.USERS)
+                    .userIds(companyRepository.findOwnerUserIdsByCity(request.getCity().trim()));
+            }
+            case USERS -> {
+                if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+                    throw new BadRequestException("User IDs are required for target USERS");
+                }
+                event.target(BroadcastTarget.USERS).userIds(request.getUserIds());
+            }
+        }
+
+        BroadcastEvent broadcast = event.build();
+        broadcastEventProducer.sendBroadcastEvent(broadcast);
+        log.info("Announcement {} sent (target: {})", broadcast.getBroadcastId(), request.getTarget());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("broadcastId", broadcast.getBroadcastId());
+        response.put("target", request.getTarget());
+        if (broadcast.getUserIds() != null) {
+            response.put("recipients", broadcast.getUserIds().size());
+        }
+        return response;
     }
 
     @Override
@@ -483,67 +774,35 @@ public class AdminServiceImpl implements AdminService {
     @Override
     @Transactional
     public RescueServiceDeletionResponse approveServiceDeletion(String requestId) {
-        log.info("Starting service deletion approval for request ID: {}", requestId);
-
-        // First, get and validate the deletion request
         com.example.backend.model.RescueServiceDeletionRequest request = rescueServiceDeletionRequestRepository.findById(requestId)
             .orElseThrow(() -> new ResourceNotFoundException("Deletion request not found with id: " + requestId));
-        log.info("Found deletion request: {}", request.getId());
-
-        if (request.getStatus() != com.example.backend.model.RescueServiceDeletionRequest.Status.PENDING) {
-            log.error("Cannot approve non-pending deletion request. Current status: {}", request.getStatus());
-            throw new IllegalStateException("Can only approve pending deletion requests");
+        if (request.getService() == null) {
+            throw new IllegalStateException("Deletion request has no service to delete");
         }
 
-        // Get the service and ensure it's managed
-        RescueService service = rescueServiceRepository.findById(request.getService().getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
-        log.info("Found service to delete: {}", service.getId());
-
-        // Store service info before clearing references
-        String serviceId = service.getId();
-        String serviceName = service.getName();
-        String companyId = service.getCompany().getId();
-        String companyName = service.getCompany().getName();
-
-        // 1. Update rescue requests to remove service reference
-        List<RescueRequest> requests = rescueRequestRepository.findByRescueServiceId(serviceId);
-        log.info("Found {} rescue requests to update", requests.size());
-        
-        for (RescueRequest req : requests) {
-            req.setRescueService(null);
-            rescueRequestRepository.save(req);
-            log.info("Updated rescue request: {}", req.getId());
+        // Yêu cầu lỗi giữa chừng được duyệt lại để chạy tiếp từ chỗ dừng
+        int claimed = rescueServiceDeletionRequestRepository.transition(requestId,
+            List.of(com.example.backend.model.RescueServiceDeletionRequest.Status.PENDING,
+                com.example.backend.model.RescueServiceDeletionRequest.Status.FAILED),
+            com.example.backend.model.RescueServiceDeletionRequest.Status.PROCESSING);
+        if (claimed == 0) {
+            throw new IllegalStateException("Can only approve pending or failed deletion requests");
         }
 
-        // 2. Delete ratings
-        log.info("Deleting ratings for service: {}", serviceId);
-        companyRatingRepository.deleteByServiceId(serviceId);
-
-        // 3. Clear references in deletion request
-        request.setService(null);
-        request.setStatus(com.example.backend.model.RescueServiceDeletionRequest.Status.APPROVED);
-        request.setProcessedAt(LocalDateTime.now());
-        request = rescueServiceDeletionRequestRepository.save(request);
-        log.info("Updated deletion request status to: {}", request.getStatus());
-
-        // 4. Delete the service
-        log.info("Deleting service: {}", serviceId);
-        rescueServiceRepository.deleteById(serviceId);
-        log.info("Service deleted successfully");
+        RescueService service = request.getService();
+        service.setStatus(RescueServiceStatus.INACTIVE);
+        request.setStatus(com.example.backend.model.RescueServiceDeletionRequest.Status.PROCESSING);
+        request.setErrorMessage(null);
+        request.setTotalRequests(rescueRequestRepository.countByRescueServiceId(service.getId()) + nullToZero(request.getDetachedRequests()));
+        request.setTotalRatings(companyRatingRepository.countByServiceId(service.getId()) + nullToZero(request.getDeletedRatings()));
+        serviceDeletionJob.submit(requestId);
+        log.info("Service deletion approved for request {}: {} requests and {} ratings to process",
+            requestId, request.getTotalRequests(), request.getTotalRatings());
+        return toDeletionResponse(request);
+    }
 
-        // Create response with stored info
-        return RescueServiceDeletionResponse.builder()
-            .id(request.getId())
-            .serviceId(serviceId)
-            .serviceName(serviceName)
-            .companyId(companyId)
-            .companyName(companyName)
-            .reason(request.getReason())
-            .status(request.getStatus())
-            .createdAt(request.getCreatedAt())
-            .processedAt(request.getProcessedAt())
-            .build();
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0;
     }
 
     @Override
@@ -577,6 +836,11 @@ public class AdminServiceImpl implements AdminService {
             .status(request.getStatus())
             .createdAt(request.getCreatedAt())
             .processedAt(request.getProcessedAt())
+            .totalRequests(request.getTotalRequests())
+            .detachedRequests(request.getDetachedRequests())
+            .totalRatings(request.getTotalRatings())
+            .deletedRatings(request.getDeletedRatings())
+            .errorMessage(request.getErrorMessage())
             .build();
     }
 } 
\ No newline at end of file
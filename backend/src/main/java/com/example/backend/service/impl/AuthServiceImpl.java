@@ -15,6 +15,7 @@ import com.example.backend.repository.RescueCompanyRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.service.AuthService;
 import com.example.backend.service.EmailService;
+import com.example.backend.service.SketchMetricsService;
 import com.example.backend.utils.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,6 +33,7 @@ public class AuthServiceImpl implements AuthService {
 	private final PasswordEncoder passwordEncoder;
 	private final EmailService emailService;
 	private final JwtUtil jwtUtil;
+	private final SketchMetricsService sketchMetricsService;
 
 	@Override
 	public AuthResponse register(RegisterRequest request) {
@@ -86,6 +88,7 @@ public class AuthServiceImpl implements AuthService {
 		}
 		
 		String token = jwtUtil.generateToken(user.getUsername(), user.getRoles(), user.getId());
+		sketchMetricsService.recordActiveUser(user.getId());
 
 		String companyId = userRepository.findById(user.getId())
 				.flatMap(u -> repository.findByUserId(u.getId()))
@@ -0,0 +1,253 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.ArchivedMessageSegment;
+import com.example.backend.model.Conversation;
+import com.example.backend.model.Message;
+import com.example.backend.model.enums.MessageSender;
+import com.example.backend.repository.ArchivedMessageSegmentRepository;
+import com.example.backend.repository.ConversationRepository;
+import com.example.backend.repository.MessageRepository;
+import com.example.backend.service.ChatArchiveService;
+import com.example.backend.service.JobLockService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of the ChatArchiveService interface.
+ * Stores cold messages as GZIP-compressed JSON segments in the archived_message_segments table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatArchiveServiceImpl implements ChatArchiveService {
+
+	private static final String LOCK_NAME = "chat-archive";
+
+	private final MessageRepository messageRepository;
+	private final ConversationRepository conversationRepository;
+	private final ArchivedMessageSegmentRepository segmentRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final JobLockService jobLockService;
+	private final ObjectMapper objectMapper;
+
+	@Value("${chat.archive.enabled:true}")
+	private boolean enabled;
+
+	@Value("${chat.archive.min-age-days:90}")
+	private int minAgeDays;
+
+	@Value("${chat.archive.inactive-days:30}")
+	private int inactiveDays;
+
+	@Value("${chat.archive.segment-size:500}")
+	private int segmentSize;
+
+	// Chỉ một instance chạy job lưu trữ tại một thời điểm
+	@Value("${chat.archive.lock-lease-minutes:180}")
+	private long lockLeaseMinutes;
+
+	/**
+	 * Runs the archival job on the configured schedule (daily at 03:00 by default).
+	 */
+	@Scheduled(cron = "${chat.archive.cron:0 0 3 * * *}")
+	public void scheduledArchive() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			archiveColdMessages();
+		} catch (Exception e) {
+			log.error("Chat archival job failed", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int archiveColdMessages() {
+		return jobLockService.callExclusively(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes), this::archiveColdMessagesLocked, 0);
+	}
+
+	private int archiveColdMessagesLocked() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime messageCutoff = now.minusDays(minAgeDays);
+		LocalDateTime inactiveCutoff = now.minusDays(inactiveDays);
+
+		// "Closed" conversation = không có tin nhắn mới trong khoảng inactiveDays
+		List<String> conversationIds = conversationRepository.findIdsInactiveSince(inactiveCutoff);
+		log.info("Archiving messages older than {} from {} inactive conversations", messageCutoff, conversationIds.size());
+
+		int archived = 0;
+		for (String conversationId : conversationIds) {
+			int moved;
+			do {
+				// Mỗi segment một transaction: ghi segment và xoá tin nhắn gốc cùng lúc
+				Integer result = transactionTemplate.execute(status -> archiveSegment(conversationId, messageCutoff));
+				moved = result != null ? result : 0;
+				archived += moved;
+			} while (moved == segmentSize);
+		}
+
+		log.info("Chat archival finished: {} messages archived", archived);
+		return archived;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Message> findMessagesBeforeCursor(String conversationId, LocalDateTime timestamp, String messageId, int limit) {
+		List<Message> result = new ArrayList<>();
+		int page = 0;
+		// Segment nối tiếp nhau theo (sentAt, id) nên đọc từng segment từ mới nhất và dừng khi đủ limit;
+		// với limit 1 (tin nhắn cuối của danh sách conversation) chỉ giải nén đúng một segment
+		while (result.size() < limit) {
+			PageRequest pageable = PageRequest.of(page++, 1);
+			List<ArchivedMessageSegment> segments = timestamp != null
+					? segmentRepository.findSegmentsBefore(conversationId, timestamp, pageable)
+					: segmentRepository.findByConversationIdOrderByNewestSentAtDesc(conversationId, pageable);
+			if (segments.isEmpty()) {
+				break;
+			}
+			for (ArchivedMessage archived : decompress(segments.get(0).getPayload())) {
+				boolean beforeCursor = timestamp == null
+						|| archived.getSentAt().isBefore(timestamp)
+						|| (archived.getSentAt().isEqual(timestamp) && archived.getId().compareTo(messageId) < 0);
+				if (beforeCursor) {
+					result.add(archived.toMessage());
+				}
+			}
+		}
+
+		// Cùng thứ tự với hot tier: sentAt giảm dần, id giảm dần
+		result.sort(Comparator.comparing(Message::getSentAt).thenComparing(Message::getId).reversed());
+		return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Message> findSegmentMessages(String segmentId) {
+		return segmentRepository.findById(segmentId)
+				.map(segment -> decompress(segment.getPayload()).stream().map(ArchivedMessage::toMessage).toList())
+				.orElse(List.of());
+	}
+
+	/**
+	 * Moves one segment worth of the oldest cold messages of a conversation into the archive.
+	 *
+	 * @param conversationId The ID of the conversation.
+	 * @param cutoff         Only messages sent before this time are archived.
+	 * @return The number of messages archived.
+	 */
+	private int archiveSegment(String conversationId, LocalDateTime cutoff) {
+		List<Message> messages = messageRepository.findArchivableMessages(conversationId, cutoff, PageRequest.of(0, segmentSize));
+		if (messages.isEmpty()) {
+			return 0;
+		}
+
+		List<ArchivedMessage> archived = messages.stream().map(ArchivedMessage::fromEntity).toList();
+		segmentRepository.save(ArchivedMessageSegment.builder()
+				.conversationId(conversationId)
+				.oldestSentAt(messages.get(0).getSentAt())
+				.newestSentAt(messages.get(messages.size() - 1).getSentAt())
+				.messageCount(messages.size())
+				.payload(compress(archived))
+				.build());
+		messageRepository.deleteAllInBatch(messages);
+
+		// Tin nhắn đã lưu trữ luôn được coi là đã đọc: trừ các tin nhắn sau read watermark khỏi unread counter
+		Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+		LocalDateTime userWatermark = conversation != null ? conversation.getUserLastReadSentAt() : null;
+		LocalDateTime companyWatermark = conversation != null ? conversation.getCompanyLastReadSentAt() : null;
+		int unreadFromCompany = (int) messages.stream()
+				.filter(m -> m.getSenderType() == MessageSender.RESCUE_COMPANY && isUnread(m, userWatermark)).count();
+		int unreadFromUser = (int) messages.stream()
+				.filter(m -> m.getSenderType() == MessageSender.USER && isUnread(m, companyWatermark)).count();
+		if (unreadFromCompany > 0 || unreadFromUser > 0) {
+			conversationRepository.decrementUnreadCounts(conversationId, unreadFromCompany, unreadFromUser);
+		}
+
+		log.debug("Archived {} messages of conversation {}", messages.size(), conversationId);
+		return messages.size();
+	}
+
+	private static boolean isUnread(Message message, LocalDateTime watermark) {
+		if (message.isRead()) {
+			return false;
+		}
+		return watermark == null || message.getSentAt().isAfter(watermark);
+	}
+
+	private byte[] compress(List<ArchivedMessage> messages) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			objectMapper.writeValue(gzip, messages);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to compress archive segment", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private List<ArchivedMessage> decompress(byte[] payload) {
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+			return objectMapper.readValue(gzip, new TypeReference<List<ArchivedMessage>>() {});
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read archive segment", e);
+		}
+	}
+
+	/**
+	 * Compact representation of a message stored inside an archive segment.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class ArchivedMessage {
+		private String id;
+		private String content;
+		private MessageSender senderType;
+		private LocalDateTime sentAt;
+
+		static ArchivedMessage fromEntity(Message message) {
+			return new ArchivedMessage(message.getId(), message.getContent(), message.getSenderType(), message.getSentAt());
+		}
+
+		/**
+		 * Archived conversations are closed, so their messages are always reported as read.
+		 */
+		Message toMessage() {
+			return Message.builder()
+					.id(id)
+					.content(content)
+					.senderType(senderType)
+					.isRead(true)
+					.sentAt(sentAt)
+					.build();
+		}
+	}
+}
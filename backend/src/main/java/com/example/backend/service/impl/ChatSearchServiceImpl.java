@@ -0,0 +1,543 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.response.MessageSearchResponse;
+import com.example.backend.model.Conversation;
+import com.example.backend.model.Message;
+import com.example.backend.model.enums.MessageSender;
+import com.example.backend.repository.ArchivedMessageSegmentRepository;
+import com.example.backend.repository.MessageRepository;
+import com.example.backend.service.ChatArchiveService;
+import com.example.backend.service.ChatSearchService;
+import com.example.backend.utils.VietnameseAnalyzer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of the ChatSearchService interface.
+ * Keeps an embedded Lucene index on local disk, fed incrementally from message inserts,
+ * so support staff can search conversations without LIKE scans over the messages table.
+ * Inserts only reach the index of the instance that handled them, so a periodic sync also indexes every message
+ * sent after the last synced time (kept in the index commit data); this catches up an index that missed writes
+ * while its instance was down or running elsewhere.
+ * A full rebuild also reads the archive segments, so messages moved out of the messages table stay searchable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatSearchServiceImpl implements ChatSearchService {
+
+	private static final String FIELD_ID = "id";
+	private static final String FIELD_CONTENT = "content";
+	private static final String FIELD_CONVERSATION_ID = "conversationId";
+	private static final String FIELD_USER_ID = "userId";
+	private static final String FIELD_COMPANY_ID = "companyId";
+	private static final String FIELD_SENDER_TYPE = "senderType";
+	private static final String FIELD_SENT_AT = "sentAt";
+	private static final String COMMIT_SYNCED_UP_TO = "syncedUpTo";
+
+	private final MessageRepository messageRepository;
+	private final ArchivedMessageSegmentRepository segmentRepository;
+	private final ChatArchiveService chatArchiveService;
+
+	private final Analyzer analyzer = new VietnameseAnalyzer();
+
+	@Value("${chat.search.index-dir:./data/chat-index}")
+	private String indexDir;
+
+	@Value("${chat.search.rebuild-batch-size:500}")
+	private int rebuildBatchSize;
+
+	@Value("${chat.search.snippet-length:120}")
+	private int snippetLength;
+
+	// Tin nhắn commit muộn có thể mang sentAt sớm hơn mốc đã sync, nên mỗi lần sync đọc lùi lại một khoảng
+	@Value("${chat.search.sync-overlap-ms:60000}")
+	private long syncOverlapMs;
+
+	private Directory directory;
+	private IndexWriter indexWriter;
+	private SearcherManager searcherManager;
+
+	// Khi đang rebuild, tin nhắn mới được giữ lại và ghi sau khi rebuild xong để deleteAll() không xoá mất
+	private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+	private final Queue<Document> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+	private volatile boolean rebuilding;
+
+	// Mọi tin nhắn gửi trước mốc này đã được index; null khi index chưa từng được build/sync đầy đủ
+	private volatile LocalDateTime syncedUpTo;
+
+	@PostConstruct
+	public void openIndex() throws IOException {
+		Path path = Paths.get(indexDir);
+		Files.createDirectories(path);
+		directory = FSDirectory.open(path);
+
+		IndexWriterConfig config = new IndexWriterConfig(analyzer);
+		config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+		indexWriter = new IndexWriter(directory, config);
+		searcherManager = new SearcherManager(indexWriter, null);
+		Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+		if (commitData != null) {
+			for (Map.Entry<String, String> entry : commitData) {
+				if (COMMIT_SYNCED_UP_TO.equals(entry.getKey())) {
+					syncedUpTo = LocalDateTime.parse(entry.getValue());
+				}
+			}
+		}
+		log.info("Chat search index opened at {} ({} documents, synced up to {})",
+				path.toAbsolutePath(), indexWriter.getDocStats().numDocs, syncedUpTo);
+
+		// Index rỗng hoặc chưa có mốc sync: build lại từ bảng messages và archive; ngược lại chỉ bắt kịp phần còn thiếu.
+		// Chạy ở background để không chặn khởi động
+		Runnable initialize = indexWriter.getDocStats().numDocs == 0 || syncedUpTo == null
+				? this::rebuildIndex
+				: this::syncFromDatabase;
+		CompletableFuture.runAsync(initialize)
+				.exceptionally(ex -> {
+					log.error("Initial chat search index build failed", ex);
+					return null;
+				});
+	}
+
+	@PreDestroy
+	public void closeIndex() throws IOException {
+		if (searcherManager != null) {
+			searcherManager.close();
+		}
+		if (indexWriter != null) {
+			indexWriter.close();
+		}
+		if (directory != null) {
+			directory.close();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void indexMessage(Message message) {
+		Conversation conversation = message.getConversation();
+		Document document = toDocument(
+				message.getId(),
+				message.getContent(),
+				message.getSenderType(),
+				message.getSentAt(),
+				conversation.getId(),
+				conversation.getUser() != null ? conversation.getUser().getId() : null,
+				conversation.getRescueCompany() != null ? conversation.getRescueCompany().getId() : null);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			// Chỉ index sau khi transaction commit để không index tin nhắn bị rollback
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					writeDocument(document);
+				}
+			});
+		} else {
+			writeDocument(document);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MessageSearchResponse searchForUser(String userId, String conversationId, String query, int limit) {
+		return search(new Term(FIELD_USER_ID, userId), conversationId, query, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MessageSearchResponse searchForCompany(String rescueCompanyId, String conversationId, String query, int limit) {
+		return search(new Term(FIELD_COMPANY_ID, rescueCompanyId), conversationId, query, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void rebuildIndex() {
+		log.info("Rebuilding chat search index from messages table and archive segments");
+		// Tin nhắn gửi sau mốc này nhưng bị bỏ sót khi quét theo id sẽ được lần sync kế tiếp index
+		LocalDateTime latestSentAt = messageRepository.findLatestSentAt();
+		setRebuilding(true);
+		try {
+			indexWriter.deleteAll();
+			String afterId = "";
+			long indexed = 0;
+			while (true) {
+				List<Object[]> rows = messageRepository.findSearchIndexBatch(afterId, PageRequest.of(0, rebuildBatchSize));
+				if (rows.isEmpty()) {
+					break;
+				}
+				for (Object[] row : rows) {
+					indexWriter.updateDocument(new Term(FIELD_ID, (String) row[0]), toDocument(
+							(String) row[0],
+							(String) row[1],
+							(MessageSender) row[2],
+							(LocalDateTime) row[3],
+							(String) row[4],
+							(String) row[5],
+							(String) row[6]));
+				}
+				indexed += rows.size();
+				afterId = (String) rows.get(rows.size() - 1)[0];
+			}
+			// Tin nhắn đã lưu trữ không còn trong bảng messages nhưng vẫn phải tìm kiếm được sau deleteAll()
+			indexed += indexArchivedMessages();
+			markSyncedUpTo(latestSentAt != null ? latestSentAt : LocalDateTime.of(1970, 1, 1, 0, 0));
+			indexWriter.commit();
+			searcherManager.maybeRefresh();
+			log.info("Chat search index rebuilt with {} messages", indexed);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to rebuild chat search index", e);
+		} finally {
+			setRebuilding(false);
+		}
+	}
+
+	/**
+	 * Indexes the messages stored in the archive segments, one segment at a time.
+	 *
+	 * @return The number of archived messages indexed.
+	 */
+	private long indexArchivedMessages() throws IOException {
+		String afterId = "";
+		long indexed = 0;
+		while (true) {
+			List<Object[]> rows = segmentRepository.findSearchIndexBatch(afterId, PageRequest.of(0, rebuildBatchSize));
+			if (rows.isEmpty()) {
+				return indexed;
+			}
+			for (Object[] row : rows) {
+				for (Message message : chatArchiveService.findSegmentMessages((String) row[0])) {
+					indexWriter.updateDocument(new Term(FIELD_ID, message.getId()), toDocument(
+							message.getId(),
+							message.getContent(),
+							message.getSenderType(),
+							message.getSentAt(),
+							(String) row[1],
+							(String) row[2],
+							(String) row[3]));
+					indexed++;
+				}
+			}
+			afterId = (String) rows.get(rows.size() - 1)[0];
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int syncFromDatabase() {
+		LocalDateTime from = syncedUpTo;
+		LocalDateTime latestSentAt = messageRepository.findLatestSentAt();
+		if (from == null || latestSentAt == null || !latestSentAt.isAfter(from)) {
+			return 0;
+		}
+
+		LocalDateTime afterSentAt = from.minus(Duration.ofMillis(syncOverlapMs));
+		String afterId = "";
+		int indexed = 0;
+		while (true) {
+			List<Object[]> rows = messageRepository.findSearchIndexBatchSince(afterSentAt, afterId,
+					PageRequest.of(0, rebuildBatchSize));
+			if (rows.isEmpty()) {
+				break;
+			}
+			for (Object[] row : rows) {
+				writeDocument(toDocument(
+						(String) row[0],
+						(String) row[1],
+						(MessageSender) row[2],
+						(LocalDateTime) row[3],
+						(String) row[4],
+						(String) row[5],
+						(String) row[6]));
+			}
+			indexed += rows.size();
+			Object[] last = rows.get(rows.size() - 1);
+			afterSentAt = (LocalDateTime) last[3];
+			afterId = (String) last[0];
+		}
+		markSyncedUpTo(latestSentAt.isAfter(afterSentAt) ? latestSentAt : afterSentAt);
+		log.debug("Synced chat search index: {} messages sent since {}", indexed, from);
+		return indexed;
+	}
+
+	/**
+	 * Runs the sync on the configured interval (every minute by default).
+	 */
+	@Scheduled(fixedDelayString = "${chat.search.sync-interval-ms:60000}",
+			initialDelayString = "${chat.search.sync-interval-ms:60000}")
+	public void scheduledSync() {
+		if (rebuilding || syncedUpTo == null) {
+			return;
+		}
+		try {
+			syncFromDatabase();
+		} catch (Exception e) {
+			log.error("Chat search index sync failed", e);
+		}
+	}
+
+	/**
+	 * Periodically commits buffered index changes to disk.
+	 */
+	@Scheduled(fixedDelayString = "${chat.search.commit-interval-ms:5000}")
+	public void commitIndex() {
+		try {
+			if (indexWriter.hasUncommittedChanges()) {
+				indexWriter.commit();
+			}
+		} catch (IOException e) {
+			log.error("Failed to commit chat search index", e);
+		}
+	}
+
+	/**
+	 * Runs a scoped search and builds the response with highlighted snippets.
+	 *
+	 * @param scope          Term restricting hits to the caller's conversations.
+	 * @param conversationId Optional conversation to narrow the search.
+	 * @param queryText      The raw user query.
+	 * @param limit          Maximum number of hits.
+	 * @return MessageSearchResponse containing the ranked hits.
+	 */
+	private MessageSearchResponse search(Term scope, String conversationId, String queryText, int limit) {
+		if (queryText == null || queryText.isBlank()) {
+			throw new IllegalArgumentException("Search query must not be empty");
+		}
+
+		Query textQuery = buildTextQuery(queryText);
+		if (textQuery == null) {
+			return MessageSearchResponse.builder().query(queryText).totalHits(0).hits(List.of()).build();
+		}
+
+		BooleanQuery.Builder builder = new BooleanQuery.Builder()
+				.add(textQuery, BooleanClause.Occur.MUST)
+				.add(new TermQuery(scope), BooleanClause.Occur.FILTER);
+		if (conversationId != null && !conversationId.isBlank()) {
+			builder.add(new TermQuery(new Term(FIELD_CONVERSATION_ID, conversationId)), BooleanClause.Occur.FILTER);
+		}
+		Query query = builder.build();
+
+		Highlighter highlighter = new Highlighter(
+				new SimpleHTMLFormatter("<mark>", "</mark>"),
+				new SimpleHTMLEncoder(),
+				new QueryScorer(textQuery, FIELD_CONTENT));
+		highlighter.setTextFragmenter(new SimpleFragmenter(snippetLength));
+
+		IndexSearcher searcher = null;
+		try {
+			searcherManager.maybeRefresh();
+			searcher = searcherManager.acquire();
+			TopDocs topDocs = searcher.search(query, limit);
+			StoredFields storedFields = searcher.storedFields();
+
+			List<MessageSearchResponse.MessageSearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+			for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+				Document document = storedFields.document(scoreDoc.doc);
+				String content = document.get(FIELD_CONTENT);
+				String snippet;
+				try {
+					snippet = highlighter.getBestFragment(analyzer, FIELD_CONTENT, content);
+				} catch (Exception e) {
+					log.warn("Failed to highlight message {}", document.get(FIELD_ID), e);
+					snippet = null;
+				}
+
+				hits.add(MessageSearchResponse.MessageSearchHit.builder()
+						.messageId(document.get(FIELD_ID))
+						.conversationId(document.get(FIELD_CONVERSATION_ID))
+						.senderType(MessageSender.valueOf(document.get(FIELD_SENDER_TYPE)))
+						.sentAt(LocalDateTime.ofInstant(
+								Instant.ofEpochMilli(document.getField(FIELD_SENT_AT).numericValue().longValue()),
+								ZoneOffset.UTC))
+						.content(content)
+						.highlightedSnippet(snippet != null ? snippet : new SimpleHTMLEncoder().encodeText(content))
+						.score(scoreDoc.score)
+						.build());
+			}
+
+			return MessageSearchResponse.builder()
+					.query(queryText)
+					.totalHits(topDocs.totalHits.value)
+					.hits(hits)
+					.build();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to search chat history", e);
+		} finally {
+			if (searcher != null) {
+				try {
+					searcherManager.release(searcher);
+				} catch (IOException e) {
+					log.warn("Failed to release chat index searcher", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Analyzes the user query and requires every word to match, accepting either
+	 * the accented or the unaccented form at each position.
+	 *
+	 * @param queryText The raw user query.
+	 * @return The Lucene query, or null if the query contains no searchable tokens.
+	 */
+	private Query buildTextQuery(String queryText) {
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		BooleanQuery.Builder position = null;
+
+		try (TokenStream stream = analyzer.tokenStream(FIELD_CONTENT, VietnameseAnalyzer.normalize(queryText))) {
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			PositionIncrementAttribute increment = stream.addAttribute(PositionIncrementAttribute.class);
+			stream.reset();
+			while (stream.incrementToken()) {
+				if (position == null || increment.getPositionIncrement() > 0) {
+					if (position != null) {
+						query.add(position.build(), BooleanClause.Occur.MUST);
+					}
+					position = new BooleanQuery.Builder();
+				}
+				position.add(new TermQuery(new Term(FIELD_CONTENT, term.toString())), BooleanClause.Occur.SHOULD);
+			}
+			stream.end();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to analyze search query", e);
+		}
+
+		if (position == null) {
+			return null;
+		}
+		query.add(position.build(), BooleanClause.Occur.MUST);
+		return query.build();
+	}
+
+	private Document toDocument(String id, String content, MessageSender senderType, LocalDateTime sentAt,
+								String conversationId, String userId, String companyId) {
+		long sentAtMillis = (sentAt != null ? sentAt : LocalDateTime.now()).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+		Document document = new Document();
+		document.add(new StringField(FIELD_ID, id, Field.Store.YES));
+		document.add(new TextField(FIELD_CONTENT, VietnameseAnalyzer.normalize(content), Field.Store.YES));
+		document.add(new StringField(FIELD_CONVERSATION_ID, conversationId, Field.Store.YES));
+		if (userId != null) {
+			document.add(new StringField(FIELD_USER_ID, userId, Field.Store.NO));
+		}
+		if (companyId != null) {
+			document.add(new StringField(FIELD_COMPANY_ID, companyId, Field.Store.NO));
+		}
+		document.add(new StoredField(FIELD_SENDER_TYPE, senderType.name()));
+		document.add(new LongPoint(FIELD_SENT_AT, sentAtMillis));
+		document.add(new StoredField(FIELD_SENT_AT, sentAtMillis));
+		return document;
+	}
+
+	private void writeDocument(Document document) {
+		rebuildLock.readLock().lock();
+		try {
+			if (rebuilding) {
+				pendingDuringRebuild.add(document);
+				return;
+			}
+			updateDocument(document);
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Starting a rebuild waits for in-flight writes, so none can land before deleteAll(); finishing it writes the
+	 * messages held back in the meantime before incremental writes resume.
+	 */
+	private void setRebuilding(boolean value) {
+		rebuildLock.writeLock().lock();
+		try {
+			if (!value) {
+				Document document;
+				while ((document = pendingDuringRebuild.poll()) != null) {
+					updateDocument(document);
+				}
+			}
+			rebuilding = value;
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	private void updateDocument(Document document) {
+		try {
+			// updateDocument thay vì addDocument để việc index lại cùng một tin nhắn là idempotent
+			indexWriter.updateDocument(new Term(FIELD_ID, document.get(FIELD_ID)), document);
+		} catch (IOException e) {
+			log.error("Failed to index message {}", document.get(FIELD_ID), e);
+		}
+	}
+
+	// Mốc sync được ghi cùng commit kế tiếp của index
+	private void markSyncedUpTo(LocalDateTime sentAt) {
+		syncedUpTo = sentAt;
+		indexWriter.setLiveCommitData(List.of(Map.entry(COMMIT_SYNCED_UP_TO, sentAt.toString())));
+	}
+}
@@ -14,7 +14,10 @@ import com.example.backend.repository.ConversationRepository;
 import com.example.backend.repository.MessageRepository;
 import com.example.backend.repository.RescueCompanyRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.ChatArchiveService;
+import com.example.backend.service.ChatSearchService;
 import com.example.backend.service.ChatService;
+import com.example.backend.service.ReadReceiptService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,9 +26,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -36,11 +44,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChatServiceImpl implements ChatService {
 
+	// Thứ tự đọc trang của cả hot tier và archive: (sentAt, id) giảm dần, khớp với cursor
+	private static final Comparator<Message> NEWEST_FIRST =
+			Comparator.comparing(Message::getSentAt).thenComparing(Message::getId).reversed();
+
 	private final MessageRepository messageRepository;
 	private final ConversationRepository conversationRepository;
 	private final UserRepository userRepository;
 	private final RescueCompanyRepository rescueCompanyRepository;
 	private final NotificationEventProducer notificationEventProducer;
+	private final ChatSearchService chatSearchService;
+	private final ChatArchiveService chatArchiveService;
+	private final ReadReceiptService readReceiptService;
 
 	/**
 	 * {@inheritDoc}
@@ -48,14 +63,16 @@ public class ChatServiceImpl implements ChatService {
 	@Override
 	@Transactional(readOnly = true)
 	public MessageCursorResponse getInitialMessages(String conversationId, int limit, String sort) {
-		// Determine sort direction
-		Sort sortOrder = sort.equalsIgnoreCase("asc") ? Sort.by("sentAt").ascending() : Sort.by("sentAt").descending();
-		Pageable pageable = PageRequest.of(0, limit + 1, sortOrder);
+		// Pages always walk back from the newest message; sort only sets the order of the returned page
+		Pageable pageable = PageRequest.of(0, limit + 1);
 
 		// Fetch initial messages
 		List<Message> messages = messageRepository.findInitialMessages(conversationId, pageable);
 
-		return processMessages(messages, limit, sort);
+		// Continue into the archive tier if the hot tier is exhausted
+		messages = appendArchivedMessages(conversationId, messages, null, null, limit + 1);
+
+		return processMessages(conversationId, messages, limit, sort);
 	}
 
 	/**
@@ -66,9 +83,8 @@ public class ChatServiceImpl implements ChatService {
 	public MessageCursorResponse getMessagesBeforeCursor(String conversationId, String cursor, int limit, String sort) {
 		CursorComponents components = decodeCursor(cursor);
 
-		// Determine sort direction
-		Sort sortOrder = sort.equalsIgnoreCase("asc") ? Sort.by("sentAt").ascending() : Sort.by("sentAt").descending();
-		Pageable pageable = PageRequest.of(0, limit + 1, sortOrder);
+		// Pages always walk back from the newest message; sort only sets the order of the returned page
+		Pageable pageable = PageRequest.of(0, limit + 1);
 
 		// Fetch messages before the cursor
 		List<Message> messages = messageRepository.findMessagesBeforeCursor(
@@ -77,7 +93,10 @@ public class ChatServiceImpl implements ChatService {
 				components.messageId,
 				pageable);
 
-		return processMessages(messages, limit, sort);
+		// Continue into the archive tier if the hot tier is exhausted
+		messages = appendArchivedMessages(conversationId, messages, components.timestamp, components.messageId, limit + 1);
+
+		return processMessages(conversationId, messages, limit, sort);
 	}
 
 	/**
@@ -86,8 +105,8 @@ public class ChatServiceImpl implements ChatService {
 	@Override
 	@Transactional
 	public void markAllMessagesAsRead(String conversationId, MessageSender senderType) {
-		// Update all unread messages from the specified sender to read
-		messageRepository.markAllAsRead(conversationId, senderType);
+		// Advance the reader's watermark (coalesced) instead of updating every unread row on each open
+		readReceiptService.markAsRead(conversationId, senderType);
 	}
 
 	/**
@@ -96,6 +115,24 @@ public class ChatServiceImpl implements ChatService {
 	@Override
 	@Transactional
 	public Message sendMessage(String userId, String rescueCompanyId, String content, MessageSender senderType) {
+		return sendMessage(userId, rescueCompanyId, content, senderType, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public Message sendMessage(String userId, String rescueCompanyId, String content, MessageSender senderType, String deliveryId,
+			LocalDateTime sentAt) {
+		// Tin nhắn đã được lưu ở lần nhận trước (Kafka gửi lại): không ghi trùng
+		if (deliveryId != null) {
+			Optional<Message> existing = messageRepository.findByDeliveryId(deliveryId);
+			if (existing.isPresent()) {
+				return existing.get();
+			}
+		}
+
 		// Validate user and rescue company
 		User user = userRepository.findById(userId)
 				.orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
@@ -115,19 +152,27 @@ public class ChatServiceImpl implements ChatService {
 				});
 
 		// Create and save the new message
+		// Giữ sentAt do notification-service cấp để bản đã giao qua WebSocket và bản trong lịch sử trùng thời điểm
 		Message message = Message.builder()
 				.content(content)
 				.conversation(conversation)
 				.senderType(senderType)
 				.isRead(false)
-				.sentAt(LocalDateTime.now())
+				.deliveryId(deliveryId)
+				.sentAt(sentAt != null ? sentAt : LocalDateTime.now())
 				.build();
 
 		message = messageRepository.save(message);
 
-		// Update conversation's last updated timestamp
-		conversation.setUpdatedAt(LocalDateTime.now());
-		conversationRepository.save(conversation);
+		// Add the message to the full-text search index (applied after commit)
+		chatSearchService.indexMessage(message);
+
+		// Update conversation's last updated timestamp and the recipient's unread counter
+		if (senderType == MessageSender.USER) {
+			conversationRepository.incrementCompanyUnreadCount(conversation.getId(), LocalDateTime.now());
+		} else {
+			conversationRepository.incrementUserUnreadCount(conversation.getId(), LocalDateTime.now());
+		}
 
 		// Send notification via Kafka
 		sendChatNotification(message);
@@ -181,8 +226,8 @@ public class ChatServiceImpl implements ChatService {
 	@Override
 	@Transactional(readOnly = true)
 	public long countTotalUnreadMessagesForUser(String userId) {
-		// Count unread messages from rescue companies across all user conversations
-		return messageRepository.countTotalUnreadMessagesForUser(userId, MessageSender.RESCUE_COMPANY);
+		// Sum the denormalized unread counters across all user conversations
+		return conversationRepository.sumUserUnreadCount(userId);
 	}
 
 	/**
@@ -191,19 +236,59 @@ public class ChatServiceImpl implements ChatService {
 	@Override
 	@Transactional(readOnly = true)
 	public long countTotalUnreadMessagesForCompany(String rescueCompanyId) {
-		// Count unread messages from users across all company conversations
-		return messageRepository.countTotalUnreadMessagesForCompany(rescueCompanyId, MessageSender.USER);
+		// Sum the denormalized unread counters across all company conversations
+		return conversationRepository.sumCompanyUnreadCount(rescueCompanyId);
+	}
+
+	/**
+	 * Tops up a page from the hot messages table with archived messages once the hot tier is exhausted.
+	 * Both tiers are merged by (sentAt, id) descending, the order pages are read in regardless of the requested
+	 * sort, so the archive continues right after the oldest hot message and the cursor format stays unchanged.
+	 *
+	 * @param conversationId The ID of the conversation.
+	 * @param hotMessages    Messages already fetched from the hot tier, newest first.
+	 * @param timestamp      The timestamp of the request cursor, or null for the first page.
+	 * @param messageId      The message ID of the request cursor, or null for the first page.
+	 * @param wanted         The total number of messages wanted.
+	 * @return The combined list of messages.
+	 */
+	private List<Message> appendArchivedMessages(String conversationId, List<Message> hotMessages,
+												 LocalDateTime timestamp, String messageId, int wanted) {
+		List<Message> combined = new ArrayList<>(hotMessages);
+		combined.sort(NEWEST_FIRST);
+		if (combined.size() >= wanted) {
+			return combined;
+		}
+
+		// Tiếp tục archive ngay sau tin nhắn cũ nhất của hot tier theo (sentAt, id)
+		if (!combined.isEmpty()) {
+			Message oldestHot = combined.get(combined.size() - 1);
+			timestamp = oldestHot.getSentAt();
+			messageId = oldestHot.getId();
+		}
+
+		List<Message> archived = chatArchiveService.findMessagesBeforeCursor(
+				conversationId, timestamp, messageId, wanted - combined.size());
+		if (archived.isEmpty()) {
+			return combined;
+		}
+
+		combined.addAll(archived);
+		combined.sort(NEWEST_FIRST);
+		return combined.size() > wanted ? new ArrayList<>(combined.subList(0, wanted)) : combined;
 	}
 
 	/**
 	 * Processes a list of messages for pagination, generating a cursor if more messages are available.
+	 * Read state is derived from the read watermarks of the conversation.
 	 *
+	 * @param conversationId The ID of the conversation.
 	 * @param messages The list of messages retrieved.
 	 * @param limit    The maximum number of messages to return.
 	 * @param sort     The sort order (asc/desc).
 	 * @return MessageCursorResponse containing the messages and next cursor.
 	 */
-	private MessageCursorResponse processMessages(List<Message> messages, int limit, String sort) {
+	private MessageCursorResponse processMessages(String conversationId, List<Message> messages, int limit, String sort) {
 		boolean hasMoreMessages = messages.size() > limit;
 
 		// Trim the list if we fetched more than the limit
@@ -223,23 +308,53 @@ public class ChatServiceImpl implements ChatService {
 			Collections.reverse(messages);
 		}
 
-		return MessageCursorResponse.fromEntities(messages, nextCursor);
+		Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+		return MessageCursorResponse.fromEntities(messages, nextCursor, message -> isReadByRecipient(conversation, message));
+	}
+
+	/**
+	 * Checks whether the recipient of a message has read it, i.e. the message is at or before the recipient's
+	 * read watermark. Messages marked read before watermarks existed stay read.
+	 *
+	 * @param conversation The conversation of the message, or null if unknown.
+	 * @param message      The message.
+	 * @return true if the recipient has read the message.
+	 */
+	private boolean isReadByRecipient(Conversation conversation, Message message) {
+		if (message.isRead()) {
+			return true;
+		}
+		if (conversation == null || message.getSentAt() == null) {
+			return false;
+		}
+		// Tin nhắn từ USER do công ty đọc, tin nhắn từ RESCUE_COMPANY do user đọc
+		LocalDateTime watermark = message.getSenderType() == MessageSender.USER
+				? conversation.getCompanyLastReadSentAt()
+				: conversation.getUserLastReadSentAt();
+		return watermark != null && !message.getSentAt().isAfter(watermark);
 	}
 
 	/**
 	 * Maps a Conversation entity to a ConversationResponse DTO.
 	 *
 	 * @param conversation      The conversation entity.
-	 * @param unreadSenderType  The sender type to count unread messages for.
+	 * @param unreadSenderType  The sender type whose unread messages are reported.
 	 * @return ConversationResponse containing conversation details.
 	 */
 	private ConversationResponse mapToConversationResponse(Conversation conversation, MessageSender unreadSenderType) {
-		// Count unread messages
-		long unreadCount = messageRepository.countUnreadMessages(conversation.getId(), unreadSenderType);
+		// Read the denormalized unread counter of the reading participant
+		Integer counter = unreadSenderType == MessageSender.USER
+				? conversation.getCompanyUnreadCount()
+				: conversation.getUserUnreadCount();
+		long unreadCount = counter != null ? counter : 0;
 
 		// Fetch the latest message
 		Pageable pageable = PageRequest.of(0, 1, Sort.by("sentAt").descending());
 		List<Message> lastMessages = messageRepository.findInitialMessages(conversation.getId(), pageable);
+		if (lastMessages.isEmpty()) {
+			// Every message of the conversation may have been archived
+			lastMessages = chatArchiveService.findMessagesBeforeCursor(conversation.getId(), null, null, 1);
+		}
 
 		ConversationResponse.MessageSummaryResponse lastMessageSummary = null;
 		if (!lastMessages.isEmpty()) {
@@ -291,15 +406,16 @@ public class ChatServiceImpl implements ChatService {
 	private CursorComponents decodeCursor(String cursor) {
 		try {
 			String decoded = new String(Base64.getDecoder().decode(cursor));
-			String[] parts = decoded.split(":");
+			// Bản thân timestamp cũng chứa dấu ':', nên tách ở dấu ':' cuối cùng
+			int separator = decoded.lastIndexOf(':');
 
-			if (parts.length != 2) {
+			if (separator <= 0 || separator == decoded.length() - 1) {
 				throw new IllegalArgumentException("Invalid cursor format");
 			}
 
 			return new CursorComponents(
-					LocalDateTime.parse(parts[0]),
-					parts[1]
+					LocalDateTime.parse(decoded.substring(0, separator)),
+					decoded.substring(separator + 1)
 			);
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
@@ -324,6 +440,7 @@ public class ChatServiceImpl implements ChatService {
 		}
 
 		String recipientId;
+		String senderId;
 		String title;
 		String content;
 		String conversationId = message.getConversation().getId();
@@ -344,11 +461,15 @@ public class ChatServiceImpl implements ChatService {
 				throw new IllegalArgumentException("RescueCompany user must not be null");
 			}
 			recipientId = message.getConversation().getRescueCompany().getUser().getId();
+			senderId = userId;
 			title = "Tin nhắn mới từ " + message.getConversation().getUser().getName();
 			content = message.getContent();
 		} else {
 			// Notify the user
 			recipientId = message.getConversation().getUser().getId();
+			senderId = message.getConversation().getRescueCompany().getUser() != null
+					? message.getConversation().getRescueCompany().getUser().getId()
+					: null;
 			title = "Tin nhắn mới từ " + message.getConversation().getRescueCompany().getName();
 			content = message.getContent();
 		}
@@ -360,6 +481,7 @@ public class ChatServiceImpl implements ChatService {
 				.type(NotificationType.CHAT)
 				.sentAt(LocalDateTime.now())
 				.conversationId(conversationId)
+				.additionalData(buildChatAdditionalData(message, senderId))
 				.build();
 
 		// Kiểm tra trước khi gửi
@@ -369,6 +491,31 @@ public class ChatServiceImpl implements ChatService {
 			throw e;
 		}
 	}
+	/**
+	 * Builds the extra data of a chat notification. The notification service uses it to learn the
+	 * participants of a conversation (for direct WebSocket delivery) and to confirm persistence to the sender.
+	 *
+	 * @param message  The persisted message.
+	 * @param senderId The user ID of the sender, or null if unknown.
+	 * @return The additional data map.
+	 */
+	private Map<String, Object> buildChatAdditionalData(Message message, String senderId) {
+		Map<String, Object> data = new HashMap<>();
+		data.put("messageId", message.getId());
+		data.put("senderType", message.getSenderType().name());
+		data.put("userId", message.getConversation().getUser().getId());
+		if (message.getConversation().getRescueCompany().getUser() != null) {
+			data.put("companyUserId", message.getConversation().getRescueCompany().getUser().getId());
+		}
+		if (senderId != null) {
+			data.put("senderId", senderId);
+		}
+		if (message.getDeliveryId() != null) {
+			data.put("deliveryId", message.getDeliveryId());
+		}
+		return data;
+	}
+
 	/**
 	 * Helper class to hold cursor components.
 	 */
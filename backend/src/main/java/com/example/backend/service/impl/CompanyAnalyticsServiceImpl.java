@@ -0,0 +1,406 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.model.CompanyStatRollup;
+import com.example.backend.model.RescueCompany;
+import com.example.backend.model.enums.InvoiceStatus;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RescueVehicleDispatchStatus;
+import com.example.backend.model.enums.RollupGranularity;
+import com.example.backend.repository.CompanyStatRollupRepository;
+import com.example.backend.repository.InvoiceRepository;
+import com.example.backend.repository.RequestStatRollupRepository;
+import com.example.backend.repository.RescueCompanyRepository;
+import com.example.backend.repository.RescueVehicleDispatchRepository;
+import com.example.backend.repository.RescueVehicleRepository;
+import com.example.backend.service.JobLockService;
+import com.example.backend.service.CompanyAnalyticsService;
+import com.example.backend.utils.DashboardCache;
+import com.example.backend.utils.sketch.TDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Implementation of the CompanyAnalyticsService interface.
+ * Daily rollups are maintained like the admin statistics rollups: every run recomputes whole days from the source
+ * tables inside one transaction, so the result is idempotent. Request counts per status are read from the request
+ * rollups, which are already keyed by company. Query results are additionally cached, so a dashboard polling every
+ * few seconds reads at most one year of rollup rows per cache period.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompanyAnalyticsServiceImpl implements CompanyAnalyticsService {
+
+	// Rows committed shortly before the previous run may carry an earlier updatedAt than the watermark
+	private static final long WATERMARK_OVERLAP_SECONDS = 30;
+	private static final int REBUILD_CHUNK_DAYS = 31;
+	private static final String LOCK_NAME = "company-stats";
+	private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+	// Yêu cầu đã được công ty nhận (mọi trạng thái sau CREATED trừ các trạng thái huỷ)
+	private static final Set<RescueRequestStatus> ACCEPTED_STATUSES = EnumSet.complementOf(EnumSet.of(
+			RescueRequestStatus.CREATED, RescueRequestStatus.CANCELLED_BY_USER, RescueRequestStatus.CANCELLED_BY_COMPANY));
+	private static final Set<RescueRequestStatus> COMPLETED_STATUSES = EnumSet.of(
+			RescueRequestStatus.COMPLETED, RescueRequestStatus.INVOICED, RescueRequestStatus.PAID);
+
+	private final RescueVehicleDispatchRepository dispatchRepository;
+	private final InvoiceRepository invoiceRepository;
+	private final RescueCompanyRepository rescueCompanyRepository;
+	private final RescueVehicleRepository rescueVehicleRepository;
+	private final RequestStatRollupRepository requestStatRollupRepository;
+	private final CompanyStatRollupRepository companyStatRollupRepository;
+	private final DashboardCache dashboardCache;
+	private final TransactionTemplate transactionTemplate;
+	private final JobLockService jobLockService;
+
+	@Value("${stats.company.enabled:true}")
+	private boolean enabled;
+
+	@Value("${stats.company.retention-days:400}")
+	private int retentionDays;
+
+	@Value("${stats.company.digest-compression:100}")
+	private double digestCompression;
+
+	// Refresh và rebuild dùng chung một khoá nên không chạy chồng lên nhau trên các instance
+	@Value("${stats.company.lock-lease-minutes:60}")
+	private long lockLeaseMinutes;
+
+	// null until the first run on this instance has completed
+	private volatile LocalDateTime watermark;
+
+	/**
+	 * Builds the rollups once the application has started, but only when they are still empty (first deployment).
+	 * Readiness is published only after this listener returns, so existing rollups are left to the incremental
+	 * refresh and the nightly rebuild.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (enabled && companyStatRollupRepository.count() == 0) {
+			scheduledRebuild();
+		}
+	}
+
+	/**
+	 * Runs the incremental refresh on the configured interval (every minute by default).
+	 */
+	@Scheduled(fixedDelayString = "${stats.company.refresh-interval-ms:60000}",
+			initialDelayString = "${stats.company.refresh-interval-ms:60000}")
+	public void scheduledRefresh() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			refresh();
+		} catch (Exception e) {
+			log.error("Company statistics refresh failed", e);
+		}
+	}
+
+	/**
+	 * Runs the full rebuild on the configured schedule (daily at 03:45 by default).
+	 */
+	@Scheduled(cron = "${stats.company.rebuild-cron:0 45 3 * * *}")
+	public void scheduledRebuild() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			rebuild();
+		} catch (Exception e) {
+			log.error("Company statistics rebuild failed", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int refresh() {
+		return jobLockService.callExclusively(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes), this::refreshLocked, 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void rebuild() {
+		jobLockService.runExclusively(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes), this::rebuildLocked);
+	}
+
+	private int refreshLocked() {
+		LocalDateTime runStartedAt = LocalDateTime.now();
+		LocalDateTime since = (watermark != null ? watermark : runStartedAt.minusDays(1))
+				.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+
+		TreeSet<LocalDate> days = new TreeSet<>();
+		days.addAll(dispatchRepository.findDispatchedDaysChangedSince(since));
+		days.addAll(invoiceRepository.findPaidDaysChangedSince(since));
+
+		for (LocalDate day : days) {
+			recompute(day, day.plusDays(1));
+		}
+		watermark = runStartedAt;
+		if (!days.isEmpty()) {
+			log.debug("Refreshed company statistics for {} day(s)", days.size());
+		}
+		return days.size();
+	}
+
+	private void rebuildLocked() {
+		LocalDateTime runStartedAt = LocalDateTime.now();
+		LocalDate end = runStartedAt.toLocalDate().plusDays(1);
+		LocalDate start = end.minusDays(retentionDays);
+
+		transactionTemplate.executeWithoutResult(status -> companyStatRollupRepository.deleteDays(EPOCH, start));
+		for (LocalDate from = start; from.isBefore(end); from = from.plusDays(REBUILD_CHUNK_DAYS)) {
+			LocalDate to = from.plusDays(REBUILD_CHUNK_DAYS).isBefore(end) ? from.plusDays(REBUILD_CHUNK_DAYS) : end;
+			recompute(from, to);
+		}
+		watermark = runStartedAt;
+		log.info("Rebuilt company statistics for the last {} days in {} ms", retentionDays,
+				Duration.between(runStartedAt, LocalDateTime.now()).toMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getCompanyAnalytics(String companyId, String timeRange) {
+		if (!rescueCompanyRepository.existsById(companyId)) {
+			throw new ResourceNotFoundException("Company not found with id: " + companyId);
+		}
+		String range = normalizeTimeRange(timeRange);
+		return dashboardCache.get("companyAnalytics|" + companyId + "|" + range,
+				() -> computeCompanyAnalytics(companyId, range));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getAnalyticsForManager(String userId, String timeRange) {
+		List<RescueCompany> companies = rescueCompanyRepository.findAllByUserId(userId);
+		if (companies.isEmpty()) {
+			throw new ResourceNotFoundException("Company not found for user: " + userId);
+		}
+		return getCompanyAnalytics(companies.get(0).getId(), timeRange);
+	}
+
+	/**
+	 * Replaces the rollup rows of the days in [from, to).
+	 */
+	private void recompute(LocalDate from, LocalDate to) {
+		LocalDateTime fromTime = from.atStartOfDay();
+		LocalDateTime toTime = to.atStartOfDay();
+		transactionTemplate.executeWithoutResult(status -> {
+			companyStatRollupRepository.deleteDays(from, to);
+
+			Map<String, CompanyStatRollup> rollups = new HashMap<>();
+			Map<String, TDigest> digests = new HashMap<>();
+			for (Object[] row : dispatchRepository.findTimingRowsDispatchedBetween(fromTime, toTime)) {
+				String companyId = (String) row[0];
+				LocalDateTime requestCreatedAt = (LocalDateTime) row[1];
+				LocalDateTime dispatchedAt = (LocalDateTime) row[2];
+				LocalDateTime arrivedAt = (LocalDateTime) row[3];
+				LocalDateTime completedAt = (LocalDateTime) row[4];
+				RescueVehicleDispatchStatus dispatchStatus = (RescueVehicleDispatchStatus) row[5];
+				CompanyStatRollup rollup = rollupOf(rollups, companyId, dispatchedAt.toLocalDate());
+
+				if (requestCreatedAt != null) {
+					rollup.setDispatchCount(rollup.getDispatchCount() + 1);
+					rollup.setDispatchSeconds(rollup.getDispatchSeconds() + seconds(requestCreatedAt, dispatchedAt));
+				}
+				if (arrivedAt != null) {
+					rollup.setArrivalCount(rollup.getArrivalCount() + 1);
+					rollup.setArrivalSeconds(rollup.getArrivalSeconds() + seconds(dispatchedAt, arrivedAt));
+				}
+				if (dispatchStatus == RescueVehicleDispatchStatus.COMPLETED && completedAt != null) {
+					rollup.setBusySeconds(rollup.getBusySeconds() + seconds(dispatchedAt, completedAt));
+					if (requestCreatedAt != null) {
+						long completion = seconds(requestCreatedAt, completedAt);
+						rollup.setCompletedCount(rollup.getCompletedCount() + 1);
+						rollup.setCompletionSeconds(rollup.getCompletionSeconds() + completion);
+						digests.computeIfAbsent(rollup.getId(), id -> new TDigest(digestCompression))
+								.add(completion / 60.0);
+					}
+				}
+			}
+			digests.forEach((id, digest) -> rollups.get(id).setCompletionDigest(digest.toBytes()));
+
+			for (Object[] row : invoiceRepository.sumByCompanyAndPaidDay(InvoiceStatus.PAID, fromTime, toTime)) {
+				CompanyStatRollup rollup = rollupOf(rollups, (String) row[0], (LocalDate) row[1]);
+				rollup.setPaidInvoiceCount(((Number) row[2]).longValue());
+				rollup.setRevenue(row[3] != null ? ((Number) row[3]).doubleValue() : 0);
+			}
+
+			companyStatRollupRepository.saveAll(rollups.values());
+		});
+	}
+
+	private Map<String, Object> computeCompanyAnalytics(String companyId, String timeRange) {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDate today = now.toLocalDate();
+		LocalDate from = getStartDay(today, timeRange);
+
+		long received = 0;
+		long accepted = 0;
+		long declined = 0;
+		long completedRequests = 0;
+		for (Object[] row : requestStatRollupRepository.sumByStatusForCompany(companyId, RollupGranularity.DAY,
+				from.atStartOfDay())) {
+			RescueRequestStatus status = (RescueRequestStatus) row[0];
+			long count = ((Number) row[1]).longValue();
+			received += count;
+			if (ACCEPTED_STATUSES.contains(status)) {
+				accepted += count;
+			} else if (status == RescueRequestStatus.CANCELLED_BY_COMPANY) {
+				declined += count;
+			}
+			if (COMPLETED_STATUSES.contains(status)) {
+				completedRequests += count;
+			}
+		}
+
+		CompanyStatRollup total = new CompanyStatRollup();
+		TDigest completionDigest = new TDigest(digestCompression);
+		Map<String, Double> revenueByTime = new LinkedHashMap<>();
+		for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+			revenueByTime.putIfAbsent(timeKey(day, timeRange), 0.0);
+		}
+		for (CompanyStatRollup rollup : companyStatRollupRepository.findByCompanyIdAndDayGreaterThanEqualOrderByDay(
+				companyId, from)) {
+			total.setDispatchCount(total.getDispatchCount() + rollup.getDispatchCount());
+			total.setDispatchSeconds(total.getDispatchSeconds() + rollup.getDispatchSeconds());
+			total.setArrivalCount(total.getArrivalCount() + rollup.getArrivalCount());
+			total.setArrivalSeconds(total.getArrivalSeconds() + rollup.getArrivalSeconds());
+			total.setCompletedCount(total.getCompletedCount() + rollup.getCompletedCount());
+			total.setCompletionSeconds(total.getCompletionSeconds() + rollup.getCompletionSeconds());
+			total.setBusySeconds(total.getBusySeconds() + rollup.getBusySeconds());
+			total.setPaidInvoiceCount(total.getPaidInvoiceCount() + rollup.getPaidInvoiceCount());
+			total.setRevenue(total.getRevenue() + rollup.getRevenue());
+			if (rollup.getCompletionDigest() != null) {
+				completionDigest.merge(TDigest.fromBytes(rollup.getCompletionDigest()));
+			}
+			revenueByTime.merge(timeKey(rollup.getDay(), timeRange), rollup.getRevenue(), Double::sum);
+		}
+
+		Map<String, Object> requests = new HashMap<>();
+		requests.put("received", received);
+		requests.put("accepted", accepted);
+		requests.put("declined", declined);
+		requests.put("completed", completedRequests);
+		requests.put("acceptanceRate", ratio(accepted, accepted + declined));
+
+		Map<String, Object> dispatch = new HashMap<>();
+		dispatch.put("count", total.getDispatchCount());
+		dispatch.put("avgMinutesToDispatch", averageMinutes(total.getDispatchSeconds(), total.getDispatchCount()));
+		dispatch.put("arrivals", total.getArrivalCount());
+		dispatch.put("avgMinutesToArrive", averageMinutes(total.getArrivalSeconds(), total.getArrivalCount()));
+
+		Map<String, Object> completion = new HashMap<>();
+		completion.put("count", total.getCompletedCount());
+		completion.put("avgMinutes", averageMinutes(total.getCompletionSeconds(), total.getCompletedCount()));
+		if (completionDigest.size() > 0) {
+			completion.put("minMinutes", completionDigest.getMin());
+			completion.put("p50Minutes", completionDigest.quantile(0.5));
+			completion.put("p90Minutes", completionDigest.quantile(0.9));
+			completion.put("p99Minutes", completionDigest.quantile(0.99));
+			completion.put("maxMinutes", completionDigest.getMax());
+		}
+
+		List<Map<String, Object>> revenueSeries = new ArrayList<>();
+		revenueByTime.forEach((time, revenue) -> {
+			Map<String, Object> point = new HashMap<>();
+			point.put("date", time);
+			point.put("revenue", revenue);
+			revenueSeries.add(point);
+		});
+		Map<String, Object> revenue = new HashMap<>();
+		revenue.put("total", total.getRevenue());
+		revenue.put("paidInvoices", total.getPaidInvoiceCount());
+		revenue.put("byTime", revenueSeries);
+
+		// Tỷ lệ sử dụng = thời gian xe bận / (số xe hiện có * thời gian đã trôi qua của khoảng)
+		long vehicles = rescueVehicleRepository.countByCompanyId(companyId);
+		long elapsedSeconds = Math.max(1, Duration.between(from.atStartOfDay(), now).getSeconds());
+		Map<String, Object> utilization = new HashMap<>();
+		utilization.put("vehicles", vehicles);
+		utilization.put("busyHours", total.getBusySeconds() / 3600.0);
+		utilization.put("rate", ratio(total.getBusySeconds(), vehicles * elapsedSeconds));
+
+		Map<String, Object> result = new HashMap<>();
+		result.put("companyId", companyId);
+		result.put("timeRange", timeRange);
+		result.put("from", from.toString());
+		result.put("requests", requests);
+		result.put("dispatch", dispatch);
+		result.put("completion", completion);
+		result.put("revenue", revenue);
+		result.put("utilization", utilization);
+		return result;
+	}
+
+	private static CompanyStatRollup rollupOf(Map<String, CompanyStatRollup> rollups, String companyId, LocalDate day) {
+		return rollups.computeIfAbsent(companyId + "|" + day, id -> CompanyStatRollup.builder()
+				.id(id)
+				.companyId(companyId)
+				.day(day)
+				.build());
+	}
+
+	private static long seconds(LocalDateTime from, LocalDateTime to) {
+		return Math.max(0, ChronoUnit.SECONDS.between(from, to));
+	}
+
+	private static double averageMinutes(long totalSeconds, long count) {
+		return count > 0 ? totalSeconds / 60.0 / count : 0.0;
+	}
+
+	private static double ratio(long part, long whole) {
+		return whole > 0 ? (double) part / whole : 0.0;
+	}
+
+	private static String normalizeTimeRange(String timeRange) {
+		String range = timeRange != null ? timeRange.toLowerCase() : "month";
+		return switch (range) {
+			case "day", "week", "year" -> range;
+			default -> "month";
+		};
+	}
+
+	private static LocalDate getStartDay(LocalDate today, String timeRange) {
+		return switch (timeRange) {
+			case "day" -> today;
+			case "week" -> today.minusDays(6);
+			case "year" -> today.minusDays(364);
+			default -> today.minusDays(29);
+		};
+	}
+
+	// Doanh thu theo tháng với khoảng một năm, theo ngày với các khoảng còn lại
+	private static String timeKey(LocalDate day, String timeRange) {
+		return "year".equals(timeRange) ? YearMonth.from(day).toString() : day.toString();
+	}
+}
@@ -0,0 +1,219 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.enums.ExportDataset;
+import com.example.backend.repository.CompanyRatingRepository;
+import com.example.backend.repository.InvoiceRepository;
+import com.example.backend.repository.RescueRequestRepository;
+import com.example.backend.repository.RescueVehicleDispatchRepository;
+import com.example.backend.service.DataExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of the DataExportService interface.
+ * <p>
+ * Rows are read as scalar projections from a server-side cursor, ordered by (timestamp, id), so neither entities
+ * nor the result set are held in memory. File exports are written as a sequence of gzip members, one per
+ * {@code export.checkpoint-rows} rows; after each member the file is synced and a checkpoint with the file length
+ * and the last (timestamp, id) is saved. A resumed run truncates the file to the checkpointed length and continues
+ * the query after that position. Concatenated gzip members read back as a single CSV file.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataExportServiceImpl implements DataExportService {
+
+	private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final RescueRequestRepository requestRepository;
+	private final InvoiceRepository invoiceRepository;
+	private final CompanyRatingRepository companyRatingRepository;
+	private final RescueVehicleDispatchRepository dispatchRepository;
+	private final ObjectMapper objectMapper;
+
+	@Value("${export.checkpoint-rows:10000}")
+	private int checkpointRows;
+
+	@Override
+	@Transactional(readOnly = true)
+	public void writeCsv(ExportDataset dataset, OutputStream out) throws IOException {
+		GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+		writeLine(writer, dataset.getColumns());
+		try (Stream<Object[]> rows = streamRows(dataset, START, "")) {
+			for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+				writeLine(writer, iterator.next());
+			}
+		}
+		writer.flush();
+		gzip.finish();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long exportToFile(ExportDataset dataset, Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Path target = directory.resolve(dataset.fileName());
+		Path checkpointFile = directory.resolve(dataset.fileName() + ".checkpoint.json");
+
+		Checkpoint checkpoint = readCheckpoint(checkpointFile);
+		boolean resume = checkpoint != null && !checkpoint.isCompleted() && Files.exists(target)
+				&& Files.size(target) >= checkpoint.getBytes();
+		if (!resume) {
+			checkpoint = new Checkpoint();
+		}
+
+		long written = 0;
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			// Bỏ phần ghi dở sau checkpoint cuối cùng
+			channel.truncate(checkpoint.getBytes());
+			channel.position(checkpoint.getBytes());
+			if (!resume) {
+				writeMember(channel, new Object[][]{dataset.getColumns()}, 1);
+				saveCheckpoint(checkpointFile, checkpoint, channel.position());
+			} else {
+				log.info("Resuming {} export after {} rows ({} bytes)", dataset, checkpoint.getRows(), checkpoint.getBytes());
+			}
+
+			LocalDateTime after = checkpoint.getLastTimestamp() != null ? checkpoint.getLastTimestamp() : START;
+			String afterId = checkpoint.getLastId() != null ? checkpoint.getLastId() : "";
+			Object[][] chunk = new Object[checkpointRows][];
+			int size = 0;
+			try (Stream<Object[]> rows = streamRows(dataset, after, afterId)) {
+				for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+					chunk[size++] = iterator.next();
+					if (size == checkpointRows) {
+						written += flushChunk(channel, checkpointFile, checkpoint, chunk, size);
+						size = 0;
+					}
+				}
+			}
+			if (size > 0) {
+				written += flushChunk(channel, checkpointFile, checkpoint, chunk, size);
+			}
+			checkpoint.setCompleted(true);
+			saveCheckpoint(checkpointFile, checkpoint, channel.position());
+		}
+		log.info("Exported {} rows of {} to {} ({} total)", written, dataset, target, checkpoint.getRows());
+		return written;
+	}
+
+	private Stream<Object[]> streamRows(ExportDataset dataset, LocalDateTime after, String afterId) {
+		return switch (dataset) {
+			case REQUESTS -> requestRepository.streamExportRows(after, afterId);
+			case INVOICES -> invoiceRepository.streamExportRows(after, afterId);
+			case RATINGS -> companyRatingRepository.streamExportRows(after, afterId);
+			case DISPATCHES -> dispatchRepository.streamExportRows(after, afterId);
+		};
+	}
+
+	private int flushChunk(FileChannel channel, Path checkpointFile, Checkpoint checkpoint, Object[][] chunk, int size)
+			throws IOException {
+		writeMember(channel, chunk, size);
+		// Mọi dòng xuất đều có dạng [id, timestamp, ...]
+		Object[] last = chunk[size - 1];
+		checkpoint.setLastId((String) last[0]);
+		checkpoint.setLastTimestamp((LocalDateTime) last[1]);
+		checkpoint.setRows(checkpoint.getRows() + size);
+		saveCheckpoint(checkpointFile, checkpoint, channel.position());
+		return size;
+	}
+
+	/**
+	 * Appends the rows as one complete gzip member and syncs the file.
+	 */
+	private void writeMember(FileChannel channel, Object[][] rows, int size) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(buffer, BUFFER_SIZE),
+				StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			for (int i = 0; i < size; i++) {
+				writeLine(writer, rows[i]);
+				rows[i] = null;
+			}
+		}
+		ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		channel.force(false);
+	}
+
+	private Checkpoint readCheckpoint(Path file) {
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try {
+			return objectMapper.readValue(file.toFile(), Checkpoint.class);
+		} catch (IOException e) {
+			log.warn("Ignoring unreadable export checkpoint {}", file, e);
+			return null;
+		}
+	}
+
+	private void saveCheckpoint(Path file, Checkpoint checkpoint, long bytes) throws IOException {
+		checkpoint.setBytes(bytes);
+		checkpoint.setUpdatedAt(LocalDateTime.now());
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		objectMapper.writeValue(temp.toFile(), checkpoint);
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void writeLine(Writer writer, Object[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(escape(values[i]));
+		}
+		writer.write('\n');
+	}
+
+	private static String escape(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String text = value instanceof LocalDateTime time ? time.format(TIMESTAMP_FORMAT) : value.toString();
+		if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+			return '"' + text.replace("\"", "\"\"") + '"';
+		}
+		return text;
+	}
+
+	@Data
+	@NoArgsConstructor
+	static class Checkpoint {
+		private long rows;
+		private long bytes;
+		private LocalDateTime lastTimestamp;
+		private String lastId;
+		private boolean completed;
+		private LocalDateTime updatedAt;
+	}
+}
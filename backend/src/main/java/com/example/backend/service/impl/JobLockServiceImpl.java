@@ -0,0 +1,81 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.repository.JobLockRepository;
+import com.example.backend.service.JobLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the JobLockService interface.
+ * Each lock is taken and released in its own short transaction, so the task itself may use
+ * as many transactions as it needs without holding a database row lock for its whole run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobLockServiceImpl implements JobLockService {
+
+	private final JobLockRepository jobLockRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	// Định danh của instance này, dùng để chỉ nhả khoá do chính nó giữ
+	private final String owner = resolveHostName() + ":" + UUID.randomUUID();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean runExclusively(String name, Duration maxLease, Runnable task) {
+		return callExclusively(name, maxLease, () -> {
+			task.run();
+			return true;
+		}, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T callExclusively(String name, Duration maxLease, Supplier<T> task, T fallback) {
+		if (!tryAcquire(name, maxLease)) {
+			log.info("Skipping job {}: lock is held by another instance", name);
+			return fallback;
+		}
+		try {
+			return task.get();
+		} finally {
+			try {
+				transactionTemplate.executeWithoutResult(status ->
+						jobLockRepository.release(name, owner, LocalDateTime.now()));
+			} catch (Exception e) {
+				// Khoá sẽ tự hết hạn sau maxLease
+				log.warn("Failed to release job lock {}: {}", name, e.getMessage());
+			}
+		}
+	}
+
+	private boolean tryAcquire(String name, Duration maxLease) {
+		Integer acquired = transactionTemplate.execute(status -> {
+			LocalDateTime now = LocalDateTime.now();
+			jobLockRepository.insertIfAbsent(name, now);
+			return jobLockRepository.acquire(name, owner, now, now.plus(maxLease));
+		});
+		return acquired != null && acquired > 0;
+	}
+
+	private static String resolveHostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (Exception e) {
+			return "unknown";
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.Conversation;
+import com.example.backend.model.Message;
+import com.example.backend.model.enums.MessageSender;
+import com.example.backend.repository.ConversationRepository;
+import com.example.backend.repository.MessageRepository;
+import com.example.backend.service.ReadReceiptService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the ReadReceiptService interface.
+ * Advances per-participant read watermarks with in-memory coalescing and keeps the
+ * denormalized unread counters on conversations in sync.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadReceiptServiceImpl implements ReadReceiptService {
+
+	private final ConversationRepository conversationRepository;
+	private final MessageRepository messageRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	// Thời điểm ghi watermark gần nhất của từng (conversation, người gửi)
+	private final Map<ReadKey, Long> lastWrites = new ConcurrentHashMap<>();
+
+	// Các lượt đọc bị gộp lại, sẽ được ghi khi hết interval
+	private final Set<ReadKey> pendingReads = ConcurrentHashMap.newKeySet();
+
+	@Value("${chat.read-receipt.coalesce-interval-ms:5000}")
+	private long coalesceIntervalMs;
+
+	/**
+	 * Initializes the unread counters of conversations created before the counters existed.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillUnreadCounts() {
+		Integer updated = transactionTemplate.execute(status ->
+				conversationRepository.backfillUserUnreadCounts() + conversationRepository.backfillCompanyUnreadCounts());
+		if (updated != null && updated > 0) {
+			log.info("Backfilled unread counters for {} conversation sides", updated);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void markAsRead(String conversationId, MessageSender senderType) {
+		ReadKey key = new ReadKey(conversationId, senderType);
+		Long lastWrite = lastWrites.get(key);
+		if (lastWrite != null && System.currentTimeMillis() - lastWrite < coalesceIntervalMs) {
+			// Đã ghi trong interval hiện tại: gộp lại, scheduler sẽ ghi sau
+			pendingReads.add(key);
+			return;
+		}
+		transactionTemplate.executeWithoutResult(status -> applyRead(key));
+	}
+
+	/**
+	 * Applies coalesced reads whose interval has ended.
+	 */
+	@Scheduled(fixedDelayString = "${chat.read-receipt.coalesce-interval-ms:5000}")
+	public void flushPendingReads() {
+		long now = System.currentTimeMillis();
+		for (ReadKey key : pendingReads) {
+			Long lastWrite = lastWrites.get(key);
+			if (lastWrite != null && now - lastWrite < coalesceIntervalMs) {
+				continue;
+			}
+			pendingReads.remove(key);
+			try {
+				transactionTemplate.executeWithoutResult(status -> applyRead(key));
+			} catch (Exception e) {
+				log.warn("Failed to apply read receipt for conversation {}: {}", key.conversationId(), e.getMessage());
+			}
+		}
+
+		// Dọn các mốc ghi đã hết hạn để map không phình to
+		lastWrites.values().removeIf(writtenAt -> now - writtenAt >= coalesceIntervalMs);
+	}
+
+	/**
+	 * Advances the read watermark of the participant reading messages from the given sender to the newest
+	 * message and recounts the unread counter from the messages sent after it. Message rows are not updated:
+	 * read state is derived from the watermark. Does nothing when the participant has no unread messages.
+	 *
+	 * @param key The conversation and sender type that were read.
+	 */
+	private void applyRead(ReadKey key) {
+		Conversation conversation = conversationRepository.findById(key.conversationId()).orElse(null);
+		if (conversation == null) {
+			return;
+		}
+
+		// Tin nhắn từ USER do công ty đọc, tin nhắn từ RESCUE_COMPANY do user đọc
+		boolean readByCompany = key.senderType() == MessageSender.USER;
+		Integer unreadCount = readByCompany ? conversation.getCompanyUnreadCount() : conversation.getUserUnreadCount();
+		if (unreadCount != null && unreadCount == 0) {
+			return;
+		}
+
+		List<Message> latest = messageRepository.findLatestFromSender(key.conversationId(), key.senderType(), PageRequest.of(0, 1));
+		if (latest.isEmpty()) {
+			return;
+		}
+
+		Message watermark = latest.get(0);
+		LocalDateTime readAt = LocalDateTime.now();
+		if (readByCompany) {
+			conversationRepository.advanceCompanyReadWatermark(key.conversationId(), watermark.getId(), watermark.getSentAt(), readAt);
+		} else {
+			conversationRepository.advanceUserReadWatermark(key.conversationId(), watermark.getId(), watermark.getSentAt(), readAt);
+		}
+		lastWrites.put(key, System.currentTimeMillis());
+	}
+
+	/**
+	 * Identifies the messages of one sender in one conversation.
+	 */
+	private record ReadKey(String conversationId, MessageSender senderType) {
+	}
+}
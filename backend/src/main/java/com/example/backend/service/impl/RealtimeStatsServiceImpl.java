@@ -0,0 +1,441 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.CompanyRatingEvent;
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RollupGranularity;
+import com.example.backend.repository.RatingStatRollupRepository;
+import com.example.backend.repository.RequestStatRollupRepository;
+import com.example.backend.service.RealtimeStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the RealtimeStatsService interface.
+ * Counters are kept in memory and written periodically, together with the consumed offsets, to a snapshot file.
+ * On restart the snapshot is restored and consumption resumes right after the snapshotted offsets, so no event
+ * is counted twice. Without a snapshot the counters are loaded from the statistics rollups and consumption
+ * starts from the end of the topics. The counters are reloaded from the rollups every night after the rollup
+ * rebuild, which corrects any drift (lost events, deletes that bypass the entity listeners).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RealtimeStatsServiceImpl implements RealtimeStatsService {
+
+	private final RequestStatRollupRepository requestStatRollupRepository;
+	private final RatingStatRollupRepository ratingStatRollupRepository;
+	private final ObjectMapper objectMapper;
+
+	@Value("${stats.realtime.enabled:true}")
+	private boolean enabled;
+
+	@Value("${stats.realtime.snapshot-file:./data/analytics/stats-snapshot.json}")
+	private String snapshotFile;
+
+	@Value("${stats.realtime.hour-retention-hours:48}")
+	private int hourRetentionHours;
+
+	@Value("${stats.rollup.retention-days:400}")
+	private int retentionDays;
+
+	private final Map<RequestKey, LongAdder> requestCounters = new ConcurrentHashMap<>();
+	private final Map<RatingKey, LongAdder> ratingCounters = new ConcurrentHashMap<>();
+	// "topic-partition" → offset tiếp theo cần đọc
+	private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+	// Áp dụng sự kiện và truy vấn dùng read lock; nạp lại và ghi snapshot cần trạng thái nhất quán nên dùng write lock
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	@PostConstruct
+	public void init() {
+		if (enabled) {
+			restoreSnapshot();
+		}
+	}
+
+	/**
+	 * Loads the counters from the rollups when no snapshot was restored.
+	 * Runs after the rollups have been rebuilt at startup.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onApplicationReady() {
+		if (enabled && !ready) {
+			reload();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isReady() {
+		return enabled && ready;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void applyRequestEvent(RescueRequestLifecycleEvent event, String topic, int partition, long offset) {
+		lock.readLock().lock();
+		try {
+			if (!advance(topic, partition, offset) || event.getCreatedAt() == null) {
+				return;
+			}
+			if (event.getPreviousStatus() != null) {
+				addRequest(event, event.getPreviousStatus(), -1);
+			}
+			if (event.getStatus() != null) {
+				addRequest(event, event.getStatus(), 1);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void applyRatingEvent(CompanyRatingEvent event, String topic, int partition, long offset) {
+		lock.readLock().lock();
+		try {
+			if (!advance(topic, partition, offset) || event.getCreatedAt() == null) {
+				return;
+			}
+			if (event.getPreviousStars() != null) {
+				addRating(event, event.getPreviousStars(), -1);
+			}
+			if (event.getStars() != null) {
+				addRating(event, event.getStars(), 1);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Long getNextOffset(String topic, int partition) {
+		return offsets.get(topic + "-" + partition);
+	}
+
+	/**
+	 * Reloads the counters after the nightly rollup rebuild (daily at 04:00 by default).
+	 */
+	@Scheduled(cron = "${stats.realtime.reload-cron:0 0 4 * * *}")
+	public void scheduledReload() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			reload();
+		} catch (Exception e) {
+			log.error("Realtime statistics reload failed", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reload() {
+		lock.writeLock().lock();
+		try {
+			requestCounters.clear();
+			ratingCounters.clear();
+			for (RollupGranularity granularity : RollupGranularity.values()) {
+				LocalDateTime from = cutoff(granularity);
+				requestStatRollupRepository.findByGranularityAndBucketStartGreaterThanEqual(granularity, from)
+						.forEach(rollup -> requestCounters.computeIfAbsent(new RequestKey(granularity, rollup.getBucketStart(),
+								rollup.getStatus(), rollup.getServiceId(), rollup.getCompanyId()), key -> new LongAdder())
+								.add(rollup.getRequestCount()));
+				ratingStatRollupRepository.findByGranularityAndBucketStartGreaterThanEqual(granularity, from)
+						.forEach(rollup -> ratingCounters.computeIfAbsent(new RatingKey(granularity, rollup.getBucketStart(),
+								rollup.getStars(), rollup.getServiceId(), rollup.getCompanyId()), key -> new LongAdder())
+								.add(rollup.getRatingCount()));
+			}
+			ready = true;
+			log.info("Loaded realtime statistics from rollups ({} request counters, {} rating counters)",
+					requestCounters.size(), ratingCounters.size());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes a snapshot on the configured interval (every minute by default).
+	 */
+	@Scheduled(fixedDelayString = "${stats.realtime.snapshot-interval-ms:60000}",
+			initialDelayString = "${stats.realtime.snapshot-interval-ms:60000}")
+	public void scheduledSnapshot() {
+		if (!enabled || !ready) {
+			return;
+		}
+		try {
+			snapshot();
+		} catch (Exception e) {
+			log.error("Realtime statistics snapshot failed", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void snapshot() {
+		Snapshot snapshot = new Snapshot();
+		lock.writeLock().lock();
+		try {
+			evictExpired();
+			snapshot.setTakenAt(LocalDateTime.now());
+			snapshot.setOffsets(new HashMap<>(offsets));
+			snapshot.setRequests(new ArrayList<>());
+			snapshot.setRatings(new ArrayList<>());
+			requestCounters.forEach((key, count) -> snapshot.getRequests().add(new CounterRow(key.granularity(),
+					key.bucketStart(), key.status(), null, key.serviceId(), key.companyId(), count.sum())));
+			ratingCounters.forEach((key, count) -> snapshot.getRatings().add(new CounterRow(key.granularity(),
+					key.bucketStart(), null, key.stars(), key.serviceId(), key.companyId(), count.sum())));
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		try {
+			Path target = Paths.get(snapshotFile);
+			if (target.getParent() != null) {
+				Files.createDirectories(target.getParent());
+			}
+			Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+			objectMapper.writeValue(temp.toFile(), snapshot);
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Failed to write realtime statistics snapshot to {}", snapshotFile, e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (enabled && ready) {
+			snapshot();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object[]> sumRequestsByBucketAndStatus(RollupGranularity granularity, LocalDateTime from) {
+		return sum(requestCounters, key -> key.granularity() == granularity && !key.bucketStart().isBefore(from),
+				key -> List.of(key.bucketStart(), key.status()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object[]> sumRequestsByBucketAndService(RollupGranularity granularity, LocalDateTime from) {
+		return sum(requestCounters, key -> key.granularity() == granularity && !key.bucketStart().isBefore(from)
+						&& key.serviceId() != null,
+				key -> List.of(key.bucketStart(), key.serviceId()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object[]> sumRatingsByBucketAndStars(RollupGranularity granularity, LocalDateTime from) {
+		return sum(ratingCounters, key -> key.granularity() == granularity && !key.bucketStart().isBefore(from),
+				key -> List.of(key.bucketStart(), key.stars()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Object[]> sumRatingsByService(RollupGranularity granularity, LocalDateTime from) {
+		Map<String, long[]> totals = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			ratingCounters.forEach((key, count) -> {
+				if (key.granularity() == granularity && !key.bucketStart().isBefore(from) && key.serviceId() != null) {
+					long[] serviceTotals = totals.computeIfAbsent(key.serviceId(), id -> new long[2]);
+					long ratings = count.sum();
+					serviceTotals[0] += key.stars() * ratings;
+					serviceTotals[1] += ratings;
+				}
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<Object[]> rows = new ArrayList<>();
+		totals.forEach((serviceId, serviceTotals) -> {
+			if (serviceTotals[1] > 0) {
+				rows.add(new Object[]{serviceId, serviceTotals[0], serviceTotals[1]});
+			}
+		});
+		return rows;
+	}
+
+	private <K> List<Object[]> sum(Map<K, LongAdder> counters, Predicate<K> filter, Function<K, List<Object>> groupBy) {
+		Map<List<Object>, Long> sums = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			counters.forEach((key, count) -> {
+				if (filter.test(key)) {
+					sums.merge(groupBy.apply(key), count.sum(), Long::sum);
+				}
+			});
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<Object[]> rows = new ArrayList<>();
+		sums.forEach((group, total) -> {
+			if (total > 0) {
+				Object[] row = group.toArray(new Object[group.size() + 1]);
+				row[group.size()] = total;
+				rows.add(row);
+			}
+		});
+		return rows;
+	}
+
+	/**
+	 * Records the position of an event and returns whether it still has to be applied.
+	 */
+	private boolean advance(String topic, int partition, long offset) {
+		String key = topic + "-" + partition;
+		Long next = offsets.get(key);
+		if (next != null && offset < next) {
+			return false;
+		}
+		offsets.put(key, offset + 1);
+		return true;
+	}
+
+	private void addRequest(RescueRequestLifecycleEvent event, RescueRequestStatus status, long delta) {
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			LocalDateTime bucketStart = granularity.bucketOf(event.getCreatedAt());
+			if (!bucketStart.isBefore(cutoff(granularity))) {
+				requestCounters.computeIfAbsent(new RequestKey(granularity, bucketStart, status,
+						event.getServiceId(), event.getCompanyId()), key -> new LongAdder()).add(delta);
+			}
+		}
+	}
+
+	private void addRating(CompanyRatingEvent event, int stars, long delta) {
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			LocalDateTime bucketStart = granularity.bucketOf(event.getCreatedAt());
+			if (!bucketStart.isBefore(cutoff(granularity))) {
+				ratingCounters.computeIfAbsent(new RatingKey(granularity, bucketStart, stars,
+						event.getServiceId(), event.getCompanyId()), key -> new LongAdder()).add(delta);
+			}
+		}
+	}
+
+	private LocalDateTime cutoff(RollupGranularity granularity) {
+		return granularity == RollupGranularity.HOUR
+				? granularity.bucketOf(LocalDateTime.now().minusHours(hourRetentionHours))
+				: LocalDate.now().plusDays(1).minusDays(retentionDays).atStartOfDay();
+	}
+
+	private void evictExpired() {
+		requestCounters.entrySet().removeIf(entry -> entry.getValue().sum() == 0
+				|| entry.getKey().bucketStart().isBefore(cutoff(entry.getKey().granularity())));
+		ratingCounters.entrySet().removeIf(entry -> entry.getValue().sum() == 0
+				|| entry.getKey().bucketStart().isBefore(cutoff(entry.getKey().granularity())));
+	}
+
+	private void restoreSnapshot() {
+		Path path = Paths.get(snapshotFile);
+		if (!Files.exists(path)) {
+			return;
+		}
+		try {
+			Snapshot snapshot = objectMapper.readValue(path.toFile(), Snapshot.class);
+			snapshot.getRequests().forEach(row -> requestCounters.computeIfAbsent(new RequestKey(row.getGranularity(),
+					row.getBucketStart(), row.getStatus(), row.getServiceId(), row.getCompanyId()), key -> new LongAdder())
+					.add(row.getCount()));
+			snapshot.getRatings().forEach(row -> ratingCounters.computeIfAbsent(new RatingKey(row.getGranularity(),
+					row.getBucketStart(), row.getStars(), row.getServiceId(), row.getCompanyId()), key -> new LongAdder())
+					.add(row.getCount()));
+			offsets.putAll(snapshot.getOffsets());
+			evictExpired();
+			ready = true;
+			log.info("Restored realtime statistics snapshot taken at {}", snapshot.getTakenAt());
+		} catch (Exception e) {
+			// Snapshot hỏng: bỏ qua, bộ đếm sẽ được nạp lại từ rollup
+			log.warn("Failed to restore realtime statistics snapshot from {}", snapshotFile, e);
+			requestCounters.clear();
+			ratingCounters.clear();
+			offsets.clear();
+		}
+	}
+
+	private record RequestKey(RollupGranularity granularity, LocalDateTime bucketStart, RescueRequestStatus status,
+							  String serviceId, String companyId) {
+	}
+
+	private record RatingKey(RollupGranularity granularity, LocalDateTime bucketStart, int stars,
+							 String serviceId, String companyId) {
+	}
+
+	/**
+	 * Snapshot file content.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class Snapshot {
+		private LocalDateTime takenAt;
+		private Map<String, Long> offsets;
+		private List<CounterRow> requests;
+		private List<CounterRow> ratings;
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class CounterRow {
+		private RollupGranularity granularity;
+		private LocalDateTime bucketStart;
+		private RescueRequestStatus status;
+		private Integer stars;
+		private String serviceId;
+		private String companyId;
+		private long count;
+	}
+}
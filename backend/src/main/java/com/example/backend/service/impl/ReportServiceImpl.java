@@ -7,17 +7,18 @@ import com.example.backend.model.enums.ReportStatus;
 import com.example.backend.model.enums.ReportType;
 import com.example.backend.repository.ReportRepository;
 import com.example.backend.service.ReportService;
+import com.example.backend.service.SketchMetricsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ReportServiceImpl implements ReportService {
     private final ReportRepository reportRepository;
+    private final SketchMetricsService sketchMetricsService;
 
     @Override
     public Report createReport(ReportRequest request, String reporterId) {
@@ -28,7 +29,9 @@ public class ReportServiceImpl implements ReportService {
                 .reason(request.getReason())
                 .status(ReportStatus.PENDING)
                 .build();
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        sketchMetricsService.recordReport(saved.getType(), saved.getTargetId());
+        return saved;
     }
 
     @Override
@@ -57,8 +60,7 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public List<Object[]> getTopReported(ReportType type, int limit) {
-        List<Object[]> all = reportRepository.findTopReportedByType(type);
-        return all.stream().limit(limit).collect(Collectors.toList());
+        return sketchMetricsService.getTopReported(type, limit);
     }
 
     @Override
@@ -14,7 +14,9 @@ import com.example.backend.kafka.NotificationEventProducer;
 import com.example.backend.model.*;
 import com.example.backend.model.enums.*;
 import com.example.backend.repository.*;
+import com.example.backend.service.ChatSearchService;
 import com.example.backend.service.RescueRequestService;
+import com.example.backend.service.SketchMetricsService;
 import com.example.backend.utils.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -22,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -42,7 +45,9 @@ public class RescueRequestServiceImpl implements RescueRequestService {
 	private final RescueVehicleDispatchRepository rescueVehicleDispatchRepository;
 	private final UserRepository userRepository;
 	private final NotificationEventProducer notificationEventProducer;
+	private final ChatSearchService chatSearchService;
 	private final JwtUtil jwtUtil;
+	private final SketchMetricsService sketchMetricsService;
 
 	private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
@@ -93,6 +98,9 @@ public class RescueRequestServiceImpl implements RescueRequestService {
 
 		RescueRequest saved = requestRepository.save(rescueRequest);
 		logger.info("Saved rescue request with id: {}", saved.getId());
+		sketchMetricsService.recordActiveUser(userId);
+		sketchMetricsService.recordServiceRequested(rescueService.getId());
+		sketchMetricsService.recordPrice(SketchMetricsService.ESTIMATED_PRICE, saved.getEstimatedPrice());
 
 		User companyOwner = rescueService.getCompany().getUser();
 		NotificationEvent event = NotificationEvent.builder()
@@ -228,6 +236,7 @@ public class RescueRequestServiceImpl implements RescueRequestService {
 	}
 
 	@Override
+	@Transactional
 	public RescueRequestResponse acceptRequest(String requestId, String token) {
 		String userId = jwtUtil.extractUserId(jwtUtil.extractTokenFromHeader(token));
 		RescueRequest request = requestRepository.findById(requestId)
@@ -270,7 +279,9 @@ public class RescueRequestServiceImpl implements RescueRequestService {
 				.sentAt(LocalDateTime.now())
 				.isRead(false)
 				.build();
-		messageRepository.save(welcomeMsg);
+		welcomeMsg = messageRepository.save(welcomeMsg);
+		chatSearchService.indexMessage(welcomeMsg);
+		conversationRepository.incrementUserUnreadCount(conversation.getId(), LocalDateTime.now());
 
 		// (Nếu có hệ thống WebSocket/chat realtime, có thể publish message này tại đây)
 
@@ -636,6 +647,7 @@ public class RescueRequestServiceImpl implements RescueRequestService {
 		}
 
 		RescueRequest saved = requestRepository.save(request);
+		sketchMetricsService.recordPrice(SketchMetricsService.FINAL_PRICE, newPrice);
 
 		// Gửi thông báo cho người dùng
 		NotificationEvent event = NotificationEvent.builder()
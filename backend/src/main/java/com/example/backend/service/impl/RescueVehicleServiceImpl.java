@@ -2,6 +2,7 @@ package com.example.backend.service.impl;
 
 import com.example.backend.dto.request.RescueVehicleRequest;
 import com.example.backend.dto.request.VehicleStatusRequest;
+import com.example.backend.dto.response.FleetOverviewResponse;
 import com.example.backend.dto.response.RescueVehicleResponse;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.model.RescueCompany;
@@ -11,11 +12,15 @@ import com.example.backend.repository.RescueCompanyRepository;
 import com.example.backend.repository.RescueVehicleRepository;
 import com.example.backend.service.RescueVehicleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +30,12 @@ public class RescueVehicleServiceImpl implements RescueVehicleService {
 	private final RescueVehicleRepository vehicleRepository;
 	private final RescueCompanyRepository companyRepository;
 
+	@Value("${vehicle.fleet.maintenance-window-days:14}")
+	private int maintenanceWindowDays;
+
+	@Value("${vehicle.fleet.maintenance-limit:20}")
+	private int maintenanceLimit;
+
 	@Override
 	public RescueVehicleResponse create(RescueVehicleRequest request) {
 		RescueCompany company = companyRepository.findById(request.getCompanyId())
@@ -95,13 +106,54 @@ public class RescueVehicleServiceImpl implements RescueVehicleService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<RescueVehicleResponse> getByCompany(String companyId) {
-		return vehicleRepository.findAll().stream()
-				.filter(v -> v.getCompany() != null && companyId.equals(v.getCompany().getId()))
+		return vehicleRepository.findByCompanyId(companyId).stream()
+				.map(this::toResponse)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<RescueVehicleResponse> getByCompanyAndStatus(String companyId, RescueVehicleStatus status) {
+		return vehicleRepository.findByCompanyIdAndStatus(companyId, status).stream()
 				.map(this::toResponse)
 				.collect(Collectors.toList());
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public FleetOverviewResponse getFleetOverview(String companyId) {
+		Map<RescueVehicleStatus, Long> countsByStatus = new EnumMap<>(RescueVehicleStatus.class);
+		for (RescueVehicleStatus status : RescueVehicleStatus.values()) {
+			countsByStatus.put(status, 0L);
+		}
+		long total = 0;
+		for (Object[] row : vehicleRepository.countByStatusForCompany(companyId)) {
+			long count = ((Number) row[1]).longValue();
+			total += count;
+			// Xe chưa có trạng thái chỉ được tính vào tổng
+			if (row[0] != null) {
+				countsByStatus.put((RescueVehicleStatus) row[0], count);
+			}
+		}
+
+		LocalDateTime dueBefore = LocalDateTime.now().plusDays(maintenanceWindowDays);
+		List<RescueVehicleResponse> upcomingMaintenance = vehicleRepository
+				.findByCompanyIdAndNextMaintenanceDateLessThanEqualOrderByNextMaintenanceDate(
+						companyId, dueBefore, Limit.of(maintenanceLimit)).stream()
+				.map(this::toResponse)
+				.collect(Collectors.toList());
+
+		return FleetOverviewResponse.builder()
+				.companyId(companyId)
+				.totalVehicles(total)
+				.countsByStatus(countsByStatus)
+				.maintenanceDueBefore(dueBefore)
+				.upcomingMaintenance(upcomingMaintenance)
+				.build();
+	}
+
 	@Override
 	@Transactional
 	public RescueVehicleResponse updateStatus(String id, VehicleStatusRequest request) {
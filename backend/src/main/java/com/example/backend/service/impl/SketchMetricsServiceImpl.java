@@ -0,0 +1,363 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.model.MetricSketch;
+import com.example.backend.model.enums.ReportType;
+import com.example.backend.model.enums.SketchPeriod;
+import com.example.backend.repository.MetricSketchRepository;
+import com.example.backend.repository.ReportRepository;
+import com.example.backend.service.SketchMetricsService;
+import com.example.backend.utils.sketch.CountMinTopK;
+import com.example.backend.utils.sketch.HyperLogLog;
+import com.example.backend.utils.sketch.MergeableSketch;
+import com.example.backend.utils.sketch.TDigest;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the SketchMetricsService interface.
+ * <p>
+ * Every update goes into a per-replica delta sketch for the current day and month bucket (reports use a single
+ * all-time bucket). The deltas are merged into the metric_sketches rows under a row lock on a fixed interval
+ * and on shutdown, so the stored row is always the merge of all replicas. Queries merge the stored day buckets
+ * (or month buckets for ranges longer than stats.sketch.max-day-buckets days, rounded out to whole months)
+ * plus the local deltas not flushed yet. Memory and storage per bucket are constant.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SketchMetricsServiceImpl implements SketchMetricsService {
+
+	private static final String ACTIVE_USERS = "active-users";
+	private static final String SERVICES = "services";
+	private static final String REPORTS = "reports:";
+	private static final String PRICES = "prices:";
+	private static final String SEEDED = ":seeded";
+	private static final List<SketchPeriod> BUCKETED = List.of(SketchPeriod.DAY, SketchPeriod.MONTH);
+	private static final Set<String> PRICE_KINDS = Set.of(ESTIMATED_PRICE, FINAL_PRICE);
+
+	private final MetricSketchRepository sketchRepository;
+	private final ReportRepository reportRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${stats.sketch.enabled:true}")
+	private boolean enabled;
+
+	@Value("${stats.sketch.hll-precision:14}")
+	private int hllPrecision;
+
+	@Value("${stats.sketch.cms-depth:4}")
+	private int cmsDepth;
+
+	@Value("${stats.sketch.cms-width:2048}")
+	private int cmsWidth;
+
+	@Value("${stats.sketch.top-k:100}")
+	private int topK;
+
+	@Value("${stats.sketch.digest-compression:100}")
+	private double digestCompression;
+
+	@Value("${stats.sketch.max-day-buckets:31}")
+	private int maxDayBuckets;
+
+	@Value("${stats.sketch.day-retention-days:62}")
+	private int dayRetentionDays;
+
+	@Value("${stats.sketch.month-retention-months:25}")
+	private int monthRetentionMonths;
+
+	// Báo cáo tạo từ thời điểm này được ghi trực tiếp vào sketch, nên không được tính lại khi seed
+	private final LocalDateTime startedAt = LocalDateTime.now();
+
+	// Phần cập nhật của replica này chưa được gộp vào DB
+	private final Map<SketchKey, HyperLogLog> pendingUsers = new ConcurrentHashMap<>();
+	private final Map<SketchKey, CountMinTopK> pendingTopK = new ConcurrentHashMap<>();
+	private final Map<SketchKey, TDigest> pendingDigests = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordActiveUser(String userId) {
+		if (!enabled || userId == null) {
+			return;
+		}
+		for (SketchPeriod period : BUCKETED) {
+			update(pendingUsers, new SketchKey(ACTIVE_USERS, period, period.startOf(LocalDate.now())),
+					this::newUserSketch, sketch -> sketch.add(userId));
+		}
+	}
+
+	@Override
+	public void recordServiceRequested(String serviceId) {
+		if (!enabled || serviceId == null) {
+			return;
+		}
+		for (SketchPeriod period : BUCKETED) {
+			update(pendingTopK, new SketchKey(SERVICES, period, period.startOf(LocalDate.now())),
+					this::newTopKSketch, sketch -> sketch.add(serviceId));
+		}
+	}
+
+	@Override
+	public void recordReport(ReportType type, String targetId) {
+		if (!enabled || type == null || targetId == null) {
+			return;
+		}
+		update(pendingTopK, reportKey(type), this::newTopKSketch, sketch -> sketch.add(targetId));
+	}
+
+	@Override
+	public void recordPrice(String kind, Double price) {
+		if (!enabled || price == null || !PRICE_KINDS.contains(kind)) {
+			return;
+		}
+		for (SketchPeriod period : BUCKETED) {
+			update(pendingDigests, new SketchKey(PRICES + kind, period, period.startOf(LocalDate.now())),
+					this::newDigest, sketch -> sketch.add(price));
+		}
+	}
+
+	@Override
+	public long countActiveUsers(LocalDate from, LocalDate to) {
+		HyperLogLog result = newUserSketch();
+		merge(keys(ACTIVE_USERS, from, to), pendingUsers, HyperLogLog::fromBytes, result);
+		return result.estimate();
+	}
+
+	@Override
+	public List<Object[]> getTopRequestedServices(LocalDate from, LocalDate to, int limit) {
+		CountMinTopK result = newTopKSketch();
+		merge(keys(SERVICES, from, to), pendingTopK, CountMinTopK::fromBytes, result);
+		return toRows(result, limit);
+	}
+
+	@Override
+	public List<Object[]> getTopReported(ReportType type, int limit) {
+		CountMinTopK result = newTopKSketch();
+		merge(List.of(reportKey(type)), pendingTopK, CountMinTopK::fromBytes, result);
+		return toRows(result, limit);
+	}
+
+	@Override
+	public Map<String, Object> getPriceDistribution(String kind, LocalDate from, LocalDate to) {
+		if (!PRICE_KINDS.contains(kind)) {
+			throw new BadRequestException("Unsupported price kind: " + kind + ", expected one of " + PRICE_KINDS);
+		}
+		TDigest result = newDigest();
+		merge(keys(PRICES + kind, from, to), pendingDigests, TDigest::fromBytes, result);
+
+		Map<String, Object> distribution = new LinkedHashMap<>();
+		distribution.put("kind", kind);
+		distribution.put("count", result.size());
+		if (result.size() > 0) {
+			distribution.put("min", result.getMin());
+			distribution.put("p50", result.quantile(0.5));
+			distribution.put("p90", result.quantile(0.9));
+			distribution.put("p99", result.quantile(0.99));
+			distribution.put("max", result.getMax());
+		}
+		return distribution;
+	}
+
+	@Scheduled(fixedDelayString = "${stats.sketch.flush-interval-ms:10000}",
+			initialDelayString = "${stats.sketch.flush-interval-ms:10000}")
+	public void scheduledFlush() {
+		try {
+			flush();
+		} catch (Exception e) {
+			log.error("Metric sketch flush failed", e);
+		}
+	}
+
+	@Override
+	@PreDestroy
+	public void flush() {
+		flush(pendingUsers, HyperLogLog::fromBytes);
+		flush(pendingTopK, CountMinTopK::fromBytes);
+		flush(pendingDigests, TDigest::fromBytes);
+	}
+
+	/**
+	 * Seeds the most-reported sketches from the reports table once, so existing reports are counted.
+	 * Reports are recorded as they are created from the moment this service exists, and the scheduled flush may
+	 * already have created the sketch row before the application is ready. The seed therefore only counts reports
+	 * created before this service started and is merged into the row, guarded by a separate seeded marker row.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (!enabled) {
+			return;
+		}
+		for (ReportType type : ReportType.values()) {
+			SketchKey key = reportKey(type);
+			SketchKey marker = new SketchKey(key.metric() + SEEDED, key.period(), key.bucketStart());
+			try {
+				if (sketchRepository.existsById(marker.id())) {
+					continue;
+				}
+				CountMinTopK sketch = newTopKSketch();
+				Boolean seeded = transactionTemplate.execute(status -> {
+					// Marker và phần seed commit cùng nhau: replica khác chèn marker sẽ chờ rồi bỏ qua
+					if (insertIfAbsent(marker, new byte[0]) == 0) {
+						return false;
+					}
+					try (Stream<String> targets = reportRepository.streamTargetIdsByType(type, startedAt)) {
+						targets.forEach(sketch::add);
+					}
+					mergeIntoStore(key, sketch, CountMinTopK::fromBytes);
+					return true;
+				});
+				if (Boolean.TRUE.equals(seeded)) {
+					log.info("Seeded {} sketch from {} reports", key.metric(), sketch.getTotal());
+				}
+			} catch (Exception e) {
+				log.error("Failed to seed {} sketch", key.metric(), e);
+			}
+		}
+	}
+
+	@Scheduled(cron = "${stats.sketch.cleanup-cron:0 45 3 * * *}")
+	public void scheduledCleanup() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			LocalDate today = LocalDate.now();
+			Integer deleted = transactionTemplate.execute(status ->
+					sketchRepository.deleteExpired(SketchPeriod.DAY, today.minusDays(dayRetentionDays))
+							+ sketchRepository.deleteExpired(SketchPeriod.MONTH,
+							SketchPeriod.MONTH.startOf(today).minusMonths(monthRetentionMonths)));
+			log.info("Removed {} expired metric sketches", deleted);
+		} catch (Exception e) {
+			log.error("Metric sketch cleanup failed", e);
+		}
+	}
+
+	private <S> void update(Map<SketchKey, S> pending, SketchKey key, Supplier<S> factory, Consumer<S> update) {
+		// compute giữ khoá của entry nên không lẫn với flush đang lấy sketch ra
+		pending.compute(key, (k, sketch) -> {
+			S target = sketch != null ? sketch : factory.get();
+			update.accept(target);
+			return target;
+		});
+	}
+
+	private <S extends MergeableSketch<S>> void flush(Map<SketchKey, S> pending, Function<byte[], S> reader) {
+		for (SketchKey key : new ArrayList<>(pending.keySet())) {
+			S delta = pending.remove(key);
+			if (delta == null) {
+				continue;
+			}
+			try {
+				transactionTemplate.executeWithoutResult(status -> mergeIntoStore(key, delta, reader));
+			} catch (Exception e) {
+				// Giữ lại phần cập nhật để lần flush sau ghi tiếp
+				pending.merge(key, delta, (current, failed) -> {
+					current.merge(failed);
+					return current;
+				});
+				log.warn("Failed to flush metric sketch {}, will retry: {}", key.id(), e.getMessage());
+			}
+		}
+	}
+
+	private <S extends MergeableSketch<S>> void mergeIntoStore(SketchKey key, S delta, Function<byte[], S> reader) {
+		Optional<MetricSketch> existing = sketchRepository.findByIdForUpdate(key.id());
+		if (existing.isEmpty() && insertIfAbsent(key, delta.toBytes()) > 0) {
+			return;
+		}
+		// Dòng đã có (hoặc replica khác vừa tạo): gộp dưới khoá ghi
+		MetricSketch row = existing.isPresent() ? existing.get() : sketchRepository.findByIdForUpdate(key.id()).orElseThrow();
+		S stored = reader.apply(row.getData());
+		stored.merge(delta);
+		row.setData(stored.toBytes());
+		row.setUpdatedAt(LocalDateTime.now());
+	}
+
+	private int insertIfAbsent(SketchKey key, byte[] data) {
+		return sketchRepository.insertIfAbsent(key.id(), key.metric(), key.period().name(), key.bucketStart(),
+				data, LocalDateTime.now());
+	}
+
+	private <S extends MergeableSketch<S>> void merge(List<SketchKey> keys, Map<SketchKey, S> pending,
+			Function<byte[], S> reader, S result) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		sketchRepository.findAllById(keys.stream().map(SketchKey::id).collect(Collectors.toList()))
+				.forEach(row -> result.merge(reader.apply(row.getData())));
+		for (SketchKey key : keys) {
+			pending.computeIfPresent(key, (k, sketch) -> {
+				result.merge(sketch);
+				return sketch;
+			});
+		}
+	}
+
+	private List<SketchKey> keys(String metric, LocalDate from, LocalDate to) {
+		List<SketchKey> keys = new ArrayList<>();
+		if (from.isAfter(to)) {
+			return keys;
+		}
+		if (ChronoUnit.DAYS.between(from, to) < maxDayBuckets) {
+			for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+				keys.add(new SketchKey(metric, SketchPeriod.DAY, day));
+			}
+		} else {
+			for (LocalDate month = SketchPeriod.MONTH.startOf(from); !month.isAfter(to); month = month.plusMonths(1)) {
+				keys.add(new SketchKey(metric, SketchPeriod.MONTH, month));
+			}
+		}
+		return keys;
+	}
+
+	private SketchKey reportKey(ReportType type) {
+		return new SketchKey(REPORTS + type.name(), SketchPeriod.ALL, SketchPeriod.ALL.startOf(LocalDate.now()));
+	}
+
+	private static List<Object[]> toRows(CountMinTopK sketch, int limit) {
+		return sketch.top(Math.max(0, limit)).stream()
+				.map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+				.collect(Collectors.toList());
+	}
+
+	private HyperLogLog newUserSketch() {
+		return new HyperLogLog(hllPrecision);
+	}
+
+	private CountMinTopK newTopKSketch() {
+		return new CountMinTopK(cmsDepth, cmsWidth, topK);
+	}
+
+	private TDigest newDigest() {
+		return new TDigest(digestCompression);
+	}
+
+	private record SketchKey(String metric, SketchPeriod period, LocalDate bucketStart) {
+		String id() {
+			return metric + "|" + period + "|" + bucketStart;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.RatingStatRollup;
+import com.example.backend.model.RequestStatRollup;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RollupGranularity;
+import com.example.backend.repository.CompanyRatingRepository;
+import com.example.backend.repository.RatingStatRollupRepository;
+import com.example.backend.repository.RequestStatRollupRepository;
+import com.example.backend.repository.RescueRequestRepository;
+import com.example.backend.service.JobLockService;
+import com.example.backend.service.StatsRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Implementation of the StatsRollupService interface.
+ * Rollups are maintained by a compaction job: every run recomputes whole days from the source tables inside
+ * one transaction, so the result is idempotent and never drifts from the events it summarizes.
+ * The source tables are grouped per hour in the database, so a run reads one row per populated hourly bucket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsRollupServiceImpl implements StatsRollupService {
+
+	// Rows committed shortly before the previous run may carry an earlier updatedAt than the watermark
+	private static final long WATERMARK_OVERLAP_SECONDS = 30;
+	private static final int REBUILD_CHUNK_DAYS = 31;
+	private static final String LOCK_NAME = "stats-rollup";
+	private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+	private final RescueRequestRepository rescueRequestRepository;
+	private final CompanyRatingRepository companyRatingRepository;
+	private final RequestStatRollupRepository requestStatRollupRepository;
+	private final RatingStatRollupRepository ratingStatRollupRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final JobLockService jobLockService;
+
+	@Value("${stats.rollup.enabled:true}")
+	private boolean enabled;
+
+	@Value("${stats.rollup.retention-days:400}")
+	private int retentionDays;
+
+	// Refresh và rebuild dùng chung một khoá nên không chạy chồng lên nhau trên các instance
+	@Value("${stats.rollup.lock-lease-minutes:60}")
+	private long lockLeaseMinutes;
+
+	// null until the first run on this instance has completed
+	private volatile LocalDateTime watermark;
+
+	/**
+	 * Builds the rollups once the application has started, but only when they are still empty (first deployment),
+	 * so the realtime counters loaded next have data to start from. Readiness is published only after this listener
+	 * returns, so existing rollups are left to the incremental refresh and the nightly rebuild.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onApplicationReady() {
+		if (enabled && requestStatRollupRepository.count() == 0 && ratingStatRollupRepository.count() == 0) {
+			scheduledRebuild();
+		}
+	}
+
+	/**
+	 * Runs the incremental refresh on the configured interval (every minute by default).
+	 */
+	@Scheduled(fixedDelayString = "${stats.rollup.refresh-interval-ms:60000}",
+			initialDelayString = "${stats.rollup.refresh-interval-ms:60000}")
+	public void scheduledRefresh() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			refresh();
+		} catch (Exception e) {
+			log.error("Statistics rollup refresh failed", e);
+		}
+	}
+
+	/**
+	 * Runs the full rebuild on the configured schedule (daily at 03:30 by default).
+	 */
+	@Scheduled(cron = "${stats.rollup.rebuild-cron:0 30 3 * * *}")
+	public void scheduledRebuild() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			rebuild();
+		} catch (Exception e) {
+			log.error("Statistics rollup rebuild failed", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int refresh() {
+		return refresh(List.of());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int refresh(Collection<LocalDate> days) {
+		return jobLockService.callExclusively(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes), () -> refreshLocked(days), 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void rebuild() {
+		jobLockService.runExclusively(LOCK_NAME, Duration.ofMinutes(lockLeaseMinutes), this::rebuildLocked);
+	}
+
+	private int refreshLocked(Collection<LocalDate> extraDays) {
+		LocalDateTime runStartedAt = LocalDateTime.now();
+		LocalDateTime since = (watermark != null ? watermark : runStartedAt.minusDays(1))
+				.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+
+		TreeSet<LocalDate> days = new TreeSet<>(extraDays);
+		days.addAll(rescueRequestRepository.findCreatedDaysChangedSince(since));
+		days.addAll(companyRatingRepository.findCreatedDaysChangedSince(since));
+
+		for (LocalDate day : days) {
+			recompute(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+		}
+		watermark = runStartedAt;
+		if (!days.isEmpty()) {
+			log.debug("Refreshed statistics rollups for {} day(s)", days.size());
+		}
+		return days.size();
+	}
+
+	private void rebuildLocked() {
+		LocalDateTime runStartedAt = LocalDateTime.now();
+		LocalDate end = runStartedAt.toLocalDate().plusDays(1);
+		LocalDate start = end.minusDays(retentionDays);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			requestStatRollupRepository.deleteBuckets(EPOCH, start.atStartOfDay());
+			ratingStatRollupRepository.deleteBuckets(EPOCH, start.atStartOfDay());
+		});
+		for (LocalDate from = start; from.isBefore(end); from = from.plusDays(REBUILD_CHUNK_DAYS)) {
+			LocalDate to = from.plusDays(REBUILD_CHUNK_DAYS).isBefore(end) ? from.plusDays(REBUILD_CHUNK_DAYS) : end;
+			recompute(from.atStartOfDay(), to.atStartOfDay());
+		}
+		watermark = runStartedAt;
+		log.info("Rebuilt statistics rollups for the last {} days in {} ms", retentionDays,
+				Duration.between(runStartedAt, LocalDateTime.now()).toMillis());
+	}
+
+	/**
+	 * Replaces the hourly and daily buckets in [from, to), which must be aligned to day boundaries.
+	 */
+	private void recompute(LocalDateTime from, LocalDateTime to) {
+		transactionTemplate.executeWithoutResult(status -> {
+			requestStatRollupRepository.deleteBuckets(from, to);
+			ratingStatRollupRepository.deleteBuckets(from, to);
+
+			Map<String, RequestStatRollup> requestRollups = new HashMap<>();
+			for (Object[] row : rescueRequestRepository.countHourlyByStatusServiceAndCompany(from, to)) {
+				LocalDateTime hour = toHour(row);
+				RescueRequestStatus requestStatus = (RescueRequestStatus) row[4];
+				String serviceId = (String) row[5];
+				String companyId = (String) row[6];
+				long count = ((Number) row[7]).longValue();
+				for (RollupGranularity granularity : RollupGranularity.values()) {
+					LocalDateTime bucketStart = granularity.bucketOf(hour);
+					String id = rollupId(granularity, bucketStart, requestStatus, serviceId, companyId);
+					RequestStatRollup rollup = requestRollups.computeIfAbsent(id, key -> RequestStatRollup.builder()
+							.id(key)
+							.granularity(granularity)
+							.bucketStart(bucketStart)
+							.status(requestStatus)
+							.serviceId(serviceId)
+							.companyId(companyId)
+							.build());
+					rollup.setRequestCount(rollup.getRequestCount() + count);
+				}
+			}
+
+			Map<String, RatingStatRollup> ratingRollups = new HashMap<>();
+			for (Object[] row : companyRatingRepository.countHourlyByServiceCompanyAndStars(from, to)) {
+				LocalDateTime hour = toHour(row);
+				String serviceId = (String) row[4];
+				String companyId = (String) row[5];
+				int stars = ((Number) row[6]).intValue();
+				long count = ((Number) row[7]).longValue();
+				for (RollupGranularity granularity : RollupGranularity.values()) {
+					LocalDateTime bucketStart = granularity.bucketOf(hour);
+					String id = rollupId(granularity, bucketStart, stars, serviceId, companyId);
+					RatingStatRollup rollup = ratingRollups.computeIfAbsent(id, key -> RatingStatRollup.builder()
+							.id(key)
+							.granularity(granularity)
+							.bucketStart(bucketStart)
+							.serviceId(serviceId)
+							.companyId(companyId)
+							.stars(stars)
+							.build());
+					rollup.setRatingCount(rollup.getRatingCount() + count);
+				}
+			}
+
+			requestStatRollupRepository.saveAll(requestRollups.values());
+			ratingStatRollupRepository.saveAll(ratingRollups.values());
+		});
+	}
+
+	/**
+	 * Start of the hour from the leading [year, month, day, hour] columns of a grouped row.
+	 */
+	private static LocalDateTime toHour(Object[] row) {
+		return LocalDateTime.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+				((Number) row[2]).intValue(), ((Number) row[3]).intValue(), 0);
+	}
+
+	private static String rollupId(RollupGranularity granularity, LocalDateTime bucketStart, Object key,
+								   String serviceId, String companyId) {
+		return String.join("|", granularity.name(), bucketStart.toString(), String.valueOf(key),
+				String.valueOf(serviceId), String.valueOf(companyId));
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.backend.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả thống kê dashboard theo key, để số admin mở dashboard cùng lúc không làm tăng tải DB.
+ * <ul>
+ *     <li>Trong admin.dashboard-cache.ttl-ms kể từ lần tính: trả giá trị đã cache.</li>
+ *     <li>Quá TTL nhưng chưa quá thêm admin.dashboard-cache.stale-ms: trả giá trị cũ ngay và tính lại ở nền.</li>
+ *     <li>Chưa có hoặc quá cũ: chờ kết quả tính mới.</li>
+ * </ul>
+ * Mỗi key chỉ có tối đa một lần tính đang chạy (single-flight); các request đồng thời cùng key chờ chung kết quả đó.
+ * Lỗi không được cache: request đang chờ nhận lại exception, lần gọi sau tính lại.
+ */
+@Slf4j
+@Component
+public class DashboardCache {
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	@Value("${admin.dashboard-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${admin.dashboard-cache.ttl-ms:30000}")
+	private long ttlMs;
+
+	@Value("${admin.dashboard-cache.stale-ms:300000}")
+	private long staleMs;
+
+	@Value("${admin.dashboard-cache.refresh-threads:2}")
+	private int refreshThreads;
+
+	@Value("${admin.dashboard-cache.max-entries:500}")
+	private int maxEntries;
+
+	private ExecutorService refresher;
+
+	@PostConstruct
+	public void init() {
+		AtomicInteger counter = new AtomicInteger();
+		refresher = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+			Thread thread = new Thread(runnable, "dashboard-cache-refresh-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(String key, Supplier<T> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+		if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+			evictExpired();
+		}
+		Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+		Snapshot snapshot = entry.snapshot;
+		if (snapshot != null) {
+			long age = System.currentTimeMillis() - snapshot.loadedAt();
+			if (age < ttlMs) {
+				return (T) snapshot.value();
+			}
+			if (age < ttlMs + staleMs) {
+				load(key, entry, loader, true);
+				return (T) snapshot.value();
+			}
+		}
+		try {
+			return (T) load(key, entry, loader, false).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Drops every cached entry, e.g. after data was changed in bulk.
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		refresher.shutdownNow();
+	}
+
+	private CompletableFuture<Object> load(String key, Entry entry, Supplier<?> loader, boolean background) {
+		CompletableFuture<Object> future;
+		synchronized (entry) {
+			if (entry.inFlight != null) {
+				return entry.inFlight;
+			}
+			future = new CompletableFuture<>();
+			entry.inFlight = future;
+		}
+		Runnable task = () -> {
+			try {
+				Object value = loader.get();
+				entry.snapshot = new Snapshot(value, System.currentTimeMillis());
+				future.complete(value);
+			} catch (Throwable e) {
+				if (background) {
+					log.warn("Background refresh of dashboard cache key {} failed", key, e);
+				}
+				future.completeExceptionally(e);
+			} finally {
+				synchronized (entry) {
+					entry.inFlight = null;
+				}
+			}
+		};
+		if (background) {
+			refresher.execute(task);
+		} else {
+			task.run();
+		}
+		return future;
+	}
+
+	private void evictExpired() {
+		long now = System.currentTimeMillis();
+		entries.entrySet().removeIf(e -> {
+			Snapshot snapshot = e.getValue().snapshot;
+			return e.getValue().inFlight == null
+					&& (snapshot == null || now - snapshot.loadedAt() >= ttlMs + staleMs);
+		});
+	}
+
+	private static class Entry {
+		volatile Snapshot snapshot;
+		// Chỉ gán trong synchronized (entry)
+		volatile CompletableFuture<Object> inFlight;
+	}
+
+	private record Snapshot(Object value, long loadedAt) {
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.backend.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mã hoá vị trí keyset (giá trị các trường sắp xếp của dòng cuối trang) thành cursor dạng Base64 URL-safe.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetCursorCodec {
+
+	private final ObjectMapper objectMapper;
+
+	public String encode(Map<String, ?> keys) {
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to encode cursor", e);
+		}
+	}
+
+	/**
+	 * Giải mã cursor, chuyển từng giá trị về kiểu của trường sắp xếp tương ứng.
+	 *
+	 * @throws IllegalArgumentException nếu cursor không hợp lệ hoặc không khớp với các trường sắp xếp.
+	 */
+	public Map<String, Object> decode(String cursor, Map<String, Class<?>> keyTypes) {
+		try {
+			JsonNode node = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+			Map<String, Object> keys = new LinkedHashMap<>();
+			for (Map.Entry<String, Class<?>> keyType : keyTypes.entrySet()) {
+				JsonNode value = node.get(keyType.getKey());
+				if (value == null || value.isNull()) {
+					throw new IllegalArgumentException("Cursor does not match sort field " + keyType.getKey());
+				}
+				keys.put(keyType.getKey(), objectMapper.treeToValue(value, keyType.getValue()));
+			}
+			return keys;
+		} catch (IllegalArgumentException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.backend.utils;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.IOException;
+import java.text.Normalizer;
+
+/**
+ * Analyzer cho nội dung tiếng Việt.
+ * Chuẩn hoá Unicode về NFC, chuyển chữ thường và giữ cả dạng có dấu lẫn dạng không dấu
+ * ("cứu hộ" được index thành "cứu"/"cuu" và "hộ"/"ho") để người dùng gõ không dấu vẫn tìm thấy.
+ */
+public class VietnameseAnalyzer extends Analyzer {
+
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName) {
+		Tokenizer source = new StandardTokenizer();
+		TokenStream result = new LowerCaseFilter(source);
+		result = new ASCIIFoldingFilter(result, true);
+		return new TokenStreamComponents(source, result);
+	}
+
+	@Override
+	protected Reader initReader(String fieldName, Reader reader) {
+		return new StringReader(normalize(readFully(reader)));
+	}
+
+	/**
+	 * Chuẩn hoá chuỗi về dạng NFC (một số bàn phím gửi dấu dưới dạng ký tự tổ hợp rời).
+	 */
+	public static String normalize(String text) {
+		return text == null ? "" : Normalizer.normalize(text, Normalizer.Form.NFC);
+	}
+
+	private static String readFully(Reader reader) {
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[1024];
+		try {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read text for analysis", e);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,160 @@
+package com.example.backend.utils.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Count-Min sketch ({@code depth} rows of {@code width} counters) plus a bounded candidate set of the
+ * {@code capacity} items with the highest estimates. Estimates never undercount; the overcount is at most
+ * about {@code 2 * total / width} with high probability. Merging adds the counters and re-ranks the union of
+ * both candidate sets against the merged counters.
+ */
+public class CountMinTopK implements MergeableSketch<CountMinTopK> {
+
+	private final int depth;
+	private final int width;
+	private final int capacity;
+	private final long[] counts;
+	private final Map<String, Long> candidates = new HashMap<>();
+	private long total;
+
+	public CountMinTopK(int depth, int width, int capacity) {
+		if (depth < 1 || width < 1 || capacity < 1) {
+			throw new IllegalArgumentException("Count-Min dimensions and capacity must be positive");
+		}
+		this.depth = depth;
+		this.width = width;
+		this.capacity = capacity;
+		this.counts = new long[depth * width];
+	}
+
+	public void add(String item) {
+		add(item, 1);
+	}
+
+	public void add(String item, long count) {
+		total += count;
+		long hash = HyperLogLog.hash64(item);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			int index = index(hash, row);
+			counts[index] += count;
+			estimate = Math.min(estimate, counts[index]);
+		}
+		offer(item, estimate);
+	}
+
+	public long estimate(String item) {
+		long hash = HyperLogLog.hash64(item);
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counts[index(hash, row)]);
+		}
+		return estimate;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * The heaviest candidates, highest estimate first.
+	 */
+	public List<Map.Entry<String, Long>> top(int limit) {
+		List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+		candidates.keySet().forEach(item -> ranked.add(Map.entry(item, estimate(item))));
+		ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+		return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+	}
+
+	@Override
+	public void merge(CountMinTopK other) {
+		if (other.depth != depth || other.width != width) {
+			throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		total += other.total;
+
+		Set<String> items = new HashSet<>(candidates.keySet());
+		items.addAll(other.candidates.keySet());
+		candidates.clear();
+		items.stream()
+				.map(item -> Map.entry(item, estimate(item)))
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+				.limit(capacity)
+				.forEach(entry -> candidates.put(entry.getKey(), entry.getValue()));
+	}
+
+	@Override
+	public byte[] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(counts.length * Long.BYTES + candidates.size() * 48);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(depth);
+			out.writeInt(width);
+			out.writeInt(capacity);
+			out.writeLong(total);
+			for (long count : counts) {
+				out.writeLong(count);
+			}
+			out.writeInt(candidates.size());
+			for (String item : candidates.keySet()) {
+				out.writeUTF(item);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static CountMinTopK fromBytes(byte[] bytes) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			CountMinTopK sketch = new CountMinTopK(in.readInt(), in.readInt(), in.readInt());
+			sketch.total = in.readLong();
+			for (int i = 0; i < sketch.counts.length; i++) {
+				sketch.counts[i] = in.readLong();
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String item = in.readUTF();
+				sketch.candidates.put(item, sketch.estimate(item));
+			}
+			return sketch;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void offer(String item, long estimate) {
+		if (candidates.containsKey(item) || candidates.size() < capacity) {
+			candidates.put(item, estimate);
+			return;
+		}
+		Map.Entry<String, Long> smallest = candidates.entrySet().stream()
+				.min(Comparator.comparingLong(Map.Entry::getValue))
+				.orElseThrow();
+		if (estimate > smallest.getValue()) {
+			candidates.remove(smallest.getKey());
+			candidates.put(item, estimate);
+		}
+	}
+
+	// Double hashing: hàng i dùng h1 + i * h2
+	private int index(long hash, int row) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		return row * width + Math.floorMod(h1 + row * h2, width);
+	}
+}
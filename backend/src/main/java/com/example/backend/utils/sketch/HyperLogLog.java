@@ -0,0 +1,102 @@
+package com.example.backend.utils.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct counter with 2^precision one-byte registers (16 KB at the default precision 14,
+ * about 0.8% standard error). Merging takes the register-wise maximum.
+ */
+public class HyperLogLog implements MergeableSketch<HyperLogLog> {
+
+	private final int precision;
+	private final byte[] registers;
+
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 18) {
+			throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	public void add(String value) {
+		long hash = hash64(value);
+		int index = (int) (hash >>> (64 - precision));
+		// Bit chặn đảm bảo rank không vượt quá 64 - precision + 1
+		int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+		if (rank > registers[index]) {
+			registers[index] = (byte) rank;
+		}
+	}
+
+	public long estimate() {
+		int m = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += Math.scalb(1.0, -register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+		double estimate = alpha(m) * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			// Linear counting cho tập nhỏ
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	@Override
+	public void merge(HyperLogLog other) {
+		if (other.precision != precision) {
+			throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with precision " + precision
+					+ " and " + other.precision);
+		}
+		for (int i = 0; i < registers.length; i++) {
+			if (other.registers[i] > registers[i]) {
+				registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBytes() {
+		return ByteBuffer.allocate(1 + registers.length).put((byte) precision).put(registers).array();
+	}
+
+	public static HyperLogLog fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		HyperLogLog sketch = new HyperLogLog(buffer.get());
+		buffer.get(sketch.registers);
+		return sketch;
+	}
+
+	private static double alpha(int m) {
+		return switch (m) {
+			case 16 -> 0.673;
+			case 32 -> 0.697;
+			case 64 -> 0.709;
+			default -> 0.7213 / (1 + 1.079 / m);
+		};
+	}
+
+	/**
+	 * 64-bit FNV-1a over the UTF-8 bytes followed by the MurmurHash3 finalizer, which spreads the bits well
+	 * enough for register selection and hash-based counters.
+	 */
+	static long hash64(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.backend.utils.sketch;
+
+/**
+ * A fixed-size summary that can be combined with another summary of the same shape, so partial sketches
+ * built on different replicas (or for different time buckets) merge into the sketch of the combined stream.
+ */
+public interface MergeableSketch<S extends MergeableSketch<S>> {
+
+	/**
+	 * Adds the other sketch into this one. The other sketch is not modified.
+	 *
+	 * @throws IllegalArgumentException if the sketches were created with different parameters
+	 */
+	void merge(S other);
+
+	byte[] toBytes();
+}
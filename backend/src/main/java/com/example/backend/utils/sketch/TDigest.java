@@ -0,0 +1,210 @@
+package com.example.backend.utils.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Merging t-digest (Dunning) for quantile estimates. Points are buffered and periodically merged into at most
+ * about {@code compression} centroids using the k1 (arcsine) scale function, which keeps centroids small near
+ * the tails so extreme quantiles stay accurate. Merging adds the other digest's centroids as weighted points.
+ */
+public class TDigest implements MergeableSketch<TDigest> {
+
+	private final double compression;
+	private double[] means;
+	private double[] weights;
+	private int centroidCount;
+	private final double[] bufferMeans;
+	private final double[] bufferWeights;
+	private int bufferCount;
+	private double totalWeight;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public TDigest(double compression) {
+		if (compression < 10) {
+			throw new IllegalArgumentException("t-digest compression must be at least 10: " + compression);
+		}
+		this.compression = compression;
+		int capacity = (int) Math.ceil(compression) * 2;
+		this.means = new double[capacity];
+		this.weights = new double[capacity];
+		this.bufferMeans = new double[capacity * 5];
+		this.bufferWeights = new double[capacity * 5];
+	}
+
+	public void add(double value) {
+		add(value, 1);
+	}
+
+	public void add(double value, double weight) {
+		if (Double.isNaN(value) || weight <= 0) {
+			return;
+		}
+		if (bufferCount == bufferMeans.length) {
+			compress();
+		}
+		bufferMeans[bufferCount] = value;
+		bufferWeights[bufferCount] = weight;
+		bufferCount++;
+		totalWeight += weight;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public long size() {
+		return Math.round(totalWeight);
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Estimated value at quantile q in [0, 1], or NaN if the digest is empty.
+	 */
+	public double quantile(double q) {
+		if (q < 0 || q > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+		}
+		compress();
+		if (centroidCount == 0) {
+			return Double.NaN;
+		}
+		if (centroidCount == 1) {
+			return means[0];
+		}
+		double target = q * totalWeight;
+		double firstCenter = weights[0] / 2;
+		if (target <= firstCenter) {
+			return interpolate(min, means[0], target / firstCenter);
+		}
+		double cumulative = 0;
+		for (int i = 0; i < centroidCount - 1; i++) {
+			double center = cumulative + weights[i] / 2;
+			double nextCenter = cumulative + weights[i] + weights[i + 1] / 2;
+			if (target <= nextCenter) {
+				return interpolate(means[i], means[i + 1], (target - center) / (nextCenter - center));
+			}
+			cumulative += weights[i];
+		}
+		double lastCenter = totalWeight - weights[centroidCount - 1] / 2;
+		return interpolate(means[centroidCount - 1], max, (target - lastCenter) / (totalWeight - lastCenter));
+	}
+
+	@Override
+	public void merge(TDigest other) {
+		if (other.compression != compression) {
+			throw new IllegalArgumentException("Cannot merge t-digests with compression " + compression
+					+ " and " + other.compression);
+		}
+		for (int i = 0; i < other.centroidCount; i++) {
+			add(other.means[i], other.weights[i]);
+		}
+		for (int i = 0; i < other.bufferCount; i++) {
+			add(other.bufferMeans[i], other.bufferWeights[i]);
+		}
+		// Centroid giữ giá trị trung bình, nên min/max thật phải lấy từ digest kia
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	@Override
+	public byte[] toBytes() {
+		compress();
+		ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES * 4 + Integer.BYTES + centroidCount * Double.BYTES * 2);
+		buffer.putDouble(compression).putDouble(min).putDouble(max).putDouble(totalWeight).putInt(centroidCount);
+		for (int i = 0; i < centroidCount; i++) {
+			buffer.putDouble(means[i]).putDouble(weights[i]);
+		}
+		return buffer.array();
+	}
+
+	public static TDigest fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		TDigest digest = new TDigest(buffer.getDouble());
+		digest.min = buffer.getDouble();
+		digest.max = buffer.getDouble();
+		digest.totalWeight = buffer.getDouble();
+		int count = buffer.getInt();
+		digest.ensureCapacity(count);
+		for (int i = 0; i < count; i++) {
+			digest.means[i] = buffer.getDouble();
+			digest.weights[i] = buffer.getDouble();
+		}
+		digest.centroidCount = count;
+		return digest;
+	}
+
+	private void compress() {
+		if (bufferCount == 0) {
+			return;
+		}
+		int n = centroidCount + bufferCount;
+		double[] allMeans = Arrays.copyOf(means, n);
+		double[] allWeights = Arrays.copyOf(weights, n);
+		System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+		System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+		int[] order = IntStream.range(0, n).boxed()
+				.sorted((a, b) -> Double.compare(allMeans[a], allMeans[b]))
+				.mapToInt(Integer::intValue)
+				.toArray();
+
+		double[] mergedMeans = new double[n];
+		double[] mergedWeights = new double[n];
+		int count = 0;
+		double weightSoFar = 0;
+		double currentMean = allMeans[order[0]];
+		double currentWeight = allWeights[order[0]];
+		double limit = weightLimit(0);
+		for (int k = 1; k < n; k++) {
+			double mean = allMeans[order[k]];
+			double weight = allWeights[order[k]];
+			if (weightSoFar + currentWeight + weight <= limit) {
+				currentWeight += weight;
+				currentMean += (mean - currentMean) * weight / currentWeight;
+			} else {
+				mergedMeans[count] = currentMean;
+				mergedWeights[count] = currentWeight;
+				count++;
+				weightSoFar += currentWeight;
+				limit = weightLimit(weightSoFar);
+				currentMean = mean;
+				currentWeight = weight;
+			}
+		}
+		mergedMeans[count] = currentMean;
+		mergedWeights[count] = currentWeight;
+		count++;
+
+		ensureCapacity(count);
+		System.arraycopy(mergedMeans, 0, means, 0, count);
+		System.arraycopy(mergedWeights, 0, weights, 0, count);
+		centroidCount = count;
+		bufferCount = 0;
+	}
+
+	// Trọng số tích luỹ tối đa của centroid bắt đầu tại weightSoFar: k1(q_right) - k1(q_left) <= 1
+	private double weightLimit(double weightSoFar) {
+		double q = weightSoFar / totalWeight;
+		double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+		double nextK = Math.min(k + 1, compression / 4);
+		return totalWeight * (Math.sin(nextK * 2 * Math.PI / compression) + 1) / 2;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (means.length < capacity) {
+			means = Arrays.copyOf(means, capacity);
+			weights = Arrays.copyOf(weights, capacity);
+		}
+	}
+
+	private static double interpolate(double from, double to, double fraction) {
+		return from + (to - from) * Math.max(0, Math.min(1, fraction));
+	}
+}
@@ -0,0 +1,132 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.response.MessageCursorResponse;
+import com.example.backend.dto.response.MessageResponse;
+import com.example.backend.kafka.NotificationEventProducer;
+import com.example.backend.model.Message;
+import com.example.backend.model.enums.MessageSender;
+import com.example.backend.repository.ConversationRepository;
+import com.example.backend.repository.MessageRepository;
+import com.example.backend.repository.RescueCompanyRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.ChatArchiveService;
+import com.example.backend.service.ChatSearchService;
+import com.example.backend.service.ReadReceiptService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceImplTest {
+
+	private static final String CONVERSATION_ID = "conversation";
+	private static final LocalDateTime T = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
+
+	@Mock
+	private MessageRepository messageRepository;
+	@Mock
+	private ConversationRepository conversationRepository;
+	@Mock
+	private UserRepository userRepository;
+	@Mock
+	private RescueCompanyRepository rescueCompanyRepository;
+	@Mock
+	private NotificationEventProducer notificationEventProducer;
+	@Mock
+	private ChatSearchService chatSearchService;
+	@Mock
+	private ChatArchiveService chatArchiveService;
+	@Mock
+	private ReadReceiptService readReceiptService;
+
+	@InjectMocks
+	private ChatServiceImpl chatService;
+
+	@Test
+	void archiveContinuesAfterOldestHotMessageByTimeThenId() {
+		// Hai tin nhắn cùng sentAt, trả về theo id tăng dần: tin cũ nhất theo (sentAt, id) giảm dần là "b"
+		when(messageRepository.findInitialMessages(eq(CONVERSATION_ID), any(Pageable.class)))
+				.thenReturn(List.of(message("b", T), message("c", T)));
+		when(chatArchiveService.findMessagesBeforeCursor(CONVERSATION_ID, T, "b", 2))
+				.thenReturn(List.of(message("a", T.minusHours(1)), message("z", T.minusHours(2))));
+
+		MessageCursorResponse page = chatService.getInitialMessages(CONVERSATION_ID, 3, "asc");
+
+		assertEquals(List.of("c", "b", "a"), ids(page));
+		assertEquals(cursor(T.minusHours(1), "a"), page.getNextCursor());
+	}
+
+	@Test
+	void descendingSortReturnsTheSamePageOldestFirst() {
+		when(messageRepository.findInitialMessages(eq(CONVERSATION_ID), any(Pageable.class)))
+				.thenReturn(List.of(message("c", T), message("b", T)));
+		when(chatArchiveService.findMessagesBeforeCursor(CONVERSATION_ID, T, "b", 2))
+				.thenReturn(List.of(message("a", T.minusHours(1)), message("z", T.minusHours(2))));
+
+		MessageCursorResponse page = chatService.getInitialMessages(CONVERSATION_ID, 3, "desc");
+
+		assertEquals(List.of("a", "b", "c"), ids(page));
+		assertEquals(cursor(T.minusHours(1), "a"), page.getNextCursor());
+	}
+
+	@Test
+	void fullHotPageDoesNotReadTheArchive() {
+		when(messageRepository.findInitialMessages(eq(CONVERSATION_ID), any(Pageable.class)))
+				.thenReturn(List.of(message("c", T), message("b", T.minusMinutes(1)), message("a", T.minusMinutes(2))));
+
+		MessageCursorResponse page = chatService.getInitialMessages(CONVERSATION_ID, 2, "asc");
+
+		assertEquals(List.of("c", "b"), ids(page));
+		assertEquals(cursor(T.minusMinutes(1), "b"), page.getNextCursor());
+		verify(chatArchiveService, never()).findMessagesBeforeCursor(any(), any(), any(), anyInt());
+	}
+
+	@Test
+	void cursorPageContinuesInTheArchiveFromTheRequestCursor() {
+		when(messageRepository.findMessagesBeforeCursor(eq(CONVERSATION_ID), eq(T), eq("m"), any(Pageable.class)))
+				.thenReturn(List.of());
+		when(chatArchiveService.findMessagesBeforeCursor(CONVERSATION_ID, T, "m", 3))
+				.thenReturn(List.of(message("b", T.minusHours(1)), message("a", T.minusHours(2))));
+
+		MessageCursorResponse page = chatService.getMessagesBeforeCursor(CONVERSATION_ID, cursor(T, "m"), 2, "asc");
+
+		assertEquals(List.of("b", "a"), ids(page));
+		assertNull(page.getNextCursor());
+	}
+
+	private static Message message(String id, LocalDateTime sentAt) {
+		return Message.builder()
+				.id(id)
+				.content("message " + id)
+				.senderType(MessageSender.USER)
+				.sentAt(sentAt)
+				.build();
+	}
+
+	private static List<String> ids(MessageCursorResponse page) {
+		assertNotNull(page.getMessages());
+		return page.getMessages().stream().map(MessageResponse::getId).toList();
+	}
+
+	private static String cursor(LocalDateTime sentAt, String id) {
+		return Base64.getEncoder().encodeToString((sentAt + ":" + id).getBytes(StandardCharsets.UTF_8));
+	}
+}
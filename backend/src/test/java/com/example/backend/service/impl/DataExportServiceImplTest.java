@@ -0,0 +1,135 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.enums.ExportDataset;
+import com.example.backend.repository.CompanyRatingRepository;
+import com.example.backend.repository.InvoiceRepository;
+import com.example.backend.repository.RescueRequestRepository;
+import com.example.backend.repository.RescueVehicleDispatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DataExportServiceImplTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime T = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
+	private static final String HEADER = String.join(",", ExportDataset.REQUESTS.getColumns());
+
+	@Mock
+	private RescueRequestRepository requestRepository;
+	@Mock
+	private InvoiceRepository invoiceRepository;
+	@Mock
+	private CompanyRatingRepository companyRatingRepository;
+	@Mock
+	private RescueVehicleDispatchRepository dispatchRepository;
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private DataExportServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		service = new DataExportServiceImpl(requestRepository, invoiceRepository, companyRatingRepository,
+				dispatchRepository, objectMapper);
+		ReflectionTestUtils.setField(service, "checkpointRows", 2);
+	}
+
+	private static Object[] row(int i) {
+		return new Object[]{"r" + i, T.plusMinutes(i), "COMPLETED"};
+	}
+
+	private static Stream<Object[]> rows(int from, int to) {
+		return Stream.iterate(from, i -> i + 1).limit(to - from + 1).map(DataExportServiceImplTest::row);
+	}
+
+	private static String line(int i) {
+		return "r" + i + "," + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(T.plusMinutes(i)) + ",COMPLETED";
+	}
+
+	private static byte[] gzip(String text) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+
+	// GZIPInputStream đọc nối tiếp mọi gzip member trong file
+	private static List<String> readLines(Path file) throws IOException {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+			return Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+		}
+	}
+
+	@Test
+	void resumeTruncatesPartialMemberAndContinuesAfterCheckpoint() throws IOException {
+		Path target = directory.resolve(ExportDataset.REQUESTS.fileName());
+		Path checkpointFile = directory.resolve(ExportDataset.REQUESTS.fileName() + ".checkpoint.json");
+
+		// Lần chạy đầu mất kết nối ở dòng thứ 4: chỉ member [r1, r2] đã được checkpoint
+		when(requestRepository.streamExportRows(START, "")).thenReturn(Stream.concat(rows(1, 3),
+				Stream.<Object[]>generate(() -> {
+					throw new IllegalStateException("connection lost");
+				})));
+		assertThrows(IllegalStateException.class, () -> service.exportToFile(ExportDataset.REQUESTS, directory));
+		long checkpointedBytes = Files.size(target);
+
+		// Tiến trình chết khi đang ghi member tiếp theo: cuối file còn nửa gzip member
+		byte[] member = gzip(line(3) + "\n" + line(4) + "\n");
+		Files.write(target, Arrays.copyOf(member, member.length / 2), StandardOpenOption.APPEND);
+
+		when(requestRepository.streamExportRows(T.plusMinutes(2), "r2")).thenReturn(rows(3, 5));
+		long written = service.exportToFile(ExportDataset.REQUESTS, directory);
+
+		assertEquals(3, written);
+		assertTrue(Files.size(target) > checkpointedBytes);
+		assertEquals(List.of(HEADER, line(1), line(2), line(3), line(4), line(5)), readLines(target));
+		DataExportServiceImpl.Checkpoint checkpoint =
+				objectMapper.readValue(checkpointFile.toFile(), DataExportServiceImpl.Checkpoint.class);
+		assertTrue(checkpoint.isCompleted());
+		assertEquals(5, checkpoint.getRows());
+		assertEquals("r5", checkpoint.getLastId());
+		assertEquals(Files.size(target), checkpoint.getBytes());
+	}
+
+	@Test
+	void completedExportIsRewrittenFromTheStart() throws IOException {
+		Path target = directory.resolve(ExportDataset.REQUESTS.fileName());
+		when(requestRepository.streamExportRows(START, "")).thenReturn(rows(1, 3), rows(1, 2));
+
+		assertEquals(3, service.exportToFile(ExportDataset.REQUESTS, directory));
+		assertEquals(2, service.exportToFile(ExportDataset.REQUESTS, directory));
+
+		assertEquals(List.of(HEADER, line(1), line(2)), readLines(target));
+	}
+}
@@ -0,0 +1,125 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.RescueRequestLifecycleEvent;
+import com.example.backend.model.RequestStatRollup;
+import com.example.backend.model.enums.RescueRequestStatus;
+import com.example.backend.model.enums.RollupGranularity;
+import com.example.backend.repository.RatingStatRollupRepository;
+import com.example.backend.repository.RequestStatRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RealtimeStatsServiceImplTest {
+
+	private static final String TOPIC = "rescue-request-events";
+	private static final String SERVICE_ID = "service";
+	private static final String COMPANY_ID = "company";
+
+	@Mock
+	private RequestStatRollupRepository requestStatRollupRepository;
+	@Mock
+	private RatingStatRollupRepository ratingStatRollupRepository;
+
+	private RealtimeStatsServiceImpl service;
+	private final LocalDateTime createdAt = LocalDateTime.now().minusMinutes(30);
+
+	@BeforeEach
+	void setUp() {
+		service = new RealtimeStatsServiceImpl(requestStatRollupRepository, ratingStatRollupRepository, new ObjectMapper());
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "hourRetentionHours", 48);
+		ReflectionTestUtils.setField(service, "retentionDays", 400);
+
+		// Rollup hiện có: 2 yêu cầu CREATED trong bucket của createdAt, ở cả hai độ chi tiết
+		when(requestStatRollupRepository.findByGranularityAndBucketStartGreaterThanEqual(any(), any()))
+				.thenAnswer(invocation -> {
+					RollupGranularity granularity = invocation.getArgument(0);
+					return List.of(RequestStatRollup.builder()
+							.granularity(granularity)
+							.bucketStart(granularity.bucketOf(createdAt))
+							.status(RescueRequestStatus.CREATED)
+							.serviceId(SERVICE_ID)
+							.companyId(COMPANY_ID)
+							.requestCount(2)
+							.build());
+				});
+		service.reload();
+	}
+
+	private RescueRequestLifecycleEvent event(RescueRequestStatus previousStatus, RescueRequestStatus status) {
+		return RescueRequestLifecycleEvent.builder()
+				.requestId("request")
+				.serviceId(SERVICE_ID)
+				.companyId(COMPANY_ID)
+				.previousStatus(previousStatus)
+				.status(status)
+				.createdAt(createdAt)
+				.occurredAt(LocalDateTime.now())
+				.build();
+	}
+
+	private Map<RescueRequestStatus, Long> countsByStatus(RollupGranularity granularity) {
+		Map<RescueRequestStatus, Long> counts = new HashMap<>();
+		for (Object[] row : service.sumRequestsByBucketAndStatus(granularity, granularity.bucketOf(createdAt))) {
+			assertEquals(granularity.bucketOf(createdAt), row[0]);
+			counts.put((RescueRequestStatus) row[1], (Long) row[2]);
+		}
+		return counts;
+	}
+
+	@Test
+	void statusChangeMovesTheRequestBetweenBothCounters() {
+		service.applyRequestEvent(event(RescueRequestStatus.CREATED, RescueRequestStatus.ACCEPTED_BY_COMPANY), TOPIC, 0, 0);
+
+		for (RollupGranularity granularity : RollupGranularity.values()) {
+			assertEquals(Map.of(RescueRequestStatus.CREATED, 1L, RescueRequestStatus.ACCEPTED_BY_COMPANY, 1L),
+					countsByStatus(granularity), granularity.name());
+		}
+	}
+
+	@Test
+	void counterDroppedToZeroIsNotReported() {
+		service.applyRequestEvent(event(RescueRequestStatus.CREATED, RescueRequestStatus.COMPLETED), TOPIC, 0, 0);
+		service.applyRequestEvent(event(RescueRequestStatus.CREATED, RescueRequestStatus.COMPLETED), TOPIC, 0, 1);
+
+		assertEquals(Map.of(RescueRequestStatus.COMPLETED, 2L), countsByStatus(RollupGranularity.HOUR));
+	}
+
+	@Test
+	void createdAndDeletedEventsUpdateOnlyOneCounter() {
+		service.applyRequestEvent(event(null, RescueRequestStatus.CREATED), TOPIC, 0, 0);
+		service.applyRequestEvent(event(RescueRequestStatus.CREATED, null), TOPIC, 0, 1);
+		service.applyRequestEvent(event(RescueRequestStatus.CREATED, null), TOPIC, 0, 2);
+
+		assertEquals(Map.of(RescueRequestStatus.CREATED, 1L), countsByStatus(RollupGranularity.DAY));
+	}
+
+	@Test
+	void replayedEventIsAppliedOnce() {
+		RescueRequestLifecycleEvent event = event(RescueRequestStatus.CREATED, RescueRequestStatus.ACCEPTED_BY_COMPANY);
+		service.applyRequestEvent(event, TOPIC, 0, 5);
+		service.applyRequestEvent(event, TOPIC, 0, 5);
+		service.applyRequestEvent(event, TOPIC, 0, 4);
+
+		assertEquals(6L, service.getNextOffset(TOPIC, 0));
+		assertEquals(Map.of(RescueRequestStatus.CREATED, 1L, RescueRequestStatus.ACCEPTED_BY_COMPANY, 1L),
+				countsByStatus(RollupGranularity.HOUR));
+		assertTrue(service.isReady());
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorCodecTest {
+
+	private static final LocalDateTime T = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_000);
+
+	// Cùng cấu hình ObjectMapper mà Spring Boot inject vào codec
+	private final KeysetCursorCodec codec = new KeysetCursorCodec(Jackson2ObjectMapperBuilder.json().build());
+
+	private static Map<String, Class<?>> createdAtThenId() {
+		Map<String, Class<?>> keyTypes = new LinkedHashMap<>();
+		keyTypes.put("createdAt", LocalDateTime.class);
+		keyTypes.put("id", String.class);
+		return keyTypes;
+	}
+
+	private static Map<String, Object> keys(LocalDateTime createdAt, String id) {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("createdAt", createdAt);
+		keys.put("id", id);
+		return keys;
+	}
+
+	@Test
+	void decodeRestoresSortValueAndIdWithTheirTypes() {
+		String cursor = codec.encode(keys(T, "a1"));
+
+		Map<String, Object> decoded = codec.decode(cursor, createdAtThenId());
+
+		assertEquals(keys(T, "a1"), decoded);
+		assertEquals(LocalDateTime.class, decoded.get("createdAt").getClass());
+	}
+
+	@Test
+	void cursorIsUrlSafeWithoutPadding() {
+		String cursor = codec.encode(keys(T, "?id/with+chars="));
+
+		assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+		assertEquals("?id/with+chars=", codec.decode(cursor, createdAtThenId()).get("id"));
+	}
+
+	@Test
+	void rowsTiedOnSortValueAreDistinguishedById() {
+		// Hai dòng cùng createdAt: id là khoá phụ giữ thứ tự ổn định, nên cursor của hai dòng phải khác nhau
+		String first = codec.encode(keys(T, "a1"));
+		String second = codec.encode(keys(T, "a2"));
+
+		assertNotEquals(first, second);
+		Map<String, Object> decodedFirst = codec.decode(first, createdAtThenId());
+		Map<String, Object> decodedSecond = codec.decode(second, createdAtThenId());
+		assertEquals(decodedFirst.get("createdAt"), decodedSecond.get("createdAt"));
+		assertEquals("a1", decodedFirst.get("id"));
+		assertEquals("a2", decodedSecond.get("id"));
+	}
+
+	@Test
+	void decodeKeepsTheOrderOfTheSortFields() {
+		String cursor = codec.encode(keys(T, "a1"));
+
+		assertEquals("[createdAt, id]", codec.decode(cursor, createdAtThenId()).keySet().toString());
+	}
+
+	@Test
+	void cursorForAnotherSortFieldIsRejected() {
+		Map<String, Object> byName = new LinkedHashMap<>();
+		byName.put("name", "Acme");
+		byName.put("id", "a1");
+		String cursor = codec.encode(byName);
+
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(cursor, createdAtThenId()));
+	}
+
+	@Test
+	void cursorWithoutIdIsRejected() {
+		String cursor = codec.encode(Map.of("createdAt", T));
+
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(cursor, createdAtThenId()));
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		String notJson = Base64.getUrlEncoder().withoutPadding().encodeToString("not json".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IllegalArgumentException.class, () -> codec.decode("%%%", createdAtThenId()));
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(notJson, createdAtThenId()));
+	}
+}
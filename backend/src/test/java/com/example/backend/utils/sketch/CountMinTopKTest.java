@@ -0,0 +1,112 @@
+package com.example.backend.utils.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinTopKTest {
+
+	private static final int DEPTH = 4;
+	private static final int WIDTH = 1024;
+	private static final int CAPACITY = 10;
+
+	// Ba mục nặng (count 500, 300, 200) giữa 2000 mục xuất hiện đúng một lần
+	private static CountMinTopK skewed(String noisePrefix) {
+		CountMinTopK sketch = new CountMinTopK(DEPTH, WIDTH, CAPACITY);
+		sketch.add("heavy-1", 500);
+		for (int i = 0; i < 2_000; i++) {
+			sketch.add(noisePrefix + i);
+		}
+		sketch.add("heavy-2", 300);
+		sketch.add("heavy-3", 200);
+		return sketch;
+	}
+
+	private static List<String> topItems(CountMinTopK sketch, int limit) {
+		return sketch.top(limit).stream().map(Map.Entry::getKey).collect(Collectors.toList());
+	}
+
+	@Test
+	void emptySketchHasNoCandidates() {
+		CountMinTopK sketch = new CountMinTopK(DEPTH, WIDTH, CAPACITY);
+
+		assertEquals(0, sketch.estimate("anything"));
+		assertEquals(0, sketch.getTotal());
+		assertTrue(sketch.top(5).isEmpty());
+	}
+
+	@Test
+	void singleItemIsCountedExactly() {
+		CountMinTopK sketch = new CountMinTopK(DEPTH, WIDTH, CAPACITY);
+		sketch.add("service-1");
+		sketch.add("service-1");
+
+		assertEquals(2, sketch.estimate("service-1"));
+		assertEquals(List.of(Map.entry("service-1", 2L)), sketch.top(5));
+	}
+
+	@Test
+	void estimateNeverUndercountsAndStaysWithinErrorBound() {
+		CountMinTopK sketch = skewed("noise-");
+		long bound = 2 * sketch.getTotal() / WIDTH;
+
+		assertEquals(3_000, sketch.getTotal());
+		for (Map.Entry<String, Long> heavy : Map.of("heavy-1", 500L, "heavy-2", 300L, "heavy-3", 200L).entrySet()) {
+			long estimate = sketch.estimate(heavy.getKey());
+			assertTrue(estimate >= heavy.getValue(), heavy.getKey() + " undercounted: " + estimate);
+			assertTrue(estimate - heavy.getValue() <= bound, heavy.getKey() + " overcounted: " + estimate);
+		}
+	}
+
+	@Test
+	void topRanksHeavyHittersFirst() {
+		assertEquals(List.of("heavy-1", "heavy-2", "heavy-3"), topItems(skewed("noise-"), 3));
+	}
+
+	@Test
+	void mergeIsAssociative() {
+		CountMinTopK a = skewed("a-");
+		CountMinTopK b = skewed("b-");
+		CountMinTopK c = skewed("c-");
+
+		CountMinTopK leftFirst = CountMinTopK.fromBytes(a.toBytes());
+		leftFirst.merge(b);
+		leftFirst.merge(c);
+
+		CountMinTopK bc = CountMinTopK.fromBytes(b.toBytes());
+		bc.merge(c);
+		CountMinTopK rightFirst = CountMinTopK.fromBytes(a.toBytes());
+		rightFirst.merge(bc);
+
+		assertEquals(leftFirst.getTotal(), rightFirst.getTotal());
+		assertEquals(leftFirst.top(3), rightFirst.top(3));
+		assertEquals(List.of("heavy-1", "heavy-2", "heavy-3"), topItems(leftFirst, 3));
+		for (String item : List.of("heavy-1", "a-1", "b-2", "c-3", "missing")) {
+			assertEquals(leftFirst.estimate(item), rightFirst.estimate(item), item);
+		}
+	}
+
+	@Test
+	void bytesRoundTripKeepsCountersAndCandidates() {
+		CountMinTopK sketch = skewed("noise-");
+
+		CountMinTopK restored = CountMinTopK.fromBytes(sketch.toBytes());
+
+		assertEquals(sketch.getTotal(), restored.getTotal());
+		assertEquals(sketch.top(CAPACITY), restored.top(CAPACITY));
+		assertEquals(sketch.estimate("noise-7"), restored.estimate("noise-7"));
+		assertTrue(CountMinTopK.fromBytes(new CountMinTopK(DEPTH, WIDTH, CAPACITY).toBytes()).top(5).isEmpty());
+	}
+
+	@Test
+	void mergeRejectsDifferentDimensions() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new CountMinTopK(DEPTH, WIDTH, CAPACITY).merge(new CountMinTopK(DEPTH, WIDTH / 2, CAPACITY)));
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.backend.utils.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+	private static HyperLogLog sketchOf(String prefix, int from, int to) {
+		HyperLogLog sketch = new HyperLogLog(14);
+		for (int i = from; i < to; i++) {
+			sketch.add(prefix + i);
+		}
+		return sketch;
+	}
+
+	private static void assertWithin(long expected, long actual, double relativeError) {
+		assertTrue(Math.abs(actual - expected) <= expected * relativeError,
+				"expected " + expected + " +/- " + (relativeError * 100) + "% but was " + actual);
+	}
+
+	@Test
+	void emptySketchEstimatesZero() {
+		assertEquals(0, new HyperLogLog(14).estimate());
+	}
+
+	@Test
+	void singleElementEstimatesOneRegardlessOfRepeats() {
+		HyperLogLog sketch = new HyperLogLog(14);
+		for (int i = 0; i < 1000; i++) {
+			sketch.add("user-1");
+		}
+
+		assertEquals(1, sketch.estimate());
+	}
+
+	@Test
+	void estimateStaysWithinErrorBound() {
+		// Sai số chuẩn ~0.8% ở precision 14; 4 sigma để test không chập chờn
+		assertWithin(1_000, sketchOf("user-", 0, 1_000).estimate(), 0.033);
+		assertWithin(100_000, sketchOf("user-", 0, 100_000).estimate(), 0.033);
+	}
+
+	@Test
+	void mergeEstimatesTheUnion() {
+		HyperLogLog left = sketchOf("user-", 0, 60_000);
+		left.merge(sketchOf("user-", 40_000, 100_000));
+
+		assertWithin(100_000, left.estimate(), 0.033);
+	}
+
+	@Test
+	void mergeIsAssociativeAndCommutative() {
+		HyperLogLog a = sketchOf("a-", 0, 5_000);
+		HyperLogLog b = sketchOf("b-", 0, 7_000);
+		HyperLogLog c = sketchOf("a-", 2_000, 9_000);
+
+		HyperLogLog leftFirst = HyperLogLog.fromBytes(a.toBytes());
+		leftFirst.merge(b);
+		leftFirst.merge(c);
+
+		HyperLogLog bc = HyperLogLog.fromBytes(b.toBytes());
+		bc.merge(c);
+		HyperLogLog rightFirst = HyperLogLog.fromBytes(c.toBytes());
+		rightFirst.merge(a);
+		rightFirst.merge(bc);
+
+		assertArrayEquals(leftFirst.toBytes(), rightFirst.toBytes());
+	}
+
+	@Test
+	void mergeDoesNotModifyTheOtherSketch() {
+		HyperLogLog other = sketchOf("user-", 0, 100);
+		byte[] before = other.toBytes();
+
+		sketchOf("user-", 100, 200).merge(other);
+
+		assertArrayEquals(before, other.toBytes());
+	}
+
+	@Test
+	void bytesRoundTripKeepsRegisters() {
+		HyperLogLog sketch = sketchOf("user-", 0, 10_000);
+
+		HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+		assertArrayEquals(sketch.toBytes(), restored.toBytes());
+		assertEquals(sketch.estimate(), restored.estimate());
+		assertEquals(0, HyperLogLog.fromBytes(new HyperLogLog(10).toBytes()).estimate());
+	}
+
+	@Test
+	void mergeRejectsDifferentPrecision() {
+		assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(14).merge(new HyperLogLog(12)));
+	}
+}
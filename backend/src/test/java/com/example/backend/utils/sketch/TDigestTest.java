@@ -0,0 +1,141 @@
+package com.example.backend.utils.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+	private static final double COMPRESSION = 100;
+	private static final double[] QUANTILES = {0.01, 0.1, 0.5, 0.9, 0.99};
+
+	// Giá trị 0..n-1 theo thứ tự ngẫu nhiên cố định, nên quantile q đúng bằng q * n
+	private static TDigest uniform(int from, int to, long seed) {
+		int n = to - from;
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = from + i;
+		}
+		Random random = new Random(seed);
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+		TDigest digest = new TDigest(COMPRESSION);
+		for (int value : values) {
+			digest.add(value);
+		}
+		return digest;
+	}
+
+	private static void assertQuantile(TDigest digest, double q, double expected, double tolerance) {
+		double actual = digest.quantile(q);
+		assertTrue(Math.abs(actual - expected) <= tolerance,
+				"q" + q + ": expected " + expected + " +/- " + tolerance + " but was " + actual);
+	}
+
+	@Test
+	void emptyDigestHasNoQuantiles() {
+		TDigest digest = new TDigest(COMPRESSION);
+
+		assertEquals(0, digest.size());
+		assertTrue(Double.isNaN(digest.quantile(0.5)));
+	}
+
+	@Test
+	void singleValueIsEveryQuantile() {
+		TDigest digest = new TDigest(COMPRESSION);
+		digest.add(42);
+
+		for (double q : new double[] {0, 0.5, 1}) {
+			assertEquals(42, digest.quantile(q));
+		}
+		assertEquals(42, digest.getMin());
+		assertEquals(42, digest.getMax());
+	}
+
+	@Test
+	void quantilesStayWithinErrorBound() {
+		TDigest digest = uniform(0, 100_000, 1);
+
+		assertEquals(100_000, digest.size());
+		assertEquals(0, digest.quantile(0));
+		assertEquals(99_999, digest.quantile(1));
+		// Sai số hạng 0.5% ở giữa, chặt hơn ở đuôi nhờ hàm scale k1
+		for (double q : QUANTILES) {
+			assertQuantile(digest, q, q * 100_000, 500);
+		}
+	}
+
+	@Test
+	void ignoresNaNAndNonPositiveWeights() {
+		TDigest digest = new TDigest(COMPRESSION);
+		digest.add(Double.NaN);
+		digest.add(5, 0);
+		digest.add(5, -1);
+
+		assertEquals(0, digest.size());
+	}
+
+	@Test
+	void mergeIsAssociativeWithinErrorBound() {
+		TDigest a = uniform(0, 30_000, 1);
+		TDigest b = uniform(30_000, 60_000, 2);
+		TDigest c = uniform(60_000, 100_000, 3);
+
+		TDigest leftFirst = TDigest.fromBytes(a.toBytes());
+		leftFirst.merge(b);
+		leftFirst.merge(c);
+
+		TDigest bc = TDigest.fromBytes(b.toBytes());
+		bc.merge(c);
+		TDigest rightFirst = TDigest.fromBytes(a.toBytes());
+		rightFirst.merge(bc);
+
+		assertEquals(leftFirst.size(), rightFirst.size());
+		assertEquals(0, rightFirst.getMin());
+		assertEquals(99_999, rightFirst.getMax());
+		for (double q : QUANTILES) {
+			assertQuantile(leftFirst, q, q * 100_000, 500);
+			assertQuantile(rightFirst, q, q * 100_000, 500);
+			assertQuantile(rightFirst, q, leftFirst.quantile(q), 500);
+		}
+	}
+
+	@Test
+	void mergeDoesNotModifyTheOtherDigest() {
+		TDigest other = uniform(0, 1_000, 1);
+		double median = other.quantile(0.5);
+
+		uniform(1_000, 2_000, 2).merge(other);
+
+		assertEquals(1_000, other.size());
+		assertEquals(median, other.quantile(0.5));
+	}
+
+	@Test
+	void bytesRoundTripKeepsQuantiles() {
+		TDigest digest = uniform(0, 10_000, 1);
+
+		TDigest restored = TDigest.fromBytes(digest.toBytes());
+
+		assertEquals(digest.size(), restored.size());
+		assertEquals(digest.getMin(), restored.getMin());
+		assertEquals(digest.getMax(), restored.getMax());
+		for (double q : QUANTILES) {
+			assertEquals(digest.quantile(q), restored.quantile(q));
+		}
+		assertTrue(Double.isNaN(TDigest.fromBytes(new TDigest(COMPRESSION).toBytes()).quantile(0.5)));
+	}
+
+	@Test
+	void mergeRejectsDifferentCompression() {
+		assertThrows(IllegalArgumentException.class, () -> new TDigest(COMPRESSION).merge(new TDigest(200)));
+	}
+}
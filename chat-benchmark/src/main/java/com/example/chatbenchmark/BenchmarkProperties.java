@@ -0,0 +1,29 @@
+package com.example.chatbenchmark;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bench")
+public class BenchmarkProperties {
+	private String wsUrl = "ws://localhost:9006/ws";
+	private String pairsFile = "pairs.csv";
+	// 0 = dùng tất cả các cặp trong file
+	private int maxPairs;
+	private int messagesPerClient = 200;
+	private int ratePerClient = 20;
+	private int timeoutSeconds = 60;
+	private String jwtSignerKey;
+	private Embedded embedded = new Embedded();
+
+	@Data
+	public static class Embedded {
+		private boolean enabled;
+		private int kafkaPartitions = 3;
+		private String backendJar;
+		private int backendPort = 8080;
+		private String notificationJar;
+		private int notificationPort = 9006;
+		private int startupTimeoutSeconds = 180;
+	}
+}
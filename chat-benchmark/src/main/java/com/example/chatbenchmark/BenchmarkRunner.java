@@ -0,0 +1,244 @@
+package com.example.chatbenchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chạy benchmark: mỗi cặp (user, công ty) là hai client STOMP gửi tin nhắn cho nhau với tốc độ cố định.
+ * <ul>
+ *     <li>Độ trễ giao: từ lúc gửi tới /app/message tới lúc người nhận nhận được trên /user/queue/messages.</li>
+ *     <li>Độ trễ lưu: từ lúc gửi tới lúc người gửi nhận ack PERSISTED.</li>
+ *     <li>Thông lượng: số tin nhắn đã giao / thời gian từ tin nhắn đầu tiên tới lần giao cuối cùng.</li>
+ * </ul>
+ * Trước khi đo, mỗi conversation gửi một tin nhắn warm-up và chờ nó được lưu, để notification-service
+ * biết người tham gia và dùng đường giao trực tiếp.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BenchmarkRunner implements ApplicationRunner, ExitCodeGenerator {
+
+	private static final String WARMUP_PREFIX = "warmup-";
+
+	private final BenchmarkProperties properties;
+
+	private final Map<String, Long> sentAtByClientId = new ConcurrentHashMap<>();
+	private final Map<String, Long> sentAtById = new ConcurrentHashMap<>();
+	private final AtomicLong lastDeliveryNanos = new AtomicLong();
+	private int exitCode;
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		EmbeddedStack stack = properties.getEmbedded().isEnabled() ? new EmbeddedStack(properties.getEmbedded()) : null;
+		try {
+			if (stack != null) {
+				stack.start();
+			}
+			runBenchmark();
+		} finally {
+			if (stack != null) {
+				stack.close();
+			}
+		}
+	}
+
+	@Override
+	public int getExitCode() {
+		return exitCode;
+	}
+
+	private void runBenchmark() throws Exception {
+		List<ParticipantPair> pairs = ParticipantPair.load(Path.of(properties.getPairsFile()), properties.getMaxPairs());
+		if (pairs.isEmpty()) {
+			throw new IllegalStateException("No participant pairs found in " + properties.getPairsFile());
+		}
+
+		int clientCount = pairs.size() * 2;
+		int total = clientCount * properties.getMessagesPerClient();
+		LatencyRecorder delivery = new LatencyRecorder(total);
+		LatencyRecorder persist = new LatencyRecorder(total);
+		CountDownLatch warmupPersisted = new CountDownLatch(pairs.size());
+		CountDownLatch allDelivered = new CountDownLatch(total);
+
+		WebSocketStompClient stompClient = createStompClient();
+		Key key = Keys.hmacShaKeyFor(properties.getJwtSignerKey().getBytes());
+
+		// Kết nối tất cả client
+		List<StompChatClient> clients = new ArrayList<>();
+		for (ParticipantPair pair : pairs) {
+			for (String userId : List.of(pair.userId(), pair.companyUserId())) {
+				StompChatClient client = new StompChatClient(userId);
+				client.connect(stompClient, properties.getWsUrl(), createToken(key, userId),
+						message -> onMessage(message, delivery, allDelivered),
+						ack -> onAck(ack, persist, warmupPersisted));
+				clients.add(client);
+			}
+		}
+		log.info("Connected {} STOMP clients for {} conversations", clients.size(), pairs.size());
+		Thread.sleep(1000);
+
+		// Warm-up: một tin nhắn mỗi conversation, chờ được lưu
+		for (int i = 0; i < pairs.size(); i++) {
+			clients.get(i * 2).send(createMessage(pairs.get(i), true, WARMUP_PREFIX + i));
+		}
+		if (!warmupPersisted.await(properties.getTimeoutSeconds(), TimeUnit.SECONDS)) {
+			log.warn("Only {}/{} warm-up messages were persisted; some conversations will use the Kafka path",
+					pairs.size() - warmupPersisted.getCount(), pairs.size());
+		}
+
+		// Đo: mỗi client gửi messagesPerClient tin nhắn với tốc độ ratePerClient
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+				Math.min(clientCount, Runtime.getRuntime().availableProcessors() * 2));
+		long periodNanos = 1_000_000_000L / Math.max(1, properties.getRatePerClient());
+		AtomicInteger sent = new AtomicInteger();
+		List<ScheduledFuture<?>> tasks = new ArrayList<>();
+		long startNanos = System.nanoTime();
+		for (int i = 0; i < clients.size(); i++) {
+			StompChatClient client = clients.get(i);
+			ParticipantPair pair = pairs.get(i / 2);
+			boolean fromUser = i % 2 == 0;
+			AtomicInteger clientSent = new AtomicInteger();
+			String prefix = "m-" + i + "-";
+			tasks.add(scheduler.scheduleAtFixedRate(() -> {
+				int n = clientSent.getAndIncrement();
+				if (n < properties.getMessagesPerClient()) {
+					client.send(createMessage(pair, fromUser, prefix + n));
+					sent.incrementAndGet();
+				}
+			}, (periodNanos / clientCount) * i, periodNanos, TimeUnit.NANOSECONDS));
+		}
+
+		boolean complete = allDelivered.await(
+				(long) properties.getMessagesPerClient() * periodNanos / 1_000_000 + properties.getTimeoutSeconds() * 1000L,
+				TimeUnit.MILLISECONDS);
+		tasks.forEach(task -> task.cancel(false));
+		scheduler.shutdown();
+		// Chờ thêm để nhận các ack PERSISTED còn lại
+		Thread.sleep(Math.min(5000, properties.getTimeoutSeconds() * 1000L));
+		clients.forEach(StompChatClient::disconnect);
+
+		double elapsedSeconds = (lastDeliveryNanos.get() - startNanos) / 1_000_000_000.0;
+		log.info("========== Chat benchmark ==========");
+		log.info("Clients: {} ({} conversations), rate: {} msg/s per client", clientCount, pairs.size(), properties.getRatePerClient());
+		log.info("Messages: sent {}, delivered {}, persisted {}", sent.get(), delivery.count(), persist.count());
+		log.info("Delivery latency: p50 {} ms, p99 {} ms, max {} ms",
+				format(delivery.percentileMillis(50)), format(delivery.percentileMillis(99)), format(delivery.percentileMillis(100)));
+		log.info("Persist latency:  p50 {} ms, p99 {} ms, max {} ms",
+				format(persist.percentileMillis(50)), format(persist.percentileMillis(99)), format(persist.percentileMillis(100)));
+		log.info("Throughput: {} msg/s", elapsedSeconds > 0 ? format(delivery.count() / elapsedSeconds) : "n/a");
+
+		if (!complete) {
+			log.warn("{} messages were not delivered within the timeout", allDelivered.getCount());
+			exitCode = 1;
+		}
+	}
+
+	private void onMessage(Map<String, Object> message, LatencyRecorder delivery, CountDownLatch allDelivered) {
+		long now = System.nanoTime();
+		Object clientMessageId = message.get("clientMessageId");
+		if (clientMessageId == null || clientMessageId.toString().startsWith(WARMUP_PREFIX)) {
+			return;
+		}
+		Long sentAt = sentAtByClientId.get(clientMessageId.toString());
+		if (sentAt != null) {
+			delivery.record(now - sentAt);
+			lastDeliveryNanos.accumulateAndGet(now, Math::max);
+			allDelivered.countDown();
+		}
+	}
+
+	private void onAck(Map<String, Object> ack, LatencyRecorder persist, CountDownLatch warmupPersisted) {
+		long now = System.nanoTime();
+		Object id = ack.get("id");
+		if (id == null) {
+			return;
+		}
+		if ("ACCEPTED".equals(ack.get("status"))) {
+			Object clientMessageId = ack.get("clientMessageId");
+			Long sentAt = clientMessageId != null ? sentAtByClientId.get(clientMessageId.toString()) : null;
+			if (sentAt != null) {
+				sentAtById.put(id.toString(), sentAt);
+			}
+			if (clientMessageId != null && clientMessageId.toString().startsWith(WARMUP_PREFIX)) {
+				sentAtById.put(id.toString(), -1L);
+			}
+		} else if ("PERSISTED".equals(ack.get("status"))) {
+			Long sentAt = sentAtById.remove(id.toString());
+			if (sentAt == null) {
+				return;
+			}
+			if (sentAt < 0) {
+				warmupPersisted.countDown();
+			} else {
+				persist.record(now - sentAt);
+			}
+		}
+	}
+
+	private Map<String, Object> createMessage(ParticipantPair pair, boolean fromUser, String clientMessageId) {
+		Map<String, Object> message = new HashMap<>();
+		message.put("clientMessageId", clientMessageId);
+		message.put("conversationId", pair.conversationId());
+		message.put("userId", pair.userId());
+		message.put("rescueCompanyId", pair.rescueCompanyId());
+		message.put("senderType", fromUser ? "USER" : "RESCUE_COMPANY");
+		message.put("content", "benchmark " + clientMessageId);
+		sentAtByClientId.put(clientMessageId, System.nanoTime());
+		return message;
+	}
+
+	private WebSocketStompClient createStompClient() {
+		ObjectMapper objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+		converter.setObjectMapper(objectMapper);
+		WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		stompClient.setMessageConverter(converter);
+		return stompClient;
+	}
+
+	private String createToken(Key key, String userId) {
+		return Jwts.builder()
+				.setSubject("bench-" + userId)
+				.claim("userId", userId)
+				.claim("roles", List.of("USER"))
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+				.signWith(key, SignatureAlgorithm.HS512)
+				.compact();
+	}
+
+	private static String format(double value) {
+		return String.format("%.2f", value);
+	}
+}
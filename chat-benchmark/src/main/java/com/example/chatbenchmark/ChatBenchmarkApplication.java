@@ -0,0 +1,26 @@
+package com.example.chatbenchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+/**
+ * Benchmark độ trễ và thông lượng chat end-to-end.
+ * <p>
+ * Chạy với các service đang chạy sẵn:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments="--bench.pairs-file=pairs.csv --bench.messages-per-client=500"
+ * </pre>
+ * Hoặc tự khởi động Kafka nhúng và hai service (Redis và MySQL lấy từ docker-compose.dev.yml):
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments="--bench.embedded.enabled=true"
+ * </pre>
+ */
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class ChatBenchmarkApplication {
+
+	public static void main(String[] args) {
+		System.exit(SpringApplication.exit(SpringApplication.run(ChatBenchmarkApplication.class, args)));
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.chatbenchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Khởi động Kafka nhúng và chạy backend, notification-service như các tiến trình con trỏ tới Kafka đó.
+ * Redis và MySQL vẫn dùng các instance từ docker-compose.dev.yml.
+ */
+@Slf4j
+public class EmbeddedStack implements AutoCloseable {
+
+	private static final String[] TOPICS = {"chat-message-topic", "notification-created-topic"};
+
+	private final BenchmarkProperties.Embedded properties;
+	private final List<Process> processes = new ArrayList<>();
+	private EmbeddedKafkaKraftBroker kafka;
+
+	public EmbeddedStack(BenchmarkProperties.Embedded properties) {
+		this.properties = properties;
+	}
+
+	public void start() throws IOException, InterruptedException {
+		kafka = new EmbeddedKafkaKraftBroker(1, properties.getKafkaPartitions(), TOPICS);
+		kafka.afterPropertiesSet();
+		String bootstrapServers = kafka.getBrokersAsString();
+		log.info("Embedded Kafka started at {}", bootstrapServers);
+
+		startService("backend", properties.getBackendJar(), bootstrapServers);
+		startService("notification-service", properties.getNotificationJar(), bootstrapServers);
+
+		waitForPort("backend", properties.getBackendPort());
+		waitForPort("notification-service", properties.getNotificationPort());
+	}
+
+	private void startService(String name, String jar, String bootstrapServers) throws IOException {
+		if (jar == null || !new File(jar).isFile()) {
+			throw new IllegalStateException("Jar for " + name + " not found: " + jar + " (run mvn package first)");
+		}
+		File logFile = new File("target", name + ".log");
+		logFile.getParentFile().mkdirs();
+		Process process = new ProcessBuilder("java", "-jar", jar, "--spring.kafka.bootstrap-servers=" + bootstrapServers)
+				.redirectErrorStream(true)
+				.redirectOutput(logFile)
+				.start();
+		processes.add(process);
+		log.info("Started {} (pid {}), logs in {}", name, process.pid(), logFile.getPath());
+	}
+
+	private void waitForPort(String name, int port) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + properties.getStartupTimeoutSeconds() * 1000L;
+		while (System.currentTimeMillis() < deadline) {
+			try (Socket socket = new Socket()) {
+				socket.connect(new InetSocketAddress("localhost", port), 500);
+				log.info("{} is listening on port {}", name, port);
+				return;
+			} catch (IOException e) {
+				Thread.sleep(1000);
+			}
+		}
+		throw new IllegalStateException(name + " did not start listening on port " + port);
+	}
+
+	@Override
+	public void close() {
+		processes.forEach(Process::destroy);
+		if (kafka != null) {
+			kafka.destroy();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.chatbenchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ghi nhận độ trễ (nano giây) với dung lượng cố định, không cấp phát trong lúc đo.
+ */
+public class LatencyRecorder {
+
+	private final long[] samples;
+	private final AtomicInteger count = new AtomicInteger();
+
+	public LatencyRecorder(int capacity) {
+		this.samples = new long[capacity];
+	}
+
+	public void record(long nanos) {
+		int index = count.getAndIncrement();
+		if (index < samples.length) {
+			samples[index] = nanos;
+		}
+	}
+
+	public int count() {
+		return Math.min(count.get(), samples.length);
+	}
+
+	/**
+	 * @param percentile Giá trị trong khoảng (0, 100].
+	 * @return Độ trễ ở percentile tương ứng, tính bằng mili giây.
+	 */
+	public double percentileMillis(double percentile) {
+		int n = count();
+		if (n == 0) {
+			return Double.NaN;
+		}
+		long[] sorted = Arrays.copyOf(samples, n);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100.0 * n) - 1;
+		return sorted[Math.max(0, Math.min(index, n - 1))] / 1_000_000.0;
+	}
+}
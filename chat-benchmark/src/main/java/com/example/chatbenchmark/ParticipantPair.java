@@ -0,0 +1,23 @@
+package com.example.chatbenchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Một conversation dùng cho benchmark: user và chủ công ty cứu hộ nhắn tin qua lại với nhau.
+ */
+public record ParticipantPair(String userId, String rescueCompanyId, String companyUserId, String conversationId) {
+
+	public static List<ParticipantPair> load(Path file, int maxPairs) throws IOException {
+		List<ParticipantPair> pairs = Files.readAllLines(file).stream()
+				.map(String::trim)
+				.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+				.map(line -> line.split(","))
+				.filter(parts -> parts.length == 4)
+				.map(parts -> new ParticipantPair(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim()))
+				.toList();
+		return maxPairs > 0 && pairs.size() > maxPairs ? pairs.subList(0, maxPairs) : pairs;
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.chatbenchmark;
+
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Một client STOMP mô phỏng một người dùng: nhận tin nhắn trực tiếp, nhận ack và gửi tin nhắn tới /app/message.
+ */
+public class StompChatClient {
+
+	private final String userId;
+	private StompSession session;
+
+	public StompChatClient(String userId) {
+		this.userId = userId;
+	}
+
+	public String getUserId() {
+		return userId;
+	}
+
+	public void connect(WebSocketStompClient stompClient, String wsUrl, String token,
+						Consumer<Map<String, Object>> onMessage, Consumer<Map<String, Object>> onAck) throws Exception {
+		StompHeaders connectHeaders = new StompHeaders();
+		connectHeaders.add("token", token);
+		session = stompClient.connectAsync(wsUrl + "?token=" + token, new WebSocketHttpHeaders(), connectHeaders,
+				new StompSessionHandlerAdapter() {
+				}).get(10, TimeUnit.SECONDS);
+		session.subscribe("/user/queue/messages", frameHandler(onMessage));
+		session.subscribe("/user/queue/message-ack", frameHandler(onAck));
+	}
+
+	public void send(Map<String, Object> message) {
+		session.send("/app/message", message);
+	}
+
+	public void disconnect() {
+		if (session != null && session.isConnected()) {
+			session.disconnect();
+		}
+	}
+
+	private StompFrameHandler frameHandler(Consumer<Map<String, Object>> consumer) {
+		return new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return Map.class;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public void handleFrame(StompHeaders headers, Object payload) {
+				consumer.accept((Map<String, Object>) payload);
+			}
+		};
+	}
+}
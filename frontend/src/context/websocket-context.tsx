@@ -3,7 +3,7 @@
 import { createContext, useContext, useState, useEffect, type ReactNode } from "react"
 import { useLocation } from "react-router-dom"
 import { useAuth } from "./auth-context"
-import { websocketService, type ChatMessage, useWebSocket } from "../services/websocket-service"
+import { websocketService, type ChatMessage, type MessageAck, useWebSocket } from "../services/websocket-service"
 import type { Notification } from "@/services/websocket-service"
 
 // Pages that should not connect to WebSocket
@@ -12,7 +12,8 @@ const EXCLUDED_PATHS = ["/login", "/register"]
 type WebSocketContextType = {
   connected: boolean
   messages: ChatMessage[]
-  sendMessage: (message: ChatMessage) => void
+  sendMessage: (message: ChatMessage) => string | undefined
+  subscribeAcks: (callback: (ack: MessageAck) => void) => () => void
   notifications: Notification[]
   unreadCount: number
   markAllAsRead: () => void
@@ -23,7 +24,7 @@ const WebSocketContext = createContext<WebSocketContextType | undefined>(undefin
 export function WebSocketProvider({ children }: { children: ReactNode }) {
   const location = useLocation()
   const { user, isAuthenticated } = useAuth()
-  const { connected, messages, sendMessage } = useWebSocket()
+  const { connected, messages, sendMessage, subscribeAcks } = useWebSocket()
 
   // console.log("connected", connected)
 
@@ -73,6 +74,7 @@ export function WebSocketProvider({ children }: { children: ReactNode }) {
         connected,
         messages,
         sendMessage,
+        subscribeAcks,
         notifications,
         unreadCount,
         markAllAsRead,
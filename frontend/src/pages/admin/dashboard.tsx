@@ -28,7 +28,7 @@ import {
   BarChart,
 } from "lucide-react";
 import { useToast } from "@/components/ui/use-toast";
-import api from "@/services/api";
+import api, { fetchAllPages } from "@/services/api";
 import { KeywordFilterModal } from "@/components/admin/keyword-filter-modal";
 
 // Interfaces for data
@@ -100,40 +100,40 @@ export default function AdminDashboard() {
       setIsLoading(true);
       try {
         // Call API with admin token
-        const [usersRes, requestsRes, companiesRes, invoicesRes] =
+        const [allUsers, allRequests, allCompanies, allInvoices] =
           await Promise.all([
-            api.admin.getUsers(),
-            api.admin.getRequests(),
-            api.admin.getCompanies(),
-            api.admin.getInvoices(),
+            fetchAllPages(api.admin.getUsers),
+            fetchAllPages(api.admin.getRequests),
+            fetchAllPages(api.admin.getCompanies),
+            fetchAllPages(api.admin.getInvoices),
           ]);
 
         // Calculate statistics
         const oneWeekAgo = new Date();
         oneWeekAgo.setDate(oneWeekAgo.getDate() - 7);
 
-        const newUsers = (usersRes.data || []).filter(
+        const newUsers = allUsers.filter(
           (user: { createdAt: string }) => new Date(user.createdAt) > oneWeekAgo
         );
-        const newInvoices = (invoicesRes.data || []).filter(
+        const newInvoices = allInvoices.filter(
           (inv: { createdAt: string }) => new Date(inv.createdAt) > oneWeekAgo
         );
 
         // Set stats
         setStats({
-          totalRequests: (requestsRes.data || []).length,
-          activeRequests: (requestsRes.data || []).filter(
+          totalRequests: allRequests.length,
+          activeRequests: allRequests.filter(
             (req: { status: string }) =>
               ["PENDING", "ACCEPTED", "IN_PROGRESS"].includes(req.status)
           ).length,
-          totalCompanies: (companiesRes.data || []).length,
-          totalVehicles: (companiesRes.data || []).reduce(
+          totalCompanies: allCompanies.length,
+          totalVehicles: allCompanies.reduce(
             (acc: number, company: { vehicles?: any[] }) =>
               acc + (company.vehicles?.length || 0),
             0
           ),
-          totalUsers: (usersRes.data || []).length,
-          totalRevenue: (invoicesRes.data || []).reduce(
+          totalUsers: allUsers.length,
+          totalRevenue: allInvoices.reduce(
             (acc: number, inv: { amount?: number }) => acc + (inv.amount || 0),
             0
           ),
@@ -146,7 +146,7 @@ export default function AdminDashboard() {
 
         // Calculate request stats
         const requestsByStatus = Object.entries(
-          (requestsRes.data || []).reduce(
+          allRequests.reduce(
             (acc: Record<string, number>, req: { status: string }) => {
               acc[req.status] = (acc[req.status] || 0) + 1;
               return acc;
@@ -158,7 +158,7 @@ export default function AdminDashboard() {
 
         // Create activity log
         const activities = [
-          ...((requestsRes.data || []).map(
+          ...(allRequests.map(
             (req: {
               id: string;
               status: string;
@@ -175,7 +175,7 @@ export default function AdminDashboard() {
               date: req.updatedAt || req.createdAt,
             })
           ) || []),
-          ...((invoicesRes.data || []).map(
+          ...(allInvoices.map(
             (inv: {
               id: string;
               status: string;
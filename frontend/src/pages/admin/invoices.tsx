@@ -34,7 +34,7 @@ import {
   DollarSign,
   CalendarDays,
 } from "lucide-react";
-import api from "@/services/api";
+import api, { fetchAllPages } from "@/services/api";
 import { useNavigate } from "react-router-dom";
 
 // Interfaces
@@ -79,10 +79,10 @@ export default function AdminInvoices() {
       setIsLoading(true);
       try {
         // Gọi API với token admin
-        const response = await api.admin.getInvoices();
+        const items = await fetchAllPages(api.admin.getInvoices);
 
         // Map dữ liệu về đúng interface
-        const mappedInvoices: Invoice[] = response.data.map((inv: any) => ({
+        const mappedInvoices: Invoice[] = items.map((inv: any) => ({
           id: inv.id,
           invoiceNumber: inv.invoiceNumber || inv.id,
           requestId: inv.rescueRequestId || inv.requestId || "",
@@ -31,7 +31,7 @@ import {
   Clock,
   Loader2,
 } from "lucide-react";
-import api from "@/services/api";
+import api, { fetchAllPages } from "@/services/api";
 
 // Interfaces
 interface Vehicle {
@@ -111,13 +111,13 @@ export default function MapOverview() {
       setIsLoading(true);
       try {
         // Admin can access all data
-        const [vehiclesRes, requestsRes] = await Promise.all([
-          api.admin.getVehicles(),
-          api.admin.getRequests(),
+        const [allVehicles, allRequests] = await Promise.all([
+          fetchAllPages(api.admin.getVehicles),
+          fetchAllPages(api.admin.getRequests),
         ]);
 
         // Map vehicles từ RescueVehicleResponse
-        const mappedVehicles: Vehicle[] = vehiclesRes.data.map((v: any) => {
+        const mappedVehicles: Vehicle[] = allVehicles.map((v: any) => {
           const lat = Number(v.currentLatitude);
           const lng = Number(v.currentLongitude);
           return {
@@ -139,7 +139,7 @@ export default function MapOverview() {
         });
 
         // Map requests (giữ nguyên nếu backend không đổi)
-        const mappedRequests: Request[] = requestsRes.data.map((r: any) => {
+        const mappedRequests: Request[] = allRequests.map((r: any) => {
           let coords = r.location?.coordinates || [r.latitude, r.longitude];
           const lat = Number(coords[0]);
           const lng = Number(coords[1]);
@@ -201,12 +201,12 @@ export default function MapOverview() {
   const handleRefresh = async () => {
     setIsLoading(true);
     try {
-      const [vehiclesRes, requestsRes] = await Promise.all([
-        api.admin.getVehicles(),
-        api.admin.getRequests(),
+      const [allVehicles, allRequests] = await Promise.all([
+        fetchAllPages(api.admin.getVehicles),
+        fetchAllPages(api.admin.getRequests),
       ]);
       // Map lại dữ liệu như fetchData
-      const mappedVehicles: Vehicle[] = vehiclesRes.data.map((v: any) => {
+      const mappedVehicles: Vehicle[] = allVehicles.map((v: any) => {
         const lat = Number(v.currentLatitude);
         const lng = Number(v.currentLongitude);
         return {
@@ -226,7 +226,7 @@ export default function MapOverview() {
           status: v.status,
         };
       });
-      const mappedRequests: Request[] = requestsRes.data.map((r: any) => {
+      const mappedRequests: Request[] = allRequests.map((r: any) => {
         let coords = r.location?.coordinates || [r.latitude, r.longitude];
         const lat = Number(coords[0]);
         const lng = Number(coords[1]);
@@ -13,7 +13,7 @@ import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@
 import { getStatusVariant, formatDate } from "@/lib/utils"
 import { useToast } from "@/components/ui/use-toast"
 import { Search, Eye, Clock, MapPin, User, Building2, AlertTriangle, CheckCircle } from "lucide-react"
-import api from "@/services/api"
+import api, { fetchAllPages } from "@/services/api"
 
 // Interfaces đồng bộ với user và company request
 interface Request {
@@ -71,10 +71,10 @@ export default function AdminRequests() {
       setIsLoading(true)
       try {
         // Admin API call to get all requests
-        const response = await api.admin.getRequests()
+        const items = await fetchAllPages(api.admin.getRequests)
         
         // Map response data to our interface
-        const mappedRequests: Request[] = response.data.map((req: any) => ({
+        const mappedRequests: Request[] = items.map((req: any) => ({
           id: req.id,
           userId: req.userId,
           serviceId: req.serviceId ?? "",
@@ -10,7 +10,7 @@ import {
 } from "@/components/ui/card";
 import { Tabs, TabsContent, TabsList, TabsTrigger } from "@/components/ui/tabs";
 import DashboardLayout from "@/layouts/dashboard-layout";
-import api from "@/services/api";
+import api, { fetchAllPages } from "@/services/api";
 import { useToast } from "@/components/ui/use-toast";
 import { ReviewChart } from "@/components/reviews/review-chart";
 import { SatisfactionChart } from "@/components/reports/satisfaction-chart";
@@ -24,8 +24,7 @@ function AdminReviewList() {
   const fetchRatings = async () => {
     setLoading(true);
     try {
-      const res = await api.admin.getRatings();
-      setRatings(res.data);
+      setRatings(await fetchAllPages(api.admin.getRatings));
     } catch (err: any) {
       toast({
         variant: "destructive",
@@ -107,8 +106,7 @@ function CompanyRatingStats() {
     const fetchCompanies = async () => {
       setLoading(true);
       try {
-        const res = await api.admin.getCompanies();
-        setCompanies(res.data);
+        setCompanies(await fetchAllPages(api.admin.getCompanies));
       } catch (err: any) {
         toast({
           variant: "destructive",
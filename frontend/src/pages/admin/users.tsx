@@ -20,7 +20,7 @@ import {
 } from "@/components/ui/dialog"
 import { useToast } from "@/components/ui/use-toast"
 import { Search, Eye, CheckCircle, XCircle, Calendar, Mail, Phone, Lock, Shield } from "lucide-react"
-import api from "@/services/api"
+import api, { fetchAllPages } from "@/services/api"
 
 // Interfaces
 interface User {
@@ -55,11 +55,11 @@ export default function AdminUsers() {
     const fetchData = async () => {
       setIsLoading(true)
       try {
-        const [usersResponse, onlineUsersResponse] = await Promise.all([
-          api.admin.getUsers(),
+        const [allUsers, onlineUsersResponse] = await Promise.all([
+          fetchAllPages<User>(api.admin.getUsers),
           api.admin.getOnlineUsers()
         ])
-        setUsers(usersResponse.data)
+        setUsers(allUsers)
         setOnlineUsers(onlineUsersResponse.data)
       } catch (error: any) {
         toast({
@@ -12,7 +12,7 @@ import { Card, CardContent, CardDescription, CardHeader, CardTitle } from "@/com
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@/components/ui/select"
 import { useToast } from "@/components/ui/use-toast"
 import { Search, Eye, Calendar, Truck, Building2, Wrench, AlertTriangle, Loader2 } from "lucide-react"
-import api from "@/services/api"
+import api, { fetchAllPages } from "@/services/api"
 
 // Types
 interface Vehicle {
@@ -52,8 +52,7 @@ export default function AdminVehicles() {
     const fetchVehicles = async () => {
       setIsLoading(true)
       try {
-        const response = await api.admin.getVehicles()
-        setVehicles(response.data)
+        setVehicles(await fetchAllPages(api.admin.getVehicles))
       } catch (error: any) {
         toast({
           variant: "destructive",
@@ -8,7 +8,12 @@ import { ScrollArea } from "@/components/ui/scroll-area"
 import { Avatar } from "@/components/ui/avatar"
 import { useAuth } from "@/context/auth-context"
 import { useWebSocketContext } from "@/context/websocket-context"
-import type { ChatMessage } from "@/services/websocket-service"
+import {
+  applyMessageAck,
+  createClientMessageId,
+  isSameChatMessage,
+  type ChatMessage,
+} from "@/services/websocket-service"
 import type { Message } from "@/types/chat"
 import api from "@/services/api"
 
@@ -50,7 +55,7 @@ export function ChatInterface({
   const [message, setMessage] = useState("")
   const [chatHistory, setChatHistory] = useState<ChatHistoryItem[]>([])
   const { user } = useAuth()
-  const { connected, messages, sendMessage } = useWebSocketContext()
+  const { connected, messages, sendMessage, subscribeAcks } = useWebSocketContext()
   const scrollAreaRef = useRef<HTMLDivElement>(null)
   const messagesEndRef = useRef<HTMLDivElement>(null)
 
@@ -60,6 +65,7 @@ export function ChatInterface({
       // Convert Message[] to {id, ...ChatMessage}
       const mapped: ChatHistoryItem[] = initialMessages.map((msg: any) => ({
         id: msg.id,
+        deliveryId: msg.deliveryId || undefined,
         content: msg.content,
         conversationId: msg.conversationId || requestId,
         userId: msg.senderId || msg.userId || "",
@@ -77,20 +83,22 @@ export function ChatInterface({
   // Append new messages from WebSocket
   useEffect(() => {
     if (messages && messages.length > 0) {
-      const filteredMessages = messages.filter((msg) => msg.conversationId === requestId)
+      // Notification CHAT chỉ báo có tin nhắn mới, bản thân tin nhắn tới qua /user/queue/messages
+      const filteredMessages = messages.filter((msg: any) => msg.conversationId === requestId && !(msg.title && msg.type))
       if (filteredMessages.length > 0) {
         setChatHistory((prev) => {
-          // Only add messages that are not already in chatHistory (by content, sentAt, senderType)
+          // Only add messages that are not already in chatHistory (by id/deliveryId, or by content, sentAt, senderType)
           const newMessages = filteredMessages.filter(
             (newMsg) => !prev.some((existingMsg) =>
+              isSameChatMessage(existingMsg, newMsg) || (
               existingMsg.content === newMsg.content &&
               existingMsg.sentAt === newMsg.sentAt &&
-              existingMsg.senderType === newMsg.senderType
+              existingMsg.senderType === newMsg.senderType)
           )
           ).map((msg) => ({
             ...msg,
             sentAt: msg.sentAt || new Date().toISOString(),
-            id: msg.id || Math.random().toString(36).slice(2)
+            id: msg.id || createClientMessageId()
           })) as ChatHistoryItem[]
           return [...prev, ...newMessages]
         })
@@ -98,6 +106,14 @@ export function ChatInterface({
     }
   }, [messages, requestId])
 
+  // Ack của tin nhắn mình gửi: thay id tạm bằng deliveryId (ACCEPTED) rồi bằng id trong database (PERSISTED)
+  useEffect(() => {
+    return subscribeAcks((ack) => {
+      if (ack.conversationId !== requestId) return
+      setChatHistory((prev) => applyMessageAck(prev, ack))
+    })
+  }, [subscribeAcks, requestId])
+
   // Auto scroll to bottom when new messages arrive
   useEffect(() => {
     if (messagesEndRef.current) {
@@ -120,6 +136,7 @@ export function ChatInterface({
     if (!userId) return;
 
     const newMessage: ChatMessage = {
+      clientMessageId: createClientMessageId(),
       content: message,
       conversationId: requestId,
       userId: userId,
@@ -129,12 +146,13 @@ export function ChatInterface({
       sentAt: new Date().toISOString(),
     }
 
-    sendMessage(newMessage)
+    const clientMessageId = sendMessage(newMessage)
+    if (!clientMessageId) return
 
-    // Optimistically add to chat history
+    // Optimistically add to chat history; id tạm được thay khi ack về
     setChatHistory((prev) => [
       ...prev,
-      { ...newMessage, id: Math.random().toString(36).slice(2) } as ChatHistoryItem
+      { ...newMessage, clientMessageId, id: clientMessageId } as ChatHistoryItem
     ])
 
     // Clear input
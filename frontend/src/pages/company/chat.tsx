@@ -53,6 +53,7 @@ export default function CompanyChat() {
 
       const mappedMessages: Message[] = (response.data.messages || response.data).map((msg: any) => ({
         id: msg.id,
+        deliveryId: msg.deliveryId || undefined,
         content: msg.content,
         type: 'TEXT',
         senderId: msg.senderId,
@@ -112,7 +113,7 @@ export default function CompanyChat() {
     const latestNotification = notifications.find(
         (notification) =>
             notification.type === "CHAT" &&
-            notification.additionalData?.conversationId === conversationId
+            (notification.conversationId ?? notification.additionalData?.conversationId) === conversationId
     );
 
     if (latestNotification) {
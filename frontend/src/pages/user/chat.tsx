@@ -83,7 +83,7 @@ export default function UserChat() {
     const latest = notifications[0]; // notifications are prepended
     if (
       latest.type === "CHAT" &&
-      latest.additionalData?.conversationId === conversationId
+      (latest.conversationId ?? latest.additionalData?.conversationId) === conversationId
     ) {
       fetchMessages();
     }
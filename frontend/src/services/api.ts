@@ -246,6 +246,28 @@ export const ratingsApi = {
     axiosInstance.get(`/ratings/unreviewed-services/company/${companyId}`),
 }
 
+// Trang của các danh sách admin phân trang keyset (AdminListRequest -> CursorPageResponse)
+export interface CursorPage<T> {
+  items: T[]
+  nextCursor: string | null
+  hasNext: boolean
+}
+
+// Đọc lần lượt các trang theo nextCursor cho tới trang cuối, dùng cho các màn hình cần toàn bộ danh sách
+export const fetchAllPages = async <T = any>(
+  fetchPage: (params: any) => Promise<{ data: CursorPage<T> }>,
+  params: Record<string, any> = {}
+): Promise<T[]> => {
+  const items: T[] = []
+  let cursor: string | undefined
+  do {
+    const response = await fetchPage({ limit: 200, ...params, cursor })
+    items.push(...(response.data.items || []))
+    cursor = response.data.hasNext && response.data.nextCursor ? response.data.nextCursor : undefined
+  } while (cursor)
+  return items
+}
+
 // Admin APIs
 export const adminApi = {
   // Topic management
@@ -13,6 +13,9 @@ interface Subscription {
 // WebSocket server URL
 const WS_BASE_URL = import.meta.env.VITE_WS_BASE_URL
 
+// Số id tin nhắn chat đã nhận được giữ lại để chống hiển thị trùng
+const MAX_SEEN_MESSAGE_IDS = 500
+
 // NotificationType enum khớp với backend
 export type NotificationType =
   | 'INVOICE_CREATED'
@@ -46,6 +49,10 @@ export interface Notification {
 
 export interface ChatMessage {
   id?: string; // <-- add this line
+  // Id tạm do client sinh khi gửi, server trả lại trong ack ACCEPTED
+  clientMessageId?: string
+  // Id do notification-service cấp; bản giao qua fast path có id = deliveryId, bản trong lịch sử giữ deliveryId
+  deliveryId?: string
   content: string
   conversationId: string
   rescueCompanyId?: string
@@ -55,20 +62,68 @@ export interface ChatMessage {
   sentAt: string
 }
 
+// Ack gửi về /user/queue/message-ack, khớp với MessageAck.java của notification-service
+export interface MessageAck {
+  id: string
+  clientMessageId?: string
+  conversationId: string
+  // Id của tin nhắn trong database backend, chỉ có khi status = PERSISTED
+  messageId?: string
+  status: "ACCEPTED" | "PERSISTED"
+  delivered: boolean
+  sentAt: string
+}
+
+// Phần tử inbox gửi lại qua /user/queue/inbox (NotificationInboxService)
+interface InboxEntry {
+  seq: number
+  payload: any
+  storedAt: string
+}
+
 export interface WebSocketService {
   connected: boolean
   connect: () => void
   disconnect: () => void
-  sendMessage: (message: ChatMessage) => void
+  sendMessage: (message: ChatMessage) => string | undefined
   subscribe: (callback: (message: ChatMessage) => void) => () => void
+  subscribeAcks: (callback: (ack: MessageAck) => void) => () => void
 }
 
+export const createClientMessageId = (): string =>
+  typeof crypto !== "undefined" && typeof crypto.randomUUID === "function"
+    ? crypto.randomUUID()
+    : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`
+
+// Hai bản của cùng một tin nhắn: trùng id, hoặc một bản là bản fast path (id = deliveryId) của bản kia
+export const isSameChatMessage = (a: ChatMessage, b: ChatMessage): boolean =>
+  (a.id !== undefined && a.id === b.id) ||
+  (a.deliveryId !== undefined && (a.deliveryId === b.deliveryId || a.deliveryId === b.id)) ||
+  (b.deliveryId !== undefined && b.deliveryId === a.id)
+
+// Thay hàng gửi tạm bằng id do server cấp: ACCEPTED đổi clientMessageId -> deliveryId, PERSISTED đổi sang id trong database
+export const applyMessageAck = <T extends ChatMessage & { id: string }>(history: T[], ack: MessageAck): T[] =>
+  history.map((msg) => {
+    if (ack.status === "ACCEPTED" && ack.clientMessageId && msg.clientMessageId === ack.clientMessageId) {
+      return { ...msg, id: ack.id, deliveryId: ack.id, sentAt: ack.sentAt || msg.sentAt }
+    }
+    if (ack.status === "PERSISTED" && ack.messageId && msg.deliveryId === ack.id) {
+      return { ...msg, id: ack.messageId }
+    }
+    return msg
+  })
+
 class WebSocketServiceImpl implements WebSocketService {
   private client: Client | null = null
   private callbacks: ((message: ChatMessage) => void)[] = []
+  private ackCallbacks: ((ack: MessageAck) => void)[] = []
+  // seq lớn nhất đã nhận từ inbox, bỏ qua phần tử đã xử lý khi inbox được gửi lại
+  private lastInboxSeq = 0
   private _connected = false
   private subscriptions: Subscription[] = []
   private token: string | null = null
+  // Id các tin nhắn chat đã nhận qua fast path (/user/queue/messages)
+  private seenMessageIds = new Set<string>()
 
   constructor() {
     this._connected = false
@@ -119,6 +174,15 @@ class WebSocketServiceImpl implements WebSocketService {
         // Subscribe to personal notifications
         this.subscribeToPersonalNotifications()
 
+        // Subscribe to chat messages pushed directly to this user
+        this.subscribeToDirectMessages()
+
+        // Subscribe to acks of the chat messages this user sends
+        this.subscribeToMessageAcks()
+
+        // Subscribe to the offline inbox; the server replays pending notifications on subscribe
+        this.subscribeToInbox()
+
         // Subscribe to public notifications
         this.subscribeToPublicNotifications()
       }
@@ -159,6 +223,8 @@ class WebSocketServiceImpl implements WebSocketService {
       this.client.deactivate()
       this.client = null
       this._connected = false
+      // seq của inbox tính theo người dùng
+      this.lastInboxSeq = 0
       // console.log("WebSocket disconnected")
     }
   }
@@ -170,6 +236,8 @@ class WebSocketServiceImpl implements WebSocketService {
       try {
         const message = JSON.parse(messageOutput.body)
         // console.log("Personal notification received:", message)
+        // Notification CHAT luôn được chuyển tiếp (danh sách notification, badge, tải lại hội thoại);
+        // bubble chat trùng với bản fast path được bỏ ở chat-interface theo deliveryId
         this.notifySubscribers(message)
       } catch (error) {
         console.error("Error parsing personal notification:", error)
@@ -179,6 +247,82 @@ class WebSocketServiceImpl implements WebSocketService {
     this.subscriptions.push(personalSub as Subscription)
   }
 
+  private subscribeToDirectMessages = () => {
+    if (!this.client || !this._connected) return
+
+    const directSub = this.client.subscribe("/user/queue/messages", (messageOutput: Message) => {
+      try {
+        const message = JSON.parse(messageOutput.body) as ChatMessage
+        if (!message.id || !this.markSeen(message.id)) return
+        this.notifySubscribers({ ...message, deliveryId: message.id })
+      } catch (error) {
+        console.error("Error parsing chat message:", error)
+      }
+    })
+
+    this.subscriptions.push(directSub as Subscription)
+  }
+
+  private subscribeToMessageAcks = () => {
+    if (!this.client || !this._connected) return
+
+    const ackSub = this.client.subscribe("/user/queue/message-ack", (messageOutput: Message) => {
+      try {
+        const ack = JSON.parse(messageOutput.body) as MessageAck
+        this.ackCallbacks.forEach((callback) => {
+          try {
+            callback(ack)
+          } catch (error) {
+            console.error("Error in message ack callback:", error)
+          }
+        })
+      } catch (error) {
+        console.error("Error parsing message ack:", error)
+      }
+    })
+
+    this.subscriptions.push(ackSub as Subscription)
+  }
+
+  private subscribeToInbox = () => {
+    if (!this.client || !this._connected) return
+
+    const inboxSub = this.client.subscribe("/user/queue/inbox", (messageOutput: Message) => {
+      try {
+        const entries = JSON.parse(messageOutput.body) as InboxEntry[]
+        let maxSeq = 0
+        entries.forEach((entry) => {
+          maxSeq = Math.max(maxSeq, entry.seq)
+          if (entry.seq <= this.lastInboxSeq || !entry.payload || typeof entry.payload !== "object") return
+          this.notifySubscribers(entry.payload)
+        })
+        if (maxSeq > 0) {
+          this.lastInboxSeq = Math.max(this.lastInboxSeq, maxSeq)
+          // Xác nhận để server xoá các thông báo có seq <= maxSeq khỏi inbox
+          this.client?.publish({
+            destination: "/app/notifications/ack",
+            body: JSON.stringify({ seq: maxSeq }),
+          })
+        }
+      } catch (error) {
+        console.error("Error parsing inbox:", error)
+      }
+    })
+
+    this.subscriptions.push(inboxSub as Subscription)
+  }
+
+  // Trả về false nếu tin nhắn đã được nhận trước đó
+  private markSeen = (id: string): boolean => {
+    if (this.seenMessageIds.has(id)) return false
+    this.seenMessageIds.add(id)
+    if (this.seenMessageIds.size > MAX_SEEN_MESSAGE_IDS) {
+      const oldest = this.seenMessageIds.values().next().value
+      if (oldest !== undefined) this.seenMessageIds.delete(oldest)
+    }
+    return true
+  }
+
   private subscribeToPublicNotifications = () => {
     if (!this.client || !this._connected) return
 
@@ -195,21 +339,25 @@ class WebSocketServiceImpl implements WebSocketService {
     this.subscriptions.push(publicSub as Subscription)
   }
 
-  sendMessage = (message: ChatMessage) => {
+  // Trả về clientMessageId để đối chiếu với ack, hoặc undefined nếu không gửi được
+  sendMessage = (message: ChatMessage): string | undefined => {
     if (!this.client || !this._connected) {
       console.error("Cannot send message: WebSocket not connected")
-      return
+      return undefined
     }
 
+    const clientMessageId = message.clientMessageId || createClientMessageId()
     try {
       this.client.publish({
         destination: "/app/message",
         headers: {},
-        body: JSON.stringify(message),
+        body: JSON.stringify({ ...message, clientMessageId }),
       })
       console.log("Message sent:", message)
+      return clientMessageId
     } catch (error) {
       console.error("Error sending message:", error)
+      return undefined
     }
   }
 
@@ -225,6 +373,17 @@ class WebSocketServiceImpl implements WebSocketService {
     }
   }
 
+  subscribeAcks = (callback: (ack: MessageAck) => void): (() => void) => {
+    this.ackCallbacks.push(callback)
+
+    return () => {
+      const index = this.ackCallbacks.indexOf(callback)
+      if (index !== -1) {
+        this.ackCallbacks.splice(index, 1)
+      }
+    }
+  }
+
   private notifySubscribers = (message: ChatMessage) => {
     this.callbacks.forEach((callback) => {
       try {
@@ -298,6 +457,7 @@ export function useWebSocket() {
     connected,
     messages,
     sendMessage: websocketService.sendMessage,
+    subscribeAcks: websocketService.subscribeAcks,
     connect: websocketService.connect,
     disconnect: websocketService.disconnect,
   }
@@ -20,6 +20,8 @@ export type SenderType = "USER" | "RESCUE_COMPANY" | "ADMIN";
 
 export interface Message {
   id: string;
+  // Id do notification-service cấp khi tin nhắn được giao qua WebSocket
+  deliveryId?: string;
   content: string;
   type: MessageType;
   senderId: string;
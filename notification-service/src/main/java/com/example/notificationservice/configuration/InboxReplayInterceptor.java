@@ -0,0 +1,59 @@
+package com.example.notificationservice.configuration;
+
+import com.example.notificationservice.service.NotificationInboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Gửi lại inbox của người dùng ngay khi client subscribe /user/queue/inbox.
+ * <p>
+ * SessionSubscribeEvent được phát trước khi frame SUBSCRIBE tới broker, nên replay từ event có thể tới trước khi
+ * subscription được đăng ký và bị mất. Interceptor này chạy sau khi UserDestinationMessageHandler đã chuyển
+ * SUBSCRIBE sang broker (đồng bộ qua brokerChannel), lúc đó subscription chắc chắn đã tồn tại.
+ */
+@Slf4j
+@Component
+public class InboxReplayInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String INBOX_SUBSCRIPTION = "/user" + NotificationInboxService.INBOX_DESTINATION;
+
+    // Lấy lazily: NotificationInboxService cần SimpMessagingTemplate do chính cấu hình WebSocket tạo ra
+    private final ObjectProvider<NotificationInboxService> notificationInboxService;
+
+    public InboxReplayInterceptor(ObjectProvider<NotificationInboxService> notificationInboxService) {
+        this.notificationInboxService = notificationInboxService;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || !INBOX_SUBSCRIPTION.equals(accessor.getDestination())) {
+            return;
+        }
+        Principal user = accessor.getUser();
+        if (user == null) {
+            return;
+        }
+        try {
+            notificationInboxService.getObject().replay(user.getName(), accessor.getSessionId());
+        } catch (Exception e) {
+            // Thông báo vẫn nằm trong inbox, client có thể yêu cầu lại qua /app/notifications/replay
+            log.error("Failed to replay inbox of user {} on subscribe", user.getName(), e);
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.notificationservice.configuration;
 
+import com.example.notificationservice.event.PresenceEventProducer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +31,21 @@ public class KafkaConfig {
 	@Value("${spring.kafka.consumer.group-id}")
 	private String consumerGroupId;
 
+	@Value("${notification.consumer.concurrency:3}")
+	private int consumerConcurrency;
+
+	@Value("${notification.consumer.max-poll-records:500}")
+	private int maxPollRecords;
+
+	@Value("${notification.consumer.retry-attempts:3}")
+	private long retryAttempts;
+
+	@Value("${notification.consumer.retry-interval-ms:1000}")
+	private long retryIntervalMs;
+
+	@Value("${presence.topic-partitions:3}")
+	private int presenceTopicPartitions;
+
 	@Bean
 	public ProducerFactory<String, String> producerFactory() {
 		Map<String, Object> configProps = new HashMap<>();
@@ -41,6 +66,29 @@ public class KafkaConfig {
 		return new KafkaTemplate<>(producerFactory());
 	}
 
+	/**
+	 * Producer cho payload đã mã hoá sẵn (JSON hoặc Smile, xem KafkaPayloadCodec).
+	 */
+	@Bean
+	public ProducerFactory<String, byte[]> payloadProducerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(
+				ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+				bootstrapServers);
+		configProps.put(
+				ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+				StringSerializer.class);
+		configProps.put(
+				ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+				ByteArraySerializer.class);
+		return new DefaultKafkaProducerFactory<>(configProps);
+	}
+
+	@Bean
+	public KafkaTemplate<String, byte[]> payloadKafkaTemplate() {
+		return new KafkaTemplate<>(payloadProducerFactory());
+	}
+
 	@Bean
 	public ConsumerFactory<String, String> consumerFactory() {
 		Map<String, Object> props = new HashMap<>();
@@ -59,6 +107,27 @@ public class KafkaConfig {
 		return new DefaultKafkaConsumerFactory<>(props);
 	}
 
+	/**
+	 * Consumer đọc payload dạng byte, giải mã theo header content-type (xem KafkaPayloadCodec).
+	 */
+	@Bean
+	public ConsumerFactory<String, byte[]> payloadConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+				bootstrapServers);
+		props.put(
+				ConsumerConfig.GROUP_ID_CONFIG,
+				consumerGroupId);
+		props.put(
+				ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+				StringDeserializer.class);
+		props.put(
+				ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+				ByteArrayDeserializer.class);
+		return new DefaultKafkaConsumerFactory<>(props);
+	}
+
 	@Bean
 	public ConcurrentKafkaListenerContainerFactory<String, String>
 	kafkaListenerContainerFactory() {
@@ -67,5 +136,49 @@ public class KafkaConfig {
 		factory.setConsumerFactory(consumerFactory());
 		return factory;
 	}
-}
 
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, byte[]>
+	payloadKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
+				new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(payloadConsumerFactory());
+		return factory;
+	}
+
+	/**
+	 * Container factory cho batch listener: mỗi lần poll trả về tối đa max-poll-records bản ghi.
+	 * Bản ghi lỗi (BatchListenerFailedException) được thử lại rồi chuyển sang topic {topic}-dlt,
+	 * các bản ghi trước nó trong batch vẫn được commit.
+	 */
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, byte[]>
+	batchKafkaListenerContainerFactory() {
+		Map<String, Object> props = new HashMap<>(payloadConsumerFactory().getConfigurationProperties());
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+		ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
+				new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+		factory.setBatchListener(true);
+		factory.setConcurrency(consumerConcurrency);
+
+		DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(payloadKafkaTemplate(),
+				(record, ex) -> new TopicPartition(record.topic() + "-dlt", -1));
+		DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(retryIntervalMs, retryAttempts));
+		errorHandler.addNotRetryableExceptions(JsonProcessingException.class);
+		factory.setCommonErrorHandler(errorHandler);
+		return factory;
+	}
+
+	/**
+	 * Topic compacted chứa trạng thái online mới nhất của từng người dùng (key = userId).
+	 */
+	@Bean
+	public NewTopic presenceStateTopic() {
+		return TopicBuilder.name(PresenceEventProducer.TOPIC)
+				.partitions(presenceTopicPartitions)
+				.compact()
+				.build();
+	}
+}
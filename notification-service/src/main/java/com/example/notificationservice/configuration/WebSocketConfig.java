@@ -1,9 +1,10 @@
 package com.example.notificationservice.configuration;
 
+import com.example.notificationservice.service.PresenceService;
 import com.example.notificationservice.utils.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
@@ -15,22 +16,52 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 import java.security.Principal;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
-    private static final String USER_SESSION_PREFIX = "user:session:";
     private final JwtUtil jwtUtil;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final PresenceService presenceService;
+    private final WebSocketSessionMonitor sessionMonitor;
+    private final InboxReplayInterceptor inboxReplayInterceptor;
 
-    public WebSocketConfig(JwtUtil jwtUtil, RedisTemplate<String, Object> redisTemplate) {
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit-bytes:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.transport.time-to-first-message-ms:60000}")
+    private int timeToFirstMessageMs;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.outbound.keep-alive-seconds:60}")
+    private int outboundKeepAliveSeconds;
+
+    public WebSocketConfig(JwtUtil jwtUtil, PresenceService presenceService, WebSocketSessionMonitor sessionMonitor,
+                           InboxReplayInterceptor inboxReplayInterceptor) {
         this.jwtUtil = jwtUtil;
-        this.redisTemplate = redisTemplate;
+        this.presenceService = presenceService;
+        this.sessionMonitor = sessionMonitor;
+        this.inboxReplayInterceptor = inboxReplayInterceptor;
         log.info("WebSocketConfig initialized");
     }
 
@@ -39,6 +70,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .addInterceptors(new WebSocketHandshakeInterceptor(jwtUtil)); // Thêm interceptor
+        // Xử lý frame của cùng một session theo thứ tự nhận (SUBSCRIBE trước, replay inbox sau)
+        registry.setPreserveReceiveOrder(true);
         log.info("STOMP endpoint '/ws' registered with handshake interceptor");
     }
 
@@ -50,6 +83,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         log.info("Message broker configured");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Giới hạn bộ nhớ cho mỗi socket: vượt thời gian gửi hoặc kích thước buffer thì session bị đóng
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(sessionMonitor::decorate);
+        log.info("WebSocket transport configured: sendTimeLimit={}ms, sendBufferSizeLimit={}B, messageSizeLimit={}B",
+                sendTimeLimitMs, sendBufferSizeLimit, messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity)
+                .keepAliveSeconds(outboundKeepAliveSeconds);
+        // Đếm hàng đợi gửi của từng session và áp dụng chính sách khi client quá chậm
+        registration.interceptors(sessionMonitor);
+        log.info("Configured client outbound channel: pool {}-{}, queue capacity {}",
+                outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(new ChannelInterceptor() {
@@ -88,9 +146,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                                     }
                                 });
                                 
-                                // Lưu session vào Redis
+                                // Đăng ký session vào presence registry
                                 String sessionId = accessor.getSessionId();
-                                redisTemplate.opsForValue().set(USER_SESSION_PREFIX + userIdFromSession, sessionId);
+                                presenceService.register(userIdFromSession, sessionId, token != null ? jwtUtil.extractRoles(token) : Set.of());
                                 log.info("User connected: userId={}, sessionId={}", userIdFromSession, sessionId);
                                 
                                 return message;
@@ -116,9 +174,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                                     }
                                 });
 
-                                // Lưu session vào Redis
+                                // Đăng ký session vào presence registry
                                 String sessionId = accessor.getSessionId();
-                                redisTemplate.opsForValue().set(USER_SESSION_PREFIX + userId, sessionId);
+                                presenceService.register(userId, sessionId, jwtUtil.extractRoles(token));
                                 log.info("User connected from token: userId={}, sessionId={}", userId, sessionId);
                             } else {
                                 log.warn("Invalid user ID in token");
@@ -136,8 +194,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
                 return message;
             }
-        });
+        }, inboxReplayInterceptor);
 
-        log.info("Configured client inbound channel with token handling");
+        log.info("Configured client inbound channel with token handling and inbox replay");
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.example.notificationservice.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Theo dõi hàng đợi gửi của từng session WebSocket và xử lý client chậm.
+ * <p>
+ * Độ sâu hàng đợi của một session là số frame đã được đưa vào clientOutboundChannel nhưng chưa ghi xong
+ * xuống socket (gồm cả phần đang chờ trong executor và trong buffer của ConcurrentWebSocketSessionDecorator).
+ * Khi độ sâu đạt websocket.session.max-queued-messages, frame MESSAGE mới bị xử lý theo
+ * websocket.session.overflow-policy:
+ * <ul>
+ *     <li>drop: bỏ frame (client lấy lại thông báo qua inbox/replay nếu cần).</li>
+ *     <li>disconnect: đóng session với SESSION_NOT_RELIABLE, client tự kết nối lại.</li>
+ * </ul>
+ * Giới hạn theo byte và thời gian gửi (websocket.transport.*) vẫn do Spring áp dụng: vượt giới hạn thì session bị đóng.
+ */
+@Slf4j
+@Component
+public class WebSocketSessionMonitor implements ChannelInterceptor {
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong disconnectedSessions = new AtomicLong();
+
+    @Value("${websocket.session.max-queued-messages:1000}")
+    private int maxQueuedMessages;
+
+    @Value("${websocket.session.overflow-policy:drop}")
+    private String overflowPolicy;
+
+    /**
+     * Bọc WebSocketHandler để đếm các frame đã thực sự được ghi xuống socket.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new CountingSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        SessionState state = sessionId != null ? sessions.get(sessionId) : null;
+        if (state == null) {
+            return message;
+        }
+
+        if (accessor.getMessageType() == SimpMessageType.MESSAGE && state.queued.get() >= maxQueuedMessages) {
+            if ("disconnect".equalsIgnoreCase(overflowPolicy)) {
+                disconnect(state);
+            } else {
+                droppedMessages.incrementAndGet();
+                log.debug("Dropping message for slow session {} (queued: {})", sessionId, state.queued.get());
+            }
+            return null;
+        }
+
+        state.queued.incrementAndGet();
+        return message;
+    }
+
+    /**
+     * Số liệu hàng đợi gửi hiện tại.
+     */
+    public Map<String, Object> getStats() {
+        int totalQueued = 0;
+        int maxDepth = 0;
+        int slowSessions = 0;
+        for (SessionState state : sessions.values()) {
+            int depth = state.queued.get();
+            totalQueued += depth;
+            maxDepth = Math.max(maxDepth, depth);
+            if (depth >= maxQueuedMessages / 2) {
+                slowSessions++;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("queuedMessages", totalQueued);
+        stats.put("maxQueueDepth", maxDepth);
+        stats.put("slowSessions", slowSessions);
+        stats.put("maxQueuedMessages", maxQueuedMessages);
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("droppedMessages", droppedMessages.get());
+        stats.put("disconnectedSessions", disconnectedSessions.get());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.stats.log-interval-ms:60000}")
+    public void logStats() {
+        if (!sessions.isEmpty()) {
+            log.info("WebSocket outbound stats: {}", getStats());
+        }
+    }
+
+    private void disconnect(SessionState state) {
+        if (!state.closing.compareAndSet(0, 1)) {
+            return;
+        }
+        disconnectedSessions.incrementAndGet();
+        log.warn("Closing slow session {} (queued: {})", state.session.getId(), state.queued.get());
+        try {
+            state.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close slow session {}", state.session.getId(), e);
+        }
+    }
+
+    private static class SessionState {
+        final WebSocketSession session;
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger closing = new AtomicInteger();
+
+        SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    private static class CountingSession extends WebSocketSessionDecorator {
+        private final SessionState state;
+
+        CountingSession(WebSocketSession session, SessionState state) {
+            super(session);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                // Frame gửi thẳng (không qua outbound channel) không được đếm khi vào hàng đợi
+                state.queued.getAndUpdate(queued -> Math.max(0, queued - 1));
+            }
+        }
+    }
+}
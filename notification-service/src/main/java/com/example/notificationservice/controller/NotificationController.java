@@ -1,64 +1,81 @@
 package com.example.notificationservice.controller;
 
 
-import com.example.notificationservice.event.MessageProducer;
+import com.example.notificationservice.configuration.WebSocketSessionMonitor;
+import com.example.notificationservice.model.BroadcastRequest;
+import com.example.notificationservice.service.BroadcastService;
+import com.example.notificationservice.service.ChatDeliveryService;
+import com.example.notificationservice.service.NotificationInboxService;
 import com.example.notificationservice.model.Message;
 import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.service.PresenceService;
+import com.example.notificationservice.utils.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.server.ResponseStatusException;
 
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Principal;
 
 @RestController
 @RequestMapping("/api/v1/notification")
 public class NotificationController {
 
 	private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
-	private static final String USER_SESSION_PREFIX = "user:session:";
 
 	@Autowired
-	private RedisTemplate<String, Object> redisTemplate;
+	private PresenceService presenceService;
 
 	@Autowired
 	private NotificationService notificationService;
 
 	@Autowired
-	private MessageProducer messageProducer;
+	private ChatDeliveryService chatDeliveryService;
+
+	@Autowired
+	private NotificationInboxService notificationInboxService;
+
+	@Autowired
+	private BroadcastService broadcastService;
+
+	@Autowired
+	private WebSocketSessionMonitor webSocketSessionMonitor;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	// Token dùng chung cho các service nội bộ gọi API broadcast; để trống thì chỉ ADMIN được gọi
+	@Value("${notification.internal-token:}")
+	private String internalToken;
+
+	@Autowired
+	@Qualifier("clientOutboundChannelExecutor")
+	private ThreadPoolTaskExecutor clientOutboundChannelExecutor;
 
 	@GetMapping("/online-users")
 	public Map<String, Object> getOnlineUsers() {
-		logger.info("Fetching online users from Redis...");
-		
-		// Get all keys matching the pattern
-		Set<String> keys = redisTemplate.keys(USER_SESSION_PREFIX + "*");
-		logger.info("Found Redis keys: {}", keys);
-
-		List<String> onlineUsers = keys != null ? 
-			keys.stream()
-				.map(key -> {
-					String userId = key.substring(USER_SESSION_PREFIX.length());
-					logger.info("Processing key: {}, extracted userId: {}", key, userId);
-					return userId;
-				})
-				.collect(Collectors.toList()) 
-			: List.of();
-
-		logger.info("Final list of online users: {}", onlineUsers);
+		List<String> onlineUsers = presenceService.getOnlineUsers();
+		logger.info("Found {} online users", onlineUsers.size());
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("success", true);
@@ -67,6 +84,20 @@ public class NotificationController {
 		return response;
 	}
 
+	@GetMapping("/websocket/stats")
+	public Map<String, Object> getWebSocketStats() {
+		Map<String, Object> outbound = new HashMap<>();
+		outbound.put("poolSize", clientOutboundChannelExecutor.getPoolSize());
+		outbound.put("activeThreads", clientOutboundChannelExecutor.getActiveCount());
+		outbound.put("queueSize", clientOutboundChannelExecutor.getThreadPoolExecutor().getQueue().size());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("sessions", webSocketSessionMonitor.getStats());
+		response.put("outboundChannel", outbound);
+		return response;
+	}
+
 	@PostMapping("/user/{userId}")
 	public Map<String, Object> sendNotificationToUser(
 			@PathVariable("userId") String userId,
@@ -82,26 +113,80 @@ public class NotificationController {
 	}
 
 	@PostMapping("/all")
-	public Map<String, Object> sendNotificationToAllUsers(@RequestBody Map<String, String> request) throws IOException {
+	public Map<String, Object> sendNotificationToAllUsers(@RequestBody Map<String, String> request,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(value = "X-Internal-Token", required = false) String callerToken) throws IOException {
+		requireAdminOrInternal(authorization, callerToken);
 		String message = request.get("message");
-		Set<String> keys = redisTemplate.keys(USER_SESSION_PREFIX + "*");
-
-		if (keys != null && !keys.isEmpty()) {
-			for (String key : keys) {
-				String userId = key.substring(USER_SESSION_PREFIX.length());
-				notificationService.sendNotificationToUser(userId, message);
-			}
-		}
+		String broadcastId = notificationService.sendNotificationToAll(message);
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("success", true);
 		response.put("message", "Notification sent to all online users");
+		response.put("broadcastId", broadcastId);
 		return response;
 	}
 
+	@PostMapping("/broadcast")
+	public Map<String, Object> broadcast(@RequestBody BroadcastRequest request,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(value = "X-Internal-Token", required = false) String callerToken) {
+		requireAdminOrInternal(authorization, callerToken);
+		String broadcastId = broadcastService.broadcast(request);
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", true);
+		response.put("broadcastId", broadcastId);
+		return response;
+	}
+
+	@GetMapping("/broadcast/{broadcastId}")
+	public Map<String, Object> getBroadcastProgress(@PathVariable("broadcastId") String broadcastId) {
+		Map<String, Object> progress = broadcastService.getProgress(broadcastId);
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("success", !progress.isEmpty());
+		response.put("progress", progress);
+		return response;
+	}
+
+	@MessageMapping("/notifications/replay")
+	public void replayNotifications(Principal principal, @Header("simpSessionId") String sessionId) {
+		if (principal != null) {
+			notificationInboxService.replay(principal.getName(), sessionId);
+		}
+	}
+
+	@MessageMapping("/notifications/ack")
+	public void acknowledgeNotifications(Map<String, Object> ack, Principal principal) {
+		Object seq = ack.get("seq");
+		if (principal == null || seq == null) {
+			return;
+		}
+		long removed = notificationInboxService.acknowledge(principal.getName(), Long.parseLong(seq.toString()));
+		logger.debug("User {} acknowledged {} notifications up to #{}", principal.getName(), removed, seq);
+	}
+
 	@MessageMapping("/message")
-	public void handleMessage(Message message) {
+	public void handleMessage(Message message, Principal principal) {
 		logger.info("Received message: {}", message);
-		messageProducer.sendMessageEvent(message);
+		chatDeliveryService.deliver(message, principal != null ? principal.getName() : null);
+	}
+
+	/**
+	 * Chỉ cho phép ADMIN (JWT hợp lệ có role ADMIN) hoặc service nội bộ (đúng notification.internal-token).
+	 */
+	private void requireAdminOrInternal(String authorization, String callerToken) {
+		if (!internalToken.isEmpty() && callerToken != null && MessageDigest.isEqual(
+				internalToken.getBytes(StandardCharsets.UTF_8), callerToken.getBytes(StandardCharsets.UTF_8))) {
+			return;
+		}
+		String token = jwtUtil.extractTokenFromHeader(authorization);
+		if (token == null || !jwtUtil.validateToken(token)) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid token");
+		}
+		if (!jwtUtil.extractRoles(token).contains("ADMIN")) {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Broadcast requires ADMIN role");
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.example.notificationservice.event;
+
+import com.example.notificationservice.model.PresenceEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Phát thay đổi trạng thái online của người dùng lên topic compacted presence-state-topic (key = userId),
+ * để các service khác tự dựng danh sách người dùng online mà không phải hỏi notification-service.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresenceEventProducer {
+	public static final String TOPIC = "presence-state-topic";
+
+	private final KafkaTemplate<String, byte[]> payloadKafkaTemplate;
+	private final KafkaPayloadCodec payloadCodec;
+
+	public void sendPresenceEvent(String userId, boolean online, long version) {
+		PresenceEvent event = PresenceEvent.builder()
+				.userId(userId)
+				.online(online)
+				.version(version)
+				.updatedAt(LocalDateTime.now())
+				.build();
+		try {
+			payloadKafkaTemplate.send(payloadCodec.toRecord(TOPIC, userId, event));
+		} catch (IOException e) {
+			log.error("❌ Failed to serialize PresenceEvent", e);
+		}
+	}
+}
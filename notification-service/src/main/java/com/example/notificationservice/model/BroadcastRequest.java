@@ -0,0 +1,25 @@
+package com.example.notificationservice.model;
+
+import com.example.notificationservice.model.enums.BroadcastTarget;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BroadcastRequest {
+	// Tuỳ chọn; được sinh tự động nếu để trống
+	String broadcastId;
+	BroadcastTarget target;
+	Set<String> roles;
+	List<String> userIds;
+	String title;
+	String content;
+	Map<String, Object> additionalData;
+}
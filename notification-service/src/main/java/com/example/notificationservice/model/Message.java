@@ -13,6 +13,12 @@ import java.time.LocalDateTime;
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Message {
+	// ID do server cấp khi nhận tin nhắn, client dùng để đối chiếu với ack
+	String id;
+	// ID tạm do client sinh ra trước khi gửi
+	String clientMessageId;
+	String senderId;
+	String recipientId;
 	String content;
 	String conversationId;
 	String rescueCompanyId;
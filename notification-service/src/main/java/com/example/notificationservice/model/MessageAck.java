@@ -0,0 +1,24 @@
+package com.example.notificationservice.model;
+
+import com.example.notificationservice.model.enums.MessageAckStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MessageAck {
+	String id;
+	String clientMessageId;
+	String conversationId;
+	// ID của tin nhắn trong database backend (chỉ có khi status = PERSISTED)
+	String messageId;
+	MessageAckStatus status;
+	// Tin nhắn đã được đẩy trực tiếp tới người nhận qua WebSocket hay chưa
+	boolean delivered;
+	LocalDateTime sentAt;
+}
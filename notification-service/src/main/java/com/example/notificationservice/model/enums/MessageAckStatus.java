@@ -0,0 +1,8 @@
+package com.example.notificationservice.model.enums;
+
+public enum MessageAckStatus {
+	// Server đã nhận tin nhắn và cấp ID (đã đẩy tới người nhận nếu họ online)
+	ACCEPTED,
+	// Backend đã lưu tin nhắn vào database
+	PERSISTED
+}
@@ -0,0 +1,270 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.BroadcastRequest;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.enums.BroadcastTarget;
+import com.example.notificationservice.model.enums.NotificationType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gửi thông báo hàng loạt (broadcast) tới tất cả người dùng online, theo role, hoặc theo danh sách người dùng.
+ * <p>
+ * Thông báo được serialize một lần thành JSON. Ở chế độ redis, node nhận yêu cầu publish một lệnh fan-out
+ * lên channel notification:broadcast:fanout; mọi node (kể cả node đó) tự chọn các người dùng đang kết nối tới
+ * mình thoả điều kiện và gửi song song theo từng lô (notification.broadcast.chunk-size) trên pool riêng,
+ * dùng chung mảng byte payload cho mọi session. Với target USERS, người dùng offline được lưu vào inbox.
+ * Tiến độ được cộng dồn vào Redis hash broadcast:{broadcastId} (delivered, failed, storedOffline,
+ * nodesCompleted/expectedNodes) sau mỗi lô.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastService implements MessageListener {
+
+    private static final String FANOUT_CHANNEL = "notification:broadcast:fanout";
+    private static final String PROGRESS_PREFIX = "broadcast:";
+    private static final String DESTINATION = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final NotificationInboxService notificationInboxService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notification.routing.mode:redis}")
+    private String mode;
+
+    @Value("${notification.broadcast.threads:8}")
+    private int threads;
+
+    @Value("${notification.broadcast.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${notification.broadcast.progress-ttl-hours:24}")
+    private long progressTtlHours;
+
+    private ObjectMapper broadcastMapper;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        // Ngày giờ dạng ISO, giống payload gửi qua STOMP
+        broadcastMapper = objectMapper.copy().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-broadcast-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (isRedisMode()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(FANOUT_CHANNEL));
+        }
+    }
+
+    /**
+     * Bắt đầu một broadcast và trả về broadcastId để theo dõi tiến độ. Việc gửi diễn ra bất đồng bộ.
+     */
+    public String broadcast(BroadcastRequest request) {
+        String broadcastId = request.getBroadcastId() != null ? request.getBroadcastId() : UUID.randomUUID().toString();
+        BroadcastTarget target = request.getTarget() != null ? request.getTarget() : BroadcastTarget.ALL;
+
+        Map<String, Object> data = request.getAdditionalData() != null
+                ? new HashMap<>(request.getAdditionalData()) : new HashMap<>();
+        data.put("broadcastId", broadcastId);
+        Notification notification = Notification.builder()
+                .title(request.getTitle())
+                .content(request.getContent())
+                .type(NotificationType.ANNOUNCEMENT)
+                .sentAt(LocalDateTime.now())
+                .additionalData(data)
+                .build();
+
+        String progressKey = PROGRESS_PREFIX + broadcastId;
+        Map<String, String> progress = new HashMap<>();
+        progress.put("target", target.name());
+        progress.put("startedAt", LocalDateTime.now().toString());
+        progress.put("expectedNodes", String.valueOf(isRedisMode() ? presenceService.countLiveNodes() : 1));
+        stringRedisTemplate.opsForHash().putAll(progressKey, progress);
+        stringRedisTemplate.expire(progressKey, Duration.ofHours(progressTtlHours));
+
+        Collection<String> userIds = Collections.emptyList();
+        if (target == BroadcastTarget.USERS) {
+            List<String> requested = request.getUserIds() != null ? request.getUserIds() : List.of();
+            Set<String> online = presenceService.filterOnline(requested);
+            List<String> offline = requested.stream()
+                    .filter(userId -> !online.contains(userId))
+                    .toList();
+            offline.forEach(userId -> notificationInboxService.store(userId, notification));
+            stringRedisTemplate.opsForHash().increment(progressKey, "storedOffline", offline.size());
+            userIds = online;
+        }
+
+        try {
+            ObjectNode command = broadcastMapper.createObjectNode();
+            command.put("broadcastId", broadcastId);
+            command.put("target", target.name());
+            command.set("roles", broadcastMapper.valueToTree(request.getRoles() != null ? request.getRoles() : Set.of()));
+            command.set("userIds", broadcastMapper.valueToTree(userIds));
+            command.put("body", broadcastMapper.writeValueAsString(notification));
+
+            if (isRedisMode()) {
+                stringRedisTemplate.convertAndSend(FANOUT_CHANNEL, command.toString());
+            } else {
+                fanOut(command);
+            }
+        } catch (Exception e) {
+            log.error("Failed to start broadcast {}", broadcastId, e);
+            stringRedisTemplate.opsForHash().put(progressKey, "error", e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        log.info("Started broadcast {} (target: {})", broadcastId, target);
+        return broadcastId;
+    }
+
+    /**
+     * Tiến độ của một broadcast, rỗng nếu không tồn tại hoặc đã hết hạn.
+     */
+    public Map<String, Object> getProgress(String broadcastId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(PROGRESS_PREFIX + broadcastId);
+        Map<String, Object> progress = new LinkedHashMap<>();
+        if (entries.isEmpty()) {
+            return progress;
+        }
+        progress.put("broadcastId", broadcastId);
+        entries.forEach((key, value) -> progress.put(key.toString(), value));
+        long expectedNodes = Long.parseLong(entries.getOrDefault("expectedNodes", "1").toString());
+        long nodesCompleted = Long.parseLong(entries.getOrDefault("nodesCompleted", "0").toString());
+        progress.put("completed", nodesCompleted >= expectedNodes);
+        return progress;
+    }
+
+    /**
+     * Nhận lệnh fan-out từ channel Redis (do node bất kỳ publish) và gửi cho người dùng trên node này.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            fanOut(broadcastMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            log.error("Failed to process broadcast fan-out command", e);
+        }
+    }
+
+    private void fanOut(JsonNode command) {
+        String broadcastId = command.get("broadcastId").asText();
+        BroadcastTarget target = BroadcastTarget.valueOf(command.get("target").asText());
+        Set<String> roles = toSet(command.get("roles"));
+        Set<String> userIds = toSet(command.get("userIds"));
+
+        List<String> recipients = new ArrayList<>();
+        for (String userId : presenceService.getLocalUsers()) {
+            boolean matches = switch (target) {
+                case ALL -> true;
+                case ROLE -> !Collections.disjoint(presenceService.getLocalUserRoles(userId), roles);
+                case USERS -> userIds.contains(userId);
+            };
+            if (matches) {
+                recipients.add(userId);
+            }
+        }
+
+        // Message dùng chung cho mọi luồng gửi: header phải immutable để SimpMessagingTemplate sao chép header
+        // cho mỗi lần gửi thay vì ghi destination trực tiếp vào map header dùng chung
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setImmutable();
+        org.springframework.messaging.Message<byte[]> payload = MessageBuilder.createMessage(
+                command.get("body").asText().getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+
+        String progressKey = PROGRESS_PREFIX + broadcastId;
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < recipients.size(); from += chunkSize) {
+            List<String> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+            chunks.add(CompletableFuture.runAsync(() -> sendChunk(progressKey, chunk, payload), executor));
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).whenComplete((result, ex) -> {
+            stringRedisTemplate.opsForHash().increment(progressKey, "nodesCompleted", 1);
+            stringRedisTemplate.opsForHash().put(progressKey, "lastNodeCompletedAt", LocalDateTime.now().toString());
+            log.info("Broadcast {} delivered to {} local users on node {} in {} ms", broadcastId, recipients.size(),
+                    presenceService.getNodeId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        });
+    }
+
+    private void sendChunk(String progressKey, List<String> userIds, org.springframework.messaging.Message<byte[]> payload) {
+        int delivered = 0;
+        int failed = 0;
+        for (String userId : userIds) {
+            try {
+                messagingTemplate.send(userDestination(userId), payload);
+                delivered++;
+            } catch (Exception e) {
+                failed++;
+                log.debug("Failed to deliver broadcast to user {}: {}", userId, e.getMessage());
+            }
+        }
+        stringRedisTemplate.opsForHash().increment(progressKey, "delivered", delivered);
+        if (failed > 0) {
+            stringRedisTemplate.opsForHash().increment(progressKey, "failed", failed);
+        }
+    }
+
+    private String userDestination(String userId) {
+        return messagingTemplate.getUserDestinationPrefix() + userId.replace("/", "%2F") + DESTINATION;
+    }
+
+    private static Set<String> toSet(JsonNode array) {
+        Set<String> values = new HashSet<>();
+        if (array != null) {
+            array.forEach(value -> values.add(value.asText()));
+        }
+        return values;
+    }
+
+    private boolean isRedisMode() {
+        return "redis".equalsIgnoreCase(mode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
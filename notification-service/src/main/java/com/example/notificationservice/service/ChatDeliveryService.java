@@ -0,0 +1,141 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.event.MessageProducer;
+import com.example.notificationservice.model.Message;
+import com.example.notificationservice.model.MessageAck;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.enums.MessageAckStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Giao tin nhắn chat trực tiếp qua WebSocket (fast path) rồi mới lưu bất đồng bộ qua Kafka.
+ * <p>
+ * Giao thức ack:
+ * <ol>
+ *     <li>Client gửi tin nhắn tới /app/message kèm clientMessageId.</li>
+ *     <li>Server cấp id, đẩy tin nhắn tới người nhận (/user/queue/messages) nếu biết người nhận,
+ *     và gửi ack ACCEPTED (clientMessageId → id) cho người gửi (/user/queue/message-ack).</li>
+ *     <li>Backend lưu tin nhắn (idempotent theo id) và phát notification CHAT; khi nhận notification đó
+ *     server gửi ack PERSISTED (id → messageId) cho người gửi.</li>
+ * </ol>
+ * Người nhận của một conversation được học từ các notification CHAT do backend phát ra; khi chưa biết
+ * (tin nhắn đầu tiên) tin nhắn chỉ đi theo đường Kafka như trước.
+ * <p>
+ * Notification CHAT của tin nhắn vẫn được gửi cho người nhận; nó mang additionalData.deliveryId (= id của bản
+ * đã giao qua fast path) để client chỉ hiển thị tin nhắn một lần.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatDeliveryService {
+
+    private static final String PARTICIPANTS_PREFIX = "chat:conversation:participants:";
+    private static final String MESSAGES_DESTINATION = "/queue/messages";
+    private static final String ACK_DESTINATION = "/queue/message-ack";
+
+    private final NotificationRouter notificationRouter;
+    private final PresenceService presenceService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageProducer messageProducer;
+
+    @Value("${chat.fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    @Value("${chat.fast-path.participants-ttl-hours:168}")
+    private long participantsTtlHours;
+
+    /**
+     * Nhận tin nhắn từ người gửi: cấp id, giao ngay cho người nhận nếu có thể, ack cho người gửi
+     * và đẩy sang Kafka để backend lưu.
+     */
+    public void deliver(Message message, String senderId) {
+        message.setId(UUID.randomUUID().toString());
+        message.setSenderId(senderId);
+        message.setSentAt(LocalDateTime.now());
+
+        boolean delivered = false;
+        String recipientId = fastPathEnabled && senderId != null ? resolveRecipient(message.getConversationId(), senderId) : null;
+        if (recipientId != null) {
+            message.setRecipientId(recipientId);
+            delivered = presenceService.isOnline(recipientId);
+            notificationRouter.sendToUser(recipientId, MESSAGES_DESTINATION, message);
+        }
+
+        if (senderId != null) {
+            notificationRouter.sendToUser(senderId, ACK_DESTINATION, MessageAck.builder()
+                    .id(message.getId())
+                    .clientMessageId(message.getClientMessageId())
+                    .conversationId(message.getConversationId())
+                    .status(MessageAckStatus.ACCEPTED)
+                    .delivered(delivered)
+                    .sentAt(message.getSentAt())
+                    .build());
+        }
+
+        // Lưu bất đồng bộ: backend ghi DB và phát notification như đường cũ
+        messageProducer.sendMessageEvent(message);
+        log.debug("Accepted chat message {} (fast path delivered: {})", message.getId(), delivered);
+    }
+
+    /**
+     * Xử lý notification CHAT từ backend: ghi nhớ người tham gia conversation và xác nhận đã lưu cho người gửi.
+     */
+    public void onChatNotification(Notification notification) {
+        Map<String, Object> data = notification.getAdditionalData();
+        if (data == null || notification.getConversationId() == null) {
+            return;
+        }
+
+        Object userId = data.get("userId");
+        Object companyUserId = data.get("companyUserId");
+        if (userId != null && companyUserId != null) {
+            String key = PARTICIPANTS_PREFIX + notification.getConversationId();
+            HashOperations<String, String, String> hashOps = stringRedisTemplate.opsForHash();
+            hashOps.putAll(key, Map.of("userId", userId.toString(), "companyUserId", companyUserId.toString()));
+            stringRedisTemplate.expire(key, Duration.ofHours(participantsTtlHours));
+        }
+
+        Object deliveryId = data.get("deliveryId");
+        Object senderId = data.get("senderId");
+        if (deliveryId != null && senderId != null) {
+            notificationRouter.sendToUser(senderId.toString(), ACK_DESTINATION, MessageAck.builder()
+                    .id(deliveryId.toString())
+                    .conversationId(notification.getConversationId())
+                    .messageId(data.get("messageId") != null ? data.get("messageId").toString() : null)
+                    .status(MessageAckStatus.PERSISTED)
+                    .sentAt(notification.getSentAt())
+                    .build());
+        }
+    }
+
+    /**
+     * Tìm người nhận là người tham gia còn lại của conversation.
+     * Trả về null nếu chưa biết người tham gia hoặc người gửi không thuộc conversation.
+     */
+    private String resolveRecipient(String conversationId, String senderId) {
+        if (conversationId == null) {
+            return null;
+        }
+        HashOperations<String, String, String> hashOps = stringRedisTemplate.opsForHash();
+        Map<String, String> participants = hashOps.entries(PARTICIPANTS_PREFIX + conversationId);
+        String userId = participants.get("userId");
+        String companyUserId = participants.get("companyUserId");
+        if (senderId.equals(userId)) {
+            return companyUserId;
+        }
+        if (senderId.equals(companyUserId)) {
+            return userId;
+        }
+        return null;
+    }
+}
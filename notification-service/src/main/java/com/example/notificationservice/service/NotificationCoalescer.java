@@ -0,0 +1,289 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.enums.NotificationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gộp và giới hạn tốc độ thông báo gửi tới từng người nhận đang online.
+ * <p>
+ * Thông báo tới một người nhận được giữ trong cửa sổ notification.coalescing.window-ms rồi mới gửi:
+ * các thông báo CHAT của cùng một conversation được gộp thành một thông báo "N tin nhắn mới" (giữ dữ liệu
+ * của tin nhắn cuối cùng, thêm additionalData.count), các loại khác được gửi riêng theo thứ tự.
+ * Mỗi người nhận có một token bucket (notification.rate-limit.capacity, refill-per-second): khi hết token,
+ * thông báo tiếp tục chờ (và tiếp tục được gộp) thay vì dồn vào buffer gửi của socket. Nếu số thông báo
+ * chờ vượt notification.coalescing.max-pending, thông báo cũ nhất được chuyển vào inbox để client lấy lại
+ * bằng /app/notifications/replay, nên client chậm không làm bộ nhớ server tăng không giới hạn.
+ * <p>
+ * {@link #submit(Notification)} trả về một future hoàn thành khi thông báo đã được gửi tới người nhận
+ * hoặc đã được lưu vào inbox; {@link #spill(Collection)} chuyển ngay các thông báo còn chờ vào inbox.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+
+    private static final String DESTINATION = "/queue/notifications";
+
+    private final NotificationRouter notificationRouter;
+    private final NotificationInboxService notificationInboxService;
+
+    private final Map<String, RecipientBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Value("${notification.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.coalescing.window-ms:250}")
+    private long windowMs;
+
+    @Value("${notification.coalescing.max-pending:50}")
+    private int maxPending;
+
+    @Value("${notification.rate-limit.capacity:10}")
+    private double capacity;
+
+    @Value("${notification.rate-limit.refill-per-second:2}")
+    private double refillPerSecond;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Đưa một thông báo cho người nhận đang online vào cửa sổ gộp.
+     *
+     * @return Future hoàn thành khi thông báo đã được gửi hoặc đã được lưu vào inbox.
+     */
+    public CompletableFuture<Void> submit(Notification notification) {
+        String recipientId = notification.getRecipientId();
+        if (!enabled) {
+            notificationRouter.sendToUser(recipientId, DESTINATION, notification);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        RecipientBuffer buffer = buffers.computeIfAbsent(recipientId, id -> new RecipientBuffer(capacity));
+        PendingNotification overflow = null;
+        synchronized (buffer) {
+            String key = coalesceKey(notification);
+            PendingNotification pending = buffer.pending.get(key);
+            if (pending != null) {
+                pending.latest = notification;
+                pending.count++;
+                pending.waiters.add(future);
+            } else {
+                pending = new PendingNotification(notification);
+                pending.waiters.add(future);
+                buffer.pending.put(key, pending);
+                if (buffer.pending.size() > maxPending) {
+                    Iterator<PendingNotification> eldest = buffer.pending.values().iterator();
+                    overflow = eldest.next();
+                    eldest.remove();
+                }
+            }
+            buffer.lastActivity = System.nanoTime();
+            if (!buffer.flushScheduled) {
+                buffer.flushScheduled = true;
+                scheduler.schedule(() -> flush(recipientId, buffer), windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (overflow != null) {
+            log.warn("Notification backlog of user {} exceeds {}, moving oldest to inbox", recipientId, maxPending);
+            storeInInbox(recipientId, List.of(overflow));
+        }
+        return future;
+    }
+
+    /**
+     * Chuyển ngay các thông báo còn chờ của những người nhận đã cho vào inbox, bỏ qua cửa sổ gộp và giới hạn
+     * tốc độ. Dùng khi không thể chờ tới lượt gửi (ví dụ trước khi commit offset Kafka).
+     */
+    public void spill(Collection<String> recipientIds) {
+        for (String recipientId : recipientIds) {
+            RecipientBuffer buffer = buffers.get(recipientId);
+            if (buffer == null) {
+                continue;
+            }
+            List<PendingNotification> remaining;
+            synchronized (buffer) {
+                remaining = new ArrayList<>(buffer.pending.values());
+                buffer.pending.clear();
+            }
+            if (!remaining.isEmpty()) {
+                log.info("Moving {} pending notifications of user {} to inbox", remaining.size(), recipientId);
+                storeInInbox(recipientId, remaining);
+            }
+        }
+    }
+
+    /**
+     * Gửi các thông báo đang chờ của một người nhận trong giới hạn token hiện có.
+     */
+    private void flush(String recipientId, RecipientBuffer buffer) {
+        List<PendingNotification> ready = new ArrayList<>();
+        synchronized (buffer) {
+            buffer.refill(capacity, refillPerSecond);
+            Iterator<PendingNotification> iterator = buffer.pending.values().iterator();
+            while (iterator.hasNext() && buffer.tokens >= 1) {
+                ready.add(iterator.next());
+                iterator.remove();
+                buffer.tokens -= 1;
+            }
+
+            if (buffer.pending.isEmpty()) {
+                buffer.flushScheduled = false;
+            } else {
+                // Hết token: chờ tới khi có lại một token
+                long delayMs = Math.max(windowMs, (long) Math.ceil((1 - buffer.tokens) / refillPerSecond * 1000));
+                scheduler.schedule(() -> flush(recipientId, buffer), delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        for (PendingNotification pending : ready) {
+            try {
+                notificationRouter.sendToUser(recipientId, DESTINATION, pending.toNotification());
+                pending.complete(null);
+            } catch (Exception e) {
+                log.error("Failed to send coalesced notification to user {}", recipientId, e);
+                pending.complete(e);
+            }
+        }
+    }
+
+    private void storeInInbox(String recipientId, List<PendingNotification> pendingNotifications) {
+        for (PendingNotification pending : pendingNotifications) {
+            try {
+                notificationInboxService.store(recipientId, pending.toNotification());
+                pending.complete(null);
+            } catch (RuntimeException e) {
+                pending.complete(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Xoá trạng thái của những người nhận không còn thông báo chờ và đã đầy token.
+     */
+    @Scheduled(fixedDelayString = "${notification.coalescing.cleanup-interval-ms:60000}")
+    public void cleanupIdleBuffers() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos((long) (capacity / refillPerSecond * 1000));
+        long now = System.nanoTime();
+        buffers.entrySet().removeIf(entry -> {
+            RecipientBuffer buffer = entry.getValue();
+            synchronized (buffer) {
+                return buffer.pending.isEmpty() && now - buffer.lastActivity > idleNanos;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // Gửi nốt thông báo còn chờ, bỏ qua giới hạn tốc độ
+        buffers.forEach((recipientId, buffer) -> {
+            List<PendingNotification> remaining;
+            synchronized (buffer) {
+                remaining = new ArrayList<>(buffer.pending.values());
+                buffer.pending.clear();
+            }
+            remaining.forEach(pending -> {
+                notificationRouter.sendToUser(recipientId, DESTINATION, pending.toNotification());
+                pending.complete(null);
+            });
+        });
+    }
+
+    private String coalesceKey(Notification notification) {
+        if (notification.getType() == NotificationType.CHAT && notification.getConversationId() != null) {
+            return "chat:" + notification.getConversationId();
+        }
+        // Các loại khác không có khoá chung để gộp an toàn, mỗi thông báo được gửi riêng
+        return UUID.randomUUID().toString();
+    }
+
+    private static class RecipientBuffer {
+        final LinkedHashMap<String, PendingNotification> pending = new LinkedHashMap<>();
+        double tokens;
+        long lastRefill = System.nanoTime();
+        long lastActivity = System.nanoTime();
+        boolean flushScheduled;
+
+        RecipientBuffer(double capacity) {
+            this.tokens = capacity;
+        }
+
+        void refill(double capacity, double refillPerSecond) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / 1_000_000_000.0 * refillPerSecond);
+            lastRefill = now;
+        }
+    }
+
+    private static class PendingNotification {
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        Notification latest;
+        int count = 1;
+
+        PendingNotification(Notification notification) {
+            this.latest = notification;
+        }
+
+        // Chỉ gọi sau khi đã lấy khỏi buffer nên không còn thread nào thêm waiter
+        void complete(Throwable error) {
+            for (CompletableFuture<Void> waiter : waiters) {
+                if (error != null) {
+                    waiter.completeExceptionally(error);
+                } else {
+                    waiter.complete(null);
+                }
+            }
+        }
+
+        Notification toNotification() {
+            if (count == 1) {
+                return latest;
+            }
+            Map<String, Object> data = latest.getAdditionalData() != null
+                    ? new HashMap<>(latest.getAdditionalData()) : new HashMap<>();
+            data.put("count", count);
+            return Notification.builder()
+                    .recipientId(latest.getRecipientId())
+                    .title(latest.getTitle())
+                    .content(count + " tin nhắn mới")
+                    .type(latest.getType())
+                    .sentAt(latest.getSentAt())
+                    .conversationId(latest.getConversationId())
+                    .additionalData(data)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.enums.NotificationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Phân phối một lô thông báo từ Kafka song song theo người nhận.
+ * <p>
+ * Các thông báo được nhóm theo recipientId (giữ thứ tự trong lô), trạng thái online của cả lô được tra
+ * bằng một lần gọi Redis, rồi mỗi người nhận được xử lý bởi một task trên pool có giới hạn
+ * (notification.dispatch.threads, hàng đợi notification.dispatch.queue-capacity). Thông báo của cùng một
+ * người nhận luôn được gửi tuần tự nên không bị đảo thứ tự. Khi hàng đợi đầy, thread của listener tự chạy
+ * task (CallerRunsPolicy), tạo back-pressure lên consumer Kafka thay vì giữ không giới hạn trong bộ nhớ.
+ * <p>
+ * {@link #dispatch(List)} chỉ trả về khi mọi thông báo của lô đã được gửi qua WebSocket hoặc đã được lưu vào
+ * inbox (Redis), nên offset chỉ được commit khi không còn thông báo nào chỉ nằm trong bộ nhớ. Thông báo cho
+ * người nhận online được chờ qua cửa sổ gộp của {@link NotificationCoalescer}; nếu sau
+ * notification.dispatch.await-timeout-ms vẫn còn thông báo chờ (người nhận bị giới hạn tốc độ), phần còn lại
+ * được chuyển vào inbox trước khi trả về. Lỗi gửi hoặc lưu được ném ra để error handler thử lại lô hoặc chuyển DLT.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private final NotificationService notificationService;
+    private final ChatDeliveryService chatDeliveryService;
+    private final PresenceService presenceService;
+    private final NotificationCoalescer notificationCoalescer;
+
+    @Value("${notification.dispatch.threads:8}")
+    private int threads;
+
+    @Value("${notification.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatch.await-timeout-ms:2000}")
+    private long awaitTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-dispatch-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Gửi một lô thông báo và chờ tới khi mọi thông báo đã được gửi hoặc đã được lưu vào inbox.
+     */
+    public void dispatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Notification>> byRecipient = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            byRecipient.computeIfAbsent(notification.getRecipientId(), id -> new ArrayList<>()).add(notification);
+        }
+        byRecipient.remove(null);
+        Set<String> online = presenceService.filterOnline(byRecipient.keySet());
+
+        List<CompletableFuture<Void>> deliveries = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(byRecipient.size());
+        byRecipient.forEach((recipientId, recipientNotifications) -> futures.add(CompletableFuture.runAsync(
+                () -> deliver(recipientNotifications, online.contains(recipientId), deliveries), executor)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        awaitDeliveries(byRecipient.keySet(), deliveries);
+        log.info("Dispatched {} notifications to {} recipients ({} online)",
+                notifications.size(), byRecipient.size(), online.size());
+    }
+
+    /**
+     * Chờ các thông báo đang nằm trong cửa sổ gộp; hết thời gian chờ thì chuyển phần còn lại vào inbox.
+     */
+    private void awaitDeliveries(Collection<String> recipientIds, List<CompletableFuture<Void>> deliveries) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0]));
+        try {
+            all.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            notificationCoalescer.spill(recipientIds);
+            all.join();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to deliver notification batch", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering notification batch", e);
+        }
+    }
+
+    private void deliver(List<Notification> notifications, boolean online, List<CompletableFuture<Void>> deliveries) {
+        for (Notification notification : notifications) {
+            // Notification CHAT vẫn được gửi kể cả khi tin nhắn đã tới qua fast path (danh sách notification, badge);
+            // client bỏ bubble trùng theo additionalData.deliveryId
+            deliveries.add(notificationService.deliver(notification, online));
+            if (notification.getType() == NotificationType.CHAT) {
+                chatDeliveryService.onChatNotification(notification);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hộp thư thông báo cho người dùng offline.
+ * <p>
+ * Thông báo không giao được (người dùng không có session nào) được lưu vào Redis list inbox:{userId},
+ * mỗi phần tử có số thứ tự tăng dần (seq). Sau khi kết nối (lại), client subscribe /user/queue/inbox và các
+ * thông báo đang chờ được gửi lại theo thứ tự tới session đó (InboxReplayInterceptor); client cũng có thể yêu cầu
+ * gửi lại bằng /app/notifications/replay. Client xác nhận bằng cách gửi
+ * {"seq": n} tới /app/notifications/ack và mọi thông báo có seq &lt;= n bị xoá.
+ * Mỗi inbox giới hạn notification.inbox.max-size phần tử (bỏ các phần tử cũ nhất)
+ * và hết hạn sau notification.inbox.ttl-hours kể từ lần ghi cuối.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationInboxService {
+
+    public static final String INBOX_DESTINATION = "/queue/inbox";
+
+    private static final String INBOX_PREFIX = "inbox:";
+
+    // KEYS: inbox list, seq counter; ARGV: payload JSON (không có seq), max size, ttl seconds
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[2]) " +
+            "local entry = cjson.decode(ARGV[1]) " +
+            "entry['seq'] = seq " +
+            "redis.call('RPUSH', KEYS[1], cjson.encode(entry)) " +
+            "redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+            "return seq", Long.class);
+
+    // KEYS: inbox list; ARGV: seq đã xác nhận
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(
+            "local removed = 0 " +
+            "while true do " +
+            "  local head = redis.call('LINDEX', KEYS[1], 0) " +
+            "  if not head or cjson.decode(head)['seq'] > tonumber(ARGV[1]) then break end " +
+            "  redis.call('LPOP', KEYS[1]) " +
+            "  removed = removed + 1 " +
+            "end " +
+            "return removed", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notification.inbox.max-size:100}")
+    private int maxSize;
+
+    @Value("${notification.inbox.ttl-hours:72}")
+    private long ttlHours;
+
+    private ObjectMapper inboxMapper;
+
+    @PostConstruct
+    public void init() {
+        // Ngày giờ dạng ISO, giống payload gửi trực tiếp qua STOMP
+        inboxMapper = objectMapper.copy().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Lưu một thông báo chưa giao được vào inbox của người dùng.
+     * Lỗi ghi Redis được ném lại để listener Kafka thất bại: lô được thử lại hoặc chuyển sang DLT
+     * thay vì offset được commit khi thông báo chưa được lưu.
+     *
+     * @return Số thứ tự của thông báo trong inbox.
+     * @throws IllegalStateException nếu không lưu được thông báo.
+     */
+    public Long store(String userId, Object payload) {
+        try {
+            ObjectNode entry = inboxMapper.createObjectNode();
+            entry.set("payload", inboxMapper.valueToTree(payload));
+            entry.put("storedAt", LocalDateTime.now().toString());
+            Long seq = stringRedisTemplate.execute(APPEND_SCRIPT,
+                    List.of(INBOX_PREFIX + userId, INBOX_PREFIX + userId + ":seq"),
+                    entry.toString(), String.valueOf(maxSize), String.valueOf(ttlHours * 3600));
+            log.info("Stored notification #{} in inbox of offline user {}", seq, userId);
+            return seq;
+        } catch (Exception e) {
+            log.error("Failed to store notification for user {}", userId, e);
+            throw new IllegalStateException("Failed to store notification in inbox of user " + userId, e);
+        }
+    }
+
+    /**
+     * Gửi lại các thông báo đang chờ, theo thứ tự, tới một session của người dùng trên node này.
+     *
+     * @param sessionId Session nhận; null thì gửi tới mọi session của người dùng.
+     */
+    public void replay(String userId, String sessionId) {
+        List<String> entries = stringRedisTemplate.opsForList().range(INBOX_PREFIX + userId, 0, -1);
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        List<Object> pending = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            try {
+                pending.add(inboxMapper.readTree(entry));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable inbox entry of user {}", userId);
+            }
+        }
+        if (sessionId != null) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+            messagingTemplate.convertAndSendToUser(userId, INBOX_DESTINATION, pending, headers.getMessageHeaders());
+        } else {
+            messagingTemplate.convertAndSendToUser(userId, INBOX_DESTINATION, pending);
+        }
+        log.info("Replayed {} pending notifications to user {} (session {})", pending.size(), userId, sessionId);
+    }
+
+    /**
+     * Xoá các thông báo mà client đã xác nhận (seq &lt;= ackedSeq).
+     */
+    public long acknowledge(String userId, long ackedSeq) {
+        Long removed = stringRedisTemplate.execute(ACK_SCRIPT, List.of(INBOX_PREFIX + userId), String.valueOf(ackedSeq));
+        return removed != null ? removed : 0;
+    }
+}
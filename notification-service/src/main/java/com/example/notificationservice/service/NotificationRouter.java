@@ -0,0 +1,129 @@
+package com.example.notificationservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Định tuyến tin nhắn STOMP tới node đang giữ socket của người nhận.
+ * <p>
+ * Simple broker chỉ gửi được tới socket trên cùng JVM. Ở chế độ redis, mỗi node subscribe một channel
+ * Redis pub/sub riêng (notification:node:{nodeId}); tin nhắn cho user được gửi trực tiếp nếu user kết nối
+ * tới node này, hoặc publish tới channel của đúng các node đang giữ session của user (tra từ PresenceService).
+ * Broadcast được publish lên channel chung mà mọi node cùng subscribe.
+ * Ở chế độ local (một node), mọi tin nhắn được gửi thẳng qua SimpMessagingTemplate như trước.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationRouter implements MessageListener {
+
+    private static final String NODE_CHANNEL_PREFIX = "notification:node:";
+    private static final String BROADCAST_CHANNEL = "notification:broadcast";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceService presenceService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notification.routing.mode:redis}")
+    private String mode;
+
+    // Ghi ngày giờ dạng ISO giống converter của STOMP, để payload qua node khác giống hệt payload gửi trực tiếp
+    private ObjectMapper routingMapper;
+
+    @PostConstruct
+    public void init() {
+        routingMapper = objectMapper.copy().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (isRedisMode()) {
+            listenerContainer.addMessageListener(this, Set.of(
+                    new ChannelTopic(NODE_CHANNEL_PREFIX + presenceService.getNodeId()),
+                    new ChannelTopic(BROADCAST_CHANNEL)));
+            log.info("Notification routing via Redis pub/sub on node {}", presenceService.getNodeId());
+        }
+    }
+
+    /**
+     * Gửi payload tới một user destination (ví dụ /queue/notifications) của người dùng, trên mọi node giữ session của họ.
+     */
+    public void sendToUser(String userId, String destination, Object payload) {
+        if (!isRedisMode()) {
+            messagingTemplate.convertAndSendToUser(userId, destination, payload);
+            return;
+        }
+
+        String envelope = null;
+        for (String node : presenceService.getUserNodes(userId)) {
+            if (node.equals(presenceService.getNodeId())) {
+                messagingTemplate.convertAndSendToUser(userId, destination, payload);
+            } else {
+                if (envelope == null) {
+                    envelope = toEnvelope(userId, destination, payload);
+                }
+                stringRedisTemplate.convertAndSend(NODE_CHANNEL_PREFIX + node, envelope);
+            }
+        }
+    }
+
+    /**
+     * Gửi payload tới một destination chung (ví dụ /topic/public) trên tất cả các node.
+     */
+    public void broadcast(String destination, Object payload) {
+        if (!isRedisMode()) {
+            messagingTemplate.convertAndSend(destination, payload);
+            return;
+        }
+        stringRedisTemplate.convertAndSend(BROADCAST_CHANNEL, toEnvelope(null, destination, payload));
+    }
+
+    /**
+     * Nhận tin nhắn được node khác chuyển tới và gửi cho socket trên node này.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode envelope = routingMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8));
+            String destination = envelope.get("destination").asText();
+            JsonNode payload = envelope.get("payload");
+            // Payload dạng chuỗi được gửi nguyên văn như khi gửi trực tiếp
+            Object body = payload.isTextual() ? payload.asText() : payload;
+
+            JsonNode userId = envelope.get("userId");
+            if (userId == null || userId.isNull()) {
+                messagingTemplate.convertAndSend(destination, body);
+            } else {
+                messagingTemplate.convertAndSendToUser(userId.asText(), destination, body);
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver routed notification", e);
+        }
+    }
+
+    private String toEnvelope(String userId, String destination, Object payload) {
+        ObjectNode envelope = routingMapper.createObjectNode();
+        envelope.put("userId", userId);
+        envelope.put("destination", destination);
+        envelope.set("payload", routingMapper.valueToTree(payload));
+        return envelope.toString();
+    }
+
+    private boolean isRedisMode() {
+        return "redis".equalsIgnoreCase(mode);
+    }
+}
@@ -1,28 +1,33 @@
 package com.example.notificationservice.service;
 
+import com.example.notificationservice.model.BroadcastRequest;
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.model.enums.BroadcastTarget;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+
 
 @Service
 @Slf4j
 public class NotificationService {
 
-    private static final String USER_SESSION_PREFIX = "user:session:";
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private NotificationRouter notificationRouter;
+
+    @Autowired
+    private NotificationInboxService notificationInboxService;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private NotificationCoalescer notificationCoalescer;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private BroadcastService broadcastService;
 
     /**
      * Gửi thông báo văn bản đơn giản đến người dùng cụ thể
@@ -31,14 +36,13 @@ public class NotificationService {
         log.info("Sending text notification to user: {}", userId);
 
         // Kiểm tra xem người dùng có online không
-        String sessionId = (String) redisTemplate.opsForValue().get(USER_SESSION_PREFIX + userId);
-
-        if (sessionId != null) {
-            // Sử dụng STOMP để gửi tin nhắn - convertAndSendToUser sẽ tự tìm người dùng dựa trên Principal
-            messagingTemplate.convertAndSendToUser(userId, "/queue/notifications", message);
+        if (presenceService.isOnline(userId)) {
+            // Gửi qua node đang giữ session của người dùng
+            notificationRouter.sendToUser(userId, "/queue/notifications", message);
             log.info("Notification sent to user: {}", userId);
         } else {
-            log.warn("User {} is not connected, cannot send notification", userId);
+            // Lưu vào inbox, gửi lại khi người dùng kết nối lại
+            notificationInboxService.store(userId, message);
         }
     }
 
@@ -49,57 +53,34 @@ public class NotificationService {
         String userId = notification.getRecipientId();
         log.info("Sending structured notification to user: {}", userId);
 
-        // Kiểm tra xem người dùng có online không
-        String sessionId = (String) redisTemplate.opsForValue().get(USER_SESSION_PREFIX + userId);
-
-        if (sessionId != null) {
-            // Sử dụng STOMP để gửi tin nhắn
-            messagingTemplate.convertAndSendToUser(userId, "/queue/notifications", notification);
-            log.info("Notification sent to user: {}", userId);
-        } else {
-            log.warn("User {} is not connected, cannot send notification", userId);
-        }
+        deliver(notification, presenceService.isOnline(userId));
     }
 
     /**
-     * Gửi thông báo đến tất cả người dùng
+     * Gửi thông báo khi trạng thái online của người nhận đã được tra trước (ví dụ tra theo lô)
+     *
+     * @return Future hoàn thành khi thông báo đã được gửi hoặc đã được lưu vào inbox
      */
-    public void sendNotificationToAll(String message) {
-        log.info("Broadcasting notification to all users");
-        messagingTemplate.convertAndSend("/topic/public", message);
+    public CompletableFuture<Void> deliver(Notification notification, boolean online) {
+        String userId = notification.getRecipientId();
+        if (online) {
+            // Gộp và giới hạn tốc độ theo người nhận trước khi gửi qua node đang giữ session
+            log.info("Notification queued for user: {}", userId);
+            return notificationCoalescer.submit(notification);
+        }
+        // Lưu vào inbox, gửi lại khi người dùng kết nối lại
+        notificationInboxService.store(userId, notification);
+        return CompletableFuture.completedFuture(null);
     }
 
     /**
-     * Lấy danh sách tất cả người dùng đang online
+     * Gửi thông báo đến tất cả người dùng đang online
      */
-    public List<String> getAllOnlineUsers() {
-        log.info("=== Starting getAllOnlineUsers ===");
-        
-        // Get all keys matching the pattern
-        Set<String> keys = redisTemplate.keys(USER_SESSION_PREFIX + "*");
-        log.info("Found Redis keys: {}", keys);
-
-        if (keys == null || keys.isEmpty()) {
-            log.info("No online users found in Redis");
-            return Collections.emptyList();
-        }
-
-        // Log each key's value
-        keys.forEach(key -> {
-            Object value = redisTemplate.opsForValue().get(key);
-            log.info("Redis key: {}, value: {}", key, value);
-        });
-
-        List<String> onlineUsers = keys.stream()
-            .map(key -> {
-                String userId = key.substring(USER_SESSION_PREFIX.length());
-                log.info("Processing key: {}, extracted userId: {}", key, userId);
-                return userId;
-            })
-            .collect(Collectors.toList());
-
-        log.info("Final list of online users: {}", onlineUsers);
-        log.info("=== Finished getAllOnlineUsers ===");
-        return onlineUsers;
+    public String sendNotificationToAll(String message) {
+        log.info("Broadcasting notification to all users");
+        return broadcastService.broadcast(BroadcastRequest.builder()
+                .target(BroadcastTarget.ALL)
+                .content(message)
+                .build());
     }
-}
\ No newline at end of file
+}
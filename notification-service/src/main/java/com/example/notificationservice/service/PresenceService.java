@@ -0,0 +1,424 @@
+package com.example.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.example.notificationservice.event.PresenceEventProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry người dùng online trên Redis, hỗ trợ nhiều session mỗi user và nhiều node notification-service.
+ * <ul>
+ *     <li>presence:user:{userId} (HASH): sessionId → nodeId. Số phần tử là số session đang mở của user.</li>
+ *     <li>presence:sessions (HASH): sessionId → userId, để xử lý disconnect trong O(1).</li>
+ *     <li>presence:node:{nodeId}:sessions (HASH): sessionId → userId của từng node, để dọn khi node chết.</li>
+ *     <li>presence:node:{nodeId} (STRING có TTL): heartbeat của node; presence:nodes (SET): các node đã biết.</li>
+ *     <li>presence:online (ZSET): userId → thời điểm heartbeat gần nhất, dùng để liệt kê user online.</li>
+ *     <li>presence:versions (HASH): userId → version tăng dần mỗi lần user chuyển online/offline.</li>
+ * </ul>
+ * Đăng ký và huỷ đăng ký session chạy bằng Lua script nên user chỉ bị coi là offline khi session cuối cùng
+ * của họ (trên mọi node) đóng lại. Node không heartbeat quá presence.ttl-ms bị coi là đã chết và các session
+ * của nó được dọn bởi các node còn sống. Kết quả isOnline được cache cục bộ trong thời gian ngắn (near-cache).
+ * Mỗi lần user chuyển online/offline, một PresenceEvent kèm version được phát lên presence-state-topic.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+
+    private static final String ONLINE_KEY = "presence:online";
+    private static final String SESSIONS_KEY = "presence:sessions";
+    private static final String NODES_KEY = "presence:nodes";
+    private static final String VERSIONS_KEY = "presence:versions";
+    private static final String USER_PREFIX = "presence:user:";
+    private static final String NODE_PREFIX = "presence:node:";
+
+    // KEYS: user hash, sessions hash, node sessions hash, online zset, versions hash; ARGV: sessionId, userId, nodeId, now
+    // Trả về {số session của user, version của trạng thái presence}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REGISTER_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) " +
+            "redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]) " +
+            "redis.call('ZADD', KEYS[4], ARGV[4], ARGV[2]) " +
+            "local sessions = redis.call('HLEN', KEYS[1]) " +
+            "local version = 0 " +
+            "if sessions == 1 then version = redis.call('HINCRBY', KEYS[5], ARGV[2], 1) end " +
+            "return {sessions, version}", List.class);
+
+    // KEYS: user hash, sessions hash, node sessions hash, online zset, versions hash; ARGV: sessionId, userId
+    // Trả về {số session còn lại, version của trạng thái presence}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> UNREGISTER_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "local remaining = redis.call('HLEN', KEYS[1]) " +
+            "local version = 0 " +
+            "if remaining == 0 and removed == 1 then " +
+            "  redis.call('ZREM', KEYS[4], ARGV[2]) " +
+            "  version = redis.call('HINCRBY', KEYS[5], ARGV[2], 1) " +
+            "end " +
+            "return {remaining, version}", List.class);
+
+    // KEYS: online zset, versions hash; ARGV: userId, cutoff. Gỡ user hết hạn heartbeat, trả về version mới hoặc 0
+    private static final RedisScript<Long> EXPIRE_SCRIPT = new DefaultRedisScript<>(
+            "local lastSeen = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if not lastSeen or tonumber(lastSeen) > tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "return redis.call('HINCRBY', KEYS[2], ARGV[1], 1)", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PresenceEventProducer presenceEventProducer;
+
+    // Các session đang kết nối tới node này: sessionId → userId
+    private final Map<String, String> localSessions = new ConcurrentHashMap<>();
+
+    // Số session đang kết nối tới node này của từng user
+    private final Map<String, Integer> localUsers = new ConcurrentHashMap<>();
+
+    // Role của các user đang kết nối tới node này, dùng để broadcast theo role
+    private final Map<String, Set<String>> localRoles = new ConcurrentHashMap<>();
+
+    // Near-cache cho isOnline: userId → (online, hết hạn lúc)
+    private final Map<String, CachedPresence> nearCache = new ConcurrentHashMap<>();
+
+    @Value("${presence.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${presence.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${presence.near-cache-ttl-ms:2000}")
+    private long nearCacheTtlMs;
+
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        // Luôn thêm hậu tố ngẫu nhiên: node khởi động lại không được nhận lại session cũ của chính nó
+        String base = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : hostname();
+        nodeId = base + "-" + UUID.randomUUID().toString().substring(0, 8);
+        heartbeatNode();
+        log.info("Presence registry started on node {}", nodeId);
+    }
+
+    /**
+     * ID của node notification-service hiện tại.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Đăng ký một session WebSocket vừa kết nối.
+     */
+    public void register(String userId, String sessionId) {
+        register(userId, sessionId, Collections.emptySet());
+    }
+
+    /**
+     * Đăng ký một session WebSocket vừa kết nối, kèm các role của người dùng (lấy từ JWT).
+     */
+    public void register(String userId, String sessionId, Set<String> roles) {
+        if (!roles.isEmpty()) {
+            localRoles.put(userId, Set.copyOf(roles));
+        }
+        if (localSessions.put(sessionId, userId) == null) {
+            localUsers.merge(userId, 1, Integer::sum);
+        }
+        List<?> result = stringRedisTemplate.execute(REGISTER_SCRIPT,
+                List.of(USER_PREFIX + userId, SESSIONS_KEY, nodeSessionsKey(nodeId), ONLINE_KEY, VERSIONS_KEY),
+                sessionId, userId, nodeId, String.valueOf(System.currentTimeMillis()));
+        nearCache.remove(userId);
+        long sessions = resultAt(result, 0);
+        // Session đầu tiên của user trên mọi node: user chuyển sang online
+        publishTransition(userId, true, resultAt(result, 1));
+        log.info("User online: userId={}, sessionId={}, node={}, sessions={}", userId, sessionId, nodeId, sessions);
+    }
+
+    /**
+     * Huỷ đăng ký một session đã ngắt kết nối. User chỉ offline khi không còn session nào trên mọi node.
+     *
+     * @return userId của session, hoặc null nếu session không được đăng ký.
+     */
+    public String unregister(String sessionId) {
+        String userId = localSessions.remove(sessionId);
+        if (userId != null) {
+            localUsers.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+            if (!localUsers.containsKey(userId)) {
+                localRoles.remove(userId);
+            }
+        } else {
+            Object stored = stringRedisTemplate.opsForHash().get(SESSIONS_KEY, sessionId);
+            userId = stored != null ? stored.toString() : null;
+        }
+        if (userId == null) {
+            return null;
+        }
+
+        Object owner = stringRedisTemplate.opsForHash().get(USER_PREFIX + userId, sessionId);
+        long remaining = removeSession(userId, sessionId, owner != null ? owner.toString() : nodeId);
+        nearCache.remove(userId);
+        log.info("Session closed: userId={}, sessionId={}, remaining sessions={}", userId, sessionId, remaining);
+        return userId;
+    }
+
+    /**
+     * Kiểm tra người dùng có online không (trên bất kỳ node nào).
+     */
+    public boolean isOnline(String userId) {
+        if (localUsers.containsKey(userId)) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        CachedPresence cached = nearCache.get(userId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.online();
+        }
+        Double lastSeen = stringRedisTemplate.opsForZSet().score(ONLINE_KEY, userId);
+        boolean online = lastSeen != null && lastSeen >= now - ttlMs;
+        nearCache.put(userId, new CachedPresence(online, now + nearCacheTtlMs));
+        return online;
+    }
+
+    /**
+     * Lọc ra những người dùng đang online trong một tập người dùng, với một lần gọi Redis (ZMSCORE)
+     * cho những người chưa có trong near-cache.
+     */
+    public Set<String> filterOnline(Collection<String> userIds) {
+        long now = System.currentTimeMillis();
+        Set<String> online = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String userId : userIds) {
+            CachedPresence cached = nearCache.get(userId);
+            if (localUsers.containsKey(userId)) {
+                online.add(userId);
+            } else if (cached != null && cached.expiresAt() > now) {
+                if (cached.online()) {
+                    online.add(userId);
+                }
+            } else {
+                unknown.add(userId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return online;
+        }
+
+        List<Double> scores = stringRedisTemplate.opsForZSet().score(ONLINE_KEY, unknown.toArray());
+        for (int i = 0; i < unknown.size(); i++) {
+            Double lastSeen = scores != null ? scores.get(i) : null;
+            boolean isOnline = lastSeen != null && lastSeen >= now - ttlMs;
+            nearCache.put(unknown.get(i), new CachedPresence(isOnline, now + nearCacheTtlMs));
+            if (isOnline) {
+                online.add(unknown.get(i));
+            }
+        }
+        return online;
+    }
+
+    /**
+     * Kiểm tra người dùng có session nào trên node hiện tại không.
+     */
+    public boolean isConnectedLocally(String userId) {
+        return localUsers.containsKey(userId);
+    }
+
+    /**
+     * Các người dùng đang có session trên node hiện tại.
+     */
+    public Set<String> getLocalUsers() {
+        return new HashSet<>(localUsers.keySet());
+    }
+
+    /**
+     * Role của một người dùng đang kết nối tới node hiện tại.
+     */
+    public Set<String> getLocalUserRoles(String userId) {
+        return localRoles.getOrDefault(userId, Collections.emptySet());
+    }
+
+    /**
+     * Số node notification-service còn heartbeat. Node đã chết nhưng chưa được dọn khỏi presence:nodes
+     * không được tính.
+     */
+    public long countLiveNodes() {
+        Set<String> nodes = stringRedisTemplate.opsForSet().members(NODES_KEY);
+        if (nodes == null || nodes.isEmpty()) {
+            return 1;
+        }
+        List<String> heartbeats = stringRedisTemplate.opsForValue()
+                .multiGet(nodes.stream().map(node -> NODE_PREFIX + node).toList());
+        long live = heartbeats != null ? heartbeats.stream().filter(Objects::nonNull).count() : 0;
+        return Math.max(live, 1);
+    }
+
+    /**
+     * Lấy các node đang giữ session của người dùng, để định tuyến tin nhắn tới đúng node.
+     */
+    public Set<String> getUserNodes(String userId) {
+        List<Object> nodes = stringRedisTemplate.opsForHash().values(USER_PREFIX + userId);
+        return nodes.stream().map(Object::toString).collect(Collectors.toSet());
+    }
+
+    /**
+     * Lấy danh sách người dùng đang online.
+     */
+    public List<String> getOnlineUsers() {
+        Set<String> users = stringRedisTemplate.opsForZSet()
+                .rangeByScore(ONLINE_KEY, System.currentTimeMillis() - ttlMs, Double.POSITIVE_INFINITY);
+        return users != null ? new ArrayList<>(users) : Collections.emptyList();
+    }
+
+    /**
+     * Đếm số người dùng đang online.
+     */
+    public long countOnlineUsers() {
+        Long count = stringRedisTemplate.opsForZSet()
+                .count(ONLINE_KEY, System.currentTimeMillis() - ttlMs, Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Heartbeat của node và của các user đang kết nối tới node này, dọn các user hết hạn và session của node đã chết.
+     */
+    @Scheduled(fixedDelayString = "${presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        heartbeatNode();
+
+        Set<ZSetOperations.TypedTuple<String>> heartbeats = localUsers.keySet().stream()
+                .map(userId -> ZSetOperations.TypedTuple.of(userId, (double) now))
+                .collect(Collectors.toSet());
+        if (!heartbeats.isEmpty()) {
+            stringRedisTemplate.opsForZSet().add(ONLINE_KEY, heartbeats);
+        }
+        Set<String> expired = stringRedisTemplate.opsForZSet().rangeByScore(ONLINE_KEY, 0, now - ttlMs);
+        if (expired != null && !expired.isEmpty()) {
+            for (String userId : expired) {
+                Long version = stringRedisTemplate.execute(EXPIRE_SCRIPT, List.of(ONLINE_KEY, VERSIONS_KEY),
+                        userId, String.valueOf(now - ttlMs));
+                publishTransition(userId, false, version != null ? version : 0);
+            }
+            log.info("Removed {} expired users from presence registry", expired.size());
+        }
+
+        cleanupDeadNodes();
+        nearCache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    /**
+     * Gỡ node khỏi registry khi tắt bình thường, để các node khác không phải chờ TTL.
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            for (String sessionId : new HashSet<>(localSessions.keySet())) {
+                unregister(sessionId);
+            }
+            stringRedisTemplate.delete(List.of(NODE_PREFIX + nodeId, nodeSessionsKey(nodeId)));
+            stringRedisTemplate.opsForSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to unregister node {} from presence registry: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void heartbeatNode() {
+        stringRedisTemplate.opsForValue().set(NODE_PREFIX + nodeId, String.valueOf(System.currentTimeMillis()), Duration.ofMillis(ttlMs));
+        stringRedisTemplate.opsForSet().add(NODES_KEY, nodeId);
+    }
+
+    /**
+     * Dọn session của các node không còn heartbeat. Chi phí tỉ lệ với số node và số session của node đã chết,
+     * không phụ thuộc tổng số user online.
+     */
+    private void cleanupDeadNodes() {
+        Set<String> nodes = stringRedisTemplate.opsForSet().members(NODES_KEY);
+        if (nodes == null) {
+            return;
+        }
+        for (String node : nodes) {
+            if (node.equals(nodeId) || Boolean.TRUE.equals(stringRedisTemplate.hasKey(NODE_PREFIX + node))) {
+                continue;
+            }
+            // Chỉ một node thực hiện dọn dẹp cho mỗi node chết
+            Boolean claimed = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(NODE_PREFIX + node + ":cleanup", nodeId, Duration.ofMillis(ttlMs));
+            if (!Boolean.TRUE.equals(claimed)) {
+                continue;
+            }
+            Map<Object, Object> sessions = stringRedisTemplate.opsForHash().entries(nodeSessionsKey(node));
+            sessions.forEach((sessionId, userId) -> {
+                removeSession(userId.toString(), sessionId.toString(), node);
+                nearCache.remove(userId.toString());
+            });
+            stringRedisTemplate.delete(nodeSessionsKey(node));
+            stringRedisTemplate.opsForSet().remove(NODES_KEY, node);
+            log.info("Cleaned up {} sessions of dead node {}", sessions.size(), node);
+        }
+    }
+
+    private long removeSession(String userId, String sessionId, String owningNode) {
+        List<?> result = stringRedisTemplate.execute(UNREGISTER_SCRIPT,
+                List.of(USER_PREFIX + userId, SESSIONS_KEY, nodeSessionsKey(owningNode), ONLINE_KEY, VERSIONS_KEY),
+                sessionId, userId);
+        // Session cuối cùng của user đã đóng: user chuyển sang offline
+        publishTransition(userId, false, resultAt(result, 1));
+        return resultAt(result, 0);
+    }
+
+    /**
+     * Phát sự kiện presence khi script báo có chuyển trạng thái (version > 0).
+     */
+    private void publishTransition(String userId, boolean online, long version) {
+        if (version <= 0) {
+            return;
+        }
+        try {
+            presenceEventProducer.sendPresenceEvent(userId, online, version);
+        } catch (Exception e) {
+            log.warn("Failed to publish presence event for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static long resultAt(List<?> result, int index) {
+        return result != null && result.size() > index ? ((Number) result.get(index)).longValue() : 0;
+    }
+
+    private static String nodeSessionsKey(String node) {
+        return NODE_PREFIX + node + ":sessions";
+    }
+
+    private static String hostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+
+    private record CachedPresence(boolean online, long expiresAt) {
+    }
+}
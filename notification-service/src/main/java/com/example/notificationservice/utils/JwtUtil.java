@@ -8,8 +8,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Component
@@ -61,6 +65,19 @@ public class JwtUtil {
 		}
 	}
 
+	// 📌 Trích xuất các role từ token (claim "roles")
+	public Set<String> extractRoles(String token) {
+		try {
+			Object roles = extractAllClaims(token).get("roles");
+			if (roles instanceof Collection<?> collection) {
+				return collection.stream().map(Object::toString).collect(Collectors.toSet());
+			}
+		} catch (Exception e) {
+			// Token không hợp lệ: coi như không có role
+		}
+		return Collections.emptySet();
+	}
+
 	// 📌 Trích xuất JWT từ chuỗi "Bearer <token>"
 	public String extractTokenFromHeader(String authHeader) {
 		if (authHeader != null && authHeader.startsWith("Bearer ")) {